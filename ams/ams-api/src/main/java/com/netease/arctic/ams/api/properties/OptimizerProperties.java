@@ -44,4 +44,8 @@ public class OptimizerProperties {
   public static final String OPTIMIZER_JOB_ID = "jobId";
   public static final String OPTIMIZER_JOB_PARALLELISM = "parallelism";
 
+  //optimize task properties
+  public static final String OPTIMIZE_TASK_ALL_FILE_COUNT = "all-file-cnt";
+  public static final String OPTIMIZE_TASK_SPLIT_INDEX = "split-index";
+
 }
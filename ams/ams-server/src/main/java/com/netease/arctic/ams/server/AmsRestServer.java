@@ -130,6 +130,7 @@ public class AmsRestServer {
         get("/optimize/optimizerGroups/{optimizerGroup}/optimizers", OptimizerController::getOptimizers);
         get("/optimize/optimizerGroups", OptimizerController::getOptimizerGroups);
         get("/optimize/optimizerGroups/{optimizerGroup}/info", OptimizerController::getOptimizerGroupInfo);
+        get("/optimize/optimizerGroups/{optimizerGroup}/ranking", OptimizerController::getOptimizerGroupRanking);
         delete("/optimize/optimizerGroups/{optimizerGroup}/optimizers/{jobId}", OptimizerController::releaseOptimizer);
         post("/optimize/optimizerGroups/{optimizerGroup}/optimizers", OptimizerController::scaleOutOptimizer);
 
@@ -170,6 +171,7 @@ public class AmsRestServer {
         get("/optimize/optimizerGroups/{optimizerGroup}/optimizers", OptimizerController::getOptimizers);
         get("/optimize/optimizerGroups", OptimizerController::getOptimizerGroups);
         get("/optimize/optimizerGroups/{optimizerGroup}/info", OptimizerController::getOptimizerGroupInfo);
+        get("/optimize/optimizerGroups/{optimizerGroup}/ranking", OptimizerController::getOptimizerGroupRanking);
         delete("/optimize/optimizerGroups/{optimizerGroup}/optimizers/{jobId}", OptimizerController::releaseOptimizer);
         post("/optimize/optimizerGroups/{optimizerGroup}/optimizers", OptimizerController::scaleOutOptimizer);
 
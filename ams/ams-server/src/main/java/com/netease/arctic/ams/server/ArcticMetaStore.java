@@ -314,6 +314,36 @@ public class ArcticMetaStore {
     config.setInteger(
         ArcticMetaStoreConf.SYNC_FILE_INFO_CACHE_THREAD_POOL_SIZE,
         systemConfig.getInteger(ArcticMetaStoreConf.SYNC_FILE_INFO_CACHE_THREAD_POOL_SIZE.key()));
+    if (systemConfig.containsKey(ArcticMetaStoreConf.OPTIMIZE_QUEUE_LOW_WATER_MARK.key())) {
+      config.setInteger(
+          ArcticMetaStoreConf.OPTIMIZE_QUEUE_LOW_WATER_MARK,
+          systemConfig.getInteger(ArcticMetaStoreConf.OPTIMIZE_QUEUE_LOW_WATER_MARK.key()));
+    }
+    if (systemConfig.containsKey(ArcticMetaStoreConf.OPTIMIZE_QUEUE_PLAN_INTERVAL.key())) {
+      config.setLong(
+          ArcticMetaStoreConf.OPTIMIZE_QUEUE_PLAN_INTERVAL,
+          systemConfig.getLong(ArcticMetaStoreConf.OPTIMIZE_QUEUE_PLAN_INTERVAL.key()));
+    }
+    if (systemConfig.containsKey(ArcticMetaStoreConf.FILE_CACHE_COMMIT_BATCH_SIZE.key())) {
+      config.setInteger(
+          ArcticMetaStoreConf.FILE_CACHE_COMMIT_BATCH_SIZE,
+          systemConfig.getInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_BATCH_SIZE.key()));
+    }
+    if (systemConfig.containsKey(ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC.key())) {
+      config.setBoolean(
+          ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC,
+          systemConfig.getBoolean(ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC.key()));
+    }
+    if (systemConfig.containsKey(ArcticMetaStoreConf.FILE_CACHE_COMMIT_QUEUE_SIZE.key())) {
+      config.setInteger(
+          ArcticMetaStoreConf.FILE_CACHE_COMMIT_QUEUE_SIZE,
+          systemConfig.getInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_QUEUE_SIZE.key()));
+    }
+    if (systemConfig.containsKey(ArcticMetaStoreConf.FILE_CACHE_MEMORY_INDEX_ENABLED.key())) {
+      config.setBoolean(
+          ArcticMetaStoreConf.FILE_CACHE_MEMORY_INDEX_ENABLED,
+          systemConfig.getBoolean(ArcticMetaStoreConf.FILE_CACHE_MEMORY_INDEX_ENABLED.key()));
+    }
 
     config.setString(
         ArcticMetaStoreConf.DB_TYPE,
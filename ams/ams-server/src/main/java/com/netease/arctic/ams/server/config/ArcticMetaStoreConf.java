@@ -68,6 +68,16 @@ public class ArcticMetaStoreConf {
           .defaultValue(10)
           .withDescription("Number of threads in the thread pool.  " +
               "These will be used to execute all optimize commit processes.");
+  public static final ConfigOption<Integer> OPTIMIZE_QUEUE_LOW_WATER_MARK =
+      ConfigOptions.key("arctic.ams.optimize.queue.low-water-mark")
+          .intType()
+          .defaultValue(10)
+          .withDescription("Number of ready tasks each optimize queue plans ahead for its optimizers.");
+  public static final ConfigOption<Long> OPTIMIZE_QUEUE_PLAN_INTERVAL =
+      ConfigOptions.key("arctic.ams.optimize.queue.plan.interval")
+          .longType()
+          .defaultValue(5000L)
+          .withDescription("Interval to plan an optimize queue again when no task could be planned.");
   public static final ConfigOption<Integer> EXPIRE_THREAD_POOL_SIZE =
       ConfigOptions.key("arctic.ams.expire.thread.pool-size")
           .intType()
@@ -140,6 +150,30 @@ public class ArcticMetaStoreConf {
           .longType()
           .defaultValue(5 * 60 * 1000L)
           .withDescription("table file info will be sync-cache when there is long time no cache data.");
+  public static final ConfigOption<Integer> FILE_CACHE_COMMIT_BATCH_SIZE =
+      ConfigOptions.key("arctic.ams.file.cache.commit.batch-size")
+          .intType()
+          .defaultValue(500)
+          .withDescription("Number of file cache rows sent to database in one JDBC batch.");
+  public static final ConfigOption<Boolean> FILE_CACHE_COMMIT_ASYNC =
+      ConfigOptions.key("arctic.ams.file.cache.commit.async.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription("Whether to write file cache of table commits in background, disabled by default so " +
+              "table commits wait for the file cache written. If enabled, table commits return without waiting, " +
+              "so the file cache read right after a commit may not contain it yet.");
+  public static final ConfigOption<Integer> FILE_CACHE_COMMIT_QUEUE_SIZE =
+      ConfigOptions.key("arctic.ams.file.cache.commit.queue-size")
+          .intType()
+          .defaultValue(10000)
+          .withDescription("Max table commits waiting to be written into file cache, " +
+              "table commits are blocked when the queue is full.");
+  public static final ConfigOption<Boolean> FILE_CACHE_MEMORY_INDEX_ENABLED =
+      ConfigOptions.key("arctic.ams.file.cache.memory-index.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription("Whether to serve file cache queries of optimizing, expiring and dashboard from an " +
+              "in-memory index of the file cache, tables are loaded from database when first queried.");
   public static final ConfigOption<String> SYSTEM_EXTENSION_PROPERTIES =
       ConfigOptions.key("system.extension.properties")
           .stringType()
@@ -27,6 +27,7 @@ import com.netease.arctic.ams.server.model.OptimizerGroupInfo;
 import com.netease.arctic.ams.server.model.OptimizerResourceInfo;
 import com.netease.arctic.ams.server.model.TableMetadata;
 import com.netease.arctic.ams.server.model.TableOptimizeInfo;
+import com.netease.arctic.ams.server.model.TableQuotaInfo;
 import com.netease.arctic.ams.server.model.TableTaskStatus;
 import com.netease.arctic.ams.server.optimize.IOptimizeService;
 import com.netease.arctic.ams.server.optimize.TableOptimizeItem;
@@ -167,6 +168,21 @@ public class OptimizerController extends RestBaseController {
     }
   }
 
+  /**
+   * get tables of optimizerGroup in the order they are planned, with quota usage and optimize pressure.
+   * @pathParam optimizerGroup
+   * @return List of {@link TableQuotaInfo}
+   */
+  public static void getOptimizerGroupRanking(Context ctx) {
+    String optimizerGroup = ctx.pathParam("optimizerGroup");
+    try {
+      ctx.json(OkResponse.of(ServiceContainer.getOptimizeQueueService().getTableRanking(optimizerGroup)));
+    } catch (Exception e) {
+      LOG.error("Failed to get optimizerGroup ranking", e);
+      ctx.json(new ErrorResponse(HttpCode.BAD_REQUEST, "Failed to get optimizerGroup ranking", ""));
+    }
+  }
+
   /**
    * get optimizer info: occupationCore, occupationMemory
    * @pathParam optimizerGroup
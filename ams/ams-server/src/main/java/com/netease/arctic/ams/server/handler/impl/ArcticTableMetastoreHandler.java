@@ -178,6 +178,11 @@ public class ArcticTableMetastoreHandler implements AmsClient, ArcticTableMetast
     } catch (Exception e) {
       LOG.warn("commit file cache failed", e);
     }
+    try {
+      ServiceContainer.getOptimizeService().handleTableCommit(commit);
+    } catch (Exception e) {
+      LOG.warn("commit optimize file index failed", e);
+    }
   }
 
   @Override
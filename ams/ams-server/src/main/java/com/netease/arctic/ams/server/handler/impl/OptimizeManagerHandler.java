@@ -27,6 +27,8 @@ import com.netease.arctic.ams.api.OptimizerStateReport;
 import com.netease.arctic.ams.server.service.ServiceContainer;
 import org.apache.thrift.TException;
 
+import java.util.List;
+
 public class OptimizeManagerHandler implements OptimizeManager.Iface {
 
   @Override
@@ -44,4 +46,15 @@ public class OptimizeManagerHandler implements OptimizeManager.Iface {
   public void reportOptimizerState(OptimizerStateReport reportData) throws TException {
     ServiceContainer.getOptimizerService().updateOptimizerState(reportData);
   }
+
+  @Override
+  public List<OptimizeTask> pollTasks(int queueId, JobId jobId, String attemptId, long waitTime, int maxTasks)
+      throws TException {
+    return ServiceContainer.getOptimizeQueueService().pollTasks(queueId, jobId, attemptId, waitTime, maxTasks);
+  }
+
+  @Override
+  public void reportOptimizeResults(List<OptimizeTaskStat> optimizeTaskStats) {
+    ServiceContainer.getOptimizeService().handleOptimizeResults(optimizeTaskStats);
+  }
 }
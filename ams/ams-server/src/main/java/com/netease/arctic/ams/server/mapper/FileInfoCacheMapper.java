@@ -106,6 +106,31 @@ public interface FileInfoCacheMapper {
           @Param("tableIdentifier") TableIdentifier tableIdentifier,
           @Param("innerTable") String innerTable);
 
+  @Select("select add_snapshot_id, parent_snapshot_id, delete_snapshot_id, inner_table, file_path, file_type, " +
+      "file_size, file_mask, file_index, spec_id, record_count, action, partition_name, commit_time, watermark from " +
+      TABLE_NAME + " where table_identifier = #{tableIdentifier, typeHandler=com.netease.arctic" +
+      ".ams.server.mybatis.TableIdentifier2StringConverter}")
+  @Results({
+      @Result(column = "add_snapshot_id", property = "addSnapshotId"),
+      @Result(column = "parent_snapshot_id", property = "parentSnapshotId"),
+      @Result(column = "delete_snapshot_id", property = "deleteSnapshotId"),
+      @Result(column = "inner_table", property = "innerTable"),
+      @Result(column = "file_path", property = "filePath"),
+      @Result(column = "file_type", property = "fileType"),
+      @Result(column = "file_size", property = "fileSize"),
+      @Result(column = "file_mask", property = "fileMask"),
+      @Result(column = "file_index", property = "fileIndex"),
+      @Result(column = "spec_id", property = "specId"),
+      @Result(column = "record_count", property = "recordCount"),
+      @Result(column = "action", property = "action"),
+      @Result(column = "partition_name", property = "partitionName"),
+      @Result(column = "commit_time", property = "commitTime",
+          typeHandler = Long2TsConvertor.class),
+      @Result(column = "watermark", property = "watermark",
+          typeHandler = Long2TsConvertor.class)
+  })
+  List<CacheFileInfo> getTableCacheFiles(@Param("tableIdentifier") TableIdentifier tableIdentifier);
+
   @Delete("delete from " + TABLE_NAME + " where delete_snapshot_id is not null and commit_time <  #{expiredTime, " +
       "typeHandler=com.netease.arctic.ams.server.mybatis.Long2TsConvertor}")
   void expireCache(@Param("expiredTime") long expiredTime);
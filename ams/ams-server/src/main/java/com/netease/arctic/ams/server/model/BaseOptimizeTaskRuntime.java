@@ -54,6 +54,30 @@ public class BaseOptimizeTaskRuntime {
     this.optimizeTaskId = optimizeTaskId;
   }
 
+  public BaseOptimizeTaskRuntime copy() {
+    BaseOptimizeTaskRuntime copy = new BaseOptimizeTaskRuntime();
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  public void copyFrom(BaseOptimizeTaskRuntime other) {
+    this.optimizeTaskId = other.optimizeTaskId;
+    this.status = other.status;
+    this.pendingTime = other.pendingTime;
+    this.executeTime = other.executeTime;
+    this.preparedTime = other.preparedTime;
+    this.reportTime = other.reportTime;
+    this.commitTime = other.commitTime;
+    this.costTime = other.costTime;
+    this.jobId = other.jobId;
+    this.attemptId = other.attemptId;
+    this.retry = other.retry;
+    this.errorMessage = other.errorMessage;
+    this.newFileSize = other.newFileSize;
+    this.newFileCnt = other.newFileCnt;
+    this.targetFiles = other.targetFiles;
+  }
+
   public OptimizeTaskId getOptimizeTaskId() {
     return optimizeTaskId;
   }
@@ -23,6 +23,12 @@ public class OptimizeQueueItem {
 
   private int size;
 
+  private int waitingPollers;
+
+  private long latestPlanCostTime;
+
+  private long planCount;
+
   public OptimizeQueueItem(OptimizeQueueMeta optimizeQueueMeta) {
     this.optimizeQueueMeta = optimizeQueueMeta;
   }
@@ -43,11 +49,38 @@ public class OptimizeQueueItem {
     this.size = size;
   }
 
+  public int getWaitingPollers() {
+    return waitingPollers;
+  }
+
+  public void setWaitingPollers(int waitingPollers) {
+    this.waitingPollers = waitingPollers;
+  }
+
+  public long getLatestPlanCostTime() {
+    return latestPlanCostTime;
+  }
+
+  public void setLatestPlanCostTime(long latestPlanCostTime) {
+    this.latestPlanCostTime = latestPlanCostTime;
+  }
+
+  public long getPlanCount() {
+    return planCount;
+  }
+
+  public void setPlanCount(long planCount) {
+    this.planCount = planCount;
+  }
+
   @Override
   public String toString() {
     return "OptimizeQueueItem{" +
         "optimizeQueueMeta=" + optimizeQueueMeta +
         ", size=" + size +
+        ", waitingPollers=" + waitingPollers +
+        ", latestPlanCostTime=" + latestPlanCostTime +
+        ", planCount=" + planCount +
         '}';
   }
 }
@@ -21,17 +21,28 @@ package com.netease.arctic.ams.server.model;
 import com.netease.arctic.table.TableIdentifier;
 import org.jetbrains.annotations.NotNull;
 
-import java.math.BigDecimal;
-
+/**
+ * Rank of table in optimize queue, tables are planned in ascending order of score.
+ * <p>
+ * Score is the quota rate of table, the quota used by its latest optimize divided by the quota of table, reduced by
+ * the optimize pressure of table. Tables using less of their quota are planned first, and among tables with similar
+ * quota usage, those with many change files or delete files go first. The reduction is capped, so a table under
+ * pressure can't keep others from their share.
+ */
 public class TableQuotaInfo implements Comparable<TableQuotaInfo> {
+  // max times score can be reduced by optimize pressure
+  public static final double MAX_PRESSURE_BOOST = 10;
+
   private TableIdentifier tableIdentifier;
-  private BigDecimal quota;
+  private double quota;
   private Double targetQuota;
+  private double pressure;
 
-  public TableQuotaInfo(TableIdentifier tableIdentifier, BigDecimal quota, Double targetQuota) {
+  public TableQuotaInfo(TableIdentifier tableIdentifier, double quota, Double targetQuota, double pressure) {
     this.tableIdentifier = tableIdentifier;
     this.quota = quota;
     this.targetQuota = targetQuota;
+    this.pressure = pressure;
   }
 
   public TableIdentifier getTableIdentifier() {
@@ -42,11 +53,11 @@ public class TableQuotaInfo implements Comparable<TableQuotaInfo> {
     this.tableIdentifier = tableIdentifier;
   }
 
-  public BigDecimal getQuota() {
+  public double getQuota() {
     return quota;
   }
 
-  public void setQuota(BigDecimal quota) {
+  public void setQuota(double quota) {
     this.quota = quota;
   }
 
@@ -58,12 +69,28 @@ public class TableQuotaInfo implements Comparable<TableQuotaInfo> {
     this.targetQuota = targetQuota;
   }
 
+  public double getPressure() {
+    return pressure;
+  }
+
+  public void setPressure(double pressure) {
+    this.pressure = pressure;
+  }
+
+  public double getScore() {
+    return quota / Math.min(1 + pressure, MAX_PRESSURE_BOOST);
+  }
+
   @Override
   public int compareTo(@NotNull TableQuotaInfo o) {
-    if (!quota.equals(o.getQuota())) {
-      return quota.compareTo(o.getQuota());
+    int compare = Double.compare(getScore(), o.getScore());
+    if (compare != 0) {
+      return compare;
+    }
+    compare = Double.compare(o.getPressure(), pressure);
+    if (compare != 0) {
+      return compare;
     }
-
     return o.getTargetQuota().compareTo(targetQuota);
   }
 }
@@ -33,30 +33,44 @@ import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DataFiles;
 import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.OverwriteFiles;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.RewriteFiles;
+import org.apache.iceberg.StructLike;
 import org.apache.iceberg.exceptions.ValidationException;
-import org.apache.iceberg.util.StructLikeMap;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.util.Tasks;
+import org.apache.iceberg.util.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class BaseOptimizeCommit {
   private static final Logger LOG = LoggerFactory.getLogger(BaseOptimizeCommit.class);
+  // max times to retry a commit after conflicting partitions are removed
+  private static final int MAX_CONFLICT_RETRIES = 3;
+
   private final ArcticTable arcticTable;
   private final Map<String, List<OptimizeTaskItem>> optimizeTasksToCommit;
+  private final Map<String, List<OptimizeTaskItem>> conflictedTasks = new HashMap<>();
   private final Map<String, TableTaskHistory> commitTableTaskHistory = new HashMap<>();
   private final Map<String, OptimizeType> partitionOptimizeType = new HashMap<>();
+  private int conflictRetries;
 
   public BaseOptimizeCommit(ArcticTable arcticTable, Map<String, List<OptimizeTaskItem>> optimizeTasksToCommit) {
     this.arcticTable = arcticTable;
@@ -67,10 +81,28 @@ public class BaseOptimizeCommit {
     return optimizeTasksToCommit;
   }
 
+  /**
+   * Get tasks of partitions removed from commit, because files they replaced were changed by concurrent commits.
+   *
+   * @return map partition -> tasks of partition
+   */
+  public Map<String, List<OptimizeTaskItem>> getConflictedTasks() {
+    return conflictedTasks;
+  }
+
   public Map<String, TableTaskHistory> getCommitTableTaskHistory() {
     return commitTableTaskHistory;
   }
 
+  /**
+   * Get how many times commit was retried for conflicts.
+   *
+   * @return retry count
+   */
+  public int getConflictRetries() {
+    return conflictRetries;
+  }
+
   public long commit(TableOptimizeRuntime tableOptimizeRuntime) throws Exception {
     try {
       if (optimizeTasksToCommit.isEmpty()) {
@@ -81,65 +113,14 @@ public class BaseOptimizeCommit {
           optimizeTasksToCommit.keySet());
 
       // collect files
-      Set<ContentFile<?>> minorAddFiles = new HashSet<>();
-      Set<ContentFile<?>> minorDeleteFiles = new HashSet<>();
-      Set<ContentFile<?>> majorAddFiles = new HashSet<>();
-      Set<ContentFile<?>> majorDeleteFiles = new HashSet<>();
-      PartitionSpec spec = arcticTable.spec();
-      StructLikeMap<Long> maxTransactionIds = StructLikeMap.create(spec.partitionType());
-      for (Map.Entry<String, List<OptimizeTaskItem>> entry : optimizeTasksToCommit.entrySet()) {
-        for (OptimizeTaskItem task : entry.getValue()) {
-          // tasks in partition
-          if (task.getOptimizeTask().getTaskId().getType() == OptimizeType.Minor) {
-            task.getOptimizeRuntime().getTargetFiles().stream()
-                .map(SerializationUtil::toInternalTableFile)
-                .forEach(minorAddFiles::add);
-
-            minorDeleteFiles.addAll(selectDeletedFiles(task.getOptimizeTask(), minorAddFiles));
-
-            // if minor optimize, insert files as base new files
-            task.getOptimizeTask().getInsertFiles().stream()
-                .map(SerializationUtil::toInternalTableFile)
-                .forEach(minorAddFiles::add);
-
-            long maxTransactionId = task.getOptimizeTask().getMaxChangeTransactionId();
-            if (maxTransactionId != BaseOptimizeTask.INVALID_TRANSACTION_ID) {
-              if (arcticTable.asKeyedTable().baseTable().spec().isUnpartitioned()) {
-                maxTransactionIds.put(null, maxTransactionId);
-              } else {
-                maxTransactionIds.putIfAbsent(
-                    DataFiles.data(spec, entry.getKey()), maxTransactionId);
-              }
-            }
-            partitionOptimizeType.put(entry.getKey(), OptimizeType.Minor);
-          } else {
-            task.getOptimizeRuntime().getTargetFiles().stream()
-                .map(SerializationUtil::toInternalTableFile)
-                .forEach(majorAddFiles::add);
-            majorDeleteFiles.addAll(selectDeletedFiles(task.getOptimizeTask(), new HashSet<>()));
-            partitionOptimizeType.put(entry.getKey(), OptimizeType.Major);
-          }
-
-          String taskGroupId = task.getOptimizeTask().getTaskGroup();
-          String taskHistoryId = task.getOptimizeTask().getTaskHistoryId();
-          String historyKey = taskHistoryId + "#" + taskGroupId;
-          TableTaskHistory tableTaskHistory = commitTableTaskHistory.get(historyKey);
-          if (tableTaskHistory != null) {
-            tableTaskHistory.setCostTime(tableTaskHistory.getCostTime() + task.getOptimizeRuntime().getCostTime());
-            tableTaskHistory.setStartTime(Math.min(tableTaskHistory.getStartTime(),
-                task.getOptimizeRuntime().getExecuteTime()));
-            tableTaskHistory.setEndTime(Math.max(tableTaskHistory.getEndTime(),
-                task.getOptimizeRuntime().getReportTime()));
-          } else {
-            tableTaskHistory = new TableTaskHistory();
-            tableTaskHistory.setTableIdentifier(arcticTable.id());
-            tableTaskHistory.setTaskGroupId(taskGroupId);
-            tableTaskHistory.setTaskHistoryId(taskHistoryId);
-            tableTaskHistory.setCostTime(task.getOptimizeRuntime().getCostTime());
-            tableTaskHistory.setStartTime(task.getOptimizeRuntime().getExecuteTime());
-            tableTaskHistory.setEndTime(task.getOptimizeRuntime().getReportTime());
-          }
-          commitTableTaskHistory.put(historyKey, tableTaskHistory);
+      Map<String, PartitionFiles> minorPartitionFiles = new LinkedHashMap<>();
+      Map<String, PartitionFiles> majorPartitionFiles = new LinkedHashMap<>();
+      for (PartitionFiles partitionFiles : collectPartitionFiles()) {
+        partitionOptimizeType.put(partitionFiles.partition, partitionFiles.optimizeType);
+        if (partitionFiles.optimizeType == OptimizeType.Minor) {
+          minorPartitionFiles.put(partitionFiles.partition, partitionFiles);
+        } else {
+          majorPartitionFiles.put(partitionFiles.partition, partitionFiles);
         }
       }
 
@@ -151,116 +132,32 @@ public class BaseOptimizeCommit {
       }
 
       // commit minor optimize content
-      if (CollectionUtils.isNotEmpty(minorAddFiles) || CollectionUtils.isNotEmpty(minorDeleteFiles)) {
-        OverwriteBaseFiles overwriteBaseFiles = new OverwriteBaseFiles(arcticTable.asKeyedTable());
-        AtomicInteger addedPosDeleteFile = new AtomicInteger(0);
-        minorAddFiles.forEach(contentFile -> {
-          if (contentFile instanceof DataFile) {
-            overwriteBaseFiles.addFile((DataFile) contentFile);
-          } else {
-            overwriteBaseFiles.addFile((DeleteFile) contentFile);
-            addedPosDeleteFile.incrementAndGet();
-          }
-        });
-        AtomicInteger deletedPosDeleteFile = new AtomicInteger(0);
-        Set<DeleteFile> deletedPosDeleteFiles = new HashSet<>();
-        minorDeleteFiles.forEach(contentFile -> {
-          if (contentFile instanceof DataFile) {
-            overwriteBaseFiles.deleteFile((DataFile) contentFile);
-          } else {
-            deletedPosDeleteFiles.add((DeleteFile) contentFile);
-          }
-        });
-
-        if (spec.isUnpartitioned()) {
-          overwriteBaseFiles.withMaxTransactionId(null, maxTransactionIds.get(null));
-        } else {
-          maxTransactionIds.forEach(overwriteBaseFiles::withMaxTransactionId);
-        }
-        overwriteBaseFiles.commit();
-
-        if (CollectionUtils.isNotEmpty(deletedPosDeleteFiles)) {
-          RewriteFiles rewriteFiles = baseArcticTable.newRewrite();
-          rewriteFiles.rewriteFiles(Collections.emptySet(), deletedPosDeleteFiles,
-              Collections.emptySet(), Collections.emptySet());
-          try {
-            rewriteFiles.commit();
-          } catch (ValidationException e) {
-            LOG.warn("Iceberg RewriteFiles commit failed, but ignore", e);
-          }
-        }
-
-        LOG.info("{} minor optimize committed, delete {} files [{} posDelete files], " +
-                "add {} new files [{} posDelete files]",
-            arcticTable.id(), minorDeleteFiles.size(), deletedPosDeleteFile.get(), minorAddFiles.size(),
-            addedPosDeleteFile.get());
+      if (hasFilesToCommit(minorPartitionFiles)) {
+        commitWithRetry(minorPartitionFiles, baseArcticTable, () -> commitMinor(minorPartitionFiles.values()));
       } else {
         LOG.info("{} skip minor optimize commit", arcticTable.id());
       }
 
       // commit major optimize content
-      if (CollectionUtils.isNotEmpty(majorAddFiles) || CollectionUtils.isNotEmpty(majorDeleteFiles)) {
-        Set<DataFile> addDataFiles = majorAddFiles.stream().map(contentFile -> {
-          if (contentFile instanceof DataFile) {
-            return (DataFile) contentFile;
-          }
-
-          return null;
-        }).filter(Objects::nonNull).collect(Collectors.toSet());
-        Set<DeleteFile> addDeleteFiles = majorAddFiles.stream().map(contentFile -> {
-          if (contentFile instanceof DeleteFile) {
-            return (DeleteFile) contentFile;
-          }
-
-          return null;
-        }).filter(Objects::nonNull).collect(Collectors.toSet());
-
-        Set<DataFile> deleteDataFiles = majorDeleteFiles.stream().map(contentFile -> {
-          if (contentFile instanceof DataFile) {
-            return (DataFile) contentFile;
-          }
-
-          return null;
-        }).filter(Objects::nonNull).collect(Collectors.toSet());
-        Set<DeleteFile> deleteDeleteFiles = majorDeleteFiles.stream().map(contentFile -> {
-          if (contentFile instanceof DeleteFile) {
-            return (DeleteFile) contentFile;
-          }
-
-          return null;
-        }).filter(Objects::nonNull).collect(Collectors.toSet());
-
-        if (!addDeleteFiles.isEmpty()) {
-          throw new IllegalArgumentException("for major optimize, can't add delete files " + addDeleteFiles);
-        }
-        if (deleteDeleteFiles.isEmpty()) {
-          OverwriteFiles overwriteFiles = baseArcticTable.newOverwrite();
-          deleteDataFiles.forEach(overwriteFiles::deleteFile);
-          addDataFiles.forEach(overwriteFiles::addFile);
-          overwriteFiles.commit();
-        } else {
-          RewriteFiles rewriteFiles = baseArcticTable.newRewrite()
-              .validateFromSnapshot(baseArcticTable.currentSnapshot().snapshotId());
-          rewriteFiles.rewriteFiles(deleteDataFiles, deleteDeleteFiles, addDataFiles, addDeleteFiles);
-          rewriteFiles.commit();
-        }
-        
-        LOG.info("{} major optimize committed, delete {} files [{} posDelete files], " +
-                "add {} new files [{} posDelete files]",
-            arcticTable.id(), majorDeleteFiles.size(), deleteDeleteFiles.size(), majorAddFiles.size(),
-            addDeleteFiles.size());
+      if (hasFilesToCommit(majorPartitionFiles)) {
+        commitWithRetry(majorPartitionFiles, baseArcticTable, () -> commitMajor(majorPartitionFiles.values(),
+            baseArcticTable));
 
         // update table runtime base snapshotId, avoid repeat Major plan
-        if (arcticTable.isKeyedTable()) {
-          tableOptimizeRuntime.setCurrentSnapshotId(arcticTable.asKeyedTable().baseTable()
-              .currentSnapshot().snapshotId());
-        } else {
-          tableOptimizeRuntime.setCurrentSnapshotId(arcticTable.asUnkeyedTable()
-              .currentSnapshot().snapshotId());
+        if (hasFilesToCommit(majorPartitionFiles)) {
+          if (arcticTable.isKeyedTable()) {
+            tableOptimizeRuntime.setCurrentSnapshotId(arcticTable.asKeyedTable().baseTable()
+                .currentSnapshot().snapshotId());
+          } else {
+            tableOptimizeRuntime.setCurrentSnapshotId(arcticTable.asUnkeyedTable()
+                .currentSnapshot().snapshotId());
+          }
         }
       } else {
         LOG.info("{} skip major optimize commit", arcticTable.id());
       }
+
+      collectTaskHistory();
       return System.currentTimeMillis();
     } catch (Throwable t) {
       LOG.error("unexpected commit error " + arcticTable.id(), t);
@@ -272,44 +169,301 @@ public class BaseOptimizeCommit {
     return partitionOptimizeType;
   }
 
-  private static Set<ContentFile<?>> selectDeletedFiles(BaseOptimizeTask optimizeTask,
-                                                        Set<ContentFile<?>> addPosDeleteFiles) {
-    switch (optimizeTask.getTaskId().getType()) {
-      case Major:
-        return selectMajorOptimizeDeletedFiles(optimizeTask);
-      case Minor:
-        return selectMinorOptimizeDeletedFiles(optimizeTask, addPosDeleteFiles);
+  /**
+   * Deserialize files of all tasks in parallel, then group them by partition.
+   */
+  private List<PartitionFiles> collectPartitionFiles() {
+    List<OptimizeTaskItem> tasks = optimizeTasksToCommit.values().stream()
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+    Map<OptimizeTaskItem, TaskFiles> taskFiles = new ConcurrentHashMap<>();
+    Tasks.foreach(tasks)
+        .executeWith(ThreadPools.getWorkerPool())
+        .stopOnFailure()
+        .throwFailureWhenFinished()
+        .run(task -> taskFiles.put(task, new TaskFiles(task)));
+
+    PartitionSpec spec = arcticTable.spec();
+    List<PartitionFiles> result = new ArrayList<>();
+    for (Map.Entry<String, List<OptimizeTaskItem>> entry : optimizeTasksToCommit.entrySet()) {
+      String partition = entry.getKey();
+      PartitionFiles partitionFiles = null;
+      Set<DataTreeNode> newPosDeleteNodes = new HashSet<>();
+      Set<String> majorDeletePaths = new HashSet<>();
+      for (OptimizeTaskItem task : entry.getValue()) {
+        TaskFiles files = taskFiles.get(task);
+        OptimizeType optimizeType = task.getOptimizeTask().getTaskId().getType();
+        if (partitionFiles == null) {
+          partitionFiles = new PartitionFiles(partition, optimizeType);
+        }
+        partitionFiles.addFiles.addAll(files.targetFiles);
+        if (optimizeType == OptimizeType.Minor) {
+          // pos-delete files are replaced by new pos-delete files of the same node
+          files.targetFiles.stream()
+              .filter(contentFile -> contentFile instanceof DeleteFile)
+              .map(contentFile -> DefaultKeyedFile.parseMetaFromFileName(contentFile.path().toString()).node())
+              .forEach(newPosDeleteNodes::add);
+          files.deleteFiles.stream()
+              .filter(posDeleteFile -> newPosDeleteNodes.contains(
+                  DefaultKeyedFile.parseMetaFromFileName(posDeleteFile.path().toString()).node()))
+              .forEach(partitionFiles.deleteFiles::add);
+
+          // if minor optimize, insert files as base new files
+          partitionFiles.addFiles.addAll(files.insertFiles);
+
+          long maxTransactionId = task.getOptimizeTask().getMaxChangeTransactionId();
+          if (maxTransactionId != BaseOptimizeTask.INVALID_TRANSACTION_ID && partitionFiles.maxTransactionId == null) {
+            partitionFiles.maxTransactionId = maxTransactionId;
+          }
+        } else {
+          // sub-tasks split from one node share its pos-delete files, only remove each of them once
+          files.deleteFiles.stream()
+              .filter(contentFile -> majorDeletePaths.add(contentFile.path().toString()))
+              .forEach(partitionFiles.deleteFiles::add);
+        }
+      }
+      if (partitionFiles != null) {
+        if (!spec.isUnpartitioned()) {
+          partitionFiles.partitionData = DataFiles.data(spec, partition);
+        }
+        result.add(partitionFiles);
+      }
     }
+    return result;
+  }
 
-    return new HashSet<>();
+  private void commitWithRetry(Map<String, PartitionFiles> partitionFiles, UnkeyedTable baseArcticTable,
+                               Runnable commitAction) throws IOException {
+    int retries = 0;
+    while (true) {
+      try {
+        commitAction.run();
+        return;
+      } catch (ValidationException e) {
+        if (retries >= MAX_CONFLICT_RETRIES || !revalidate(partitionFiles, baseArcticTable)) {
+          throw e;
+        }
+        retries++;
+        conflictRetries++;
+        LOG.warn("{} optimize commit conflicts with concurrent commits, retry {} with partitions {}",
+            arcticTable.id(), retries, partitionFiles.keySet(), e);
+        if (!hasFilesToCommit(partitionFiles)) {
+          LOG.warn("{} all partitions conflict with concurrent commits, skip commit", arcticTable.id());
+          return;
+        }
+      }
+    }
   }
 
-  private static Set<ContentFile<?>> selectMinorOptimizeDeletedFiles(BaseOptimizeTask optimizeTask,
-                                                                     Set<ContentFile<?>> addPosDeleteFiles) {
-    Set<DataTreeNode> newFileNodes = addPosDeleteFiles.stream().map(contentFile -> {
-      if (contentFile instanceof DeleteFile) {
-        return DefaultKeyedFile.parseMetaFromFileName(contentFile.path().toString()).node();
+  /**
+   * Check files to delete against current files of table. Partitions whose data files were removed or got new
+   * delete files are removed from commit, pos-delete files already removed are just not deleted again.
+   *
+   * @return true if anything changed and the commit should be retried
+   */
+  private boolean revalidate(Map<String, PartitionFiles> partitionFiles, UnkeyedTable baseArcticTable)
+      throws IOException {
+    baseArcticTable.refresh();
+    // data file path -> paths of delete files applied to it
+    Map<String, Set<String>> liveDataFiles = new HashMap<>();
+    Set<String> liveDeleteFiles = new HashSet<>();
+    try (CloseableIterable<FileScanTask> fileScanTasks = baseArcticTable.newScan().planFiles()) {
+      for (FileScanTask fileScanTask : fileScanTasks) {
+        Set<String> deletes = fileScanTask.deletes().stream()
+            .map(deleteFile -> deleteFile.path().toString())
+            .collect(Collectors.toSet());
+        liveDataFiles.put(fileScanTask.file().path().toString(), deletes);
+        liveDeleteFiles.addAll(deletes);
       }
+    }
 
-      return null;
-    }).filter(Objects::nonNull).collect(Collectors.toSet());
+    boolean changed = false;
+    Iterator<Map.Entry<String, PartitionFiles>> iterator = partitionFiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, PartitionFiles> entry = iterator.next();
+      PartitionFiles files = entry.getValue();
+      Set<String> deletePaths = files.deleteFiles.stream()
+          .map(contentFile -> contentFile.path().toString())
+          .collect(Collectors.toSet());
+      boolean conflicted = files.deleteFiles.stream()
+          .filter(contentFile -> contentFile instanceof DataFile)
+          .map(contentFile -> liveDataFiles.get(contentFile.path().toString()))
+          .anyMatch(deletes -> deletes == null ||
+              (files.optimizeType == OptimizeType.Major && !deletePaths.containsAll(deletes)));
+      if (conflicted) {
+        LOG.warn("{} partition {} conflicts with concurrent commits, remove its tasks from commit",
+            arcticTable.id(), entry.getKey());
+        iterator.remove();
+        partitionOptimizeType.remove(entry.getKey());
+        conflictedTasks.put(entry.getKey(), optimizeTasksToCommit.remove(entry.getKey()));
+        changed = true;
+      } else if (files.deleteFiles.removeIf(contentFile -> contentFile instanceof DeleteFile &&
+          !liveDeleteFiles.contains(contentFile.path().toString()))) {
+        changed = true;
+      }
+    }
+    return changed;
+  }
 
-    return optimizeTask.getPosDeleteFiles().stream().map(SerializationUtil::toInternalTableFile)
-        .filter(posDeleteFile ->
-            newFileNodes.contains(DefaultKeyedFile.parseMetaFromFileName(posDeleteFile.path().toString()).node()))
-        .collect(Collectors.toSet());
+  private void commitMinor(Collection<PartitionFiles> partitionFiles) {
+    OverwriteBaseFiles overwriteBaseFiles = new OverwriteBaseFiles(arcticTable.asKeyedTable());
+    int addedFiles = 0;
+    int addedPosDeleteFiles = 0;
+    int deletedFiles = 0;
+    int deletedPosDeleteFiles = 0;
+    for (PartitionFiles files : partitionFiles) {
+      for (ContentFile<?> contentFile : files.addFiles) {
+        if (contentFile instanceof DataFile) {
+          overwriteBaseFiles.addFile((DataFile) contentFile);
+        } else {
+          overwriteBaseFiles.addFile((DeleteFile) contentFile);
+          addedPosDeleteFiles++;
+        }
+        addedFiles++;
+      }
+      // replaced pos-delete files are removed in the same transaction
+      for (ContentFile<?> contentFile : files.deleteFiles) {
+        if (contentFile instanceof DataFile) {
+          overwriteBaseFiles.deleteFile((DataFile) contentFile);
+        } else {
+          overwriteBaseFiles.deleteFile((DeleteFile) contentFile);
+          deletedPosDeleteFiles++;
+        }
+        deletedFiles++;
+      }
+      if (files.maxTransactionId != null) {
+        overwriteBaseFiles.withMaxTransactionId(files.partitionData, files.maxTransactionId);
+      }
+    }
+    overwriteBaseFiles.commit();
+
+    LOG.info("{} minor optimize committed, delete {} files [{} posDelete files], " +
+            "add {} new files [{} posDelete files]",
+        arcticTable.id(), deletedFiles, deletedPosDeleteFiles, addedFiles, addedPosDeleteFiles);
   }
 
-  private static Set<ContentFile<?>> selectMajorOptimizeDeletedFiles(BaseOptimizeTask optimizeTask) {
-    // add base deleted files
-    Set<ContentFile<?>> result = optimizeTask.getBaseFiles().stream()
-        .map(SerializationUtil::toInternalTableFile).collect(Collectors.toSet());
+  private void commitMajor(Collection<PartitionFiles> partitionFiles, UnkeyedTable baseArcticTable) {
+    Set<DataFile> addDataFiles = new HashSet<>();
+    Set<DeleteFile> addDeleteFiles = new HashSet<>();
+    Set<DataFile> deleteDataFiles = new HashSet<>();
+    Set<DeleteFile> deleteDeleteFiles = new HashSet<>();
+    for (PartitionFiles files : partitionFiles) {
+      files.addFiles.forEach(contentFile -> {
+        if (contentFile instanceof DataFile) {
+          addDataFiles.add((DataFile) contentFile);
+        } else {
+          addDeleteFiles.add((DeleteFile) contentFile);
+        }
+      });
+      files.deleteFiles.forEach(contentFile -> {
+        if (contentFile instanceof DataFile) {
+          deleteDataFiles.add((DataFile) contentFile);
+        } else {
+          deleteDeleteFiles.add((DeleteFile) contentFile);
+        }
+      });
+    }
 
-    if (optimizeTask.getIsDeletePosDelete() == 1) {
-      result.addAll(optimizeTask.getPosDeleteFiles().stream()
-          .map(SerializationUtil::toInternalTableFile).collect(Collectors.toSet()));
+    if (!addDeleteFiles.isEmpty()) {
+      throw new IllegalArgumentException("for major optimize, can't add delete files " + addDeleteFiles);
+    }
+    if (deleteDeleteFiles.isEmpty()) {
+      OverwriteFiles overwriteFiles = baseArcticTable.newOverwrite();
+      deleteDataFiles.forEach(overwriteFiles::deleteFile);
+      addDataFiles.forEach(overwriteFiles::addFile);
+      overwriteFiles.commit();
+    } else {
+      RewriteFiles rewriteFiles = baseArcticTable.newRewrite()
+          .validateFromSnapshot(baseArcticTable.currentSnapshot().snapshotId());
+      rewriteFiles.rewriteFiles(deleteDataFiles, deleteDeleteFiles, addDataFiles, addDeleteFiles);
+      rewriteFiles.commit();
     }
 
-    return result;
+    LOG.info("{} major optimize committed, delete {} files [{} posDelete files], " +
+            "add {} new files [{} posDelete files]",
+        arcticTable.id(), deleteDataFiles.size() + deleteDeleteFiles.size(), deleteDeleteFiles.size(),
+        addDataFiles.size(), addDeleteFiles.size());
+  }
+
+  private void collectTaskHistory() {
+    for (List<OptimizeTaskItem> tasks : optimizeTasksToCommit.values()) {
+      for (OptimizeTaskItem task : tasks) {
+        String taskGroupId = task.getOptimizeTask().getTaskGroup();
+        String taskHistoryId = task.getOptimizeTask().getTaskHistoryId();
+        String historyKey = taskHistoryId + "#" + taskGroupId;
+        TableTaskHistory tableTaskHistory = commitTableTaskHistory.get(historyKey);
+        if (tableTaskHistory != null) {
+          tableTaskHistory.setCostTime(tableTaskHistory.getCostTime() + task.getOptimizeRuntime().getCostTime());
+          tableTaskHistory.setStartTime(Math.min(tableTaskHistory.getStartTime(),
+              task.getOptimizeRuntime().getExecuteTime()));
+          tableTaskHistory.setEndTime(Math.max(tableTaskHistory.getEndTime(),
+              task.getOptimizeRuntime().getReportTime()));
+        } else {
+          tableTaskHistory = new TableTaskHistory();
+          tableTaskHistory.setTableIdentifier(arcticTable.id());
+          tableTaskHistory.setTaskGroupId(taskGroupId);
+          tableTaskHistory.setTaskHistoryId(taskHistoryId);
+          tableTaskHistory.setCostTime(task.getOptimizeRuntime().getCostTime());
+          tableTaskHistory.setStartTime(task.getOptimizeRuntime().getExecuteTime());
+          tableTaskHistory.setEndTime(task.getOptimizeRuntime().getReportTime());
+        }
+        commitTableTaskHistory.put(historyKey, tableTaskHistory);
+      }
+    }
+  }
+
+  private static boolean hasFilesToCommit(Map<String, PartitionFiles> partitionFiles) {
+    return partitionFiles.values().stream()
+        .anyMatch(files -> CollectionUtils.isNotEmpty(files.addFiles) || CollectionUtils.isNotEmpty(files.deleteFiles));
+  }
+
+  private static List<ContentFile<?>> toInternalTableFiles(List<ByteBuffer> buffers) {
+    if (buffers == null) {
+      return Collections.emptyList();
+    }
+    return buffers.stream().map(SerializationUtil::toInternalTableFile).collect(Collectors.toList());
+  }
+
+  /**
+   * Deserialized files of one task.
+   */
+  private static class TaskFiles {
+    private final List<ContentFile<?>> targetFiles;
+    private final List<ContentFile<?>> insertFiles;
+    // for minor, pos-delete files may be replaced; for major, files to be rewritten
+    private final List<ContentFile<?>> deleteFiles;
+
+    TaskFiles(OptimizeTaskItem task) {
+      BaseOptimizeTask optimizeTask = task.getOptimizeTask();
+      this.targetFiles = toInternalTableFiles(task.getOptimizeRuntime().getTargetFiles());
+      if (optimizeTask.getTaskId().getType() == OptimizeType.Minor) {
+        this.insertFiles = toInternalTableFiles(optimizeTask.getInsertFiles());
+        this.deleteFiles = toInternalTableFiles(optimizeTask.getPosDeleteFiles());
+      } else {
+        this.insertFiles = Collections.emptyList();
+        List<ContentFile<?>> files = new ArrayList<>(toInternalTableFiles(optimizeTask.getBaseFiles()));
+        if (optimizeTask.getIsDeletePosDelete() == 1) {
+          files.addAll(toInternalTableFiles(optimizeTask.getPosDeleteFiles()));
+        }
+        this.deleteFiles = files;
+      }
+    }
+  }
+
+  /**
+   * Files of all tasks of one partition to commit.
+   */
+  private static class PartitionFiles {
+    private final String partition;
+    private final OptimizeType optimizeType;
+    private final Set<ContentFile<?>> addFiles = new HashSet<>();
+    private final Set<ContentFile<?>> deleteFiles = new HashSet<>();
+    private Long maxTransactionId;
+    private StructLike partitionData;
+
+    PartitionFiles(String partition, OptimizeType optimizeType) {
+      this.partition = partition;
+      this.optimizeType = optimizeType;
+    }
   }
 }
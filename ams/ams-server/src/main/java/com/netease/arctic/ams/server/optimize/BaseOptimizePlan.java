@@ -22,6 +22,7 @@ import com.netease.arctic.ams.api.DataFileInfo;
 import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.api.OptimizeType;
 import com.netease.arctic.ams.api.TreeNode;
+import com.netease.arctic.ams.api.properties.OptimizerProperties;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
 import com.netease.arctic.ams.server.model.FileTree;
 import com.netease.arctic.ams.server.model.FilesStatistics;
@@ -82,6 +83,8 @@ public abstract class BaseOptimizePlan {
   private long currentChangeSnapshotId = TableOptimizeRuntime.INVALID_SNAPSHOT_ID;
   // for check iceberg base table current snapshot whether cached in file cache
   protected Predicate<Long> snapshotIsCached;
+  // files from the optimize file index of table, null if the files of all partitions are given
+  protected OptimizeFileIndex.PlanFiles planFiles;
 
   public BaseOptimizePlan(ArcticTable arcticTable, TableOptimizeRuntime tableOptimizeRuntime,
                           List<DataFileInfo> baseTableFileList,
@@ -103,12 +106,31 @@ public abstract class BaseOptimizePlan {
 
   public abstract boolean partitionNeedPlan(String partitionToPath);
 
+  /**
+   * Check whether a partition which don't need plan now can only be planned after new files are committed into it,
+   * not just after some time.
+   *
+   * @param partitionToPath partition
+   * @return true if the partition is waiting for new files
+   */
+  protected abstract boolean partitionWaitNewFiles(String partitionToPath);
+
   public abstract void addOptimizeFilesTree();
   
   protected abstract OptimizeType getOptimizeType();
 
   protected abstract List<BaseOptimizeTask> collectTask(String partition);
 
+  /**
+   * Plan with files of the partitions not settled in the optimize file index, partitions found nothing to optimize
+   * are settled back into the index after plan.
+   *
+   * @param planFiles files from the optimize file index
+   */
+  public void setPlanFiles(OptimizeFileIndex.PlanFiles planFiles) {
+    this.planFiles = planFiles;
+  }
+
   public List<BaseOptimizeTask> plan() {
     long startTime = System.nanoTime();
 
@@ -123,8 +145,14 @@ public abstract class BaseOptimizePlan {
     }
 
     addOptimizeFilesTree();
+    if (planFiles != null) {
+      // partitions settled in file index are not added to tree, but they still belong to table
+      currentPartitions.addAll(planFiles.getAllPartitions());
+      allPartitions.addAll(planFiles.getAllPartitions());
+    }
 
     if (!hasFileToOptimize()) {
+      settlePartitions(Collections.emptySet());
       return Collections.emptyList();
     }
 
@@ -133,7 +161,8 @@ public abstract class BaseOptimizePlan {
     long endTime = System.nanoTime();
     LOG.debug("{} ==== {} plan tasks cost {} ns, {} ms", tableId(), getOptimizeType(), endTime - startTime,
         (endTime - startTime) / 1_000_000);
-    LOG.debug("{} {} plan get {} tasks", tableId(), getOptimizeType(), results.size());
+    LOG.debug("{} {} plan get {} tasks, skip {} settled partitions", tableId(), getOptimizeType(), results.size(),
+        getSkippedPartitionCount());
     return results;
   }
 
@@ -141,6 +170,7 @@ public abstract class BaseOptimizePlan {
     List<BaseOptimizeTask> results = new ArrayList<>();
 
     List<String> skippedPartitions = new ArrayList<>();
+    Set<String> settledPartitions = new HashSet<>();
     for (Map.Entry<String, FileTree> fileTreeEntry : partitionFileTree.entrySet()) {
       String partition = fileTreeEntry.getKey();
 
@@ -154,20 +184,49 @@ public abstract class BaseOptimizePlan {
       // partition don't need to plan
       if (!partitionNeedPlan(partition)) {
         skippedPartitions.add(partition);
+        if (partitionWaitNewFiles(partition)) {
+          settledPartitions.add(partition);
+        }
         continue;
       }
 
       List<BaseOptimizeTask> optimizeTasks = collectTask(partition);
+      if (optimizeTasks.isEmpty()) {
+        settledPartitions.add(partition);
+      }
       LOG.debug("{} partition {} ==== collect {} {} tasks", tableId(), partition, optimizeTasks.size(),
           getOptimizeType());
       results.addAll(optimizeTasks);
     }
 
+    settlePartitions(settledPartitions);
+
     LOG.debug("{} ==== after collect {} task, skip partitions {}/{}", tableId(), getOptimizeType(),
         skippedPartitions.size(), partitionFileTree.entrySet().size());
     return results;
   }
 
+  /**
+   * Get count of partitions skipped without building file tree, because they were settled in optimize file index.
+   *
+   * @return skipped partition count
+   */
+  public int getSkippedPartitionCount() {
+    return planFiles == null ? 0 : planFiles.getSkippedPartitionCount();
+  }
+
+  private void settlePartitions(Set<String> settledPartitions) {
+    if (planFiles == null) {
+      return;
+    }
+    // partitions without any file to add into tree are settled too, unless files are skipped for running tasks
+    Set<String> toSettle = new HashSet<>(settledPartitions);
+    planFiles.getPartitions().stream()
+        .filter(partition -> !partitionFileTree.containsKey(partition) && !anyTaskRunning(partition))
+        .forEach(toSettle::add);
+    planFiles.settle(toSettle);
+  }
+
   public BaseOptimizeTask buildOptimizeTask(@Nullable List<DataTreeNode> sourceNodes,
                                             List<DataFile> insertFiles,
                                             List<DataFile> deleteFiles,
@@ -253,7 +312,7 @@ public abstract class BaseOptimizePlan {
 
     // table ams url
     Map<String, String> properties = new HashMap<>();
-    properties.put("all-file-cnt", (optimizeTask.getBaseFiles().size() +
+    properties.put(OptimizerProperties.OPTIMIZE_TASK_ALL_FILE_COUNT, (optimizeTask.getBaseFiles().size() +
         optimizeTask.getInsertFiles().size() + optimizeTask.getDeleteFiles().size()) + "");
     optimizeTask.setProperties(properties);
     return optimizeTask;
@@ -20,6 +20,7 @@ package com.netease.arctic.ams.server.optimize;
 
 import com.netease.arctic.ams.api.NoSuchObjectException;
 import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.TableCommitMeta;
 import com.netease.arctic.ams.server.model.OptimizeHistory;
 import com.netease.arctic.table.TableIdentifier;
 
@@ -38,9 +39,9 @@ public interface IOptimizeService {
   void checkOptimizeCheckTasks(long checkInterval);
 
   /**
-   * List cached tables in OptimizeService.
+   * List cached tables in OptimizeService. Expired cache is refreshed in background unless forceRefresh.
    *
-   * @param forceRefresh whether force refresh
+   * @param forceRefresh whether force refresh before listing
    * @return table id list
    */
   List<TableIdentifier> listCachedTables(boolean forceRefresh);
@@ -62,6 +63,21 @@ public interface IOptimizeService {
    */
   void handleOptimizeResult(OptimizeTaskStat optimizeTaskStat) throws NoSuchObjectException;
 
+  /**
+   * Handle a batch of OptimizeTask execute results, task runtimes are persisted in one transaction.
+   * Results of removed tables or stale attempts are skipped.
+   *
+   * @param optimizeTaskStats -
+   */
+  void handleOptimizeResults(List<OptimizeTaskStat> optimizeTaskStats);
+
+  /**
+   * Handle files committed into an ArcticTable, to keep optimize file index of the table up to date.
+   *
+   * @param commit -
+   */
+  void handleTableCommit(TableCommitMeta commit);
+
   /**
    * Get optimize history of an ArcticTable.
    *
@@ -21,6 +21,7 @@ package com.netease.arctic.ams.server.optimize;
 import com.google.common.collect.ImmutableList;
 import com.netease.arctic.ams.api.DataFileInfo;
 import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.properties.OptimizerProperties;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
 import com.netease.arctic.ams.server.model.FileTree;
 import com.netease.arctic.ams.server.model.TableOptimizeRuntime;
@@ -62,6 +63,8 @@ public class MajorOptimizePlan extends BaseOptimizePlan {
 
   // partition -> current optimize is merge pos-delete or only merge small files
   protected final Map<String, Boolean> isMergePosDelete = new LinkedHashMap<>();
+  // total size of position delete files in table
+  private Long posDeleteFileSize;
 
   public MajorOptimizePlan(ArcticTable arcticTable, TableOptimizeRuntime tableOptimizeRuntime,
                            List<DataFileInfo> baseTableFileList, List<DataFileInfo> posDeleteFileList,
@@ -86,8 +89,7 @@ public class MajorOptimizePlan extends BaseOptimizePlan {
     long current = System.currentTimeMillis();
 
     // check position delete file total size
-    long posDeleteSize = posDeleteFileList.stream().mapToLong(DataFileInfo::getSize).sum();
-    if (posDeleteSize >= PropertyUtil.propertyAsLong(arcticTable.properties(),
+    if (posDeleteFileSize() >= PropertyUtil.propertyAsLong(arcticTable.properties(),
         TableProperties.MAJOR_OPTIMIZE_TRIGGER_DELETE_FILE_SIZE_BYTES,
         TableProperties.MAJOR_OPTIMIZE_TRIGGER_DELETE_FILE_SIZE_BYTES_DEFAULT)) {
       isMergePosDelete.put(partitionToPath, true);
@@ -116,6 +118,12 @@ public class MajorOptimizePlan extends BaseOptimizePlan {
     return false;
   }
 
+  @Override
+  protected boolean partitionWaitNewFiles(String partitionToPath) {
+    // small files can be merged after max interval only if there are at least 2 of them
+    return CollectionUtils.size(partitionSmallFiles.get(partitionToPath)) < 2;
+  }
+
   protected List<BaseOptimizeTask> collectTask(String partition) {
     List<BaseOptimizeTask> result;
     if (arcticTable.isUnkeyedTable()) {
@@ -140,6 +148,15 @@ public class MajorOptimizePlan extends BaseOptimizePlan {
     return isMergePosDelete.containsKey(partition);
   }
 
+  private long posDeleteFileSize() {
+    if (posDeleteFileSize == null) {
+      // files of settled partitions are not given when planning with optimize file index
+      posDeleteFileSize = planFiles == null ?
+          posDeleteFileList.stream().mapToLong(DataFileInfo::getSize).sum() : planFiles.getPosDeleteFileSize();
+    }
+    return posDeleteFileSize;
+  }
+
   private void addBaseFileIntoFileTree() {
     LOG.debug("{} start {} plan base files", tableId(), getOptimizeType());
     UnkeyedTable baseTable;
@@ -237,12 +254,21 @@ public class MajorOptimizePlan extends BaseOptimizePlan {
         TableProperties.OPTIMIZE_SMALL_FILE_SIZE_BYTES_THRESHOLD,
         TableProperties.OPTIMIZE_SMALL_FILE_SIZE_BYTES_THRESHOLD_DEFAULT);
     treeRoot.splitSubTree(subTrees, new CanSplitFileTree(isFilterSmallFiles, smallFileSize));
+    long taskSize =
+        PropertyUtil.propertyAsLong(arcticTable.properties(), TableProperties.MAJOR_OPTIMIZE_MAX_TASK_FILE_SIZE,
+            TableProperties.MAJOR_OPTIMIZE_MAX_TASK_FILE_SIZE_DEFAULT);
     for (FileTree subTree : subTrees) {
       List<DataFile> baseFiles = new ArrayList<>();
       subTree.collectBaseFiles(baseFiles, isFilterSmallFiles, smallFileSize);
-      if (!baseFiles.isEmpty()) {
-        List<DataTreeNode> sourceNodes = Collections.singletonList(subTree.getNode());
-        Set<DataTreeNode> baseFileNodes = baseFiles.stream()
+      if (baseFiles.isEmpty()) {
+        continue;
+      }
+      List<DataTreeNode> sourceNodes = Collections.singletonList(subTree.getNode());
+      // split an oversized node into sub-tasks by file ranges, they are committed together with the same group
+      List<List<DataFile>> packed = splitBaseFiles(baseFiles, taskSize);
+      for (int splitIndex = 0; splitIndex < packed.size(); splitIndex++) {
+        List<DataFile> files = packed.get(splitIndex);
+        Set<DataTreeNode> baseFileNodes = files.stream()
             .map(dataFile -> DefaultKeyedFile.parseMetaFromFileName(dataFile.path().toString()).node())
             .collect(Collectors.toSet());
         List<DeleteFile> posDeleteFiles = partitionPosDeleteFiles
@@ -251,17 +277,33 @@ public class MajorOptimizePlan extends BaseOptimizePlan {
                 baseFileNodes.contains(DefaultKeyedFile.parseMetaFromFileName(deleteFile.path().toString()).node()))
             .collect(Collectors.toList());
         // if only one base file and no position delete file, skip
-        if (CollectionUtils.isEmpty(posDeleteFiles) && baseFiles.size() <= 1) {
+        if (CollectionUtils.isEmpty(posDeleteFiles) && files.size() <= 1) {
           continue;
         }
-        collector.add(buildOptimizeTask(sourceNodes,
-            Collections.emptyList(), Collections.emptyList(), baseFiles, posDeleteFiles, taskPartitionConfig));
+        BaseOptimizeTask optimizeTask = buildOptimizeTask(sourceNodes,
+            Collections.emptyList(), Collections.emptyList(), files, posDeleteFiles, taskPartitionConfig);
+        if (packed.size() > 1) {
+          optimizeTask.getProperties().put(OptimizerProperties.OPTIMIZE_TASK_SPLIT_INDEX, String.valueOf(splitIndex));
+        }
+        collector.add(optimizeTask);
       }
     }
 
     return collector;
   }
 
+  private List<List<DataFile>> splitBaseFiles(List<DataFile> baseFiles, long taskSize) {
+    long sum = baseFiles.stream().mapToLong(DataFile::fileSizeInBytes).sum();
+    if (sum <= taskSize || baseFiles.size() <= 1) {
+      return Collections.singletonList(baseFiles);
+    }
+    int taskCnt = (int) (sum / taskSize) + 1;
+    return new BinPacking.ListPacker<DataFile>(taskSize, taskCnt, true)
+        .pack(baseFiles, DataFile::fileSizeInBytes).stream()
+        .filter(CollectionUtils::isNotEmpty)
+        .collect(Collectors.toList());
+  }
+
   static class CanSplitFileTree implements Predicate<FileTree> {
 
     private final boolean isFilterSmallFiles;
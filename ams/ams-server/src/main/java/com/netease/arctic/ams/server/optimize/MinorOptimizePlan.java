@@ -99,6 +99,12 @@ public class MinorOptimizePlan extends BaseOptimizePlan {
     return false;
   }
 
+  @Override
+  protected boolean partitionWaitNewFiles(String partitionToPath) {
+    // partition may reach max interval later
+    return false;
+  }
+
   @Override
   public void addOptimizeFilesTree() {
     addChangeFilesIntoFileTree();
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.optimize;
+
+/**
+ * Statistics of optimize commits of one table, kept in memory since AMS started.
+ */
+public class OptimizeCommitMetrics {
+  private long commitCount;
+  private long failedCount;
+  private long conflictCount;
+  private long totalCostTime;
+  private long lastCostTime;
+
+  public synchronized void commitSucceeded(long costTime, int conflictRetries) {
+    commitCount++;
+    conflictCount += conflictRetries;
+    totalCostTime += costTime;
+    lastCostTime = costTime;
+  }
+
+  public synchronized void commitFailed(long costTime) {
+    failedCount++;
+    totalCostTime += costTime;
+    lastCostTime = costTime;
+  }
+
+  public synchronized long getCommitCount() {
+    return commitCount;
+  }
+
+  public synchronized long getFailedCount() {
+    return failedCount;
+  }
+
+  public synchronized long getConflictCount() {
+    return conflictCount;
+  }
+
+  public synchronized long getLastCostTime() {
+    return lastCostTime;
+  }
+
+  public synchronized long getAverageCostTime() {
+    long total = commitCount + failedCount;
+    return total == 0 ? 0 : totalCostTime / total;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "OptimizeCommitMetrics{" +
+        "commitCount=" + commitCount +
+        ", failedCount=" + failedCount +
+        ", conflictCount=" + conflictCount +
+        ", lastCostTime=" + lastCostTime +
+        ", averageCostTime=" + getAverageCostTime() +
+        '}';
+  }
+}
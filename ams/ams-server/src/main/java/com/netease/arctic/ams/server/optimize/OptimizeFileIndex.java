@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.optimize;
+
+import com.netease.arctic.ams.api.Constants;
+import com.netease.arctic.ams.api.DataFileInfo;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.TableChange;
+import com.netease.arctic.ams.api.TableCommitMeta;
+import com.netease.arctic.ams.server.utils.ContentFileUtil;
+import com.netease.arctic.data.DataFileType;
+import com.netease.arctic.table.TableIdentifier;
+import com.netease.arctic.table.TableProperties;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.iceberg.util.PropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the partitions of one table that optimize plans are built from.
+ * <p>
+ * The index does not keep the files of the table, they are read from the file cache, which is served by
+ * {@link com.netease.arctic.ams.server.service.impl.FileInfoCacheIndex} if the in-memory index of file cache is
+ * enabled, only for the partitions a plan needs to evaluate. The index is loaded from the file cache once and then
+ * kept up to date with the file deltas of the committed snapshots. Partitions a plan evaluated without finding
+ * anything to optimize are remembered as settled until new files are committed into them, so the following plans only
+ * build file trees for the partitions changed since.
+ */
+public class OptimizeFileIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(OptimizeFileIndex.class);
+
+  private final TableIdentifier tableIdentifier;
+  private final FileSource fileSource;
+
+  // partition -> number of live files of all inner tables in the partition
+  private final Map<String, Integer> partitionFileCounts = new HashMap<>();
+  // inner table -> snapshot id the files are up to date with
+  private final Map<String, Long> snapshotIds = new HashMap<>();
+  // partition -> version, increased each time files of the partition change
+  private final Map<String, Long> partitionVersions = new HashMap<>();
+  // optimize type -> partition -> version of the partition when it was settled
+  private final Map<OptimizeType, Map<String, Long>> settledPartitions = new EnumMap<>(OptimizeType.class);
+  private long posDeleteFileSize;
+  // files waiting for optimizing, used to evaluate the optimize pressure of table
+  private int changeFileCount;
+  private int deleteFileCount;
+  private long nextVersion;
+  private boolean loaded;
+
+  // settled partitions are only valid for the table properties and pos-delete trigger they were evaluated with
+  private Map<String, String> settledProperties;
+  private boolean settledPosDeleteTriggered;
+
+  /**
+   * @param tableIdentifier table of the index
+   * @param fileSource read the live files of partitions when planning
+   */
+  public OptimizeFileIndex(TableIdentifier tableIdentifier, FileSource fileSource) {
+    this.tableIdentifier = tableIdentifier;
+    this.fileSource = fileSource;
+  }
+
+  /**
+   * Check whether the index has been loaded and is up to date with the given snapshots.
+   *
+   * @param currentSnapshotIds inner table -> current snapshot id of the inner table
+   * @return true if files of the index are those of the given snapshots
+   */
+  public synchronized boolean isUpToDate(Map<String, Long> currentSnapshotIds) {
+    return loaded && snapshotIds.equals(currentSnapshotIds);
+  }
+
+  /**
+   * Replace all partitions of the index, all partitions need to be evaluated again by the next plans. The files are
+   * only counted, not kept by the index.
+   *
+   * @param innerTableFiles inner table -> files of the inner table
+   * @param innerTableSnapshotIds inner table -> snapshot id the files are loaded from
+   */
+  public synchronized void load(Map<String, List<DataFileInfo>> innerTableFiles,
+                                Map<String, Long> innerTableSnapshotIds) {
+    partitionFileCounts.clear();
+    partitionVersions.clear();
+    settledPartitions.clear();
+    posDeleteFileSize = 0;
+    changeFileCount = 0;
+    deleteFileCount = 0;
+    innerTableFiles.forEach((innerTable, fileList) -> fileList.forEach(file ->
+        addFile(innerTable, file.getPartition() == null ? "" : file.getPartition(), file.getType(),
+            file.getSize())));
+    snapshotIds.clear();
+    snapshotIds.putAll(innerTableSnapshotIds);
+    loaded = true;
+    LOG.info("{} load {} partitions into optimize file index, snapshots {}", tableIdentifier,
+        partitionVersions.size(), snapshotIds);
+  }
+
+  /**
+   * Apply the file deltas of a commit. If the commit does not follow the snapshots of the index, the index is
+   * invalidated and will be loaded again before the next plan.
+   *
+   * @param commit committed table changes
+   */
+  public synchronized void applyCommit(TableCommitMeta commit) {
+    if (!loaded || CollectionUtils.isEmpty(commit.getChanges())) {
+      return;
+    }
+    for (TableChange change : commit.getChanges()) {
+      Long snapshotId = snapshotIds.get(change.getInnerTable());
+      if (snapshotId == null || snapshotId != change.getParentSnapshotId()) {
+        LOG.info("{} commit of {} snapshot {} does not follow snapshot {} of optimize file index, invalidate it",
+            tableIdentifier, change.getInnerTable(), change.getSnapshotId(), snapshotId);
+        loaded = false;
+        return;
+      }
+      if (change.getDeleteFiles() != null) {
+        change.getDeleteFiles().forEach(file -> removeFile(change.getInnerTable(),
+            ContentFileUtil.partitionToPath(file.getPartition()), file.getFileType(), file.getFileSize()));
+      }
+      if (change.getAddFiles() != null) {
+        change.getAddFiles().forEach(file -> addFile(change.getInnerTable(),
+            ContentFileUtil.partitionToPath(file.getPartition()), file.getFileType(), file.getFileSize()));
+      }
+      snapshotIds.put(change.getInnerTable(), change.getSnapshotId());
+    }
+  }
+
+  /**
+   * Get the number of files in change table.
+   *
+   * @return 0 if the index is not loaded
+   */
+  public synchronized int getChangeFileCount() {
+    return changeFileCount;
+  }
+
+  /**
+   * Get the number of pos-delete files in base table and eq-delete files in change table.
+   *
+   * @return 0 if the index is not loaded
+   */
+  public synchronized int getDeleteFileCount() {
+    return deleteFileCount;
+  }
+
+  /**
+   * Get the files of partitions not settled for the optimize type. The files are read without holding the index, so
+   * commits are not blocked by planning.
+   *
+   * @param optimizeType optimize type of the plan
+   * @param properties current table properties
+   * @return files to plan
+   */
+  public PlanFiles planFiles(OptimizeType optimizeType, Map<String, String> properties) {
+    Set<String> allPartitions;
+    Map<String, Long> versions = new HashMap<>();
+    long currentPosDeleteFileSize;
+    synchronized (this) {
+      boolean posDeleteTriggered = posDeleteFileSize >= PropertyUtil.propertyAsLong(properties,
+          TableProperties.MAJOR_OPTIMIZE_TRIGGER_DELETE_FILE_SIZE_BYTES,
+          TableProperties.MAJOR_OPTIMIZE_TRIGGER_DELETE_FILE_SIZE_BYTES_DEFAULT);
+      if (!properties.equals(settledProperties) || posDeleteTriggered != settledPosDeleteTriggered) {
+        settledPartitions.clear();
+        settledProperties = new HashMap<>(properties);
+        settledPosDeleteTriggered = posDeleteTriggered;
+      }
+
+      Map<String, Long> settled = settledPartitions.getOrDefault(optimizeType, Collections.emptyMap());
+      partitionVersions.forEach((partition, version) -> {
+        if (!version.equals(settled.get(partition))) {
+          versions.put(partition, version);
+        }
+      });
+      allPartitions = new HashSet<>(partitionVersions.keySet());
+      currentPosDeleteFileSize = posDeleteFileSize;
+    }
+
+    List<DataFileInfo> baseFiles = new ArrayList<>();
+    List<DataFileInfo> posDeleteFiles = new ArrayList<>();
+    List<DataFileInfo> changeFiles = new ArrayList<>();
+    // files committed after the versions are taken may be read too, their partitions can not be settled by this plan
+    if (!versions.isEmpty()) {
+      fileSource.getFiles(Constants.INNER_TABLE_BASE, versions.keySet()).forEach(file -> {
+        DataFileType fileType = DataFileType.valueOf(file.getType());
+        if (fileType == DataFileType.POS_DELETE_FILE) {
+          posDeleteFiles.add(file);
+        } else if (fileType == DataFileType.BASE_FILE || fileType == DataFileType.INSERT_FILE) {
+          baseFiles.add(file);
+        }
+      });
+      if (optimizeType == OptimizeType.Minor) {
+        changeFiles.addAll(fileSource.getFiles(Constants.INNER_TABLE_CHANGE, versions.keySet()));
+      }
+    }
+    return new PlanFiles(this, optimizeType, baseFiles, changeFiles, posDeleteFiles, allPartitions, versions,
+        currentPosDeleteFileSize);
+  }
+
+  /**
+   * Mark partitions as settled for the optimize type, the partitions changed since they were handed out to the plan
+   * are ignored.
+   *
+   * @param optimizeType optimize type of the plan
+   * @param versions partition -> version of the partition handed out to the plan
+   */
+  synchronized void settle(OptimizeType optimizeType, Map<String, Long> versions) {
+    Map<String, Long> settled = settledPartitions.computeIfAbsent(optimizeType, t -> new HashMap<>());
+    versions.forEach((partition, version) -> {
+      if (version.equals(partitionVersions.get(partition))) {
+        settled.put(partition, version);
+      }
+    });
+  }
+
+  private void addFile(String innerTable, String partition, String fileType, long fileSize) {
+    partitionFileCounts.merge(partition, 1, Integer::sum);
+    updateFileStatistics(innerTable, fileType, fileSize, 1);
+    partitionVersions.put(partition, nextVersion++);
+  }
+
+  private void removeFile(String innerTable, String partition, String fileType, long fileSize) {
+    Integer fileCount = partitionFileCounts.get(partition);
+    if (fileCount == null) {
+      return;
+    }
+    updateFileStatistics(innerTable, fileType, fileSize, -1);
+    if (fileCount > 1) {
+      partitionFileCounts.put(partition, fileCount - 1);
+      partitionVersions.put(partition, nextVersion++);
+    } else {
+      partitionFileCounts.remove(partition);
+      partitionVersions.remove(partition);
+    }
+  }
+
+  private void updateFileStatistics(String innerTable, String fileType, long fileSize, int delta) {
+    if (Constants.INNER_TABLE_CHANGE.equals(innerTable)) {
+      changeFileCount += delta;
+    }
+    if (DataFileType.POS_DELETE_FILE.name().equals(fileType)) {
+      posDeleteFileSize += delta * fileSize;
+    }
+    if (DataFileType.POS_DELETE_FILE.name().equals(fileType) ||
+        DataFileType.EQ_DELETE_FILE.name().equals(fileType)) {
+      deleteFileCount += delta;
+    }
+  }
+
+  /**
+   * Source of the live files of the table.
+   */
+  public interface FileSource {
+    /**
+     * Get the live files of inner table in the given partitions.
+     *
+     * @param innerTable inner table
+     * @param partitions partitions of files, empty string for the files without partition
+     * @return files in the partitions
+     */
+    List<DataFileInfo> getFiles(String innerTable, Set<String> partitions);
+  }
+
+  /**
+   * Files of the partitions a plan needs to evaluate.
+   */
+  public static class PlanFiles {
+    private final OptimizeFileIndex fileIndex;
+    private final OptimizeType optimizeType;
+    private final List<DataFileInfo> baseFiles;
+    private final List<DataFileInfo> changeFiles;
+    private final List<DataFileInfo> posDeleteFiles;
+    private final Set<String> allPartitions;
+    private final Map<String, Long> partitionVersions;
+    private final long posDeleteFileSize;
+
+    PlanFiles(OptimizeFileIndex fileIndex, OptimizeType optimizeType,
+              List<DataFileInfo> baseFiles, List<DataFileInfo> changeFiles, List<DataFileInfo> posDeleteFiles,
+              Set<String> allPartitions, Map<String, Long> partitionVersions, long posDeleteFileSize) {
+      this.fileIndex = fileIndex;
+      this.optimizeType = optimizeType;
+      this.baseFiles = baseFiles;
+      this.changeFiles = changeFiles;
+      this.posDeleteFiles = posDeleteFiles;
+      this.allPartitions = allPartitions;
+      this.partitionVersions = partitionVersions;
+      this.posDeleteFileSize = posDeleteFileSize;
+    }
+
+    public List<DataFileInfo> getBaseFiles() {
+      return baseFiles;
+    }
+
+    public List<DataFileInfo> getChangeFiles() {
+      return changeFiles;
+    }
+
+    public List<DataFileInfo> getPosDeleteFiles() {
+      return posDeleteFiles;
+    }
+
+    /**
+     * Get all partitions of the table, including the settled ones.
+     *
+     * @return all partitions
+     */
+    public Set<String> getAllPartitions() {
+      return allPartitions;
+    }
+
+    /**
+     * Get total size of the position delete files of the whole table.
+     *
+     * @return size in bytes
+     */
+    public long getPosDeleteFileSize() {
+      return posDeleteFileSize;
+    }
+
+    /**
+     * Get partitions the plan needs to evaluate.
+     *
+     * @return partitions not settled
+     */
+    public Set<String> getPartitions() {
+      return partitionVersions.keySet();
+    }
+
+    public int getSkippedPartitionCount() {
+      return allPartitions.size() - partitionVersions.size();
+    }
+
+    /**
+     * Mark partitions the plan found nothing to optimize in as settled.
+     *
+     * @param partitions settled partitions
+     */
+    public void settle(Set<String> partitions) {
+      Map<String, Long> versions = new HashMap<>();
+      partitions.forEach(partition -> {
+        Long version = partitionVersions.get(partition);
+        if (version != null) {
+          versions.put(partition, version);
+        }
+      });
+      fileIndex.settle(optimizeType, versions);
+    }
+  }
+}
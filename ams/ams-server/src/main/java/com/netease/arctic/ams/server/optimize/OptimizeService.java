@@ -19,13 +19,13 @@
 package com.netease.arctic.ams.server.optimize;
 
 import com.google.common.collect.ArrayListMultimap;
-import com.netease.arctic.AmsClient;
 import com.netease.arctic.ams.api.ErrorMessage;
 import com.netease.arctic.ams.api.InvalidObjectException;
 import com.netease.arctic.ams.api.NoSuchObjectException;
 import com.netease.arctic.ams.api.OptimizeStatus;
 import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.TableCommitMeta;
 import com.netease.arctic.ams.server.mapper.OptimizeHistoryMapper;
 import com.netease.arctic.ams.server.mapper.OptimizeTaskRuntimesMapper;
 import com.netease.arctic.ams.server.mapper.OptimizeTasksMapper;
@@ -43,9 +43,6 @@ import com.netease.arctic.ams.server.utils.ArcticMetaValidator;
 import com.netease.arctic.ams.server.utils.OptimizeStatusUtil;
 import com.netease.arctic.ams.server.utils.ScheduledTasks;
 import com.netease.arctic.ams.server.utils.ThreadPool;
-import com.netease.arctic.catalog.ArcticCatalog;
-import com.netease.arctic.catalog.CatalogLoader;
-import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.TableIdentifier;
 import com.netease.arctic.table.TableProperties;
 import org.apache.commons.collections.CollectionUtils;
@@ -62,9 +59,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 public class OptimizeService extends IJDBCService implements IOptimizeService {
@@ -75,34 +72,32 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
   private ScheduledTasks<TableIdentifier, OptimizeCheckTask> checkTasks;
 
   private static final long DEFAULT_CACHE_REFRESH_TIME = 60_000; // 1min
-  private final Map<TableIdentifier, TableOptimizeItem> cachedTables = new HashMap<>();
-  private final ReadWriteLock tablesLock = new ReentrantReadWriteLock();
+  // readers never lock, tables are added and removed one by one
+  private final Map<TableIdentifier, TableOptimizeItem> cachedTables = new ConcurrentHashMap<>();
+  // only one thread lists tables from sysdb at a time
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private final AtomicBoolean asyncRefreshing = new AtomicBoolean(false);
+  // table -> time it was not found, lookups of these tables do not go to sysdb again until the cache expires
+  private final Map<TableIdentifier, Long> missingTables = new ConcurrentHashMap<>();
 
-  private long refreshTime = 0;
+  private volatile long refreshTime = 0;
 
   private final OptimizeQueueService optimizeQueueService;
   private final IMetaService metaService;
-  private final AmsClient metastoreClient;
   private Long optimizeStatusCheckInterval = null;
 
   public OptimizeService() {
     super();
     optimizeQueueService = ServiceContainer.getOptimizeQueueService();
     metaService = ServiceContainer.getMetaService();
-    metastoreClient = ServiceContainer.getTableMetastoreHandler();
     init();
   }
 
   private void init() {
-    tablesLock.writeLock().lock();
-    try {
-      LOG.info("OptimizeService init...");
-      loadTables();
-      initOptimizeTasksIntoOptimizeQueue();
-      LOG.info("OptimizeService init completed");
-    } finally {
-      tablesLock.writeLock().unlock();
-    }
+    LOG.info("OptimizeService init...");
+    loadTables();
+    initOptimizeTasksIntoOptimizeQueue();
+    LOG.info("OptimizeService init completed");
   }
 
   @Override
@@ -111,15 +106,14 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
     if (checkTasks == null) {
       checkTasks = new ScheduledTasks<>(ThreadPool.Type.OPTIMIZE_CHECK);
     }
-    internalCheckOptimizeChecker(checkInterval);
+    internalCheckOptimizeChecker(checkInterval, listCachedTables(true));
   }
 
-  private void internalCheckOptimizeChecker(long checkInterval) {
+  private void internalCheckOptimizeChecker(long checkInterval, List<TableIdentifier> validTables) {
     LOG.info("Schedule Optimize Checker");
     if (checkTasks == null) {
       return;
     }
-    List<TableIdentifier> validTables = listCachedTables(true);
     checkTasks.checkRunningTask(
         new HashSet<>(validTables),
         identifier -> checkInterval,
@@ -133,15 +127,14 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
     if (commitTasks == null) {
       commitTasks = new ScheduledTasks<>(ThreadPool.Type.COMMIT);
     }
-    internalCheckOptimizeCommitter();
+    internalCheckOptimizeCommitter(listCachedTables(true));
   }
 
-  private void internalCheckOptimizeCommitter() {
+  private void internalCheckOptimizeCommitter(List<TableIdentifier> validTables) {
     LOG.info("Schedule Optimize Committer");
     if (commitTasks == null) {
       return;
     }
-    List<TableIdentifier> validTables = listCachedTables(true);
     commitTasks.checkRunningTask(
         new HashSet<>(validTables),
         this::getCommitInterval,
@@ -160,19 +153,41 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
 
   @Override
   public List<TableIdentifier> listCachedTables(boolean forceRefresh) {
-    tablesLock.readLock().lock();
+    if (forceRefresh) {
+      return refreshAndListTables(true);
+    }
+    if (cacheExpired()) {
+      // tables are discovered in background, callers get the current tables without waiting
+      refreshAsync();
+    }
+    return new ArrayList<>(cachedTables.keySet());
+  }
+
+  private void refreshAsync() {
+    if (!asyncRefreshing.compareAndSet(false, true)) {
+      return;
+    }
     try {
-      if (!forceRefresh && !cacheExpired()) {
-        return new ArrayList<>(cachedTables.keySet());
-      }
-    } finally {
-      tablesLock.readLock().unlock();
+      ThreadPool.getPool(ThreadPool.Type.OPTIMIZE_CHECK).execute(() -> {
+        try {
+          refreshAndListTables(false);
+        } catch (Throwable t) {
+          LOG.error("failed to refresh tables", t);
+        } finally {
+          asyncRefreshing.set(false);
+        }
+      });
+    } catch (Throwable t) {
+      asyncRefreshing.set(false);
+      LOG.error("failed to submit refresh tables", t);
     }
-    return refreshAndListTables(forceRefresh);
   }
 
   private void clearTableCache(TableIdentifier tableIdentifier) {
     TableOptimizeItem tableItem = cachedTables.remove(tableIdentifier);
+    if (tableItem == null) {
+      return;
+    }
     optimizeQueueService.release(tableIdentifier);
     try {
       deleteTableOptimizeRuntime(tableIdentifier);
@@ -192,9 +207,13 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
     }
   }
 
-  private void addTableIntoCache(TableOptimizeItem arcticTableItem, Map<String, String> properties,
-                                 boolean persistRuntime) {
-    cachedTables.put(arcticTableItem.getTableIdentifier(), arcticTableItem);
+  private boolean addTableIntoCache(TableOptimizeItem arcticTableItem, Map<String, String> properties,
+                                    boolean persistRuntime) {
+    if (cachedTables.putIfAbsent(arcticTableItem.getTableIdentifier(), arcticTableItem) != null) {
+      // added by another thread
+      return false;
+    }
+    missingTables.remove(arcticTableItem.getTableIdentifier());
     try {
       int queueId = optimizeQueueService.getQueueId(properties);
       optimizeQueueService.bind(arcticTableItem.getTableIdentifier(), queueId);
@@ -208,15 +227,22 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
         LOG.error("failed to insert " + arcticTableItem.getTableIdentifier() + " runtime, ignore", t);
       }
     }
+    return true;
   }
 
   @Override
   public TableOptimizeItem getTableOptimizeItem(TableIdentifier tableIdentifier) throws NoSuchObjectException {
     TableOptimizeItem tableOptimizeItem = cachedTables.get(tableIdentifier);
     if (tableOptimizeItem == null) {
-      listCachedTables(true);
+      Long missingTime = missingTables.get(tableIdentifier);
+      if (missingTime != null && System.currentTimeMillis() <= missingTime + DEFAULT_CACHE_REFRESH_TIME) {
+        throw new NoSuchObjectException("can't find table " + tableIdentifier);
+      }
+      // load only this table instead of refreshing all tables
+      addNewTable(tableIdentifier);
       TableOptimizeItem reloadTableOptimizeItem = cachedTables.get(tableIdentifier);
       if (reloadTableOptimizeItem == null) {
+        missingTables.put(tableIdentifier, System.currentTimeMillis());
         throw new NoSuchObjectException("can't find table " + tableIdentifier);
       }
       return reloadTableOptimizeItem;
@@ -230,6 +256,51 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
         .updateOptimizeTaskStat(optimizeTaskStat);
   }
 
+  @Override
+  public void handleOptimizeResults(List<OptimizeTaskStat> optimizeTaskStats) {
+    // tasks in memory are only updated after their results are committed
+    List<Runnable> taskUpdates = new ArrayList<>(optimizeTaskStats.size());
+    Set<OptimizeTaskId> taskIds = new HashSet<>();
+    try (SqlSession sqlSession = getSqlSession(false)) {
+      try {
+        for (OptimizeTaskStat optimizeTaskStat : optimizeTaskStats) {
+          if (optimizeTaskStat == null || optimizeTaskStat.getTableIdentifier() == null ||
+              optimizeTaskStat.getTaskId() == null) {
+            LOG.warn("skip invalid optimize result {}", optimizeTaskStat);
+            continue;
+          }
+          if (!taskIds.add(optimizeTaskStat.getTaskId())) {
+            LOG.warn("skip duplicated optimize result of task {}", optimizeTaskStat.getTaskId());
+            continue;
+          }
+          try {
+            taskUpdates.add(getTableOptimizeItem(new TableIdentifier(optimizeTaskStat.getTableIdentifier()))
+                .updateOptimizeTaskStat(optimizeTaskStat, sqlSession));
+          } catch (NoSuchObjectException | IllegalArgumentException e) {
+            // the result is rejected before any change, the other results of the batch are still valid
+            LOG.warn("skip optimize result of task {}", optimizeTaskStat.getTaskId(), e);
+          }
+        }
+        sqlSession.commit(true);
+      } catch (Exception e) {
+        LOG.error("failed to persist {} optimize results", optimizeTaskStats.size(), e);
+        sqlSession.rollback(true);
+        throw e;
+      }
+    }
+    taskUpdates.forEach(Runnable::run);
+    LOG.info("handled {} of {} optimize results in one transaction", taskUpdates.size(), optimizeTaskStats.size());
+  }
+
+  @Override
+  public void handleTableCommit(TableCommitMeta commit) {
+    TableOptimizeItem tableOptimizeItem = cachedTables.get(TableIdentifier.of(commit.getTableIdentifier()));
+    // tables not loaded yet build their optimize file index from file cache when first planned
+    if (tableOptimizeItem != null) {
+      tableOptimizeItem.onTableCommit(commit);
+    }
+  }
+
   private void loadTables() {
     LOG.info("init load tables");
     // load table when server start, only load table metadata
@@ -289,27 +360,30 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
   }
 
   private List<TableIdentifier> refreshAndListTables(boolean forceRefresh) {
-    tablesLock.writeLock().lock();
+    refreshLock.lock();
     try {
       if (forceRefresh || cacheExpired()) {
         LOG.info("refresh tables");
+        // tables added after this point are not removed by this refresh
+        Set<TableIdentifier> cachedTableIdentifiers = new HashSet<>(cachedTables.keySet());
         Set<TableIdentifier> tableIdentifiers = metaService.listTables().stream()
             .map(TableMetadata::getTableIdentifier).collect(Collectors.toSet());
         final long now = System.currentTimeMillis();
         List<TableIdentifier> toAddTables = tableIdentifiers.stream()
             .filter(t -> !cachedTables.containsKey(t))
             .collect(Collectors.toList());
-        List<TableIdentifier> toRemoveTables = cachedTables.keySet().stream()
+        List<TableIdentifier> toRemoveTables = cachedTableIdentifiers.stream()
             .filter(t -> !tableIdentifiers.contains(t))
             .collect(Collectors.toList());
 
         addNewTables(toAddTables);
         clearRemovedTables(toRemoveTables);
+        missingTables.clear();
         this.refreshTime = now;
       }
       return new ArrayList<>(cachedTables.keySet());
     } finally {
-      tablesLock.writeLock().unlock();
+      refreshLock.unlock();
     }
   }
 
@@ -317,23 +391,38 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
     if (CollectionUtils.isEmpty(toAddTables)) {
       return;
     }
+    int added = 0;
     for (TableIdentifier toAddTable : toAddTables) {
       try {
-        ArcticMetaValidator.nuSuchObjectValidator(metaService, toAddTable);
-      } catch (Exception e) {
-        LOG.error("no such table " + toAddTable, e);
-        continue;
+        if (addNewTable(toAddTable)) {
+          added++;
+        }
+      } catch (Throwable t) {
+        LOG.error("cannot add table to server " + toAddTable, t);
       }
-      TableMetadata tableMetadata = metaService.loadTableMetadata(toAddTable);
-      ArcticCatalog catalog = CatalogLoader.load(metastoreClient, toAddTable.getCatalog());
-      ArcticTable arcticTable = catalog.loadTable(toAddTable);
-      TableOptimizeItem newTableItem = new TableOptimizeItem(arcticTable, tableMetadata);
-      long createTime = PropertyUtil.propertyAsLong(tableMetadata.getProperties(), TableProperties.TABLE_CREATE_TIME,
-          TableProperties.TABLE_CREATE_TIME_DEFAULT);
-      newTableItem.getTableOptimizeRuntime().setOptimizeStatusStartTime(createTime);
-      addTableIntoCache(newTableItem, arcticTable.properties(), true);
     }
-    LOG.info("add new tables[{}] {}", toAddTables.size(), toAddTables);
+    LOG.info("add new tables[{}] {}", added, toAddTables);
+  }
+
+  /**
+   * Add a table into cache. Only table metadata in sysdb is loaded, the arctic table is loaded from catalog when it
+   * is used at first time.
+   *
+   * @return true if the table is added by this call
+   */
+  private boolean addNewTable(TableIdentifier toAddTable) {
+    try {
+      ArcticMetaValidator.nuSuchObjectValidator(metaService, toAddTable);
+    } catch (Exception e) {
+      LOG.error("no such table " + toAddTable, e);
+      return false;
+    }
+    TableMetadata tableMetadata = metaService.loadTableMetadata(toAddTable);
+    TableOptimizeItem newTableItem = new TableOptimizeItem(null, tableMetadata);
+    long createTime = PropertyUtil.propertyAsLong(tableMetadata.getProperties(), TableProperties.TABLE_CREATE_TIME,
+        TableProperties.TABLE_CREATE_TIME_DEFAULT);
+    newTableItem.getTableOptimizeRuntime().setOptimizeStatusStartTime(createTime);
+    return addTableIntoCache(newTableItem, tableMetadata.getProperties(), true);
   }
 
   private void clearRemovedTables(List<TableIdentifier> toRemoveTables) {
@@ -341,9 +430,11 @@ public class OptimizeService extends IJDBCService implements IOptimizeService {
       return;
     }
     toRemoveTables.forEach(this::clearTableCache);
+    List<TableIdentifier> validTables = new ArrayList<>(cachedTables.keySet());
     internalCheckOptimizeChecker(
-        this.optimizeStatusCheckInterval == null ? DEFAULT_CHECK_INTERVAL : this.optimizeStatusCheckInterval);
-    internalCheckOptimizeCommitter();
+        this.optimizeStatusCheckInterval == null ? DEFAULT_CHECK_INTERVAL : this.optimizeStatusCheckInterval,
+        validTables);
+    internalCheckOptimizeCommitter(validTables);
     LOG.info("clear tables[{}] {}", toRemoveTables.size(), toRemoveTables);
   }
 
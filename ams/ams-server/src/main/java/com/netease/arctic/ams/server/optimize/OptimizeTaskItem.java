@@ -54,6 +54,8 @@ public class OptimizeTaskItem extends IJDBCService {
   private final BaseOptimizeTask optimizeTask;
   private final BaseOptimizeTaskRuntime optimizeRuntime;
   private final ReentrantLock lock = new ReentrantLock();
+  // quota usage of table which is updated when runtime of task changes, null if task is not tracked
+  private TableQuotaUsage quotaUsage;
 
   public OptimizeTaskItem(BaseOptimizeTask optimizeTask,
                           BaseOptimizeTaskRuntime optimizeRuntime) {
@@ -83,8 +85,10 @@ public class OptimizeTaskItem extends IJDBCService {
       if (optimizeRuntime.getStatus() == OptimizeStatus.Failed) {
         optimizeRuntime.setRetry(optimizeRuntime.getRetry() + 1);
       }
-      optimizeRuntime.setPendingTime(System.currentTimeMillis());
-      optimizeRuntime.setStatus(OptimizeStatus.Pending);
+      updateRuntime(() -> {
+        optimizeRuntime.setPendingTime(System.currentTimeMillis());
+        optimizeRuntime.setStatus(OptimizeStatus.Pending);
+      });
       persistTaskRuntime(false);
     } finally {
       lock.unlock();
@@ -95,10 +99,12 @@ public class OptimizeTaskItem extends IJDBCService {
     lock.lock();
     try {
       long currentTime = System.currentTimeMillis();
-      optimizeRuntime.setAttemptId(attemptId);
-      optimizeRuntime.setExecuteTime(currentTime);
-      optimizeRuntime.setJobId(jobId);
-      optimizeRuntime.setStatus(OptimizeStatus.Executing);
+      updateRuntime(() -> {
+        optimizeRuntime.setAttemptId(attemptId);
+        optimizeRuntime.setExecuteTime(currentTime);
+        optimizeRuntime.setJobId(jobId);
+        optimizeRuntime.setStatus(OptimizeStatus.Executing);
+      });
       persistTaskRuntime(false);
       return constructTableTaskHistory(currentTime);
     } catch (Throwable t) {
@@ -113,8 +119,10 @@ public class OptimizeTaskItem extends IJDBCService {
   public void onCommitted(long commitTime) {
     lock.lock();
     try {
-      optimizeRuntime.setCommitTime(commitTime);
-      optimizeRuntime.setStatus(OptimizeStatus.Committed);
+      updateRuntime(() -> {
+        optimizeRuntime.setCommitTime(commitTime);
+        optimizeRuntime.setStatus(OptimizeStatus.Committed);
+      });
       // after commit if will be delete, there is no need to update
       persistTaskRuntime(false);
     } finally {
@@ -126,37 +134,131 @@ public class OptimizeTaskItem extends IJDBCService {
     long reportTime = System.currentTimeMillis();
     lock.lock();
     try {
-      optimizeRuntime.setErrorMessage(errorMessage);
-      optimizeRuntime.setStatus(OptimizeStatus.Failed);
-      optimizeRuntime.setReportTime(reportTime);
-      optimizeRuntime.setAttemptId(null);
-      optimizeRuntime.setCostTime(costTime);
+      updateRuntime(() -> setFailed(optimizeRuntime, errorMessage, reportTime, costTime));
       persistTaskRuntime(false);
     } finally {
       lock.unlock();
     }
   }
 
+  /**
+   * Write the runtime of task status Failed with the given session which is committed by caller. The runtime in
+   * memory is not changed, the returned action applies it and must only run after the session is committed.
+   */
+  Runnable onFailed(ErrorMessage errorMessage, long costTime, SqlSession sqlSession) {
+    long reportTime = System.currentTimeMillis();
+    lock.lock();
+    try {
+      BaseOptimizeTaskRuntime newRuntime = optimizeRuntime.copy();
+      setFailed(newRuntime, errorMessage, reportTime, costTime);
+      writeTaskRuntime(sqlSession, newRuntime, false);
+      return () -> applyTaskRuntime(newRuntime);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   public void onPrepared(long preparedTime, List<ByteBuffer> targetFiles, long newFileSize, long costTime) {
     long reportTime = System.currentTimeMillis();
     lock.lock();
     try {
-      if (optimizeRuntime.getExecuteTime() == BaseOptimizeTaskRuntime.INVALID_TIME) {
-        optimizeRuntime.setExecuteTime(preparedTime);
-      }
-      optimizeRuntime.setPreparedTime(preparedTime);
-      optimizeRuntime.setStatus(OptimizeStatus.Prepared);
-      optimizeRuntime.setReportTime(reportTime);
-      optimizeRuntime.setNewFileCnt(targetFiles == null ? 0 : targetFiles.size());
-      optimizeRuntime.setNewFileSize(newFileSize);
-      optimizeRuntime.setTargetFiles(targetFiles);
-      optimizeRuntime.setCostTime(costTime);
+      updateRuntime(() -> setPrepared(optimizeRuntime, preparedTime, reportTime, targetFiles, newFileSize, costTime));
       persistTaskRuntime(true);
     } finally {
       lock.unlock();
     }
   }
 
+  /**
+   * Write the runtime of task status Prepared with the given session which is committed by caller. The runtime in
+   * memory is not changed, the returned action applies it and must only run after the session is committed.
+   */
+  Runnable onPrepared(long preparedTime, List<ByteBuffer> targetFiles, long newFileSize, long costTime,
+                      SqlSession sqlSession) {
+    long reportTime = System.currentTimeMillis();
+    lock.lock();
+    try {
+      BaseOptimizeTaskRuntime newRuntime = optimizeRuntime.copy();
+      setPrepared(newRuntime, preparedTime, reportTime, targetFiles, newFileSize, costTime);
+      writeTaskRuntime(sqlSession, newRuntime, true);
+      return () -> applyTaskRuntime(newRuntime);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void setFailed(BaseOptimizeTaskRuntime runtime, ErrorMessage errorMessage, long reportTime,
+                                long costTime) {
+    runtime.setErrorMessage(errorMessage);
+    runtime.setStatus(OptimizeStatus.Failed);
+    runtime.setReportTime(reportTime);
+    runtime.setAttemptId(null);
+    runtime.setCostTime(costTime);
+  }
+
+  private static void setPrepared(BaseOptimizeTaskRuntime runtime, long preparedTime, long reportTime,
+                                  List<ByteBuffer> targetFiles, long newFileSize, long costTime) {
+    if (runtime.getExecuteTime() == BaseOptimizeTaskRuntime.INVALID_TIME) {
+      runtime.setExecuteTime(preparedTime);
+    }
+    runtime.setPreparedTime(preparedTime);
+    runtime.setStatus(OptimizeStatus.Prepared);
+    runtime.setReportTime(reportTime);
+    runtime.setNewFileCnt(targetFiles == null ? 0 : targetFiles.size());
+    runtime.setNewFileSize(newFileSize);
+    runtime.setTargetFiles(targetFiles);
+    runtime.setCostTime(costTime);
+  }
+
+  private void applyTaskRuntime(BaseOptimizeTaskRuntime newRuntime) {
+    lock.lock();
+    try {
+      updateRuntime(() -> optimizeRuntime.copyFrom(newRuntime));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Track quota used by this task in the given usage of table, until {@link #untrackQuotaUsage()}.
+   */
+  void trackQuotaUsage(TableQuotaUsage quotaUsage) {
+    lock.lock();
+    try {
+      untrackQuotaUsage();
+      this.quotaUsage = quotaUsage;
+      quotaUsage.addTask(this);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void untrackQuotaUsage() {
+    lock.lock();
+    try {
+      if (quotaUsage != null) {
+        quotaUsage.removeTask(this);
+        quotaUsage = null;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // must be called with lock held
+  private void updateRuntime(Runnable update) {
+    if (quotaUsage == null) {
+      update.run();
+      return;
+    }
+    quotaUsage.removeTask(this);
+    try {
+      update.run();
+    } finally {
+      quotaUsage.addTask(this);
+    }
+  }
+
   public boolean canExecute(Supplier<Integer> maxRetry) {
     if (getOptimizeStatus() == OptimizeStatus.Init) {
       return true;
@@ -230,35 +332,41 @@ public class OptimizeTaskItem extends IJDBCService {
 
   private void persistTaskRuntime(boolean updateTargetFiles) {
     try (SqlSession sqlSession = getSqlSession(false)) {
-      OptimizeTaskRuntimesMapper optimizeTaskRuntimesMapper =
-          getMapper(sqlSession, OptimizeTaskRuntimesMapper.class);
-      InternalTableFilesMapper internalTableFilesMapper =
-          getMapper(sqlSession, InternalTableFilesMapper.class);
-
-      optimizeTaskRuntimesMapper.updateOptimizeTaskRuntime(optimizeRuntime);
-      if (updateTargetFiles) {
-        try {
-          internalTableFilesMapper.deleteOptimizeTaskTargetFile(optimizeTask.getTaskId());
-          optimizeRuntime.getTargetFiles().forEach(file -> {
-            ContentFile<?> contentFile = SerializationUtil.toInternalTableFile(file);
-            if (contentFile instanceof DataFile) {
-              internalTableFilesMapper.insertOptimizeTaskFile(optimizeTask.getTaskId(),
-                  DataFileType.BASE_FILE, 1, SerializationUtil.byteBufferToByteArray(file));
-            } else {
-              internalTableFilesMapper.insertOptimizeTaskFile(optimizeTask.getTaskId(),
-                  DataFileType.POS_DELETE_FILE, 1, SerializationUtil.byteBufferToByteArray(file));
-            }
-          });
-        } catch (Exception e) {
-          LOG.error("Update the internal table files failed.", e);
-          sqlSession.rollback(true);
-          throw e;
-        }
+      try {
+        writeTaskRuntime(sqlSession, optimizeRuntime, updateTargetFiles);
+      } catch (Exception e) {
+        LOG.error("failed to persist runtime of task {}", optimizeTask.getTaskId(), e);
+        sqlSession.rollback(true);
+        throw e;
       }
       sqlSession.commit(true);
     }
   }
 
+  private void writeTaskRuntime(SqlSession sqlSession, BaseOptimizeTaskRuntime runtime, boolean updateTargetFiles) {
+    OptimizeTaskRuntimesMapper optimizeTaskRuntimesMapper =
+        getMapper(sqlSession, OptimizeTaskRuntimesMapper.class);
+    InternalTableFilesMapper internalTableFilesMapper =
+        getMapper(sqlSession, InternalTableFilesMapper.class);
+
+    optimizeTaskRuntimesMapper.updateOptimizeTaskRuntime(runtime);
+    if (updateTargetFiles) {
+      internalTableFilesMapper.deleteOptimizeTaskTargetFile(optimizeTask.getTaskId());
+      List<ByteBuffer> targetFiles = runtime.getTargetFiles() == null ?
+          Collections.emptyList() : runtime.getTargetFiles();
+      targetFiles.forEach(file -> {
+        ContentFile<?> contentFile = SerializationUtil.toInternalTableFile(file);
+        if (contentFile instanceof DataFile) {
+          internalTableFilesMapper.insertOptimizeTaskFile(optimizeTask.getTaskId(),
+              DataFileType.BASE_FILE, 1, SerializationUtil.byteBufferToByteArray(file));
+        } else {
+          internalTableFilesMapper.insertOptimizeTaskFile(optimizeTask.getTaskId(),
+              DataFileType.POS_DELETE_FILE, 1, SerializationUtil.byteBufferToByteArray(file));
+        }
+      });
+    }
+  }
+
   private TableTaskHistory constructTableTaskHistory(long currentTime) {
     TableTaskHistory tableTaskHistory = new TableTaskHistory();
     tableTaskHistory.setTableIdentifier(new TableIdentifier(optimizeTask.getTableIdentifier()));
@@ -27,6 +27,7 @@ import com.netease.arctic.ams.api.OptimizeRangeType;
 import com.netease.arctic.ams.api.OptimizeTaskId;
 import com.netease.arctic.ams.api.OptimizeTaskStat;
 import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.TableCommitMeta;
 import com.netease.arctic.ams.server.mapper.OptimizeHistoryMapper;
 import com.netease.arctic.ams.server.mapper.TableOptimizeRuntimeMapper;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
@@ -34,6 +35,7 @@ import com.netease.arctic.ams.server.model.BaseOptimizeTaskRuntime;
 import com.netease.arctic.ams.server.model.CoreInfo;
 import com.netease.arctic.ams.server.model.FilesStatistics;
 import com.netease.arctic.ams.server.model.OptimizeHistory;
+import com.netease.arctic.ams.server.model.SnapshotStatistics;
 import com.netease.arctic.ams.server.model.TableMetadata;
 import com.netease.arctic.ams.server.model.TableOptimizeInfo;
 import com.netease.arctic.ams.server.model.TableOptimizeRuntime;
@@ -48,14 +50,16 @@ import com.netease.arctic.ams.server.utils.TableStatCollector;
 import com.netease.arctic.ams.server.utils.UnKeyedTableUtil;
 import com.netease.arctic.catalog.ArcticCatalog;
 import com.netease.arctic.catalog.CatalogLoader;
-import com.netease.arctic.data.DataFileType;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.TableIdentifier;
 import com.netease.arctic.table.TableProperties;
+import com.netease.arctic.table.UnkeyedTable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.base.Predicate;
 import org.apache.iceberg.util.PropertyUtil;
@@ -93,6 +97,12 @@ public class TableOptimizeItem extends IJDBCService {
   private final ReentrantLock tasksCommitLock = new ReentrantLock();
 
   private final Map<OptimizeTaskId, OptimizeTaskItem> optimizeTasks = new LinkedHashMap<>();
+  private final OptimizeFileIndex fileIndex;
+  private final OptimizeCommitMetrics commitMetrics = new OptimizeCommitMetrics();
+  // quota used by the tasks in memory
+  private final TableQuotaUsage taskQuotaUsage = new TableQuotaUsage();
+  // quota used by the committed tasks of the latest task history
+  private volatile QuotaUsage committedQuotaUsage;
 
   private volatile long metaRefreshTime;
 
@@ -117,6 +127,8 @@ public class TableOptimizeItem extends IJDBCService {
         TableProperties.OPTIMIZE_QUOTA_DEFAULT);
     this.tableIdentifier = tableMetadata.getTableIdentifier();
     this.fileInfoCacheService = ServiceContainer.getFileInfoCacheService();
+    this.fileIndex = new OptimizeFileIndex(tableIdentifier, (innerTable, partitions) ->
+        fileInfoCacheService.getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), innerTable, partitions));
     this.metastoreClient = ServiceContainer.getTableMetastoreHandler();
     this.quotaService = ServiceContainer.getQuotaService();
   }
@@ -128,7 +140,10 @@ public class TableOptimizeItem extends IJDBCService {
   public void initOptimizeTasks(List<OptimizeTaskItem> optimizeTasks) {
     if (CollectionUtils.isNotEmpty(optimizeTasks)) {
       optimizeTasks
-          .forEach(task -> this.optimizeTasks.put(task.getOptimizeTask().getTaskId(), task));
+          .forEach(task -> {
+            this.optimizeTasks.put(task.getOptimizeTask().getTaskId(), task);
+            task.trackQuotaUsage(taskQuotaUsage);
+          });
     }
   }
 
@@ -181,10 +196,7 @@ public class TableOptimizeItem extends IJDBCService {
    * @return true/false
    */
   public boolean isKeyedTable() {
-    if (arcticTable == null) {
-      tryRefresh(false);
-    }
-    return arcticTable.isKeyedTable();
+    return getArcticTable().isKeyedTable();
   }
 
   /**
@@ -195,6 +207,102 @@ public class TableOptimizeItem extends IJDBCService {
     return quotaCache;
   }
 
+  /**
+   * Get quota used by the latest optimize of table divided by the quota of table. The usage of tasks in memory is
+   * updated when they start or finish executing, task history is only read once when the tasks of the latest
+   * optimize are not in memory, e.g. after AMS restarted.
+   * @param currentTime -
+   * @return 0 if table has not been optimized
+   */
+  public double getQuotaRate(long currentTime) {
+    String latestHistoryId = tableOptimizeRuntime.getLatestTaskHistoryId();
+    if (StringUtils.isEmpty(latestHistoryId)) {
+      return 0;
+    }
+    long startTime = 0;
+    long costTime = 0;
+    QuotaUsage running = taskQuotaUsage.getQuotaUsage(latestHistoryId, currentTime);
+    if (running != null) {
+      startTime = running.startTime;
+      costTime = running.costTime;
+    }
+    QuotaUsage committed = committedQuotaUsage;
+    if (committed == null || !latestHistoryId.equals(committed.taskHistoryId)) {
+      committed = running != null ? null : loadQuotaUsage(latestHistoryId, currentTime);
+    }
+    if (committed != null && committed.startTime != 0) {
+      startTime = startTime == 0 ? committed.startTime : Math.min(startTime, committed.startTime);
+      costTime += committed.costTime;
+    }
+    if (startTime == 0) {
+      return 0;
+    }
+    if (quotaCache <= 0) {
+      return Double.MAX_VALUE;
+    }
+    return (double) costTime / Math.max(1, currentTime - startTime) / quotaCache;
+  }
+
+  /**
+   * Get optimize pressure of table, the number of change files and delete files waiting for optimizing relative to
+   * the optimize triggers of table. It is 0 before table is planned for the first time.
+   * @return pressure
+   */
+  public double getOptimizePressure() {
+    int pendingChangeFiles = fileIndex.getChangeFileCount();
+    int pendingDeleteFiles = fileIndex.getDeleteFileCount();
+    if (pendingChangeFiles == 0 && pendingDeleteFiles == 0) {
+      // also the case before the first plan, do not load the table only to rank it
+      return 0;
+    }
+    Map<String, String> properties = getArcticTable().properties();
+    int smallFileCount = PropertyUtil.propertyAsInt(properties, TableProperties.MAJOR_OPTIMIZE_TRIGGER_SMALL_FILE_COUNT,
+        TableProperties.MAJOR_OPTIMIZE_TRIGGER_SMALL_FILE_COUNT_DEFAULT);
+    int deleteFileCount = PropertyUtil.propertyAsInt(properties,
+        TableProperties.MINOR_OPTIMIZE_TRIGGER_DELETE_FILE_COUNT,
+        TableProperties.MINOR_OPTIMIZE_TRIGGER_DELETE_FILE_COUNT_DEFAULT);
+    return (double) pendingChangeFiles / Math.max(1, smallFileCount) +
+        (double) pendingDeleteFiles / Math.max(1, deleteFileCount);
+  }
+
+  /**
+   * Get version of the quota usage of table, it changes when tasks are added, removed, start or finish executing,
+   * so the quota rate of table only has to be evaluated again when the version changes or time passes.
+   * @return version
+   */
+  public long getQuotaVersion() {
+    return taskQuotaUsage.getVersion();
+  }
+
+  private QuotaUsage loadQuotaUsage(String taskHistoryId, long currentTime) {
+    List<TableTaskHistory> taskHistories =
+        ServiceContainer.getTableTaskHistoryService().selectTaskHistory(tableIdentifier, taskHistoryId);
+    QuotaUsage quotaUsage = new QuotaUsage(taskHistoryId, 0, 0);
+    if (taskHistories != null) {
+      for (TableTaskHistory taskHistory : taskHistories) {
+        quotaUsage = quotaUsage.add(taskHistory.getStartTime(), taskHistory.getCostTime() != 0 ?
+            taskHistory.getCostTime() : currentTime - taskHistory.getStartTime());
+      }
+    }
+    // remember the usage even if there is no history, so task history is not read again for this optimize
+    committedQuotaUsage = quotaUsage;
+    return quotaUsage;
+  }
+
+  private void recordCommittedQuotaUsage(Collection<TableTaskHistory> taskHistories) {
+    String latestHistoryId = tableOptimizeRuntime.getLatestTaskHistoryId();
+    QuotaUsage committed = committedQuotaUsage;
+    if (committed == null || !Objects.equals(latestHistoryId, committed.taskHistoryId)) {
+      committed = new QuotaUsage(latestHistoryId, 0, 0);
+    }
+    for (TableTaskHistory taskHistory : taskHistories) {
+      if (Objects.equals(latestHistoryId, taskHistory.getTaskHistoryId())) {
+        committed = committed.add(taskHistory.getStartTime(), taskHistory.getCostTime());
+      }
+    }
+    committedQuotaUsage = committed;
+  }
+
   /**
    * Get Optimize commit interval.
    * @return interval of milliseconds
@@ -242,19 +350,7 @@ public class TableOptimizeItem extends IJDBCService {
    * @param optimizeTaskStat - optimizeTaskStat
    */
   public void updateOptimizeTaskStat(OptimizeTaskStat optimizeTaskStat) {
-    Objects.requireNonNull(optimizeTaskStat, "optimizeTaskStat can't be null");
-    Objects.requireNonNull(optimizeTaskStat.getTaskId(), "optimizeTaskId can't be null");
-
-    OptimizeTaskItem optimizeTaskItem = optimizeTasks.get(optimizeTaskStat.getTaskId());
-    Preconditions.checkNotNull(optimizeTaskItem, "can't find optimize task " + optimizeTaskStat.getTaskId());
-    LOG.info("{} task {} ==== updateMajorOptimizeTaskStat, group = {}, status = {}, attemptId={}",
-        optimizeTaskItem.getTableIdentifier(), optimizeTaskItem.getOptimizeTask().getTaskId(),
-        optimizeTaskItem.getOptimizeTask().getTaskGroup(), optimizeTaskStat.getStatus(),
-        optimizeTaskStat.getAttemptId());
-    Preconditions.checkArgument(
-        Objects.equals(optimizeTaskStat.getAttemptId(), optimizeTaskItem.getOptimizeRuntime().getAttemptId()),
-        "wrong attemptId " + optimizeTaskStat.getAttemptId() + " valid attemptId " +
-            optimizeTaskItem.getOptimizeRuntime().getAttemptId());
+    OptimizeTaskItem optimizeTaskItem = checkOptimizeTaskStat(optimizeTaskStat);
     switch (optimizeTaskStat.getStatus()) {
       case Failed:
         optimizeTaskItem.onFailed(optimizeTaskStat.getErrorMessage(), optimizeTaskStat.getCostTime());
@@ -268,6 +364,46 @@ public class TableOptimizeItem extends IJDBCService {
     }
   }
 
+  /**
+   * Write optimize task result, Failed or Prepared, with the given session which is committed by caller.
+   * @param optimizeTaskStat - optimizeTaskStat
+   * @param sqlSession - session of the batch
+   * @return action updating the task in memory, to run only after the session is committed
+   */
+  Runnable updateOptimizeTaskStat(OptimizeTaskStat optimizeTaskStat, SqlSession sqlSession) {
+    OptimizeTaskItem optimizeTaskItem = checkOptimizeTaskStat(optimizeTaskStat);
+    switch (optimizeTaskStat.getStatus()) {
+      case Failed:
+        return optimizeTaskItem.onFailed(optimizeTaskStat.getErrorMessage(), optimizeTaskStat.getCostTime(),
+            sqlSession);
+      case Prepared:
+        return optimizeTaskItem.onPrepared(optimizeTaskStat.getReportTime(),
+            optimizeTaskStat.getFiles(), optimizeTaskStat.getNewFileSize(), optimizeTaskStat.getCostTime(),
+            sqlSession);
+      default:
+        throw new IllegalArgumentException("unsupported status: " + optimizeTaskStat.getStatus());
+    }
+  }
+
+  private OptimizeTaskItem checkOptimizeTaskStat(OptimizeTaskStat optimizeTaskStat) {
+    Preconditions.checkArgument(optimizeTaskStat != null, "optimizeTaskStat can't be null");
+    Preconditions.checkArgument(optimizeTaskStat.getTaskId() != null, "optimizeTaskId can't be null");
+    Preconditions.checkArgument(optimizeTaskStat.getStatus() != null,
+        "status of optimize task " + optimizeTaskStat.getTaskId() + " can't be null");
+
+    OptimizeTaskItem optimizeTaskItem = optimizeTasks.get(optimizeTaskStat.getTaskId());
+    Preconditions.checkArgument(optimizeTaskItem != null, "can't find optimize task " + optimizeTaskStat.getTaskId());
+    LOG.info("{} task {} ==== updateMajorOptimizeTaskStat, group = {}, status = {}, attemptId={}",
+        optimizeTaskItem.getTableIdentifier(), optimizeTaskItem.getOptimizeTask().getTaskId(),
+        optimizeTaskItem.getOptimizeTask().getTaskGroup(), optimizeTaskStat.getStatus(),
+        optimizeTaskStat.getAttemptId());
+    Preconditions.checkArgument(
+        Objects.equals(optimizeTaskStat.getAttemptId(), optimizeTaskItem.getOptimizeRuntime().getAttemptId()),
+        "wrong attemptId " + optimizeTaskStat.getAttemptId() + " valid attemptId " +
+            optimizeTaskItem.getOptimizeRuntime().getAttemptId());
+    return optimizeTaskItem;
+  }
+
   /**
    * Build current table optimize info.
    * @return TableOptimizeInfo
@@ -413,6 +549,7 @@ public class TableOptimizeItem extends IJDBCService {
         if (optimizeTasks.putIfAbsent(optimizeTask.getTaskId(), optimizeTaskItem) != null) {
           throw new AlreadyExistsException(optimizeTask.getTaskId() + " already exists");
         }
+        optimizeTaskItem.trackQuotaUsage(taskQuotaUsage);
         optimizeTaskItem.persistOptimizeTask();
         addedOptimizeTaskIds.add(optimizeTask.getTaskId());
         LOG.info("{} add new task {}", tableIdentifier, optimizeTask);
@@ -429,6 +566,7 @@ public class TableOptimizeItem extends IJDBCService {
       for (OptimizeTaskId addedOptimizeTaskId : addedOptimizeTaskIds) {
         OptimizeTaskItem removed = optimizeTasks.remove(addedOptimizeTaskId);
         if (removed != null) {
+          removed.untrackQuotaUsage();
           removed.clearOptimizeTask();
         }
       }
@@ -552,6 +690,7 @@ public class TableOptimizeItem extends IJDBCService {
     try {
       OptimizeTaskItem removed = optimizeTasks.remove(optimizeTaskId);
       if (removed != null) {
+        removed.untrackQuotaUsage();
         removed.clearOptimizeTask();
       }
       LOG.info("{} removed", optimizeTaskId);
@@ -570,6 +709,7 @@ public class TableOptimizeItem extends IJDBCService {
       optimizeTasks.clear();
       Set<String> removedTaskHistory = new HashSet<>();
       for (OptimizeTaskItem task : toRemoved) {
+        task.untrackQuotaUsage();
         task.clearOptimizeTask();
         removedTaskHistory.add(task.getOptimizeTask().getTaskHistoryId());
       }
@@ -646,26 +786,45 @@ public class TableOptimizeItem extends IJDBCService {
    */
   public void commitOptimizeTasks() throws Exception {
     tasksCommitLock.lock();
-
-    // check current base table snapshot whether changed when minor optimize
-    if (isMinorOptimizing()) {
-      if (tableOptimizeRuntime.getCurrentSnapshotId() !=
-          UnKeyedTableUtil.getSnapshotId(arcticTable.asKeyedTable().baseTable())) {
-        LOG.info("the latest snapshot has changed in base table {}, give up commit.", tableIdentifier);
-        clearOptimizeTasks();
-        tableOptimizeRuntime.setRunning(false);
+    try {
+      // check current base table snapshot whether changed when minor optimize
+      if (isMinorOptimizing()) {
+        if (tableOptimizeRuntime.getCurrentSnapshotId() !=
+            UnKeyedTableUtil.getSnapshotId(getArcticTable().asKeyedTable().baseTable())) {
+          LOG.info("the latest snapshot has changed in base table {}, give up commit.", tableIdentifier);
+          clearOptimizeTasks();
+          tableOptimizeRuntime.setRunning(false);
+        }
       }
-    }
 
-    try {
       Map<String, List<OptimizeTaskItem>> tasksToCommit = getOptimizeTasksToCommit();
       long taskCount = tasksToCommit.values().stream().mapToLong(Collection::size).sum();
       if (MapUtils.isNotEmpty(tasksToCommit)) {
         LOG.info("{} get {} tasks of {} partitions to commit", tableIdentifier, taskCount, tasksToCommit.size());
         BaseOptimizeCommit optimizeCommit = new BaseOptimizeCommit(getArcticTable(true), tasksToCommit);
-        long commitTime = optimizeCommit.commit(tableOptimizeRuntime);
-        optimizeTasksCommitted(
-            optimizeCommit.getCommittedTasks(), commitTime, optimizeCommit.getPartitionOptimizeType());
+        long startTime = System.currentTimeMillis();
+        long commitTime;
+        try {
+          commitTime = optimizeCommit.commit(tableOptimizeRuntime);
+        } catch (Exception e) {
+          commitMetrics.commitFailed(System.currentTimeMillis() - startTime);
+          throw e;
+        }
+        commitMetrics.commitSucceeded(System.currentTimeMillis() - startTime, optimizeCommit.getConflictRetries());
+        LOG.info("{} optimize commit metrics {}", tableIdentifier, commitMetrics);
+        // record before committed tasks are removed, so quota usage of them is not lost in between
+        recordCommittedQuotaUsage(optimizeCommit.getCommitTableTaskHistory().values());
+
+        // tasks of conflicted partitions are dropped, these partitions will be planned again
+        optimizeCommit.getConflictedTasks().values().stream().flatMap(Collection::stream)
+            .map(OptimizeTaskItem::getTaskId)
+            .forEach(this::removeOptimizeTask);
+        if (MapUtils.isNotEmpty(optimizeCommit.getCommittedTasks())) {
+          optimizeTasksCommitted(
+              optimizeCommit.getCommittedTasks(), commitTime, optimizeCommit.getPartitionOptimizeType());
+        } else {
+          updateTableOptimizeStatus();
+        }
         Map<String, TableTaskHistory> commitTableTaskHistory = optimizeCommit.getCommitTableTaskHistory();
         ITableTaskHistoryService tableTaskHistoryService = ServiceContainer.getTableTaskHistoryService();
         commitTableTaskHistory.forEach((key, value) -> tableTaskHistoryService.updateTaskHistory(value));
@@ -694,14 +853,14 @@ public class TableOptimizeItem extends IJDBCService {
    * @return -
    */
   public MajorOptimizePlan getMajorPlan(int queueId, long currentTime) {
-    List<DataFileInfo> baseTableFiles =
-        fileInfoCacheService.getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_BASE);
-    List<DataFileInfo> baseFiles = filterFile(baseTableFiles, DataFileType.BASE_FILE);
-    baseFiles.addAll(filterFile(baseTableFiles, DataFileType.INSERT_FILE));
-    List<DataFileInfo> posDeleteFiles = filterFile(baseTableFiles, DataFileType.POS_DELETE_FILE);
+    OptimizeFileIndex.PlanFiles planFiles =
+        refreshFileIndex().planFiles(OptimizeType.Major, getArcticTable().properties());
 
-    return new MajorOptimizePlan(getArcticTable(), tableOptimizeRuntime,
-        baseFiles, posDeleteFiles, generatePartitionRunning(), queueId, currentTime, snapshotIsCached);
+    MajorOptimizePlan majorPlan = new MajorOptimizePlan(getArcticTable(), tableOptimizeRuntime,
+        planFiles.getBaseFiles(), planFiles.getPosDeleteFiles(), generatePartitionRunning(), queueId, currentTime,
+        snapshotIsCached);
+    majorPlan.setPlanFiles(planFiles);
+    return majorPlan;
   }
 
   /**
@@ -711,17 +870,78 @@ public class TableOptimizeItem extends IJDBCService {
    * @return -
    */
   public MinorOptimizePlan getMinorPlan(int queueId, long currentTime) {
-    List<DataFileInfo> baseTableFiles =
-        fileInfoCacheService.getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_BASE);
-    List<DataFileInfo> baseFiles = filterFile(baseTableFiles, DataFileType.BASE_FILE);
-    baseFiles.addAll(filterFile(baseTableFiles, DataFileType.INSERT_FILE));
-    List<DataFileInfo> posDeleteFiles = filterFile(baseTableFiles, DataFileType.POS_DELETE_FILE);
-
-    List<DataFileInfo> changeTableFiles =
-        fileInfoCacheService.getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_CHANGE);
+    OptimizeFileIndex.PlanFiles planFiles =
+        refreshFileIndex().planFiles(OptimizeType.Minor, getArcticTable().properties());
 
-    return new MinorOptimizePlan(getArcticTable(), tableOptimizeRuntime, baseFiles, changeTableFiles, posDeleteFiles,
+    MinorOptimizePlan minorPlan = new MinorOptimizePlan(getArcticTable(), tableOptimizeRuntime,
+        planFiles.getBaseFiles(), planFiles.getChangeFiles(), planFiles.getPosDeleteFiles(),
         generatePartitionRunning(), queueId, currentTime, snapshotIsCached);
+    minorPlan.setPlanFiles(planFiles);
+    return minorPlan;
+  }
+
+  /**
+   * Apply files committed into table to the optimize file index.
+   * @param commit -
+   */
+  public void onTableCommit(TableCommitMeta commit) {
+    fileIndex.applyCommit(commit);
+  }
+
+  /**
+   * Load files from file cache into the optimize file index, if it is not up to date with current snapshots.
+   * @return the optimize file index
+   */
+  private OptimizeFileIndex refreshFileIndex() {
+    ArcticTable table = getArcticTable();
+    // the index is compared with the latest snapshots, not those the table was loaded with
+    table.refresh();
+    Map<String, Long> currentSnapshotIds = new HashMap<>();
+    if (table.isKeyedTable()) {
+      currentSnapshotIds.put(Constants.INNER_TABLE_BASE, currentSnapshotId(table.asKeyedTable().baseTable()));
+      currentSnapshotIds.put(Constants.INNER_TABLE_CHANGE, currentSnapshotId(table.asKeyedTable().changeTable()));
+    } else {
+      currentSnapshotIds.put(Constants.INNER_TABLE_BASE, currentSnapshotId(table.asUnkeyedTable()));
+    }
+    if (fileIndex.isUpToDate(currentSnapshotIds)) {
+      return fileIndex;
+    }
+
+    Map<String, List<DataFileInfo>> innerTableFiles = new HashMap<>();
+    Map<String, Long> cachedSnapshotIds = new HashMap<>();
+    for (String innerTable : currentSnapshotIds.keySet()) {
+      // get snapshot before files, so that files committed meanwhile can only make the index reload again
+      long cachedSnapshotId = TableOptimizeRuntime.INVALID_SNAPSHOT_ID;
+      try {
+        SnapshotStatistics cachedSnapshot =
+            fileInfoCacheService.getCurrentSnapInfo(tableIdentifier.buildTableIdentifier(), innerTable);
+        if (cachedSnapshot != null) {
+          cachedSnapshotId = cachedSnapshot.getId();
+        }
+      } catch (RuntimeException e) {
+        // the index is still usable for this plan, it is just loaded again next time
+        LOG.warn("{} failed to get cached {} snapshot, reload optimize file index next plan", tableIdentifier,
+            innerTable, e);
+      }
+      cachedSnapshotIds.put(innerTable, cachedSnapshotId);
+      innerTableFiles.put(innerTable,
+          fileInfoCacheService.getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), innerTable));
+    }
+    fileIndex.load(innerTableFiles, cachedSnapshotIds);
+    return fileIndex;
+  }
+
+  private static long currentSnapshotId(UnkeyedTable table) {
+    Snapshot currentSnapshot = table.currentSnapshot();
+    return currentSnapshot == null ? TableOptimizeRuntime.INVALID_SNAPSHOT_ID : currentSnapshot.snapshotId();
+  }
+
+  /**
+   * Get statistics of optimize commits.
+   * @return -
+   */
+  public OptimizeCommitMetrics getCommitMetrics() {
+    return commitMetrics;
   }
 
   /**
@@ -743,12 +963,6 @@ public class TableOptimizeItem extends IJDBCService {
     }
   }
 
-  private List<DataFileInfo> filterFile(List<DataFileInfo> dataFileInfoList, DataFileType fileType) {
-    return dataFileInfoList.stream()
-        .filter(dataFileInfo -> fileType == DataFileType.valueOf(dataFileInfo.getType()))
-        .collect(Collectors.toList());
-  }
-
   private Map<String, Boolean> generatePartitionRunning() {
     Map<String, Boolean> result = new HashMap<>();
     for (OptimizeTaskItem optimizeTask : getOptimizeTasks()) {
@@ -766,4 +980,32 @@ public class TableOptimizeItem extends IJDBCService {
     OptimizeTaskItem optimizeTaskItem = new ArrayList<>(optimizeTasks.values()).get(0);
     return optimizeTaskItem.getTaskId().getType() == OptimizeType.Minor;
   }
-}
\ No newline at end of file
+
+  static class QuotaUsage {
+    private final String taskHistoryId;
+    private final long startTime;
+    private final long costTime;
+
+    QuotaUsage(String taskHistoryId, long startTime, long costTime) {
+      this.taskHistoryId = taskHistoryId;
+      this.startTime = startTime;
+      this.costTime = costTime;
+    }
+
+    long getStartTime() {
+      return startTime;
+    }
+
+    long getCostTime() {
+      return costTime;
+    }
+
+    private QuotaUsage add(long taskStartTime, long taskCostTime) {
+      if (taskStartTime == 0) {
+        return this;
+      }
+      return new QuotaUsage(taskHistoryId, startTime == 0 ? taskStartTime : Math.min(startTime, taskStartTime),
+          costTime + taskCostTime);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.optimize;
+
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.server.model.BaseOptimizeTaskRuntime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Quota used by the tasks of a table in memory, grouped by task history. Tasks update it when they are added,
+ * start or finish executing and are removed, so the quota rate of table is evaluated without walking its tasks.
+ */
+class TableQuotaUsage {
+  private final Map<String, Usage> usages = new HashMap<>();
+  private volatile long version = 0;
+
+  synchronized void addTask(OptimizeTaskItem task) {
+    update(task, 1);
+  }
+
+  synchronized void removeTask(OptimizeTaskItem task) {
+    update(task, -1);
+  }
+
+  /**
+   * Get quota used by the tasks of the given task history.
+   *
+   * @param taskHistoryId -
+   * @param currentTime - executing tasks are charged until this time
+   * @return null if none of the tasks has executed
+   */
+  synchronized TableOptimizeItem.QuotaUsage getQuotaUsage(String taskHistoryId, long currentTime) {
+    Usage usage = usages.get(taskHistoryId);
+    if (usage == null) {
+      return null;
+    }
+    return new TableOptimizeItem.QuotaUsage(taskHistoryId, usage.startTime,
+        usage.costTime + usage.executingTasks * currentTime - usage.executeTimeSum);
+  }
+
+  /**
+   * Get version of the usage, it is increased every time a task is added, removed or changes its status.
+   *
+   * @return version
+   */
+  long getVersion() {
+    return version;
+  }
+
+  private void update(OptimizeTaskItem task, int sign) {
+    version++;
+    BaseOptimizeTaskRuntime runtime = task.getOptimizeRuntime();
+    long executeTime = runtime.getExecuteTime();
+    if (executeTime == BaseOptimizeTaskRuntime.INVALID_TIME) {
+      return;
+    }
+    String taskHistoryId = task.getOptimizeTask().getTaskHistoryId();
+    Usage usage = usages.computeIfAbsent(taskHistoryId, id -> new Usage());
+    usage.tasks += sign;
+    if (usage.tasks <= 0) {
+      usages.remove(taskHistoryId);
+      return;
+    }
+    // start time is kept when the earliest task is removed, the optimize started then anyway
+    if (sign > 0) {
+      usage.startTime = usage.startTime == 0 ? executeTime : Math.min(usage.startTime, executeTime);
+    }
+    if (runtime.getStatus() == OptimizeStatus.Executing) {
+      usage.executingTasks += sign;
+      usage.executeTimeSum += sign * executeTime;
+    } else {
+      usage.costTime += sign * runtime.getCostTime();
+    }
+  }
+
+  private static class Usage {
+    // tasks which have executed
+    private int tasks;
+    private long startTime;
+    // cost time of tasks not executing
+    private long costTime;
+    private int executingTasks;
+    private long executeTimeSum;
+  }
+}
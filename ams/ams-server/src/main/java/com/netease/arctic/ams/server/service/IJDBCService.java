@@ -22,6 +22,7 @@ import com.netease.arctic.ams.server.ArcticMetaStore;
 import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
 import com.netease.arctic.ams.server.utils.JDBCSqlSessionFactoryProvider;
 import org.apache.ibatis.io.ResolverUtil;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
@@ -45,6 +46,15 @@ public abstract class IJDBCService {
     return getSqlSessionFactory().openSession(autoCommit);
   }
 
+  /**
+   * Get a session which sends statements to database in JDBC batches, call flushStatements to send a batch.
+   *
+   * @return session with batch executor, not auto commit
+   */
+  public SqlSession getBatchSqlSession() {
+    return getSqlSessionFactory().openSession(ExecutorType.BATCH, false);
+  }
+
   public <T> T getMapper(SqlSession sqlSession, Class<T> type) {
     if (ArcticMetaStore.conf.getString(ArcticMetaStoreConf.DB_TYPE).equals("derby")) {
       if (mapperIntfMap.get(type) == null) {
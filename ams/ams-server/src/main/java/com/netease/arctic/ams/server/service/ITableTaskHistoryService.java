@@ -28,6 +28,8 @@ public interface ITableTaskHistoryService {
 
   void insertTaskHistory(TableTaskHistory taskHistory);
 
+  void insertTaskHistories(List<TableTaskHistory> taskHistories);
+
   void updateTaskHistory(TableTaskHistory taskHistory);
 
   List<TableTaskHistory> selectTaskHistoryByQueueIdAndTime(int queueId, long startTime, long endTime);
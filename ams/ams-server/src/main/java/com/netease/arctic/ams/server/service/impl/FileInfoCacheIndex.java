@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.service.impl;
+
+import com.netease.arctic.ams.api.DataFileInfo;
+import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.model.CacheFileInfo;
+import com.netease.arctic.ams.server.model.PartitionBaseInfo;
+import com.netease.arctic.ams.server.model.PartitionFileBaseInfo;
+import com.netease.arctic.ams.server.utils.TableMetadataUtil;
+import org.apache.iceberg.relocated.com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory index of the file cache, serving the file cache queries of optimizing, expiring and dashboard without
+ * going to the database.
+ * <p>
+ * A table is loaded from the database the first time it is queried, and after that kept consistent with the rows
+ * written into the file cache. Besides the rows by primary key, each table indexes its rows by partition, its live
+ * files by inner table and commit time and its deleted files by commit time.
+ */
+public class FileInfoCacheIndex {
+
+  private final Map<TableIdentifier, TableFiles> tables = new ConcurrentHashMap<>();
+  private final Function<TableIdentifier, List<CacheFileInfo>> loader;
+
+  /**
+   * @param loader load all file cache rows of a table from database
+   */
+  public FileInfoCacheIndex(Function<TableIdentifier, List<CacheFileInfo>> loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Same as {@link com.netease.arctic.ams.server.mapper.FileInfoCacheMapper#getOptimizeDatafiles}.
+   */
+  public List<DataFileInfo> getOptimizeDatafiles(TableIdentifier tableIdentifier, String innerTable) {
+    TableFiles tableFiles = loadedTable(tableIdentifier);
+    synchronized (tableFiles) {
+      return tableFiles.liveFiles(innerTable, Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Get the live files of inner table in the given partitions, empty string for the files without partition.
+   */
+  public List<DataFileInfo> getOptimizeDatafiles(TableIdentifier tableIdentifier, String innerTable,
+                                                 Set<String> partitions) {
+    TableFiles tableFiles = loadedTable(tableIdentifier);
+    List<DataFileInfo> rs = new ArrayList<>();
+    synchronized (tableFiles) {
+      for (String partition : partitions) {
+        Set<String> keys = tableFiles.filesByPartition.get(partition.isEmpty() ? null : partition);
+        if (keys == null) {
+          continue;
+        }
+        for (String key : keys) {
+          CacheFileInfo file = tableFiles.files.get(key);
+          if (file.getDeleteSnapshotId() == null && innerTable.equals(file.getInnerTable())) {
+            rs.add(toDataFileInfo(file));
+          }
+        }
+      }
+    }
+    return rs;
+  }
+
+  /**
+   * Get paths of the live files of inner table.
+   */
+  public Set<String> getOptimizeDatafilePaths(TableIdentifier tableIdentifier, String innerTable) {
+    TableFiles tableFiles = loadedTable(tableIdentifier);
+    Set<String> rs = new HashSet<>();
+    synchronized (tableFiles) {
+      NavigableMap<Long, Set<String>> innerTableFiles = tableFiles.liveFiles.get(innerTable);
+      if (innerTableFiles != null) {
+        innerTableFiles.values().forEach(keys -> keys.forEach(key -> rs.add(tableFiles.files.get(key).getFilePath())));
+      }
+    }
+    return rs;
+  }
+
+  /**
+   * Same as {@link com.netease.arctic.ams.server.mapper.FileInfoCacheMapper#getChangeTableTTLDataFiles}.
+   */
+  public List<DataFileInfo> getTTLDataFiles(TableIdentifier tableIdentifier, String innerTable, long ttl) {
+    TableFiles tableFiles = loadedTable(tableIdentifier);
+    synchronized (tableFiles) {
+      return tableFiles.liveFiles(innerTable, ttl);
+    }
+  }
+
+  /**
+   * Same as {@link com.netease.arctic.ams.server.mapper.FileInfoCacheMapper#getPartitionBaseInfoList}.
+   */
+  public List<PartitionBaseInfo> getPartitionBaseInfoList(TableIdentifier tableIdentifier) {
+    TableFiles tableFiles = loadedTable(tableIdentifier);
+    List<PartitionBaseInfo> rs = new ArrayList<>();
+    synchronized (tableFiles) {
+      tableFiles.filesByPartition.forEach((partition, keys) -> {
+        long fileSize = 0;
+        long lastCommitTime = 0;
+        for (String key : keys) {
+          CacheFileInfo file = tableFiles.files.get(key);
+          fileSize += nullToZero(file.getFileSize());
+          lastCommitTime = Math.max(lastCommitTime, nullToZero(file.getCommitTime()));
+        }
+        rs.add(new PartitionBaseInfo(partition, keys.size(), fileSize, new Timestamp(lastCommitTime)));
+      });
+    }
+    rs.sort(Comparator.comparing(PartitionBaseInfo::getPartition,
+        Comparator.nullsLast(Comparator.<String>reverseOrder())));
+    return rs;
+  }
+
+  /**
+   * Same as {@link com.netease.arctic.ams.server.mapper.FileInfoCacheMapper#getPartitionFileList}.
+   */
+  public List<PartitionFileBaseInfo> getPartitionFileList(TableIdentifier tableIdentifier, String partition) {
+    TableFiles tableFiles = loadedTable(tableIdentifier);
+    List<CacheFileInfo> files = new ArrayList<>();
+    synchronized (tableFiles) {
+      if (partition == null) {
+        files.addAll(tableFiles.files.values());
+      } else {
+        tableFiles.filesByPartition.getOrDefault(partition, new HashSet<>())
+            .forEach(key -> files.add(tableFiles.files.get(key)));
+      }
+    }
+    files.sort(Comparator.comparing(CacheFileInfo::getCommitTime,
+        Comparator.nullsLast(Comparator.<Long>reverseOrder())));
+    List<PartitionFileBaseInfo> rs = new ArrayList<>(files.size());
+    for (CacheFileInfo file : files) {
+      PartitionFileBaseInfo fileInfo = new PartitionFileBaseInfo(String.valueOf(file.getAddSnapshotId()),
+          file.getFileType(), file.getCommitTime(), file.getPartitionName(), file.getFilePath(),
+          nullToZero(file.getFileSize()));
+      fileInfo.setWatermark(nullToZero(file.getWatermark()));
+      rs.add(fileInfo);
+    }
+    return rs;
+  }
+
+  /**
+   * Apply rows written into the file cache to the loaded table, rows with delete snapshot id are updates of the
+   * delete snapshot id of existing rows. Must be called after the rows are committed into database.
+   */
+  public void commit(TableIdentifier tableIdentifier, List<CacheFileInfo> fileInfoList) {
+    TableFiles tableFiles = tables.get(tableIdentifier);
+    if (tableFiles == null) {
+      // not queried yet, will see the rows when loaded from database
+      return;
+    }
+    synchronized (tableFiles) {
+      if (!tableFiles.loaded) {
+        return;
+      }
+      for (CacheFileInfo fileInfo : fileInfoList) {
+        if (fileInfo.getDeleteSnapshotId() == null) {
+          tableFiles.add(fileInfo.getPrimaryKeyMd5(), fileInfo);
+        } else {
+          tableFiles.delete(fileInfo.getPrimaryKeyMd5(), fileInfo.getDeleteSnapshotId());
+        }
+      }
+    }
+  }
+
+  /**
+   * Same as {@link com.netease.arctic.ams.server.mapper.FileInfoCacheMapper#expireCache}.
+   */
+  public void expire(long expiredTime) {
+    for (TableFiles tableFiles : tables.values()) {
+      synchronized (tableFiles) {
+        tableFiles.expire(expiredTime);
+      }
+    }
+  }
+
+  public void remove(TableIdentifier tableIdentifier) {
+    TableFiles tableFiles = tables.remove(tableIdentifier);
+    if (tableFiles != null) {
+      synchronized (tableFiles) {
+        tableFiles.clear();
+      }
+    }
+  }
+
+  public int loadedTableCount() {
+    return tables.size();
+  }
+
+  private TableFiles loadedTable(TableIdentifier tableIdentifier) {
+    TableFiles tableFiles = tables.computeIfAbsent(tableIdentifier, identifier -> new TableFiles());
+    synchronized (tableFiles) {
+      // rows committed while loading are applied after loading, as commit needs the same lock
+      if (!tableFiles.loaded) {
+        for (CacheFileInfo fileInfo : loader.apply(tableIdentifier)) {
+          tableFiles.add(primaryKeyMd5(tableIdentifier, fileInfo), fileInfo);
+        }
+        tableFiles.loaded = true;
+      }
+    }
+    return tableFiles;
+  }
+
+  private static String primaryKeyMd5(TableIdentifier tableIdentifier, CacheFileInfo fileInfo) {
+    String primaryKey = TableMetadataUtil.getTableAllIdentifyName(tableIdentifier) + fileInfo.getInnerTable() +
+        fileInfo.getFilePath();
+    return Hashing.md5().hashBytes(primaryKey.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  private static long nullToZero(Long value) {
+    return value == null ? 0 : value;
+  }
+
+  private static DataFileInfo toDataFileInfo(CacheFileInfo fileInfo) {
+    DataFileInfo dataFileInfo = new DataFileInfo();
+    dataFileInfo.setPath(fileInfo.getFilePath());
+    dataFileInfo.setType(fileInfo.getFileType());
+    dataFileInfo.setSize(nullToZero(fileInfo.getFileSize()));
+    dataFileInfo.setMask(nullToZero(fileInfo.getFileMask()));
+    dataFileInfo.setIndex(nullToZero(fileInfo.getFileIndex()));
+    dataFileInfo.setRecordCount(nullToZero(fileInfo.getRecordCount()));
+    dataFileInfo.setSpecId(nullToZero(fileInfo.getSpecId()));
+    dataFileInfo.setPartition(fileInfo.getPartitionName());
+    dataFileInfo.setCommitTime(nullToZero(fileInfo.getCommitTime()));
+    return dataFileInfo;
+  }
+
+  private static class TableFiles {
+    private boolean loaded;
+    // primary key md5 -> row, including deleted files not expired yet
+    private final Map<String, CacheFileInfo> files = new HashMap<>();
+    // partition -> primary key md5 of rows
+    private final Map<String, Set<String>> filesByPartition = new HashMap<>();
+    // inner table -> commit time -> primary key md5 of live files
+    private final Map<String, NavigableMap<Long, Set<String>>> liveFiles = new HashMap<>();
+    // commit time -> primary key md5 of deleted files
+    private final NavigableMap<Long, Set<String>> deletedFiles = new TreeMap<>();
+
+    private List<DataFileInfo> liveFiles(String innerTable, long maxCommitTime) {
+      NavigableMap<Long, Set<String>> innerTableFiles = liveFiles.get(innerTable);
+      List<DataFileInfo> rs = new ArrayList<>();
+      if (innerTableFiles != null) {
+        for (Set<String> keys : innerTableFiles.headMap(maxCommitTime, true).values()) {
+          keys.forEach(key -> rs.add(toDataFileInfo(files.get(key))));
+        }
+      }
+      return rs;
+    }
+
+    private void add(String key, CacheFileInfo fileInfo) {
+      remove(key);
+      files.put(key, fileInfo);
+      filesByPartition.computeIfAbsent(fileInfo.getPartitionName(), partition -> new HashSet<>()).add(key);
+      if (fileInfo.getDeleteSnapshotId() == null) {
+        liveFiles.computeIfAbsent(fileInfo.getInnerTable(), innerTable -> new TreeMap<>())
+            .computeIfAbsent(nullToZero(fileInfo.getCommitTime()), commitTime -> new HashSet<>()).add(key);
+      } else {
+        deletedFiles.computeIfAbsent(nullToZero(fileInfo.getCommitTime()), commitTime -> new HashSet<>()).add(key);
+      }
+    }
+
+    private void delete(String key, long deleteSnapshotId) {
+      CacheFileInfo fileInfo = files.get(key);
+      if (fileInfo == null) {
+        return;
+      }
+      remove(key);
+      fileInfo.setDeleteSnapshotId(deleteSnapshotId);
+      add(key, fileInfo);
+    }
+
+    private void remove(String key) {
+      CacheFileInfo fileInfo = files.remove(key);
+      if (fileInfo == null) {
+        return;
+      }
+      removeKey(filesByPartition, fileInfo.getPartitionName(), key);
+      long commitTime = nullToZero(fileInfo.getCommitTime());
+      if (fileInfo.getDeleteSnapshotId() == null) {
+        NavigableMap<Long, Set<String>> innerTableFiles = liveFiles.get(fileInfo.getInnerTable());
+        if (innerTableFiles != null) {
+          removeKey(innerTableFiles, commitTime, key);
+        }
+      } else {
+        removeKey(deletedFiles, commitTime, key);
+      }
+    }
+
+    private void expire(long expiredTime) {
+      Collection<Set<String>> expired = deletedFiles.headMap(expiredTime, false).values();
+      List<String> keys = new ArrayList<>();
+      expired.forEach(keys::addAll);
+      keys.forEach(this::remove);
+    }
+
+    private void clear() {
+      loaded = false;
+      files.clear();
+      filesByPartition.clear();
+      liveFiles.clear();
+      deletedFiles.clear();
+    }
+
+    private static <K> void removeKey(Map<K, Set<String>> index, K indexKey, String key) {
+      Set<String> keys = index.get(indexKey);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          index.remove(indexKey);
+        }
+      }
+    }
+  }
+}
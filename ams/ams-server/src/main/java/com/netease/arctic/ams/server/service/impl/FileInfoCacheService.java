@@ -24,7 +24,6 @@ import com.netease.arctic.ams.api.Constants;
 import com.netease.arctic.ams.api.DataFile;
 import com.netease.arctic.ams.api.DataFileInfo;
 import com.netease.arctic.ams.api.MetaException;
-import com.netease.arctic.ams.api.PartitionFieldData;
 import com.netease.arctic.ams.api.TableChange;
 import com.netease.arctic.ams.api.TableCommitMeta;
 import com.netease.arctic.ams.api.TableIdentifier;
@@ -42,6 +41,7 @@ import com.netease.arctic.ams.server.model.TransactionsOfTable;
 import com.netease.arctic.ams.server.service.IJDBCService;
 import com.netease.arctic.ams.server.service.IMetaService;
 import com.netease.arctic.ams.server.service.ServiceContainer;
+import com.netease.arctic.ams.server.utils.ContentFileUtil;
 import com.netease.arctic.ams.server.utils.TableMetadataUtil;
 import com.netease.arctic.ams.server.utils.ThreadPool;
 import com.netease.arctic.catalog.ArcticCatalog;
@@ -70,7 +70,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Collectors;
 
 public class FileInfoCacheService extends IJDBCService {
@@ -79,7 +82,140 @@ public class FileInfoCacheService extends IJDBCService {
 
   public static ConcurrentHashMap<String, Long> cacheTableSnapshot = new ConcurrentHashMap<>();
 
+  // queued by close to stop the background writer after the commits queued before it
+  private static final TableCommitMeta STOP_WRITER = new TableCommitMeta();
+
+  private final CacheWriteMetrics writeMetrics = new CacheWriteMetrics();
+  private volatile BlockingQueue<TableCommitMeta> commitQueue;
+  private volatile Thread commitWriter;
+  private volatile boolean closed = false;
+  private volatile FileInfoCacheIndex memoryIndex;
+
+  /**
+   * Write files of table commit into file cache. If async commit enabled, the commit is queued and written by a
+   * single background writer, so commits of one table are still written in order.
+   *
+   * @param tableCommitMeta table commit
+   */
   public void commitCacheFileInfo(TableCommitMeta tableCommitMeta) throws MetaException {
+    if (!ArcticMetaStore.conf.getBoolean(ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC) || closed) {
+      writeCacheFileInfo(tableCommitMeta);
+      return;
+    }
+    try {
+      // blocked when queue is full
+      getCommitQueue().put(tableCommitMeta);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("interrupted when queue file cache commit, write it directly", e);
+      writeCacheFileInfo(tableCommitMeta);
+    }
+  }
+
+  /**
+   * Stop the background writer after all queued commits are written, commits after closed are written directly.
+   */
+  public void close() {
+    BlockingQueue<TableCommitMeta> queue;
+    Thread writer;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queue = commitQueue;
+      writer = commitWriter;
+    }
+    if (queue == null) {
+      return;
+    }
+    try {
+      queue.put(STOP_WRITER);
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("interrupted when waiting for file info cache writer, {} commits not written", queue.size());
+      return;
+    }
+    // commits queued after the writer stopped
+    List<TableCommitMeta> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    for (TableCommitMeta tableCommitMeta : remaining) {
+      if (tableCommitMeta != STOP_WRITER) {
+        writeCacheFileInfo(tableCommitMeta);
+      }
+    }
+  }
+
+  /**
+   * Get statistics of writing file cache.
+   *
+   * @return write metrics
+   */
+  public CacheWriteMetrics getWriteMetrics() {
+    return writeMetrics;
+  }
+
+  /**
+   * Get the in-memory index of file cache.
+   *
+   * @return null if the in-memory index is not enabled
+   */
+  public FileInfoCacheIndex getMemoryIndex() {
+    if (memoryIndex == null && ArcticMetaStore.conf.getBoolean(ArcticMetaStoreConf.FILE_CACHE_MEMORY_INDEX_ENABLED)) {
+      synchronized (this) {
+        if (memoryIndex == null) {
+          memoryIndex = new FileInfoCacheIndex(this::getTableCacheFiles);
+        }
+      }
+    }
+    return memoryIndex;
+  }
+
+  private List<CacheFileInfo> getTableCacheFiles(TableIdentifier tableIdentifier) {
+    try (SqlSession sqlSession = getSqlSession(true)) {
+      FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
+      return fileInfoCacheMapper.getTableCacheFiles(tableIdentifier);
+    }
+  }
+
+  private BlockingQueue<TableCommitMeta> getCommitQueue() {
+    if (commitQueue == null) {
+      synchronized (this) {
+        if (commitQueue == null) {
+          BlockingQueue<TableCommitMeta> queue = new LinkedBlockingQueue<>(
+              ArcticMetaStore.conf.getInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_QUEUE_SIZE));
+          Thread writer = new Thread(() -> writeQueuedCommits(queue), "File Info Cache Writer");
+          writer.setDaemon(true);
+          writer.start();
+          Runtime.getRuntime().addShutdownHook(new Thread(this::close, "File Info Cache Writer Closer"));
+          commitWriter = writer;
+          commitQueue = queue;
+        }
+      }
+    }
+    return commitQueue;
+  }
+
+  private void writeQueuedCommits(BlockingQueue<TableCommitMeta> queue) {
+    while (true) {
+      try {
+        TableCommitMeta tableCommitMeta = queue.take();
+        if (tableCommitMeta == STOP_WRITER) {
+          LOG.info("file info cache writer stopped");
+          return;
+        }
+        writeCacheFileInfo(tableCommitMeta);
+      } catch (InterruptedException e) {
+        LOG.warn("file info cache writer was interrupted, {} commits not written", queue.size());
+        return;
+      } catch (Throwable t) {
+        LOG.error("unexpected error when write file cache", t);
+      }
+    }
+  }
+
+  private void writeCacheFileInfo(TableCommitMeta tableCommitMeta) {
     if (needRepairCache(tableCommitMeta)) {
       LOG.warn("should not cache {}", tableCommitMeta);
       return;
@@ -87,42 +223,105 @@ public class FileInfoCacheService extends IJDBCService {
 
     List<CacheFileInfo> fileInfoList = genFileInfo(tableCommitMeta);
 
-    try (SqlSession sqlSession = getSqlSession(false)) {
+    try {
+      writeCache(tableCommitMeta.getTableIdentifier(), fileInfoList);
+      Map<String, Long> lastSnap = lastSnapInfo(tableCommitMeta);
+      for (Map.Entry<String, Long> entry : lastSnap.entrySet()) {
+        String innerTableIdentifier =
+            TableMetadataUtil.getTableAllIdentifyName(tableCommitMeta.getTableIdentifier()) + "." + entry.getKey();
+        cacheTableSnapshot.put(innerTableIdentifier, entry.getValue());
+      }
+    } catch (Exception e) {
+      LOG.error("insert file cache {} error", JSONObject.toJSONString(tableCommitMeta), e);
+    }
+  }
+
+  /**
+   * Insert added files and update deleted files in one transaction, statements are sent in JDBC batches.
+   * The in-memory index is updated after the transaction committed.
+   */
+  private void writeCache(TableIdentifier tableIdentifier, List<CacheFileInfo> fileInfoList) {
+    long startTime = System.currentTimeMillis();
+    int batchSize = Math.max(1, ArcticMetaStore.conf.getInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_BATCH_SIZE));
+    Map<Boolean, List<CacheFileInfo>> deletedFiles = fileInfoList.stream()
+        .collect(Collectors.partitioningBy(e -> e.getDeleteSnapshotId() != null));
+    List<CacheFileInfo> insertFiles = deletedFiles.get(false);
+    List<CacheFileInfo> updateFiles = deletedFiles.get(true);
+    try (SqlSession sqlSession = getBatchSqlSession()) {
       try {
         FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
-        fileInfoList.stream().filter(e -> e.getDeleteSnapshotId() == null)
-            .forEach(fileInfoCacheMapper::insertCache);
-        LOG.info("insert {} files into file cache", fileInfoList.stream().filter(e -> e.getDeleteSnapshotId() == null)
-            .count());
-
-        fileInfoList.stream().filter(e -> e.getDeleteSnapshotId() != null).forEach(fileInfoCacheMapper::updateCache);
-        LOG.info("update {} files in file cache", fileInfoList.stream().filter(e -> e.getDeleteSnapshotId() != null)
-            .count());
-
-        sqlSession.commit();
-        Map<String, Long> lastSnap = lastSnapInfo(tableCommitMeta);
-        for (Map.Entry<String, Long> entry : lastSnap.entrySet()) {
-          String innerTableIdentifier =
-              TableMetadataUtil.getTableAllIdentifyName(tableCommitMeta.getTableIdentifier()) + "." + entry.getKey();
-          cacheTableSnapshot.put(innerTableIdentifier, entry.getValue());
+        int pending = 0;
+        for (CacheFileInfo insertFile : insertFiles) {
+          fileInfoCacheMapper.insertCache(insertFile);
+          if (++pending % batchSize == 0) {
+            sqlSession.flushStatements();
+          }
+        }
+        for (CacheFileInfo updateFile : updateFiles) {
+          fileInfoCacheMapper.updateCache(updateFile);
+          if (++pending % batchSize == 0) {
+            sqlSession.flushStatements();
+          }
         }
+        sqlSession.commit();
       } catch (Exception e) {
         sqlSession.rollback();
-        LOG.error("insert file cache {} error", JSONObject.toJSONString(tableCommitMeta), e);
+        throw e;
       }
-    } catch (Exception e) {
-      LOG.error("insert file cache {} error", JSONObject.toJSONString(tableCommitMeta), e);
     }
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      index.commit(tableIdentifier, fileInfoList);
+    }
+    long costTime = System.currentTimeMillis() - startTime;
+    writeMetrics.record(insertFiles.size(), updateFiles.size(), costTime);
+    LOG.info("insert {} files into file cache and update {} files in file cache, cost {} ms, {}",
+        insertFiles.size(), updateFiles.size(), costTime, writeMetrics);
   }
 
   public List<DataFileInfo> getOptimizeDatafiles(TableIdentifier tableIdentifier, String tableType) {
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      return index.getOptimizeDatafiles(tableIdentifier, tableType);
+    }
     try (SqlSession sqlSession = getSqlSession(true)) {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       return fileInfoCacheMapper.getOptimizeDatafiles(tableIdentifier, tableType);
     }
   }
 
+  /**
+   * Get the live files of inner table in the given partitions.
+   *
+   * @param partitions partitions of files, empty string for the files without partition
+   * @return files in the partitions
+   */
+  public List<DataFileInfo> getOptimizeDatafiles(TableIdentifier tableIdentifier, String tableType,
+                                                 Set<String> partitions) {
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      return index.getOptimizeDatafiles(tableIdentifier, tableType, partitions);
+    }
+    return getOptimizeDatafiles(tableIdentifier, tableType).stream()
+        .filter(file -> partitions.contains(file.getPartition() == null ? "" : file.getPartition()))
+        .collect(Collectors.toList());
+  }
+
+  public Set<String> getOptimizeDatafilePaths(TableIdentifier tableIdentifier, String tableType) {
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      return index.getOptimizeDatafilePaths(tableIdentifier, tableType);
+    }
+    return getOptimizeDatafiles(tableIdentifier, tableType).stream()
+        .map(DataFileInfo::getPath)
+        .collect(Collectors.toSet());
+  }
+
   public List<DataFileInfo> getChangeTableTTLDataFiles(TableIdentifier tableIdentifier, long ttl) {
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      return index.getTTLDataFiles(tableIdentifier, Constants.INNER_TABLE_CHANGE, ttl);
+    }
     try (SqlSession sqlSession = getSqlSession(true)) {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       return fileInfoCacheMapper.getChangeTableTTLDataFiles(tableIdentifier, Constants.INNER_TABLE_CHANGE, ttl);
@@ -212,6 +411,10 @@ public class FileInfoCacheService extends IJDBCService {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       fileInfoCacheMapper.expireCache(time);
     }
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      index.expire(time);
+    }
   }
 
   public void syncTableFileInfo(TableIdentifier identifier, String tableType, Long from, Long to) {
@@ -283,6 +486,10 @@ public class FileInfoCacheService extends IJDBCService {
     try (SqlSession sqlSession = getSqlSession(true)) {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       fileInfoCacheMapper.deleteTableCache(tableIdentifier);
+      FileInfoCacheIndex index = getMemoryIndex();
+      if (index != null) {
+        index.remove(tableIdentifier);
+      }
 
       // update local on-memory cache
       cacheTableSnapshot
@@ -342,9 +549,9 @@ public class FileInfoCacheService extends IJDBCService {
       List<DataFile> deleteFiles = new ArrayList<>();
       SnapshotFileUtil.getSnapshotFiles(table, snapshot, addFiles, deleteFiles);
       for (DataFile amsFile : addFiles) {
-        String partitionName = StringUtils.isEmpty(partitionToPath(amsFile.getPartition())) ?
+        String partitionName = StringUtils.isEmpty(ContentFileUtil.partitionToPath(amsFile.getPartition())) ?
             null :
-            partitionToPath(amsFile.getPartition());
+            ContentFileUtil.partitionToPath(amsFile.getPartition());
         long watermark = 0L;
         boolean isDataFile = Objects.equals(amsFile.fileType, DataFileType.INSERT_FILE.name()) ||
             Objects.equals(amsFile.fileType, DataFileType.BASE_FILE.name());
@@ -382,20 +589,8 @@ public class FileInfoCacheService extends IJDBCService {
       //remove snapshot to release memory of snapshot, because there is too much cache in BaseSnapshot
       iterator.remove();
 
-      try (SqlSession sqlSession = getSqlSession(false)) {
-        try {
-          FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
-          fileInfos.stream().filter(e -> e.getDeleteSnapshotId() == null).forEach(fileInfoCacheMapper::insertCache);
-          fileInfos.stream().filter(e -> e.getDeleteSnapshotId() != null).forEach(fileInfoCacheMapper::updateCache);
-          sqlSession.commit();
-        } catch (Exception e) {
-          sqlSession.rollback();
-          LOG.error(
-              "insert table {} file {} cache error",
-              identifier,
-              JSONObject.toJSONString(fileInfos),
-              e);
-        }
+      try {
+        writeCache(identifier, fileInfos);
       } catch (Exception e) {
         LOG.error(
             "insert table {} file {} cache error",
@@ -442,7 +637,7 @@ public class FileInfoCacheService extends IJDBCService {
               cacheFileInfo.setWatermark(0L);
             }
             cacheFileInfo.setAction(tableCommitMeta.getAction());
-            String partitionName = partitionToPath(datafile.getPartition());
+            String partitionName = ContentFileUtil.partitionToPath(datafile.getPartition());
             cacheFileInfo.setPartitionName(StringUtils.isEmpty(partitionName) ? null : partitionName);
             cacheFileInfo.setCommitTime(tableCommitMeta.getCommitTime());
             rs.add(cacheFileInfo);
@@ -482,6 +677,10 @@ public class FileInfoCacheService extends IJDBCService {
   }
 
   public List<PartitionBaseInfo> getPartitionBaseInfoList(TableIdentifier tableIdentifier) {
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      return index.getPartitionBaseInfoList(tableIdentifier);
+    }
     try (SqlSession sqlSession = getSqlSession(true)) {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       return fileInfoCacheMapper.getPartitionBaseInfoList(tableIdentifier);
@@ -489,6 +688,10 @@ public class FileInfoCacheService extends IJDBCService {
   }
 
   public List<PartitionFileBaseInfo> getPartitionFileList(TableIdentifier tableIdentifier, String partition) {
+    FileInfoCacheIndex index = getMemoryIndex();
+    if (index != null) {
+      return index.getPartitionFileList(tableIdentifier, partition);
+    }
     try (SqlSession sqlSession = getSqlSession(true)) {
       FileInfoCacheMapper fileInfoCacheMapper = getMapper(sqlSession, FileInfoCacheMapper.class);
       return fileInfoCacheMapper.getPartitionFileList(tableIdentifier, partition);
@@ -503,16 +706,53 @@ public class FileInfoCacheService extends IJDBCService {
     }
   }
 
-  private String partitionToPath(List<PartitionFieldData> partitionFieldDataList) {
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < partitionFieldDataList.size(); i++) {
-      if (i > 0) {
-        sb.append("/");
-      }
-      sb.append(partitionFieldDataList.get(i).getName()).append("=")
-          .append(partitionFieldDataList.get(i).getValue());
+  /**
+   * Statistics of rows written into file cache since AMS started.
+   */
+  public static class CacheWriteMetrics {
+    private long commitCount;
+    private long insertedFiles;
+    private long updatedFiles;
+    private long totalCostTime;
+
+    synchronized void record(int inserted, int updated, long costTime) {
+      commitCount++;
+      insertedFiles += inserted;
+      updatedFiles += updated;
+      totalCostTime += costTime;
+    }
+
+    public synchronized long getCommitCount() {
+      return commitCount;
+    }
+
+    public synchronized long getInsertedFiles() {
+      return insertedFiles;
+    }
+
+    public synchronized long getUpdatedFiles() {
+      return updatedFiles;
+    }
+
+    /**
+     * Get written rows per second.
+     *
+     * @return rows per second
+     */
+    public synchronized double getThroughput() {
+      return totalCostTime == 0 ? 0 : (insertedFiles + updatedFiles) * 1000.0 / totalCostTime;
+    }
+
+    @Override
+    public synchronized String toString() {
+      return "CacheWriteMetrics{" +
+          "commitCount=" + commitCount +
+          ", insertedFiles=" + insertedFiles +
+          ", updatedFiles=" + updatedFiles +
+          ", totalCostTime=" + totalCostTime +
+          ", throughput=" + String.format("%.1f", getThroughput()) +
+          '}';
     }
-    return sb.toString();
   }
 
   public static class SyncAndExpireFileCacheTask {
@@ -25,6 +25,8 @@ import com.netease.arctic.ams.api.NoSuchObjectException;
 import com.netease.arctic.ams.api.OptimizeStatus;
 import com.netease.arctic.ams.api.OptimizeTask;
 import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
 import com.netease.arctic.ams.server.mapper.ContainerMetadataMapper;
 import com.netease.arctic.ams.server.mapper.OptimizeQueueMapper;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
@@ -43,7 +45,6 @@ import com.netease.arctic.ams.server.utils.OptimizeStatusUtil;
 import com.netease.arctic.table.TableIdentifier;
 import com.netease.arctic.table.TableProperties;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.util.PropertyUtil;
@@ -51,8 +52,6 @@ import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -60,14 +59,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 
 public class OptimizeQueueService extends IJDBCService {
   private static final Logger LOG = LoggerFactory.getLogger(OptimizeQueueService.class);
@@ -178,6 +179,7 @@ public class OptimizeQueueService extends IJDBCService {
         optimizeQueueMapper.deleteQueue(queueId);
 
         optimizeQueues.remove(queueId);
+        optimizeQueueWrapper.stopPlanner();
       } finally {
         optimizeQueueWrapper.unlock();
       }
@@ -223,6 +225,21 @@ public class OptimizeQueueService extends IJDBCService {
         .orElseThrow(() -> new InvalidObjectException("lost queue " + queueName)).getOptimizeQueueItem();
   }
 
+  /**
+   * Get tables of optimize queue in the order they are planned.
+   *
+   * @param queueName queueName
+   * @return ranking of tables
+   * @throws InvalidObjectException when can't find queue
+   */
+  public List<TableQuotaInfo> getTableRanking(String queueName) throws InvalidObjectException {
+    Preconditions.checkNotNull(queueName, "queueName can't be null");
+    return optimizeQueues.values().stream()
+        .filter(q -> queueName.equals(q.getOptimizeQueueItem().getOptimizeQueueMeta().getName()))
+        .findFirst()
+        .orElseThrow(() -> new InvalidObjectException("lost queue " + queueName)).getTableRanking();
+  }
+
   /**
    * add task
    *
@@ -269,6 +286,20 @@ public class OptimizeQueueService extends IJDBCService {
     }
   }
 
+  public List<OptimizeTask> pollTasks(int queueId, JobId jobId, String attemptId, long waitTime, int maxTasks)
+      throws TException {
+    try {
+      List<OptimizeTask> tasks = getQueue(queueId).poll(jobId, attemptId, waitTime, Math.max(1, maxTasks));
+      if (!tasks.isEmpty()) {
+        LOG.info("{} pollTasks success, {} tasks", jobId, tasks.size());
+      }
+      return tasks;
+    } catch (Throwable t) {
+      LOG.error("failed to poll tasks", t);
+      throw t;
+    }
+  }
+
   private void validateRemoveQueue(OptimizeQueueWrapper queue) throws InvalidObjectException {
     if (!queue.isEmpty()) {
       throw new InvalidObjectException(
@@ -320,21 +351,35 @@ public class OptimizeQueueService extends IJDBCService {
   }
 
   public static class OptimizeQueueWrapper {
+    // ranking of a table whose tasks have not changed only drifts with time, evaluate it again after this interval
+    private static final long RANKING_REFRESH_INTERVAL = 60_000;
 
     private final ReentrantLock lock = new ReentrantLock();
-    private final Condition planThreadCondition = lock.newCondition();
-    private final AtomicBoolean planThreadStarted = new AtomicBoolean(false);
+    private final Condition planCondition = lock.newCondition();
+    private final AtomicBoolean plannerStarted = new AtomicBoolean(false);
+    private final AtomicInteger waitingPollers = new AtomicInteger(0);
     private final OptimizeQueueItem optimizeQueue;
-    private final Queue<OptimizeTaskItem> tasks;
+    private final BlockingQueue<OptimizeTaskItem> tasks;
     private final Set<TableIdentifier> tables = new HashSet<>();
-    // plan retry times
-    private final int retryTime = 5;
-    // plan retry interval unit ms
-    private final long retryInterval = 1000;
+    private final Map<TableIdentifier, TableRanking> tableRankings = new ConcurrentHashMap<>();
+    // plan ahead until the queue holds this many tasks
+    private final int lowWaterMark;
+    // plan interval when no task can be planned, unit ms
+    private final long planInterval;
+    private volatile Thread planner;
+    private volatile boolean stopped = false;
+    private volatile long latestPlanCostTime = 0;
+    private volatile long planCount = 0;
 
     private OptimizeQueueWrapper(OptimizeQueueMeta optimizeQueue) {
       this.optimizeQueue = new OptimizeQueueItem(optimizeQueue);
-      this.tasks = new LinkedTransferQueue<>();
+      this.tasks = new LinkedBlockingQueue<>();
+      this.lowWaterMark = ArcticMetaStore.conf == null ?
+          ArcticMetaStoreConf.OPTIMIZE_QUEUE_LOW_WATER_MARK.defaultValue() :
+          ArcticMetaStore.conf.getInteger(ArcticMetaStoreConf.OPTIMIZE_QUEUE_LOW_WATER_MARK);
+      this.planInterval = ArcticMetaStore.conf == null ?
+          ArcticMetaStoreConf.OPTIMIZE_QUEUE_PLAN_INTERVAL.defaultValue() :
+          ArcticMetaStore.conf.getLong(ArcticMetaStoreConf.OPTIMIZE_QUEUE_PLAN_INTERVAL);
     }
 
     public static OptimizeQueueWrapper build(OptimizeQueueMeta optimizeQueue) {
@@ -348,6 +393,7 @@ public class OptimizeQueueService extends IJDBCService {
       } finally {
         unlock();
       }
+      requestPlan();
     }
 
     private void releaseTable(TableIdentifier tableIdentifier) {
@@ -355,6 +401,7 @@ public class OptimizeQueueService extends IJDBCService {
       try {
         clearTasks(tableIdentifier);
         tables.remove(tableIdentifier);
+        tableRankings.remove(tableIdentifier);
       } finally {
         unlock();
       }
@@ -398,97 +445,154 @@ public class OptimizeQueueService extends IJDBCService {
     }
 
     public OptimizeTask poll(JobId jobId, final String attemptId, long waitTime) {
-      long startTime = System.currentTimeMillis();
-      while (true) {
-        long duration = System.currentTimeMillis() - startTime;
-        if (duration > waitTime) {
-          LOG.warn("pool task cost too much time {} ms, return null", duration);
-          return null;
-        }
-        OptimizeTaskItem task = tasks.poll();
-        if (task == null) {
-          try {
-            if (planThreadStarted.compareAndSet(false, true)) {
-              Thread planThread = new Thread(() -> {
-                int retry = 0;
-                boolean isHaveTask = false;
-
-                try {
-                  LOG.info("this plan started {}, {}", attemptId, jobId);
-                  while (retry <= retryTime) {
-                    LOG.debug("start get plan task retry {}", retry);
-                    retry++;
-                    List<OptimizeTaskItem> tasks = plan(System.currentTimeMillis());
-                    if (CollectionUtils.isNotEmpty(tasks)) {
-                      isHaveTask = true;
-                      break;
-                    }
-
-                    try {
-                      Thread.sleep(retryInterval);
-                    } catch (InterruptedException e) {
-                      LOG.error("Internal Thread Interrupted", e);
-                    }
-                  }
-
-                  // no task have planned
-                  if (!isHaveTask) {
-                    LOG.debug("The queue {} has retry {} times, no task have planned",
-                        optimizeQueue.getOptimizeQueueMeta().queueId,
-                        retryTime);
-                  }
-                } catch (Throwable t) {
-                  LOG.error("failed to plan", t);
-                  throw t;
-                } finally {
-                  LOG.info("this plan end {}", attemptId);
-                  if (planThreadStarted.compareAndSet(true, false)) {
-                    lock();
-                    try {
-                      planThreadCondition.signalAll();
-                    } finally {
-                      unlock();
-                    }
-                  }
-                }
-              });
-              planThread.setName(
-                  "Optimize Plan Thread Queue-" + optimizeQueue.getOptimizeQueueMeta().getQueueId());
-              planThread.start();
-            } else {
-              lock();
-              try {
-                // if timeout, return null
-                if (!planThreadCondition.await(waitTime - (System.currentTimeMillis() - startTime),
-                    TimeUnit.MILLISECONDS)) {
-                  LOG.debug("The queue {} has no task have planned", optimizeQueue.getOptimizeQueueMeta().getQueueId());
-                  return null;
-                }
-              } finally {
-                unlock();
-              }
+      List<OptimizeTask> polled = poll(jobId, attemptId, waitTime, 1);
+      return polled.isEmpty() ? null : polled.get(0);
+    }
+
+    /**
+     * Poll at most maxTasks tasks. Wait up to waitTime for the first task, then take the tasks already
+     * planned in queue without waiting, so an optimizer with several free slots is filled in one call.
+     */
+    public List<OptimizeTask> poll(JobId jobId, final String attemptId, long waitTime, int maxTasks) {
+      long deadline = System.currentTimeMillis() + waitTime;
+      List<OptimizeTask> polled = new ArrayList<>();
+      List<TableTaskHistory> histories = new ArrayList<>();
+      startPlanner();
+      waitingPollers.incrementAndGet();
+      try {
+        while (polled.size() < maxTasks) {
+          if (tasks.size() < lowWaterMark) {
+            requestPlan();
+          }
+          OptimizeTaskItem task;
+          if (polled.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            task = remaining > 0 ? tasks.poll(remaining, TimeUnit.MILLISECONDS) : null;
+          } else {
+            task = tasks.poll();
+          }
+          if (task == null) {
+            if (polled.isEmpty()) {
+              LOG.debug("The queue {} has no task have planned", optimizeQueue.getOptimizeQueueMeta().getQueueId());
             }
-          } catch (Exception e) {
-            LOG.error("Failure when starting the plan thread, " + e);
+            break;
           }
-        } else {
           if (tables.contains(task.getTableIdentifier())) {
-            task.setFiles();
-            TableTaskHistory tableTaskHistory = task.onExecuting(jobId, attemptId);
             try {
-              insertTableTaskHistory(tableTaskHistory);
-            } catch (Exception e) {
-              LOG.error("failed to insert tableTaskHistory, {} ignore", tableTaskHistory, e);
+              task.setFiles();
+              histories.add(task.onExecuting(jobId, attemptId));
+            } catch (Throwable t) {
+              requeue(task);
+              if (polled.isEmpty()) {
+                throw t;
+              }
+              // keep the tasks already set to Executing
+              LOG.error("failed to execute task {}, return {} polled tasks", task.getTaskId(), polled.size(), t);
+              break;
+            }
+            polled.add(task.getOptimizeTask());
+          }
+        }
+      } catch (InterruptedException e) {
+        LOG.warn("poll task of queue {} interrupted", queueName());
+        Thread.currentThread().interrupt();
+      } finally {
+        waitingPollers.decrementAndGet();
+      }
+      if (!histories.isEmpty()) {
+        try {
+          insertTableTaskHistories(histories);
+        } catch (Exception e) {
+          LOG.error("failed to insert {} tableTaskHistory, ignore", histories.size(), e);
+        }
+      }
+      return polled;
+    }
+
+    /**
+     * Put the task failed to be polled back to queue. A task failed to be set to Executing is set to Failed and
+     * planned again by its table, so only the task still Pending is put back.
+     */
+    private void requeue(OptimizeTaskItem task) {
+      if (task.getOptimizeStatus() != OptimizeStatus.Pending) {
+        return;
+      }
+      if (!tasks.offer(task)) {
+        LOG.error("failed to put task {} back to queue {}, queue is full", task.getTaskId(), queueName());
+      }
+    }
+
+    /**
+     * Start the planner of this queue, which plans tasks in the background until the queue holds
+     * {@link #lowWaterMark} tasks, and then waits for pollers to take them.
+     */
+    private void startPlanner() {
+      if (stopped || !plannerStarted.compareAndSet(false, true)) {
+        return;
+      }
+      Thread thread = new Thread(this::runPlanner);
+      thread.setName("Optimize Plan Thread Queue-" + optimizeQueue.getOptimizeQueueMeta().getQueueId());
+      thread.setDaemon(true);
+      planner = thread;
+      thread.start();
+    }
+
+    private void stopPlanner() {
+      stopped = true;
+      Thread thread = planner;
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+
+    private void requestPlan() {
+      lock();
+      try {
+        planCondition.signalAll();
+      } finally {
+        unlock();
+      }
+    }
+
+    private void runPlanner() {
+      LOG.info("planner of queue {} started", queueName());
+      while (!stopped) {
+        try {
+          int required = lowWaterMark - tasks.size();
+          if (required > 0) {
+            long startTime = System.currentTimeMillis();
+            List<OptimizeTaskItem> planned = plan(startTime, required);
+            latestPlanCostTime = System.currentTimeMillis() - startTime;
+            planCount++;
+            LOG.debug("queue {} planned {} tasks cost {} ms, queue size {}", queueName(), planned.size(),
+                latestPlanCostTime, tasks.size());
+            if (!planned.isEmpty()) {
+              continue;
             }
-            return task.getOptimizeTask();
           }
+          lock();
+          try {
+            planCondition.await(planInterval, TimeUnit.MILLISECONDS);
+          } finally {
+            unlock();
+          }
+        } catch (InterruptedException e) {
+          LOG.info("planner of queue {} interrupted", queueName());
+          break;
+        } catch (Throwable t) {
+          LOG.error("failed to plan queue {}", queueName(), t);
         }
       }
+      LOG.info("planner of queue {} stopped", queueName());
     }
 
-    private void insertTableTaskHistory(TableTaskHistory tableTaskHistory) {
+    private void insertTableTaskHistories(List<TableTaskHistory> tableTaskHistories) {
       ITableTaskHistoryService tableTaskHistoryService = ServiceContainer.getTableTaskHistoryService();
-      tableTaskHistoryService.insertTaskHistory(tableTaskHistory);
+      if (tableTaskHistories.size() == 1) {
+        tableTaskHistoryService.insertTaskHistory(tableTaskHistories.get(0));
+      } else {
+        tableTaskHistoryService.insertTaskHistories(tableTaskHistories);
+      }
     }
 
     private void clearTasks(TableIdentifier tableIdentifier) {
@@ -519,13 +623,25 @@ public class OptimizeQueueService extends IJDBCService {
 
     public OptimizeQueueItem getOptimizeQueueItem() {
       optimizeQueue.setSize(size());
+      optimizeQueue.setWaitingPollers(waitingPollers.get());
+      optimizeQueue.setLatestPlanCostTime(latestPlanCostTime);
+      optimizeQueue.setPlanCount(planCount);
       return optimizeQueue;
     }
 
-    private List<OptimizeTaskItem> plan(long currentTime) {
-      List<TableIdentifier> tableSort = sortTableByQuota(new ArrayList<>(tables));
-
-      for (TableIdentifier tableIdentifier : tableSort) {
+    /**
+     * Plan tables in the order of {@link TableQuotaInfo} until at least the required number of tasks are put into
+     * queue. Tables are taken from a heap, so only the tables actually planned are ordered.
+     */
+    private List<OptimizeTaskItem> plan(long currentTime, int required) {
+      PriorityQueue<TableQuotaInfo> ranking = rankTables(currentTime);
+
+      List<OptimizeTaskItem> planned = new ArrayList<>();
+      while (!ranking.isEmpty()) {
+        if (stopped || planned.size() >= required) {
+          break;
+        }
+        TableIdentifier tableIdentifier = ranking.poll().getTableIdentifier();
         LOG.debug("{} try plan", tableIdentifier);
         try {
           TableOptimizeItem tableItem = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier);
@@ -565,7 +681,7 @@ public class OptimizeQueueService extends IJDBCService {
           List<OptimizeTaskItem> toExecuteTasks = addTask(tableItem, optimizeTasks);
           if (!toExecuteTasks.isEmpty()) {
             LOG.info("{} after plan put {} tasks into queue", tableItem.getTableIdentifier(), toExecuteTasks.size());
-            return toExecuteTasks;
+            planned.addAll(toExecuteTasks);
           } else {
             LOG.debug("{} after plan put no tasks into queue, try next table", tableItem.getTableIdentifier());
           }
@@ -574,67 +690,70 @@ public class OptimizeQueueService extends IJDBCService {
         }
       }
 
-      return Collections.emptyList();
+      return planned;
     }
 
-    private List<TableIdentifier> sortTableByQuota(List<TableIdentifier> tables) {
-      long currentTime = System.currentTimeMillis();
-      List<TableQuotaInfo> tableQuotaInfoList = tables.stream()
-          .map(tableIdentifier -> {
-            try {
-              return new TableQuotaInfo(tableIdentifier, evalQuotaRate(tableIdentifier, currentTime),
-                  ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier).getQuotaCache());
-            } catch (NoSuchObjectException e) {
-              LOG.error("can't find table", e);
-              return null;
-            } catch (Throwable t) {
-              LOG.error("unexpected error", t);
-              return null;
-            }
-          }).filter(Objects::nonNull).collect(Collectors.toList());
-
-      return tableQuotaInfoList.stream().sorted().map(TableQuotaInfo::getTableIdentifier).collect(Collectors.toList());
+    /**
+     * Rank tables of this queue, the ranking is evaluated in memory from the tasks and files of tables.
+     *
+     * @return tables in the order they are planned
+     */
+    public List<TableQuotaInfo> getTableRanking() {
+      List<TableQuotaInfo> ranking = new ArrayList<>(rankTables(System.currentTimeMillis()));
+      Collections.sort(ranking);
+      return ranking;
     }
 
-    private BigDecimal evalQuotaRate(TableIdentifier tableId, long currentTime) throws NoSuchObjectException {
-      TableOptimizeItem tableItem;
-      tableItem = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableId);
-      String latestHistoryId = tableItem.getTableOptimizeRuntime().getLatestTaskHistoryId();
-      if (StringUtils.isEmpty(latestHistoryId)) {
-        return BigDecimal.ZERO;
-      }
-
-      List<TableTaskHistory> latestTaskHistories =
-          ServiceContainer.getTableTaskHistoryService().selectTaskHistory(tableId, latestHistoryId);
-      if (CollectionUtils.isEmpty(latestTaskHistories)) {
-        return BigDecimal.ZERO;
+    private PriorityQueue<TableQuotaInfo> rankTables(long currentTime) {
+      List<TableIdentifier> tableList;
+      lock();
+      try {
+        tableList = new ArrayList<>(tables);
+      } finally {
+        unlock();
       }
-
-      long latestCostTime = 0;
-      long latestStartTime = 0;
-      for (TableTaskHistory latestTaskHistory : latestTaskHistories) {
-        if (latestStartTime == 0 || latestStartTime > latestTaskHistory.getStartTime()) {
-          latestStartTime = latestTaskHistory.getStartTime();
+      List<TableQuotaInfo> tableQuotaInfoList = new ArrayList<>(tableList.size());
+      for (TableIdentifier tableIdentifier : tableList) {
+        try {
+          TableOptimizeItem tableItem = ServiceContainer.getOptimizeService().getTableOptimizeItem(tableIdentifier);
+          tableQuotaInfoList.add(rankTable(tableItem, currentTime));
+        } catch (NoSuchObjectException e) {
+          tableRankings.remove(tableIdentifier);
+          LOG.error("can't find table", e);
+        } catch (Throwable t) {
+          LOG.error("unexpected error", t);
         }
+      }
+      return new PriorityQueue<>(tableQuotaInfoList);
+    }
 
-        if (latestTaskHistory.getCostTime() != 0) {
-          latestCostTime = latestCostTime + latestTaskHistory.getCostTime();
-        } else {
-          latestCostTime = latestCostTime + currentTime - latestTaskHistory.getStartTime();
-        }
+    /**
+     * Rank table again only if its tasks were added, removed, started or finished since it was ranked, or the
+     * ranking is older than {@link #RANKING_REFRESH_INTERVAL}.
+     */
+    private TableQuotaInfo rankTable(TableOptimizeItem tableItem, long currentTime) {
+      TableIdentifier tableIdentifier = tableItem.getTableIdentifier();
+      long quotaVersion = tableItem.getQuotaVersion();
+      TableRanking ranking = tableRankings.get(tableIdentifier);
+      if (ranking == null || ranking.quotaVersion != quotaVersion ||
+          currentTime - ranking.rankTime > RANKING_REFRESH_INTERVAL) {
+        ranking = new TableRanking(new TableQuotaInfo(tableIdentifier, tableItem.getQuotaRate(currentTime),
+            tableItem.getQuotaCache(), tableItem.getOptimizePressure()), quotaVersion, currentTime);
+        tableRankings.put(tableIdentifier, ranking);
       }
-      BigDecimal currentQuota = new BigDecimal(latestCostTime)
-          .divide(new BigDecimal(currentTime - latestStartTime),
-              2,
-              RoundingMode.HALF_UP);
+      return ranking.quotaInfo;
+    }
 
-      BigDecimal tableQuota = BigDecimal.valueOf(tableItem.getQuotaCache());
+    private static class TableRanking {
+      private final TableQuotaInfo quotaInfo;
+      private final long quotaVersion;
+      private final long rankTime;
 
-      if (tableQuota.compareTo(BigDecimal.ZERO) <= 0) {
-        return BigDecimal.valueOf(Long.MAX_VALUE);
+      private TableRanking(TableQuotaInfo quotaInfo, long quotaVersion, long rankTime) {
+        this.quotaInfo = quotaInfo;
+        this.quotaVersion = quotaVersion;
+        this.rankTime = rankTime;
       }
-
-      return currentQuota.divide(tableQuota, 2, RoundingMode.HALF_UP);
     }
 
     private void initTableOptimizeRuntime(TableOptimizeItem tableItem,
@@ -38,10 +38,16 @@ import com.netease.arctic.table.UnkeyedTable;
 import com.netease.arctic.utils.FileUtil;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
-import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.ManifestContent;
 import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.ManifestReader;
 import org.apache.iceberg.Snapshot;
-import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.util.Tasks;
+import org.apache.iceberg.util.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,9 +56,14 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class OrphanFilesCleanService implements IOrphanFilesCleanService {
@@ -156,7 +167,6 @@ public class OrphanFilesCleanService implements IOrphanFilesCleanService {
                                                   boolean execute) {
     Set<String> validFiles = getValidDataFiles(table.id(), table.io(), internalTable);
     LOG.info("{} table get {} valid files", table.id(), validFiles.size());
-    int deleteFilesCnt = 0;
     Set<String> exclude = new HashSet<>();
     if (internalTable instanceof BaseTable) {
       List<DataFileInfo> dataFilesInfo = ServiceContainer.getFileInfoCacheService()
@@ -168,17 +178,24 @@ public class OrphanFilesCleanService implements IOrphanFilesCleanService {
       exclude = dataFilesInfo.stream().map(DataFileInfo::getPath).collect(Collectors.toSet());
     }
     String dataLocation = internalTable.location() + File.separator + DATA_FOLDER_NAME;
+    AtomicInteger deleteFilesCnt = new AtomicInteger(0);
     if (new File(dataLocation).exists()) {
-      for (FileStatus fileStatus : table.io().list(dataLocation)) {
-        deleteFilesCnt += deleteInvalidDataFiles(table.io(),
-            fileStatus,
-            validFiles,
-            lastTime,
-            exclude,
-            execute);
-      }
+      // list and clean each sub directory(partition) of data/ in parallel
+      Set<String> excludeFiles = exclude;
+      Tasks.foreach(table.io().list(dataLocation))
+          .executeWith(ThreadPools.getWorkerPool())
+          .noRetry()
+          .suppressFailureWhenFinished()
+          .onFailure((fileStatus, e) -> LOG.warn("{} failed to clean orphan files in {}", table.id(),
+              fileStatus.getPath(), e))
+          .run(fileStatus -> deleteFilesCnt.addAndGet(deleteInvalidDataFiles(table.io(),
+              fileStatus,
+              validFiles,
+              lastTime,
+              excludeFiles,
+              execute)));
     }
-    LOG.info("{} total delete[execute={}] {} files", table.id(), execute, deleteFilesCnt);
+    LOG.info("{} total delete[execute={}] {} files", table.id(), execute, deleteFilesCnt.get());
   }
 
   private static void clearInternalTableMetadata(ArcticTable table, UnkeyedTable internalTable, long lastTime,
@@ -262,11 +279,13 @@ public class OrphanFilesCleanService implements IOrphanFilesCleanService {
                                             Set<String> exclude,
                                             boolean execute) {
     String location = fileStatus.getPath().toUri().getPath();
-    if (io.isDirectory(location)) {
-      if (!io.isEmptyDirectory(location)) {
+    if (fileStatus.isDirectory()) {
+      // list once, the listed status tells sub directories from files without asking file system again
+      List<FileStatus> files = io.list(location);
+      if (!files.isEmpty()) {
         LOG.info("start orphan files clean in {}", location);
         int deleteFileCnt = 0;
-        for (FileStatus file : io.list(location)) {
+        for (FileStatus file : files) {
           deleteFileCnt += deleteInvalidDataFiles(io, file, validFiles, lastTime, exclude, execute);
         }
         LOG.info("delete[{}] {} files in {}", execute, deleteFileCnt, location);
@@ -276,8 +295,7 @@ public class OrphanFilesCleanService implements IOrphanFilesCleanService {
         }
         FileUtil.deleteEmptyDirectory(io, location, exclude);
         return deleteFileCnt;
-      } else if (io.isEmptyDirectory(location) &&
-          fileStatus.getModificationTime() < lastTime) {
+      } else if (fileStatus.getModificationTime() < lastTime) {
         if (location.endsWith(METADATA_FOLDER_NAME) || location.endsWith(DATA_FOLDER_NAME)) {
           return 0;
         }
@@ -332,57 +350,65 @@ public class OrphanFilesCleanService implements IOrphanFilesCleanService {
   private static Set<String> getValidMetadataFiles(TableIdentifier tableIdentifier, ArcticFileIO io,
                                                    UnkeyedTable internalTable) {
     Set<String> validFiles = new HashSet<>();
-    Iterable<Snapshot> snapshots = internalTable.snapshots();
-    int size = Iterables.size(snapshots);
-    LOG.info("{} get {} snapshots to scan", tableIdentifier, size);
-    int cnt = 0;
-    for (Snapshot snapshot : snapshots) {
-      cnt++;
-      int before = validFiles.size();
-      String manifestListLocation = snapshot.manifestListLocation();
-      validFiles.add(manifestListLocation);
-
-      io.doAs(() -> {
-        // valid data files
-        List<ManifestFile> manifestFiles = snapshot.allManifests();
-        for (ManifestFile manifestFile : manifestFiles) {
-          validFiles.add(manifestFile.path());
-        }
-        return null;
-      });
-      LOG.info("{} scan snapshot {}: {} and get {} files, complete {}/{}", tableIdentifier, snapshot.snapshotId(),
-          formatTime(snapshot.timestampMillis()), validFiles.size() - before, cnt, size);
+    for (Snapshot snapshot : internalTable.snapshots()) {
+      validFiles.add(snapshot.manifestListLocation());
     }
-
+    validFiles.addAll(getAllManifests(tableIdentifier, io, internalTable).keySet());
     return validFiles;
   }
 
   private static Set<String> getValidDataFiles(TableIdentifier tableIdentifier, ArcticFileIO io,
                                                UnkeyedTable internalTable) {
-    Set<String> validFiles = new HashSet<>();
-    Iterable<Snapshot> snapshots = internalTable.snapshots();
-    int size = Iterables.size(snapshots);
-    LOG.info("{} get {} snapshots to scan", tableIdentifier, size);
-    int cnt = 0;
-    for (Snapshot snapshot : snapshots) {
-      cnt++;
-      int before = validFiles.size();
-      io.doAs(() -> {
-        // valid data files
-        for (FileScanTask scanTask
-            : internalTable.newScan().useSnapshot(snapshot.snapshotId()).planFiles()) {
-          if (scanTask.file() != null) {
-            validFiles.add(scanTask.file().path().toString());
-            scanTask.deletes().forEach(file -> validFiles.add(file.path().toString()));
+    Collection<ManifestFile> manifests = getAllManifests(tableIdentifier, io, internalTable).values();
+    Set<String> validFiles = ConcurrentHashMap.newKeySet();
+    AtomicInteger cnt = new AtomicInteger(0);
+    // manifests are shared by snapshots, read each of them only once
+    Tasks.foreach(manifests)
+        .executeWith(ThreadPools.getWorkerPool())
+        .noRetry()
+        .throwFailureWhenFinished()
+        .run(manifest -> io.doAs(() -> {
+          int before = validFiles.size();
+          try (CloseableIterable<String> paths = readLivePaths(manifest, io, internalTable)) {
+            paths.forEach(validFiles::add);
           }
-        }
-        return null;
-      });
-      LOG.info("{} scan snapshot {}: {} and get {} files, complete {}/{}", tableIdentifier, snapshot.snapshotId(),
-          formatTime(snapshot.timestampMillis()), validFiles.size() - before, cnt, size);
+          LOG.debug("{} read manifest {} and get {} files, complete {}/{}", tableIdentifier, manifest.path(),
+              validFiles.size() - before, cnt.incrementAndGet(), manifests.size());
+          return null;
+        }));
+    return validFiles;
+  }
+
+  private static CloseableIterable<String> readLivePaths(ManifestFile manifest, ArcticFileIO io,
+                                                         UnkeyedTable internalTable) {
+    if (manifest.content() == ManifestContent.DATA) {
+      return ManifestFiles.readPaths(manifest, io);
     }
+    ManifestReader<DeleteFile> reader = ManifestFiles.readDeleteManifest(manifest, io, internalTable.specs())
+        .select(Collections.singletonList("file_path"));
+    return CloseableIterable.transform(reader, file -> file.path().toString());
+  }
 
-    return validFiles;
+  /**
+   * Get distinct manifests of all snapshots.
+   *
+   * @return map manifest path -> manifest
+   */
+  private static Map<String, ManifestFile> getAllManifests(TableIdentifier tableIdentifier, ArcticFileIO io,
+                                                           UnkeyedTable internalTable) {
+    List<Snapshot> snapshots = Lists.newArrayList(internalTable.snapshots());
+    LOG.info("{} get {} snapshots to scan", tableIdentifier, snapshots.size());
+    Map<String, ManifestFile> manifests = new ConcurrentHashMap<>();
+    Tasks.foreach(snapshots)
+        .executeWith(ThreadPools.getWorkerPool())
+        .noRetry()
+        .throwFailureWhenFinished()
+        .run(snapshot -> io.doAs(() -> {
+          snapshot.allManifests().forEach(manifest -> manifests.putIfAbsent(manifest.path(), manifest));
+          return null;
+        }));
+    LOG.info("{} get {} distinct manifests of {} snapshots", tableIdentifier, manifests.size(), snapshots.size());
+    return manifests;
   }
 
 }
@@ -120,9 +120,8 @@ public class TableExpireService implements ITableExpireService {
               LOG.warn("[{}] Base table is null: {} ", traceId, tableIdentifier);
               return null;
             }
-            List<DataFileInfo> changeFilesInfo = ServiceContainer.getFileInfoCacheService()
-                .getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_CHANGE);
-            Set<String> baseExclude = changeFilesInfo.stream().map(DataFileInfo::getPath).collect(Collectors.toSet());
+            Set<String> baseExclude = ServiceContainer.getFileInfoCacheService()
+                .getOptimizeDatafilePaths(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_CHANGE);
             expireSnapshots(baseTable, startTime - baseSnapshotsKeepTime, baseExclude);
             long baseCleanedTime = System.currentTimeMillis();
             LOG.info("[{}] {} base expire cost {} ms", traceId, arcticTable.id(), baseCleanedTime - startTime);
@@ -137,9 +136,8 @@ public class TableExpireService implements ITableExpireService {
                 .getChangeTableTTLDataFiles(keyedArcticTable.id().buildTableIdentifier(),
                     System.currentTimeMillis() - changeDataTTL);
             deleteChangeFile(keyedArcticTable, changeDataFiles);
-            List<DataFileInfo> baseFilesInfo = ServiceContainer.getFileInfoCacheService()
-                .getOptimizeDatafiles(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_BASE);
-            Set<String> changeExclude = baseFilesInfo.stream().map(DataFileInfo::getPath).collect(Collectors.toSet());
+            Set<String> changeExclude = ServiceContainer.getFileInfoCacheService()
+                .getOptimizeDatafilePaths(tableIdentifier.buildTableIdentifier(), Constants.INNER_TABLE_BASE);
             expireSnapshots(changeTable, startTime - changeSnapshotsKeepTime, changeExclude);
             return null;
           });
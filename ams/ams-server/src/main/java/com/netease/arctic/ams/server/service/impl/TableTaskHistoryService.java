@@ -52,6 +52,22 @@ public class TableTaskHistoryService extends IJDBCService implements ITableTaskH
     }
   }
 
+  @Override
+  public void insertTaskHistories(List<TableTaskHistory> taskHistories) {
+    // the inserts are sent in one JDBC batch when committing
+    try (SqlSession sqlSession = getBatchSqlSession()) {
+      TaskHistoryMapper taskHistoryMapper =
+          getMapper(sqlSession, TaskHistoryMapper.class);
+      try {
+        taskHistories.forEach(taskHistoryMapper::insertTaskHistory);
+        sqlSession.commit(true);
+      } catch (Exception e) {
+        sqlSession.rollback(true);
+        throw e;
+      }
+    }
+  }
+
   @Override
   public void updateTaskHistory(TableTaskHistory taskHistory) {
     try (SqlSession sqlSession = getSqlSession(true)) {
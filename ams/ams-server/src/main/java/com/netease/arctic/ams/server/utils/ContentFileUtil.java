@@ -19,12 +19,15 @@
 package com.netease.arctic.ams.server.utils;
 
 import com.netease.arctic.ams.api.DataFileInfo;
+import com.netease.arctic.ams.api.PartitionFieldData;
 import com.netease.arctic.data.DataFileType;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFiles;
 import org.apache.iceberg.FileMetadata;
 import org.apache.iceberg.PartitionSpec;
 
+import java.util.List;
+
 public class ContentFileUtil {
 
   public static ContentFile<?> buildContentFile(DataFileInfo dataFileInfo, PartitionSpec partitionSpec) {
@@ -65,4 +68,25 @@ public class ContentFileUtil {
 
     return contentFile;
   }
+
+  /**
+   * Build the partition path of file, e.g. "day=1/hour=2".
+   *
+   * @param partitionFieldDataList partition fields of file
+   * @return empty string if the file has no partition
+   */
+  public static String partitionToPath(List<PartitionFieldData> partitionFieldDataList) {
+    if (partitionFieldDataList == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < partitionFieldDataList.size(); i++) {
+      if (i > 0) {
+        sb.append("/");
+      }
+      sb.append(partitionFieldDataList.get(i).getName()).append("=")
+          .append(partitionFieldDataList.get(i).getValue());
+    }
+    return sb.toString();
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.handler.impl;
+
+import com.netease.arctic.ams.api.JobId;
+import com.netease.arctic.ams.api.JobType;
+import com.netease.arctic.ams.api.OptimizeTask;
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.server.optimize.IOptimizeService;
+import com.netease.arctic.ams.server.service.ServiceContainer;
+import com.netease.arctic.ams.server.service.impl.OptimizeQueueService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    ServiceContainer.class
+})
+@PowerMockIgnore({"javax.management.*", "javax.net.ssl.*"})
+public class TestOptimizeManagerHandler {
+  private static final int QUEUE_ID = 1;
+
+  private final OptimizeManagerHandler handler = new OptimizeManagerHandler();
+  private final JobId jobId = new JobId();
+  private OptimizeQueueService optimizeQueueService;
+  private IOptimizeService optimizeService;
+
+  @Before
+  public void mockServices() {
+    jobId.setId("1");
+    jobId.setType(JobType.Optimize);
+    optimizeQueueService = mock(OptimizeQueueService.class);
+    optimizeService = mock(IOptimizeService.class);
+    mockStatic(ServiceContainer.class);
+    when(ServiceContainer.getOptimizeQueueService()).thenReturn(optimizeQueueService);
+    when(ServiceContainer.getOptimizeService()).thenReturn(optimizeService);
+  }
+
+  @Test
+  public void testPollTasks() throws Exception {
+    List<OptimizeTask> tasks = new ArrayList<>();
+    tasks.add(task("task-1"));
+    tasks.add(task("task-2"));
+    when(optimizeQueueService.pollTasks(QUEUE_ID, jobId, "1", 1000, 3)).thenReturn(tasks);
+
+    Assert.assertEquals(tasks, handler.pollTasks(QUEUE_ID, jobId, "1", 1000, 3));
+    Mockito.verify(optimizeQueueService).pollTasks(QUEUE_ID, jobId, "1", 1000, 3);
+    Mockito.verify(optimizeQueueService, Mockito.never())
+        .pollTask(Mockito.anyInt(), Mockito.any(), Mockito.anyString(), Mockito.anyLong());
+  }
+
+  @Test
+  public void testReportOptimizeResults() throws Exception {
+    List<OptimizeTaskStat> results = new ArrayList<>();
+    results.add(result("task-1"));
+    results.add(result("task-2"));
+
+    handler.reportOptimizeResults(results);
+    // results of one call are handled together, in one transaction
+    Mockito.verify(optimizeService).handleOptimizeResults(results);
+    Mockito.verify(optimizeService, Mockito.never()).handleOptimizeResult(Mockito.any());
+  }
+
+  private static OptimizeTask task(String taskId) {
+    OptimizeTask task = new OptimizeTask();
+    task.setTaskId(new OptimizeTaskId(OptimizeType.Major, taskId));
+    return task;
+  }
+
+  private static OptimizeTaskStat result(String taskId) {
+    OptimizeTaskStat result = new OptimizeTaskStat();
+    result.setTaskId(new OptimizeTaskId(OptimizeType.Major, taskId));
+    result.setAttemptId("1");
+    return result;
+  }
+}
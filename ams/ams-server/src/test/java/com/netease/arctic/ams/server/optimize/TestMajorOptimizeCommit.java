@@ -93,6 +93,46 @@ public class TestMajorOptimizeCommit extends TestMajorOptimizePlan {
     Assert.assertNotEquals(oldDeleteFilesPath, newDeleteFilesPath);
   }
 
+  @Test
+  public void testMajorOptimizeCommitConflict() throws Exception {
+    insertBasePosDeleteFiles(2);
+
+    testKeyedTable.updateProperties()
+        .set(TableProperties.MAJOR_OPTIMIZE_TRIGGER_DELETE_FILE_SIZE_BYTES, "0").commit();
+    TableOptimizeRuntime tableOptimizeRuntime = new TableOptimizeRuntime(testKeyedTable.id());
+    MajorOptimizePlan majorOptimizePlan = new MajorOptimizePlan(testKeyedTable,
+        tableOptimizeRuntime, baseDataFilesInfo, posDeleteFilesInfo,
+        new HashMap<>(), 1, System.currentTimeMillis(), snapshotId -> true);
+    List<BaseOptimizeTask> tasks = majorOptimizePlan.plan();
+
+    Map<TreeNode, List<DataFile>> resultFiles = generateTargetFiles();
+    List<OptimizeTaskItem> taskItems = tasks.stream().map(task -> {
+      BaseOptimizeTaskRuntime optimizeRuntime = new BaseOptimizeTaskRuntime(task.getTaskId());
+      List<DataFile> targetFiles = resultFiles.get(task.getSourceNodes().get(0));
+      optimizeRuntime.setStatus(OptimizeStatus.Prepared);
+      if (targetFiles != null) {
+        optimizeRuntime.setTargetFiles(targetFiles.stream().map(SerializationUtil::toByteBuffer)
+            .collect(Collectors.toList()));
+      }
+      return new OptimizeTaskItem(task, optimizeRuntime);
+    }).collect(Collectors.toList());
+    Map<String, List<OptimizeTaskItem>> partitionTasks = taskItems.stream()
+        .collect(Collectors.groupingBy(taskItem -> taskItem.getOptimizeTask().getPartition()));
+
+    // a concurrent commit removes a file to be rewritten
+    DataFile removedFile = (DataFile) SerializationUtil.toInternalTableFile(tasks.get(0).getBaseFiles().get(0));
+    testKeyedTable.baseTable().newDelete().deleteFile(removedFile).commit();
+    String conflictedPartition = tasks.get(0).getPartition();
+
+    BaseOptimizeCommit optimizeCommit = new BaseOptimizeCommit(testKeyedTable, partitionTasks);
+    optimizeCommit.commit(tableOptimizeRuntime);
+
+    Assert.assertTrue(optimizeCommit.getConflictedTasks().containsKey(conflictedPartition));
+    Assert.assertFalse(optimizeCommit.getCommittedTasks().containsKey(conflictedPartition));
+    Assert.assertFalse(optimizeCommit.getPartitionOptimizeType().containsKey(conflictedPartition));
+    Assert.assertEquals(1, optimizeCommit.getConflictRetries());
+  }
+
   private Map<TreeNode, List<DataFile>> generateTargetFiles() throws Exception {
     List<DataFile> dataFiles = insertKeyedTableBaseDataFiles(3);
     return dataFiles.stream().collect(Collectors.groupingBy(dataFile ->  {
@@ -19,6 +19,9 @@
 package com.netease.arctic.ams.server.optimize;
 
 
+import com.netease.arctic.ams.api.Constants;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.properties.OptimizerProperties;
 import com.netease.arctic.ams.server.model.BaseOptimizeTask;
 import com.netease.arctic.ams.server.model.TableOptimizeRuntime;
 import com.netease.arctic.ams.server.util.DataFileInfoUtils;
@@ -106,6 +109,34 @@ public class TestMajorOptimizePlan extends TestBaseOptimizePlan {
     Assert.assertEquals(1, tasks.get(0).getIsDeletePosDelete());
   }
 
+  @Test
+  public void testSplitOversizedKeyedMajorOptimize() throws IOException {
+    insertBasePosDeleteFiles(2);
+
+    testKeyedTable.updateProperties()
+        .set(TableProperties.MAJOR_OPTIMIZE_TRIGGER_DELETE_FILE_SIZE_BYTES, "0")
+        .set(TableProperties.MAJOR_OPTIMIZE_MAX_TASK_FILE_SIZE, "1")
+        .commit();
+
+    MajorOptimizePlan majorOptimizePlan = new MajorOptimizePlan(testKeyedTable,
+        new TableOptimizeRuntime(testKeyedTable.id()), baseDataFilesInfo, posDeleteFilesInfo,
+        new HashMap<>(), 1, System.currentTimeMillis(), snapshotId -> true);
+    List<BaseOptimizeTask> tasks = majorOptimizePlan.plan();
+    Assert.assertEquals(40, tasks.size());
+    Assert.assertEquals(1, tasks.stream().map(BaseOptimizeTask::getTaskGroup).distinct().count());
+    for (BaseOptimizeTask task : tasks) {
+      Assert.assertEquals(1, task.getBaseFiles().size());
+      Assert.assertEquals(1, task.getPosDeleteFiles().size());
+      Assert.assertEquals(1, task.getIsDeletePosDelete());
+      Assert.assertNotNull(task.getProperties().get(OptimizerProperties.OPTIMIZE_TASK_SPLIT_INDEX));
+    }
+    Assert.assertEquals(10, tasks.stream()
+        .filter(task -> task.getSourceNodes().equals(tasks.get(0).getSourceNodes()))
+        .map(task -> task.getProperties().get(OptimizerProperties.OPTIMIZE_TASK_SPLIT_INDEX))
+        .distinct()
+        .count());
+  }
+
   @Test
   public void testUnKeyedTableMajorOptimize() {
     insertUnKeyedTableDataFiles();
@@ -121,6 +152,42 @@ public class TestMajorOptimizePlan extends TestBaseOptimizePlan {
     Assert.assertEquals(0, tasks.get(0).getDeleteFileCnt());
   }
 
+  @Test
+  public void testSkipSettledPartitions() {
+    List<DataFile> dataFiles =
+        insertUnKeyedTableDataFile(FILE_A.partition(), LocalDateTime.of(2022, 1, 1, 12, 0, 0), 1);
+    dataFiles.addAll(insertUnKeyedTableDataFile(FILE_B.partition(), LocalDateTime.of(2022, 1, 2, 12, 0, 0), 5));
+    AppendFiles appendFiles = testTable.newAppend();
+    dataFiles.forEach(appendFiles::appendFile);
+    appendFiles.commit();
+    long commitTime = System.currentTimeMillis();
+    baseDataFilesInfo = dataFiles.stream()
+        .map(dataFile -> DataFileInfoUtils.convertToDatafileInfo(dataFile, commitTime, testTable))
+        .collect(Collectors.toList());
+
+    OptimizeFileIndex fileIndex = new OptimizeFileIndex(testTable.id(), (innerTable, partitions) ->
+        baseDataFilesInfo.stream()
+            .filter(file -> partitions.contains(file.getPartition()))
+            .collect(Collectors.toList()));
+    fileIndex.load(ImmutableMap.of(Constants.INNER_TABLE_BASE, baseDataFilesInfo),
+        ImmutableMap.of(Constants.INNER_TABLE_BASE, testTable.currentSnapshot().snapshotId()));
+    TableOptimizeRuntime tableOptimizeRuntime = new TableOptimizeRuntime(testTable.id());
+    baseDataFilesInfo.forEach(dataFileInfo ->
+        tableOptimizeRuntime.putLatestMajorOptimizeTime(dataFileInfo.getPartition(), System.currentTimeMillis()));
+
+    for (int i = 0; i < 2; i++) {
+      OptimizeFileIndex.PlanFiles planFiles = fileIndex.planFiles(OptimizeType.Major, testTable.properties());
+      MajorOptimizePlan majorOptimizePlan = new MajorOptimizePlan(testTable, tableOptimizeRuntime,
+          planFiles.getBaseFiles(), planFiles.getPosDeleteFiles(),
+          new HashMap<>(), 1, System.currentTimeMillis(), snapshotId -> true);
+      majorOptimizePlan.setPlanFiles(planFiles);
+      Assert.assertEquals(0, majorOptimizePlan.plan().size());
+      Assert.assertEquals(2, majorOptimizePlan.getCurrentPartitions().size());
+      // partition with only one small file is settled, the other one may reach max interval later
+      Assert.assertEquals(i, majorOptimizePlan.getSkippedPartitionCount());
+    }
+  }
+
   private void insertUnKeyedTableDataFiles() {
     List<DataFile> dataFiles = insertUnKeyedTableDataFile(FILE_A.partition(), LocalDateTime.of(2022, 1, 1, 12, 0, 0), 5);
     dataFiles.addAll(insertUnKeyedTableDataFile(FILE_B.partition(), LocalDateTime.of(2022, 1, 2, 12, 0, 0), 5));
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.optimize;
+
+import com.netease.arctic.ams.api.Constants;
+import com.netease.arctic.ams.api.DataFile;
+import com.netease.arctic.ams.api.DataFileInfo;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.PartitionFieldData;
+import com.netease.arctic.ams.api.TableChange;
+import com.netease.arctic.ams.api.TableCommitMeta;
+import com.netease.arctic.data.DataFileType;
+import com.netease.arctic.table.TableIdentifier;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TestOptimizeFileIndex {
+  private static final Map<String, String> PROPERTIES = new HashMap<>();
+
+  // inner table -> files, stands for the file cache the index reads files from
+  private final Map<String, List<DataFileInfo>> cachedFiles = new HashMap<>();
+  private final List<Set<String>> readPartitions = new ArrayList<>();
+  private OptimizeFileIndex fileIndex;
+
+  @Before
+  public void loadIndex() {
+    cachedFiles.put(Constants.INNER_TABLE_BASE, Lists.newArrayList(
+        dataFileInfo("base-1", DataFileType.BASE_FILE, "day=1"),
+        dataFileInfo("base-2", DataFileType.BASE_FILE, "day=2"),
+        dataFileInfo("pos-delete-1", DataFileType.POS_DELETE_FILE, "day=1")));
+    cachedFiles.put(Constants.INNER_TABLE_CHANGE, Lists.newArrayList(
+        dataFileInfo("insert-3", DataFileType.INSERT_FILE, "day=3")));
+    fileIndex = new OptimizeFileIndex(TableIdentifier.of("catalog", "db", "table"), (innerTable, partitions) -> {
+      readPartitions.add(new HashSet<>(partitions));
+      return cachedFiles.getOrDefault(innerTable, Collections.emptyList()).stream()
+          .filter(file -> partitions.contains(file.getPartition()))
+          .collect(Collectors.toList());
+    });
+    fileIndex.load(cachedFiles,
+        ImmutableMap.of(Constants.INNER_TABLE_BASE, 1L, Constants.INNER_TABLE_CHANGE, 10L));
+  }
+
+  @Test
+  public void testPlanFiles() {
+    Assert.assertTrue(fileIndex.isUpToDate(
+        ImmutableMap.of(Constants.INNER_TABLE_BASE, 1L, Constants.INNER_TABLE_CHANGE, 10L)));
+    Assert.assertFalse(fileIndex.isUpToDate(
+        ImmutableMap.of(Constants.INNER_TABLE_BASE, 2L, Constants.INNER_TABLE_CHANGE, 10L)));
+
+    OptimizeFileIndex.PlanFiles majorFiles = fileIndex.planFiles(OptimizeType.Major, PROPERTIES);
+    Assert.assertEquals(Sets.newHashSet("day=1", "day=2", "day=3"), majorFiles.getAllPartitions());
+    Assert.assertEquals(Sets.newHashSet("base-1", "base-2"), paths(majorFiles.getBaseFiles()));
+    Assert.assertEquals(Sets.newHashSet("pos-delete-1"), paths(majorFiles.getPosDeleteFiles()));
+    Assert.assertTrue(majorFiles.getChangeFiles().isEmpty());
+    Assert.assertEquals(100, majorFiles.getPosDeleteFileSize());
+
+    OptimizeFileIndex.PlanFiles minorFiles = fileIndex.planFiles(OptimizeType.Minor, PROPERTIES);
+    Assert.assertEquals(Sets.newHashSet("insert-3"), paths(minorFiles.getChangeFiles()));
+  }
+
+  @Test
+  public void testSkipSettledPartitions() {
+    OptimizeFileIndex.PlanFiles majorFiles = fileIndex.planFiles(OptimizeType.Major, PROPERTIES);
+    majorFiles.settle(Sets.newHashSet("day=1", "day=2"));
+
+    majorFiles = fileIndex.planFiles(OptimizeType.Major, PROPERTIES);
+    Assert.assertEquals(2, majorFiles.getSkippedPartitionCount());
+    Assert.assertEquals(Sets.newHashSet("day=3"), majorFiles.getPartitions());
+    Assert.assertTrue(majorFiles.getBaseFiles().isEmpty());
+    // settled partitions still count for table wide pos-delete size
+    Assert.assertEquals(100, majorFiles.getPosDeleteFileSize());
+
+    // partitions are settled for each optimize type
+    Assert.assertEquals(0, fileIndex.planFiles(OptimizeType.Minor, PROPERTIES).getSkippedPartitionCount());
+
+    // files of settled partitions are not read
+    majorFiles.settle(majorFiles.getPartitions());
+    readPartitions.clear();
+    Assert.assertTrue(fileIndex.planFiles(OptimizeType.Major, PROPERTIES).getPartitions().isEmpty());
+    Assert.assertTrue(readPartitions.isEmpty());
+
+    // changing table properties may change the plan of settled partitions
+    Map<String, String> properties = ImmutableMap.of(TableProperties.MAJOR_OPTIMIZE_TRIGGER_SMALL_FILE_COUNT, "1");
+    Assert.assertEquals(0, fileIndex.planFiles(OptimizeType.Major, properties).getSkippedPartitionCount());
+  }
+
+  @Test
+  public void testCommitUnsettlePartitions() {
+    OptimizeFileIndex.PlanFiles majorFiles = fileIndex.planFiles(OptimizeType.Major, PROPERTIES);
+    cachedFiles.get(Constants.INNER_TABLE_BASE).removeIf(file -> file.getPath().equals("base-2"));
+    cachedFiles.get(Constants.INNER_TABLE_BASE).add(dataFileInfo("base-1-2", DataFileType.BASE_FILE, "day=1"));
+    fileIndex.applyCommit(commit(Constants.INNER_TABLE_BASE, 1L, 2L,
+        Collections.singletonList(dataFile("base-1-2", DataFileType.BASE_FILE, "day", "1")),
+        Collections.singletonList(dataFile("base-2", DataFileType.BASE_FILE, "day", "2"))));
+    // partitions committed into after plan files are handed out can not be settled
+    majorFiles.settle(majorFiles.getPartitions());
+
+    Assert.assertTrue(fileIndex.isUpToDate(
+        ImmutableMap.of(Constants.INNER_TABLE_BASE, 2L, Constants.INNER_TABLE_CHANGE, 10L)));
+    majorFiles = fileIndex.planFiles(OptimizeType.Major, PROPERTIES);
+    Assert.assertEquals(Sets.newHashSet("day=1", "day=3"), majorFiles.getAllPartitions());
+    Assert.assertEquals(Sets.newHashSet("day=1"), majorFiles.getPartitions());
+    Assert.assertEquals(Sets.newHashSet("base-1", "base-1-2"), paths(majorFiles.getBaseFiles()));
+  }
+
+  @Test
+  public void testInvalidateByUnexpectedCommit() {
+    fileIndex.applyCommit(commit(Constants.INNER_TABLE_CHANGE, 11L, 12L,
+        Collections.singletonList(dataFile("insert-3-2", DataFileType.INSERT_FILE, "day", "3")),
+        Collections.emptyList()));
+    Assert.assertFalse(fileIndex.isUpToDate(
+        ImmutableMap.of(Constants.INNER_TABLE_BASE, 1L, Constants.INNER_TABLE_CHANGE, 12L)));
+  }
+
+  @Test
+  public void testFileCount() {
+    Assert.assertEquals(1, fileIndex.getChangeFileCount());
+    Assert.assertEquals(1, fileIndex.getDeleteFileCount());
+
+    fileIndex.applyCommit(commit(Constants.INNER_TABLE_CHANGE, 10L, 11L,
+        Lists.newArrayList(dataFile("insert-3-2", DataFileType.INSERT_FILE, "day", "3"),
+            dataFile("eq-delete-3", DataFileType.EQ_DELETE_FILE, "day", "3")),
+        Collections.emptyList()));
+    Assert.assertEquals(3, fileIndex.getChangeFileCount());
+    Assert.assertEquals(2, fileIndex.getDeleteFileCount());
+
+    fileIndex.applyCommit(commit(Constants.INNER_TABLE_BASE, 1L, 2L, Collections.emptyList(),
+        Collections.singletonList(dataFile("pos-delete-1", DataFileType.POS_DELETE_FILE, "day", "1"))));
+    Assert.assertEquals(3, fileIndex.getChangeFileCount());
+    Assert.assertEquals(1, fileIndex.getDeleteFileCount());
+  }
+
+  private static DataFileInfo dataFileInfo(String path, DataFileType type, String partition) {
+    DataFileInfo dataFileInfo = new DataFileInfo();
+    dataFileInfo.setPath(path);
+    dataFileInfo.setType(type.name());
+    dataFileInfo.setPartition(partition);
+    dataFileInfo.setSize(100);
+    return dataFileInfo;
+  }
+
+  private static DataFile dataFile(String path, DataFileType type, String partitionField, String partitionValue) {
+    DataFile dataFile = new DataFile();
+    dataFile.setPath(path);
+    dataFile.setFileType(type.name());
+    dataFile.setFileSize(100);
+    dataFile.setPartition(Collections.singletonList(new PartitionFieldData(partitionField, partitionValue)));
+    return dataFile;
+  }
+
+  private static TableCommitMeta commit(String innerTable, long parentSnapshotId, long snapshotId,
+                                        List<DataFile> addFiles, List<DataFile> deleteFiles) {
+    TableCommitMeta commit = new TableCommitMeta();
+    commit.setCommitTime(System.currentTimeMillis());
+    commit.setChanges(Collections.singletonList(
+        new TableChange(innerTable, addFiles, deleteFiles, snapshotId, parentSnapshotId)));
+    return commit;
+  }
+
+  private static Set<String> paths(List<DataFileInfo> files) {
+    return files.stream().map(DataFileInfo::getPath).collect(Collectors.toSet());
+  }
+}
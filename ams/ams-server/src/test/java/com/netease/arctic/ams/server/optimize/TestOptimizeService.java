@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.optimize;
+
+import com.netease.arctic.ams.api.NoSuchObjectException;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.Configuration;
+import com.netease.arctic.ams.server.model.TableMetadata;
+import com.netease.arctic.ams.server.service.IMetaService;
+import com.netease.arctic.ams.server.service.ITableTaskHistoryService;
+import com.netease.arctic.ams.server.service.ServiceContainer;
+import com.netease.arctic.ams.server.service.impl.OptimizeQueueService;
+import com.netease.arctic.ams.server.utils.JDBCSqlSessionFactoryProvider;
+import com.netease.arctic.catalog.ArcticCatalog;
+import com.netease.arctic.catalog.CatalogLoader;
+import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.table.TableIdentifier;
+import com.netease.arctic.table.TableProperties;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    ServiceContainer.class,
+    JDBCSqlSessionFactoryProvider.class,
+    CatalogLoader.class
+})
+@PowerMockIgnore({"javax.management.*", "javax.net.ssl.*"})
+public class TestOptimizeService {
+  private static final int TABLE_COUNT = 8;
+
+  // tables in sysdb
+  private final Set<TableIdentifier> tables = ConcurrentHashMap.newKeySet();
+  private Configuration originalConf;
+  private IMetaService metaService;
+  private ArcticCatalog catalog;
+
+  @Before
+  public void mockServices() {
+    originalConf = ArcticMetaStore.conf;
+    ArcticMetaStore.conf = new Configuration();
+
+    // every mapper returns nothing
+    Map<Class<?>, Object> mappers = new ConcurrentHashMap<>();
+    SqlSession sqlSession = mock(SqlSession.class);
+    when(sqlSession.getMapper(Mockito.any())).thenAnswer(invocation ->
+        mappers.computeIfAbsent(invocation.getArgument(0), type -> mock((Class<?>) type)));
+    SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+    when(sqlSessionFactory.openSession(Mockito.anyBoolean())).thenReturn(sqlSession);
+    mockStatic(JDBCSqlSessionFactoryProvider.class);
+    when(JDBCSqlSessionFactoryProvider.get()).thenReturn(sqlSessionFactory);
+
+    metaService = mock(IMetaService.class);
+    when(metaService.listTables()).thenAnswer(invocation ->
+        tables.stream().map(TestOptimizeService::tableMetadata).collect(Collectors.toList()));
+    when(metaService.isExist(Mockito.any())).thenAnswer(invocation ->
+        tables.contains(invocation.<TableIdentifier>getArgument(0)));
+    when(metaService.loadTableMetadata(Mockito.any())).thenAnswer(invocation ->
+        tableMetadata(invocation.getArgument(0)));
+    mockStatic(ServiceContainer.class);
+    when(ServiceContainer.getMetaService()).thenReturn(metaService);
+    when(ServiceContainer.getOptimizeQueueService()).thenReturn(mock(OptimizeQueueService.class));
+    when(ServiceContainer.getTableTaskHistoryService()).thenReturn(mock(ITableTaskHistoryService.class));
+
+    ArcticTable arcticTable = mock(ArcticTable.class);
+    when(arcticTable.properties()).thenReturn(ImmutableMap.of(TableProperties.ENABLE_OPTIMIZE, "false"));
+    catalog = mock(ArcticCatalog.class);
+    when(catalog.loadTable(Mockito.any())).thenReturn(arcticTable);
+    mockStatic(CatalogLoader.class);
+    when(CatalogLoader.load(Mockito.any(), Mockito.anyString())).thenReturn(catalog);
+  }
+
+  @After
+  public void restoreConf() {
+    ArcticMetaStore.conf = originalConf;
+  }
+
+  @Test
+  public void testConcurrentAddRemoveLookup() throws Exception {
+    List<TableIdentifier> identifiers = IntStream.range(0, TABLE_COUNT)
+        .mapToObj(i -> TableIdentifier.of("catalog", "db", "table" + i))
+        .collect(Collectors.toList());
+    tables.addAll(identifiers.subList(0, TABLE_COUNT / 2));
+    OptimizeService optimizeService = new OptimizeService();
+    Assert.assertEquals(TABLE_COUNT / 2, optimizeService.listCachedTables(false).size());
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      // tables are created and dropped in sysdb while they are refreshed and looked up
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < 200; i++) {
+          TableIdentifier identifier = identifiers.get(i % TABLE_COUNT);
+          if (!tables.remove(identifier)) {
+            tables.add(identifier);
+          }
+          optimizeService.listCachedTables(true);
+        }
+        return null;
+      }));
+      for (int t = 0; t < 3; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < 200; i++) {
+            TableIdentifier identifier = identifiers.get(i % TABLE_COUNT);
+            try {
+              Assert.assertEquals(identifier, optimizeService.getTableOptimizeItem(identifier).getTableIdentifier());
+            } catch (NoSuchObjectException e) {
+              // dropped, or not found recently
+            }
+            optimizeService.listCachedTables(false);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // the cache converges to the tables in sysdb after a refresh
+    Assert.assertEquals(new HashSet<>(tables), new HashSet<>(optimizeService.listCachedTables(true)));
+    for (TableIdentifier identifier : tables) {
+      Assert.assertEquals(identifier, optimizeService.getTableOptimizeItem(identifier).getTableIdentifier());
+    }
+  }
+
+  @Test
+  public void testLoadTableAtFirstAccess() throws Exception {
+    OptimizeService optimizeService = new OptimizeService();
+    TableIdentifier identifier = TableIdentifier.of("catalog", "db", "table");
+    tables.add(identifier);
+
+    // a table not cached yet is added with its sysdb metadata only
+    TableOptimizeItem tableItem = optimizeService.getTableOptimizeItem(identifier);
+    Assert.assertSame(tableItem, optimizeService.getTableOptimizeItem(identifier));
+    Mockito.verify(catalog, Mockito.never()).loadTable(Mockito.any());
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<ArcticTable>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> tableItem.getArcticTable()));
+      }
+      for (Future<ArcticTable> future : futures) {
+        Assert.assertNotNull(future.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    // concurrent first accesses load the table once
+    Mockito.verify(catalog, Mockito.times(1)).loadTable(identifier);
+  }
+
+  @Test
+  public void testCacheMissingTable() throws Exception {
+    OptimizeService optimizeService = new OptimizeService();
+    TableIdentifier identifier = TableIdentifier.of("catalog", "db", "table");
+
+    Assert.assertThrows(NoSuchObjectException.class, () -> optimizeService.getTableOptimizeItem(identifier));
+    Assert.assertThrows(NoSuchObjectException.class, () -> optimizeService.getTableOptimizeItem(identifier));
+    // the second lookup does not go to sysdb
+    Mockito.verify(metaService, Mockito.times(1)).isExist(identifier);
+
+    // tables found by refreshing are not missing any more
+    tables.add(identifier);
+    optimizeService.listCachedTables(true);
+    Assert.assertEquals(identifier, optimizeService.getTableOptimizeItem(identifier).getTableIdentifier());
+  }
+
+  private static TableMetadata tableMetadata(TableIdentifier identifier) {
+    TableMetadata tableMetadata = new TableMetadata();
+    tableMetadata.setTableIdentifier(identifier);
+    tableMetadata.setProperties(ImmutableMap.of());
+    return tableMetadata;
+  }
+}
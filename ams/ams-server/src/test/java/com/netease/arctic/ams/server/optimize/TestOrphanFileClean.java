@@ -35,7 +35,9 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static com.netease.arctic.ams.server.service.impl.OrphanFilesCleanService.DATA_FOLDER_NAME;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -77,6 +79,22 @@ public class TestOrphanFileClean extends TestBaseOptimizePlan {
     Assert.assertFalse(testKeyedTable.io().exists(changeOrphanFilePath));
   }
 
+  @Test
+  public void orphanDataFileCleanKeepValidFiles() throws Exception {
+    insertBasePosDeleteFiles(2);
+    Set<String> validFiles = new HashSet<>();
+    testKeyedTable.baseTable().newScan().planFiles().forEach(fileScanTask -> {
+      validFiles.add(fileScanTask.file().path().toString());
+      fileScanTask.deletes().forEach(deleteFile -> validFiles.add(deleteFile.path().toString()));
+    });
+    Assert.assertFalse(validFiles.isEmpty());
+
+    OrphanFilesCleanService.clean(testKeyedTable, System.currentTimeMillis(), true, "all", false);
+    for (String validFile : validFiles) {
+      Assert.assertTrue(testKeyedTable.io().exists(validFile));
+    }
+  }
+
   @Test
   public void orphanMetadataFileClean() {
     String baseOrphanFilePath = testKeyedTable.baseTable().location() + File.separator + "metadata" +
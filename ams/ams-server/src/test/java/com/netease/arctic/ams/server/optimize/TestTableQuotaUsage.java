@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.optimize;
+
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.server.model.BaseOptimizeTask;
+import com.netease.arctic.ams.server.model.BaseOptimizeTaskRuntime;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTableQuotaUsage {
+
+  @Test
+  public void testTaskStartAndFinish() {
+    TableQuotaUsage quotaUsage = new TableQuotaUsage();
+    OptimizeTaskItem executing = taskItem("history-1", OptimizeStatus.Executing, 1000, 0);
+    OptimizeTaskItem prepared = taskItem("history-1", OptimizeStatus.Prepared, 2000, 500);
+    OptimizeTaskItem init = taskItem("history-1", OptimizeStatus.Init, BaseOptimizeTaskRuntime.INVALID_TIME, 0);
+    OptimizeTaskItem otherHistory = taskItem("history-0", OptimizeStatus.Prepared, 100, 100);
+    executing.trackQuotaUsage(quotaUsage);
+    prepared.trackQuotaUsage(quotaUsage);
+    init.trackQuotaUsage(quotaUsage);
+    otherHistory.trackQuotaUsage(quotaUsage);
+
+    TableOptimizeItem.QuotaUsage usage = quotaUsage.getQuotaUsage("history-1", 5000);
+    Assert.assertEquals(1000, usage.getStartTime());
+    Assert.assertEquals(4000 + 500, usage.getCostTime());
+    Assert.assertNull(quotaUsage.getQuotaUsage("history-2", 5000));
+
+    // executing task finishes
+    long version = quotaUsage.getVersion();
+    quotaUsage.removeTask(executing);
+    executing.getOptimizeRuntime().setStatus(OptimizeStatus.Prepared);
+    executing.getOptimizeRuntime().setCostTime(3000);
+    quotaUsage.addTask(executing);
+    Assert.assertTrue(quotaUsage.getVersion() > version);
+    usage = quotaUsage.getQuotaUsage("history-1", 10000);
+    Assert.assertEquals(1000, usage.getStartTime());
+    Assert.assertEquals(3000 + 500, usage.getCostTime());
+
+    // start time of optimize is kept after the earliest task is removed
+    executing.untrackQuotaUsage();
+    usage = quotaUsage.getQuotaUsage("history-1", 10000);
+    Assert.assertEquals(1000, usage.getStartTime());
+    Assert.assertEquals(500, usage.getCostTime());
+
+    prepared.untrackQuotaUsage();
+    Assert.assertNull(quotaUsage.getQuotaUsage("history-1", 10000));
+    Assert.assertEquals(100, quotaUsage.getQuotaUsage("history-0", 10000).getCostTime());
+  }
+
+  private static OptimizeTaskItem taskItem(String taskHistoryId, OptimizeStatus status, long executeTime,
+                                           long costTime) {
+    BaseOptimizeTask optimizeTask = new BaseOptimizeTask();
+    optimizeTask.setTaskHistoryId(taskHistoryId);
+    BaseOptimizeTaskRuntime optimizeRuntime = new BaseOptimizeTaskRuntime();
+    optimizeRuntime.setStatus(status);
+    optimizeRuntime.setExecuteTime(executeTime);
+    optimizeRuntime.setCostTime(costTime);
+    return new OptimizeTaskItem(optimizeTask, optimizeRuntime);
+  }
+}
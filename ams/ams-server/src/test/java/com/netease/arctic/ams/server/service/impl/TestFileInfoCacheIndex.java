@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.ams.server.service.impl;
+
+import com.netease.arctic.ams.api.Constants;
+import com.netease.arctic.ams.api.DataFileInfo;
+import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.model.CacheFileInfo;
+import com.netease.arctic.ams.server.model.PartitionBaseInfo;
+import com.netease.arctic.ams.server.model.PartitionFileBaseInfo;
+import com.netease.arctic.ams.server.utils.TableMetadataUtil;
+import org.apache.iceberg.relocated.com.google.common.hash.Hashing;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class TestFileInfoCacheIndex {
+  private final TableIdentifier tableIdentifier = new TableIdentifier("catalog", "db", "table");
+
+  @Test
+  public void testLoadAndCommit() {
+    List<CacheFileInfo> dbFiles = new ArrayList<>();
+    dbFiles.add(file(Constants.INNER_TABLE_BASE, "base-1", "pt=1", 100L, null));
+    dbFiles.add(file(Constants.INNER_TABLE_CHANGE, "change-1", "pt=1", 200L, null));
+    dbFiles.add(file(Constants.INNER_TABLE_CHANGE, "change-2", "pt=2", 50L, 3L));
+    AtomicInteger loadTimes = new AtomicInteger();
+    FileInfoCacheIndex index = new FileInfoCacheIndex(identifier -> {
+      loadTimes.incrementAndGet();
+      return dbFiles;
+    });
+
+    // commit before table loaded is read from database
+    index.commit(tableIdentifier, Collections.singletonList(file(Constants.INNER_TABLE_BASE, "base-2", "pt=2",
+        300L, null)));
+    Assert.assertEquals(Collections.singleton("base-1"),
+        index.getOptimizeDatafilePaths(tableIdentifier, Constants.INNER_TABLE_BASE));
+    Assert.assertEquals(Collections.singletonList("change-1"),
+        paths(index.getOptimizeDatafiles(tableIdentifier, Constants.INNER_TABLE_CHANGE)));
+
+    index.commit(tableIdentifier, Collections.singletonList(file(Constants.INNER_TABLE_CHANGE, "change-3", "pt=2",
+        400L, null)));
+    CacheFileInfo delete = new CacheFileInfo();
+    delete.setPrimaryKeyMd5(primaryKeyMd5(Constants.INNER_TABLE_CHANGE, "change-1"));
+    delete.setDeleteSnapshotId(4L);
+    index.commit(tableIdentifier, Collections.singletonList(delete));
+
+    Assert.assertEquals(Collections.singletonList("change-3"),
+        paths(index.getOptimizeDatafiles(tableIdentifier, Constants.INNER_TABLE_CHANGE)));
+    Assert.assertEquals(Collections.emptyList(),
+        paths(index.getTTLDataFiles(tableIdentifier, Constants.INNER_TABLE_CHANGE, 399L)));
+    Assert.assertEquals(Collections.singletonList("change-3"),
+        paths(index.getTTLDataFiles(tableIdentifier, Constants.INNER_TABLE_CHANGE, 400L)));
+
+    // partition queries include deleted files not expired
+    List<PartitionBaseInfo> partitions = index.getPartitionBaseInfoList(tableIdentifier);
+    Assert.assertEquals(2, partitions.size());
+    Assert.assertEquals("pt=2", partitions.get(0).getPartition());
+    Assert.assertEquals(2, partitions.get(0).getFileCount());
+    Assert.assertEquals(400L, partitions.get(0).getLastCommitTime());
+    Assert.assertEquals("pt=1", partitions.get(1).getPartition());
+    Assert.assertEquals(2, partitions.get(1).getFileCount());
+    List<PartitionFileBaseInfo> partitionFiles = index.getPartitionFileList(tableIdentifier, null);
+    Assert.assertEquals(4, partitionFiles.size());
+    Assert.assertEquals("change-3", partitionFiles.get(0).getPath());
+
+    index.expire(201L);
+    Assert.assertEquals(new HashSet<>(Collections.singletonList("change-3")),
+        new HashSet<>(index.getPartitionFileList(tableIdentifier, "pt=2").stream()
+            .map(PartitionFileBaseInfo::getPath).collect(Collectors.toList())));
+    Assert.assertEquals(Collections.singletonList("base-1"),
+        index.getPartitionFileList(tableIdentifier, "pt=1").stream()
+            .map(PartitionFileBaseInfo::getPath).collect(Collectors.toList()));
+    Assert.assertEquals(1, loadTimes.get());
+
+    index.remove(tableIdentifier);
+    Assert.assertEquals(0, index.loadedTableCount());
+    index.getOptimizeDatafiles(tableIdentifier, Constants.INNER_TABLE_BASE);
+    Assert.assertEquals(2, loadTimes.get());
+  }
+
+  @Test
+  public void testGetPartitionFiles() {
+    List<CacheFileInfo> dbFiles = new ArrayList<>();
+    dbFiles.add(file(Constants.INNER_TABLE_BASE, "base-1", "pt=1", 100L, null));
+    dbFiles.add(file(Constants.INNER_TABLE_BASE, "base-2", "pt=2", 100L, null));
+    dbFiles.add(file(Constants.INNER_TABLE_BASE, "base-3", "pt=1", 100L, 3L));
+    dbFiles.add(file(Constants.INNER_TABLE_CHANGE, "change-1", "pt=1", 200L, null));
+    dbFiles.add(file(Constants.INNER_TABLE_BASE, "base-4", null, 100L, null));
+    FileInfoCacheIndex index = new FileInfoCacheIndex(identifier -> dbFiles);
+
+    // deleted files and files of other inner table are not returned
+    Assert.assertEquals(Collections.singletonList("base-1"), paths(index.getOptimizeDatafiles(tableIdentifier,
+        Constants.INNER_TABLE_BASE, Collections.singleton("pt=1"))));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("base-2", "base-4")), new HashSet<>(paths(
+        index.getOptimizeDatafiles(tableIdentifier, Constants.INNER_TABLE_BASE,
+            new HashSet<>(Arrays.asList("pt=2", "", "pt=3"))))));
+  }
+
+  private CacheFileInfo file(String innerTable, String path, String partition, Long commitTime,
+                             Long deleteSnapshotId) {
+    return new CacheFileInfo(primaryKeyMd5(innerTable, path), tableIdentifier, 1L, -1L, deleteSnapshotId,
+        innerTable, path, "BASE_FILE", 10L, 0L, 0L, 0L, partition, commitTime, 1L, "append", 0L);
+  }
+
+  private String primaryKeyMd5(String innerTable, String path) {
+    String primaryKey = TableMetadataUtil.getTableAllIdentifyName(tableIdentifier) + innerTable + path;
+    return Hashing.md5().hashBytes(primaryKey.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  private static List<String> paths(List<DataFileInfo> files) {
+    return files.stream().map(DataFileInfo::getPath).collect(Collectors.toList());
+  }
+}
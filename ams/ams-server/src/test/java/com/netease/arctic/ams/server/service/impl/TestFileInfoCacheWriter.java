@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.service.impl;
+
+import com.netease.arctic.ams.api.Constants;
+import com.netease.arctic.ams.api.DataFile;
+import com.netease.arctic.ams.api.TableChange;
+import com.netease.arctic.ams.api.TableCommitMeta;
+import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.ArcticMetaStoreConf;
+import com.netease.arctic.ams.server.config.Configuration;
+import com.netease.arctic.ams.server.mapper.FileInfoCacheMapper;
+import com.netease.arctic.ams.server.utils.JDBCSqlSessionFactoryProvider;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    JDBCSqlSessionFactoryProvider.class
+})
+@PowerMockIgnore({"javax.management.*", "javax.net.ssl.*"})
+public class TestFileInfoCacheWriter {
+  private final TableIdentifier tableIdentifier = new TableIdentifier("catalog", "db", "table");
+  private final CountDownLatch writerBlocked = new CountDownLatch(1);
+  private final CountDownLatch releaseWriter = new CountDownLatch(1);
+  private Configuration originalConf;
+  private SqlSession sqlSession;
+  private FileInfoCacheMapper fileInfoCacheMapper;
+  private FileInfoCacheService fileInfoCacheService;
+
+  @Before
+  public void mockDatabase() {
+    originalConf = ArcticMetaStore.conf;
+    ArcticMetaStore.conf = new Configuration();
+    sqlSession = mock(SqlSession.class);
+    fileInfoCacheMapper = mock(FileInfoCacheMapper.class);
+    when(sqlSession.getMapper(FileInfoCacheMapper.class)).thenReturn(fileInfoCacheMapper);
+    SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+    when(sqlSessionFactory.openSession(ExecutorType.BATCH, false)).thenReturn(sqlSession);
+    mockStatic(JDBCSqlSessionFactoryProvider.class);
+    when(JDBCSqlSessionFactoryProvider.get()).thenReturn(sqlSessionFactory);
+    fileInfoCacheService = new FileInfoCacheService();
+  }
+
+  @After
+  public void closeService() {
+    releaseWriter.countDown();
+    fileInfoCacheService.close();
+    ArcticMetaStore.conf = originalConf;
+  }
+
+  @Test
+  public void testFlushAtBatchSize() throws Exception {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_BATCH_SIZE, 2);
+
+    fileInfoCacheService.commitCacheFileInfo(commit(5, 0));
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(5)).insertCache(Mockito.any());
+    Mockito.verify(sqlSession, Mockito.times(2)).flushStatements();
+    Mockito.verify(sqlSession).commit();
+
+    // inserts and updates of one commit are counted together
+    fileInfoCacheService.commitCacheFileInfo(commit(1, 3));
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(6)).insertCache(Mockito.any());
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(3)).updateCache(Mockito.any());
+    Mockito.verify(sqlSession, Mockito.times(4)).flushStatements();
+    Mockito.verify(sqlSession, Mockito.times(2)).commit();
+  }
+
+  @Test
+  public void testWriteSynchronouslyByDefault() throws Exception {
+    Assert.assertFalse(ArcticMetaStore.conf.getBoolean(ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC));
+
+    // the commit is written before returning, no background writer is started
+    fileInfoCacheService.commitCacheFileInfo(commit(1, 0));
+    Mockito.verify(fileInfoCacheMapper).insertCache(Mockito.any());
+    Mockito.verify(sqlSession).commit();
+    Assert.assertNull(Whitebox.getInternalState(fileInfoCacheService, "commitWriter"));
+  }
+
+  @Test
+  public void testRollbackWhenBatchFailed() throws Exception {
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_BATCH_SIZE, 2);
+    Mockito.doThrow(new IllegalStateException("failed to flush")).when(sqlSession).flushStatements();
+
+    // the failure is logged, the table commit itself is not failed
+    fileInfoCacheService.commitCacheFileInfo(commit(3, 0));
+    Mockito.verify(sqlSession).rollback();
+    Mockito.verify(sqlSession, Mockito.never()).commit();
+    Mockito.verify(sqlSession).close();
+    Assert.assertEquals(0, fileInfoCacheService.getWriteMetrics().getCommitCount());
+  }
+
+  @Test
+  public void testCommitBlockedWhenQueueFull() throws Exception {
+    ArcticMetaStore.conf.setBoolean(ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC, true);
+    ArcticMetaStore.conf.setInteger(ArcticMetaStoreConf.FILE_CACHE_COMMIT_QUEUE_SIZE, 1);
+    blockWriter();
+
+    // the first commit is taken by the writer and the second one fills the queue
+    fileInfoCacheService.commitCacheFileInfo(commit(1, 0));
+    Assert.assertTrue(writerBlocked.await(10, TimeUnit.SECONDS));
+    fileInfoCacheService.commitCacheFileInfo(commit(1, 0));
+    Thread committer = new Thread(() -> {
+      try {
+        fileInfoCacheService.commitCacheFileInfo(commit(1, 0));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    committer.start();
+    committer.join(200);
+    Assert.assertTrue(committer.isAlive());
+
+    releaseWriter.countDown();
+    committer.join(10000);
+    Assert.assertFalse(committer.isAlive());
+    fileInfoCacheService.close();
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(3)).insertCache(Mockito.any());
+    Mockito.verify(sqlSession, Mockito.times(3)).commit();
+  }
+
+  @Test
+  public void testDrainQueueOnClose() throws Exception {
+    ArcticMetaStore.conf.setBoolean(ArcticMetaStoreConf.FILE_CACHE_COMMIT_ASYNC, true);
+    blockWriter();
+
+    fileInfoCacheService.commitCacheFileInfo(commit(1, 0));
+    Assert.assertTrue(writerBlocked.await(10, TimeUnit.SECONDS));
+    fileInfoCacheService.commitCacheFileInfo(commit(2, 0));
+    fileInfoCacheService.commitCacheFileInfo(commit(3, 0));
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(1)).insertCache(Mockito.any());
+
+    Thread closer = new Thread(fileInfoCacheService::close);
+    closer.start();
+    closer.join(200);
+    // close waits for the queued commits written
+    Assert.assertTrue(closer.isAlive());
+    releaseWriter.countDown();
+    closer.join(10000);
+    Assert.assertFalse(closer.isAlive());
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(6)).insertCache(Mockito.any());
+    Mockito.verify(sqlSession, Mockito.times(3)).commit();
+
+    // commits after closed are written directly
+    fileInfoCacheService.commitCacheFileInfo(commit(1, 0));
+    Mockito.verify(fileInfoCacheMapper, Mockito.times(7)).insertCache(Mockito.any());
+    Mockito.verify(sqlSession, Mockito.times(4)).commit();
+  }
+
+  private void blockWriter() {
+    Mockito.doAnswer(invocation -> {
+      writerBlocked.countDown();
+      releaseWriter.await();
+      return null;
+    }).when(sqlSession).commit();
+  }
+
+  private TableCommitMeta commit(int addFiles, int deleteFiles) {
+    TableChange tableChange = new TableChange();
+    tableChange.setInnerTable(Constants.INNER_TABLE_BASE);
+    // -1 means the first snapshot, so the commit is cached without checking the cached snapshot
+    tableChange.setParentSnapshotId(-1);
+    tableChange.setSnapshotId(1);
+    tableChange.setAddFiles(files("add", addFiles));
+    tableChange.setDeleteFiles(files("delete", deleteFiles));
+    TableCommitMeta tableCommitMeta = new TableCommitMeta();
+    tableCommitMeta.setTableIdentifier(tableIdentifier);
+    tableCommitMeta.setAction("append");
+    tableCommitMeta.setCommitTime(System.currentTimeMillis());
+    tableCommitMeta.setChanges(Collections.singletonList(tableChange));
+    return tableCommitMeta;
+  }
+
+  private static List<DataFile> files(String prefix, int count) {
+    List<DataFile> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      DataFile dataFile = new DataFile();
+      dataFile.setPath(prefix + "-" + i);
+      dataFile.setFileType("BASE_FILE");
+      dataFile.setPartition(Collections.emptyList());
+      files.add(dataFile);
+    }
+    return files;
+  }
+}
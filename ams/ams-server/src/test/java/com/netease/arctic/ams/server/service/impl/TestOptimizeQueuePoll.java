@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.service.impl;
+
+import com.netease.arctic.ams.api.JobId;
+import com.netease.arctic.ams.api.JobType;
+import com.netease.arctic.ams.api.OptimizeStatus;
+import com.netease.arctic.ams.api.OptimizeTask;
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.server.model.BaseOptimizeTask;
+import com.netease.arctic.ams.server.model.OptimizeQueueMeta;
+import com.netease.arctic.ams.server.model.TableTaskHistory;
+import com.netease.arctic.ams.server.optimize.IOptimizeService;
+import com.netease.arctic.ams.server.optimize.OptimizeTaskItem;
+import com.netease.arctic.ams.server.service.ITableTaskHistoryService;
+import com.netease.arctic.ams.server.service.ServiceContainer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    ServiceContainer.class
+})
+@PowerMockIgnore({"javax.management.*", "javax.net.ssl.*"})
+public class TestOptimizeQueuePoll {
+  private static final int QUEUE_ID = 1;
+
+  private final TableIdentifier tableIdentifier = new TableIdentifier("catalog", "db", "table");
+  private final JobId jobId = new JobId();
+  private ITableTaskHistoryService tableTaskHistoryService;
+  private OptimizeQueueService.OptimizeQueueWrapper queue;
+
+  @Before
+  public void createQueue() {
+    jobId.setId("1");
+    jobId.setType(JobType.Optimize);
+    tableTaskHistoryService = mock(ITableTaskHistoryService.class);
+    mockStatic(ServiceContainer.class);
+    when(ServiceContainer.getTableTaskHistoryService()).thenReturn(tableTaskHistoryService);
+    // the planner started by poll plans nothing
+    when(ServiceContainer.getOptimizeService()).thenReturn(mock(IOptimizeService.class));
+
+    OptimizeQueueMeta optimizeQueueMeta = new OptimizeQueueMeta();
+    optimizeQueueMeta.setQueueId(QUEUE_ID);
+    optimizeQueueMeta.setName("test");
+    queue = OptimizeQueueService.OptimizeQueueWrapper.build(optimizeQueueMeta);
+    Set<TableIdentifier> tables = Whitebox.getInternalState(queue, "tables");
+    tables.add(tableIdentifier);
+  }
+
+  @After
+  public void stopPlanner() throws Exception {
+    Whitebox.invokeMethod(queue, "stopPlanner");
+  }
+
+  @Test
+  public void testPollAtMostMaxTasks() {
+    OptimizeTaskItem task1 = addTask("task-1");
+    OptimizeTaskItem task2 = addTask("task-2");
+    OptimizeTaskItem task3 = addTask("task-3");
+
+    List<OptimizeTask> polled = queue.poll(jobId, "1", 1000, 2);
+    Assert.assertEquals(taskIds("task-1", "task-2"), taskIds(polled));
+    Assert.assertEquals(1, queue.size());
+    Mockito.verify(task1).setFiles();
+    Mockito.verify(task1).onExecuting(jobId, "1");
+    Mockito.verify(task2).onExecuting(jobId, "1");
+    Mockito.verify(task3, Mockito.never()).onExecuting(Mockito.any(), Mockito.anyString());
+    // histories of tasks polled in one call are inserted together
+    Mockito.verify(tableTaskHistoryService).insertTaskHistories(
+        Mockito.<List<TableTaskHistory>>argThat(histories -> histories.size() == 2));
+
+    polled = queue.poll(jobId, "2", 1000, 2);
+    Assert.assertEquals(taskIds("task-3"), taskIds(polled));
+    Assert.assertTrue(queue.isEmpty());
+    Mockito.verify(task3).onExecuting(jobId, "2");
+    Mockito.verify(tableTaskHistoryService).insertTaskHistory(Mockito.any());
+  }
+
+  @Test
+  public void testPollWaitsForFirstTaskOnly() {
+    long start = System.currentTimeMillis();
+    Assert.assertTrue(queue.poll(jobId, "1", 200, 2).isEmpty());
+    Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+    Mockito.verifyZeroInteractions(tableTaskHistoryService);
+
+    // tasks already in queue are returned without waiting for more
+    addTask("task-1");
+    start = System.currentTimeMillis();
+    Assert.assertEquals(taskIds("task-1"), taskIds(queue.poll(jobId, "1", 10000, 3)));
+    Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+  }
+
+  @Test
+  public void testPollSkipsTasksOfReleasedTables() {
+    addTask("task-1");
+    OptimizeTaskItem released = addTask("task-2", new TableIdentifier("catalog", "db", "released"));
+    addTask("task-3");
+
+    Assert.assertEquals(taskIds("task-1", "task-3"), taskIds(queue.poll(jobId, "1", 1000, 3)));
+    Mockito.verify(released, Mockito.never()).onExecuting(Mockito.any(), Mockito.anyString());
+  }
+
+  @Test
+  public void testPollKeepsPolledTasksOnFailure() {
+    addTask("task-1");
+    OptimizeTaskItem failed = addTask("task-2");
+    Mockito.doThrow(new IllegalStateException("failed to set files")).when(failed).setFiles();
+    addTask("task-3");
+
+    // tasks already set to Executing are returned, the failed one is put back to queue
+    Assert.assertEquals(taskIds("task-1"), taskIds(queue.poll(jobId, "1", 1000, 3)));
+    Mockito.verify(failed, Mockito.never()).onExecuting(Mockito.any(), Mockito.anyString());
+    Assert.assertEquals(2, queue.size());
+    Mockito.verify(tableTaskHistoryService).insertTaskHistory(Mockito.any());
+
+    // the failure is thrown if no task is polled yet, and the failed task is still kept in queue
+    Assert.assertEquals(taskIds("task-3"), taskIds(queue.poll(jobId, "1", 1000, 1)));
+    Assert.assertThrows(IllegalStateException.class, () -> queue.poll(jobId, "1", 1000, 3));
+    Assert.assertEquals(1, queue.size());
+
+    Mockito.doNothing().when(failed).setFiles();
+    Assert.assertEquals(taskIds("task-2"), taskIds(queue.poll(jobId, "1", 1000, 3)));
+    Mockito.verify(failed).onExecuting(jobId, "1");
+  }
+
+  @Test
+  public void testPollDoesNotRequeueFailedTask() {
+    addTask("task-1");
+    OptimizeTaskItem failed = addTask("task-2");
+    // a task failed to be set to Executing is set to Failed and planned again by its table
+    Mockito.doThrow(new IllegalStateException("failed to set Executing")).when(failed)
+        .onExecuting(Mockito.any(), Mockito.anyString());
+    when(failed.getOptimizeStatus()).thenReturn(OptimizeStatus.Failed);
+
+    Assert.assertEquals(taskIds("task-1"), taskIds(queue.poll(jobId, "1", 1000, 3)));
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  private OptimizeTaskItem addTask(String taskId) {
+    return addTask(taskId, tableIdentifier);
+  }
+
+  private OptimizeTaskItem addTask(String taskId, TableIdentifier tableIdentifier) {
+    BaseOptimizeTask optimizeTask = new BaseOptimizeTask();
+    optimizeTask.setTaskId(new OptimizeTaskId(OptimizeType.Major, taskId));
+    optimizeTask.setTableIdentifier(tableIdentifier);
+    optimizeTask.setQueueId(QUEUE_ID);
+    OptimizeTaskItem task = mock(OptimizeTaskItem.class);
+    when(task.getOptimizeTask()).thenReturn(optimizeTask);
+    when(task.getTableIdentifier()).thenReturn(tableIdentifier);
+    when(task.getTaskId()).thenReturn(optimizeTask.getTaskId());
+    when(task.getOptimizeStatus()).thenReturn(OptimizeStatus.Pending);
+    when(task.onExecuting(Mockito.any(), Mockito.anyString())).thenReturn(new TableTaskHistory());
+    addTask(task);
+    return task;
+  }
+
+  private void addTask(OptimizeTaskItem task) {
+    BlockingQueue<OptimizeTaskItem> tasks = Whitebox.getInternalState(queue, "tasks");
+    tasks.add(task);
+  }
+
+  private static List<String> taskIds(String... taskIds) {
+    return Arrays.asList(taskIds);
+  }
+
+  private static List<String> taskIds(List<OptimizeTask> tasks) {
+    return tasks.stream().map(task -> task.getTaskId().getTraceId()).collect(Collectors.toList());
+  }
+}
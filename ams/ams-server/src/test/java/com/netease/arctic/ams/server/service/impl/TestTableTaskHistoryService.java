@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.ams.server.service.impl;
+
+import com.netease.arctic.ams.server.ArcticMetaStore;
+import com.netease.arctic.ams.server.config.Configuration;
+import com.netease.arctic.ams.server.mapper.TaskHistoryMapper;
+import com.netease.arctic.ams.server.model.TableTaskHistory;
+import com.netease.arctic.ams.server.utils.JDBCSqlSessionFactoryProvider;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    JDBCSqlSessionFactoryProvider.class
+})
+@PowerMockIgnore({"javax.management.*", "javax.net.ssl.*"})
+public class TestTableTaskHistoryService {
+  private Configuration originalConf;
+  private SqlSessionFactory sqlSessionFactory;
+  private SqlSession sqlSession;
+  private TaskHistoryMapper taskHistoryMapper;
+
+  @Before
+  public void mockDatabase() {
+    originalConf = ArcticMetaStore.conf;
+    ArcticMetaStore.conf = new Configuration();
+    sqlSession = mock(SqlSession.class);
+    taskHistoryMapper = mock(TaskHistoryMapper.class);
+    when(sqlSession.getMapper(TaskHistoryMapper.class)).thenReturn(taskHistoryMapper);
+    sqlSessionFactory = mock(SqlSessionFactory.class);
+    when(sqlSessionFactory.openSession(ExecutorType.BATCH, false)).thenReturn(sqlSession);
+    mockStatic(JDBCSqlSessionFactoryProvider.class);
+    when(JDBCSqlSessionFactoryProvider.get()).thenReturn(sqlSessionFactory);
+  }
+
+  @After
+  public void restoreConf() {
+    ArcticMetaStore.conf = originalConf;
+  }
+
+  @Test
+  public void testInsertTaskHistoriesInOneBatch() {
+    List<TableTaskHistory> histories = Arrays.asList(new TableTaskHistory(), new TableTaskHistory());
+    new TableTaskHistoryService().insertTaskHistories(histories);
+
+    Mockito.verify(sqlSessionFactory).openSession(ExecutorType.BATCH, false);
+    InOrder inOrder = Mockito.inOrder(taskHistoryMapper, sqlSession);
+    inOrder.verify(taskHistoryMapper, Mockito.times(2)).insertTaskHistory(Mockito.any());
+    inOrder.verify(sqlSession).commit(true);
+    inOrder.verify(sqlSession).close();
+  }
+
+  @Test
+  public void testRollbackTaskHistoriesOnFailure() {
+    Mockito.doThrow(new IllegalStateException("failed to insert")).when(sqlSession).commit(true);
+
+    Assert.assertThrows(IllegalStateException.class, () -> new TableTaskHistoryService().insertTaskHistories(
+        Arrays.asList(new TableTaskHistory(), new TableTaskHistory())));
+    Mockito.verify(sqlSession).rollback(true);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Types;
+
+/**
+ * {@link EqDeleteIndex} for any primary key could be encoded by {@link PrimaryKeyEncoder}. Keys are stored as
+ * compact byte sequences in a key arena, slots only hold the key address, key length and hash.
+ */
+class BinaryKeyEqDeleteIndex extends OpenAddressingEqDeleteIndex<PrimaryKeyEncoder> {
+
+  private static final int ADDRESS_OFFSET = 0;
+  private static final int HASH_OFFSET = 8;
+  private static final int LENGTH_OFFSET = 12;
+  private static final int KEY_PAGE_BYTES = 1 << 20;
+
+  private final Types.StructType keyType;
+  private final PagedBuffer keys;
+  private long keyBytes;
+
+  BinaryKeyEqDeleteIndex(Types.StructType keyType, IndexMemory memory) {
+    super(memory);
+    this.keyType = keyType;
+    this.keys = new PagedBuffer(memory, KEY_PAGE_BYTES);
+  }
+
+  @Override
+  protected PrimaryKeyEncoder newKey() {
+    return new PrimaryKeyEncoder(keyType);
+  }
+
+  @Override
+  protected long prepareKey(PrimaryKeyEncoder encoder, StructLike primaryKey) {
+    encoder.encode(primaryKey);
+    byte[] bytes = encoder.bytes();
+    int length = encoder.length();
+    long hash = 1125899906842597L;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    return mix(hash) & 0xFFFFFFFFL;
+  }
+
+  @Override
+  protected boolean keyEquals(PagedBuffer slots, long address, PrimaryKeyEncoder encoder, long hash) {
+    return slots.getInt(address + HASH_OFFSET) == (int) hash &&
+        slots.getInt(address + LENGTH_OFFSET) - 1 == encoder.length() &&
+        keys.bytesEqual(slots.getLong(address + ADDRESS_OFFSET), encoder.bytes(), encoder.length());
+  }
+
+  @Override
+  protected void writeKey(PagedBuffer slots, long address, PrimaryKeyEncoder encoder, long hash) {
+    int length = encoder.length();
+    keys.ensureCapacity(keyBytes + length);
+    keys.putBytes(keyBytes, encoder.bytes(), length);
+    slots.putLong(address + ADDRESS_OFFSET, keyBytes);
+    slots.putInt(address + HASH_OFFSET, (int) hash);
+    // store length + 1 so that an empty slot is distinguishable from an empty key
+    slots.putInt(address + LENGTH_OFFSET, length + 1);
+    keyBytes += length;
+  }
+
+  @Override
+  protected boolean isOccupied(PagedBuffer slots, long address) {
+    return slots.getInt(address + LENGTH_OFFSET) != 0;
+  }
+
+  @Override
+  protected long slotHash(PagedBuffer slots, long address) {
+    return slots.getInt(address + HASH_OFFSET) & 0xFFFFFFFFL;
+  }
+
+  @Override
+  protected void copyKey(PagedBuffer from, long fromAddress, PagedBuffer to, long toAddress) {
+    to.putLong(toAddress + ADDRESS_OFFSET, from.getLong(fromAddress + ADDRESS_OFFSET));
+    to.putInt(toAddress + HASH_OFFSET, from.getInt(fromAddress + HASH_OFFSET));
+    to.putInt(toAddress + LENGTH_OFFSET, from.getInt(fromAddress + LENGTH_OFFSET));
+  }
+
+  @Override
+  public void close() {
+    keys.release();
+    super.close();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import com.netease.arctic.data.ChangedLsn;
+import org.apache.iceberg.StructLike;
+
+import java.io.Closeable;
+
+/**
+ * Index of equality delete rows of a keyed table, keeping the max {@link ChangedLsn} of every primary key.
+ * Implementations do not hold a reference to the keys passed in, so callers can reuse key containers.
+ * Puts are not thread-safe, once all deletes are put, {@link #deletes} and {@link #select} can be called concurrently.
+ */
+public interface EqDeleteIndex extends Closeable {
+
+  /**
+   * Record a delete of the primary key, keeps the larger lsn if the key was already deleted.
+   */
+  void put(StructLike primaryKey, long transactionId, long fileOffset);
+
+  /**
+   * @return true if the primary key was deleted by a change with a lsn larger than the given one
+   */
+  boolean deletes(StructLike primaryKey, long transactionId, long fileOffset);
+
+  /**
+   * @return true if this index supports {@link #select} on a column of primitive long keys
+   */
+  default boolean supportsLongKeys() {
+    return false;
+  }
+
+  /**
+   * Batch version of {@link #deletes} for primary keys of a single int or long like field, hashes of the whole key
+   * column are computed before probing the index.
+   *
+   * @param selection indexes of the rows to test, compacted in place to the indexes of the selected rows
+   * @param count number of indexes in the selection
+   * @param selectDeleted true to select the deleted rows, false to select the rows not deleted
+   * @return number of the selected rows
+   */
+  default int select(
+      long[] primaryKeys, long[] transactionIds, long[] fileOffsets,
+      int[] selection, int count, boolean selectDeleted) {
+    throw new UnsupportedOperationException("Primitive long keys are not supported by " + getClass().getName());
+  }
+
+  /**
+   * @return number of distinct primary keys in this index
+   */
+  long size();
+
+  /**
+   * @return bytes of the index held on JVM heap, estimated for indexes can not be spilled
+   */
+  long heapBytes();
+
+  /**
+   * @return bytes of the index spilled to disk
+   */
+  long spilledBytes();
+
+  /**
+   * @return number of pages spilled to disk
+   */
+  int spillCount();
+
+  @Override
+  void close();
+}
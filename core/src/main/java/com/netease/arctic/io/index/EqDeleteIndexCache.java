@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import com.netease.arctic.data.DataTreeNode;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
+import org.apache.iceberg.types.Types;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of built {@link EqDeleteIndex}es, shared by readers of tasks with the same equality delete files
+ * in the same JVM, e.g. tasks split from one tree node.
+ * <p>
+ * Indexes are reference counted, an index is only released after it is evicted and closed by all readers. Indexes
+ * not used by any reader are evicted in LRU order when the total bytes of cached indexes exceed the capacity.
+ * A built index is read only and probes keep their scratch state per thread, so readers probe a shared index
+ * without locking.
+ */
+public class EqDeleteIndexCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EqDeleteIndexCache.class);
+
+  private static final EqDeleteIndexCache INSTANCE = new EqDeleteIndexCache();
+
+  // access ordered for LRU eviction
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long capacityBytes;
+  private long cachedBytes;
+
+  public static EqDeleteIndexCache instance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the cached index of the key or build it with the loader, the returned index should be closed after use.
+   *
+   * @param capacityBytes capacity of the cache, readers in the same JVM are expected to request the same capacity
+   */
+  public EqDeleteIndex acquire(Key key, long capacityBytes, Supplier<EqDeleteIndex> loader) {
+    Entry entry;
+    synchronized (this) {
+      this.capacityBytes = capacityBytes;
+      entry = entries.computeIfAbsent(key, Entry::new);
+      entry.refCount++;
+    }
+
+    try {
+      entry.load(loader);
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        entry.refCount--;
+        entries.remove(key, entry);
+      }
+      throw e;
+    }
+
+    synchronized (this) {
+      if (!entry.weighed) {
+        entry.weighed = true;
+        cachedBytes += entry.bytes;
+        evict();
+      }
+    }
+    return new SharedIndex(entry);
+  }
+
+  public synchronized long cachedBytes() {
+    return cachedBytes;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Release all indexes not used by any reader.
+   */
+  public synchronized void clear() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.refCount == 0) {
+        iterator.remove();
+        release(entry);
+      }
+    }
+  }
+
+  private synchronized void releaseReference(Entry entry) {
+    entry.refCount--;
+    if (entry.refCount == 0) {
+      if (entries.get(entry.key) != entry) {
+        release(entry);
+      } else {
+        evict();
+      }
+    }
+  }
+
+  private void evict() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (cachedBytes > capacityBytes && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.refCount == 0) {
+        iterator.remove();
+        release(entry);
+        LOG.info("evict equality delete index of {} files, {} bytes", entry.key.deleteFilePaths.size(), entry.bytes);
+      }
+    }
+  }
+
+  private void release(Entry entry) {
+    if (entry.weighed) {
+      cachedBytes -= entry.bytes;
+      entry.weighed = false;
+    }
+    if (entry.index != null) {
+      entry.index.close();
+    }
+  }
+
+  /**
+   * Key of a built index, indexes are built from the same delete files, filtered by the same tree nodes and keyed by
+   * the same primary key type are the same.
+   */
+  public static class Key {
+    private final Set<String> deleteFilePaths;
+    private final Set<DataTreeNode> sourceNodes;
+    private final Types.StructType keyType;
+
+    public Key(Set<String> deleteFilePaths, Set<DataTreeNode> sourceNodes, Types.StructType keyType) {
+      this.deleteFilePaths = ImmutableSet.copyOf(deleteFilePaths);
+      this.sourceNodes = sourceNodes == null ? null : ImmutableSet.copyOf(sourceNodes);
+      this.keyType = keyType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(deleteFilePaths, key.deleteFilePaths) &&
+          Objects.equals(sourceNodes, key.sourceNodes) &&
+          Objects.equals(keyType, key.keyType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(deleteFilePaths, sourceNodes, keyType);
+    }
+  }
+
+  private static class Entry {
+    private final Key key;
+    private volatile EqDeleteIndex index;
+    private long bytes;
+    private int refCount;
+    private boolean weighed;
+
+    Entry(Key key) {
+      this.key = key;
+    }
+
+    void load(Supplier<EqDeleteIndex> loader) {
+      if (index != null) {
+        return;
+      }
+      synchronized (this) {
+        if (index == null) {
+          EqDeleteIndex built = loader.get();
+          this.bytes = built.heapBytes() + built.spilledBytes();
+          this.index = built;
+        }
+      }
+    }
+  }
+
+  /**
+   * Read only view of a cached index held by one reader.
+   */
+  private class SharedIndex implements EqDeleteIndex {
+    private final Entry entry;
+    private final EqDeleteIndex index;
+    private boolean closed;
+
+    SharedIndex(Entry entry) {
+      this.entry = entry;
+      this.index = entry.index;
+    }
+
+    @Override
+    public void put(StructLike primaryKey, long transactionId, long fileOffset) {
+      throw new UnsupportedOperationException("Cached equality delete index is read only");
+    }
+
+    @Override
+    public boolean deletes(StructLike primaryKey, long transactionId, long fileOffset) {
+      return index.deletes(primaryKey, transactionId, fileOffset);
+    }
+
+    @Override
+    public boolean supportsLongKeys() {
+      return index.supportsLongKeys();
+    }
+
+    @Override
+    public int select(
+        long[] primaryKeys, long[] transactionIds, long[] fileOffsets,
+        int[] selection, int count, boolean selectDeleted) {
+      return index.select(primaryKeys, transactionIds, fileOffsets, selection, count, selectDeleted);
+    }
+
+    @Override
+    public long size() {
+      return index.size();
+    }
+
+    @Override
+    public long heapBytes() {
+      return index.heapBytes();
+    }
+
+    @Override
+    public long spilledBytes() {
+      return index.spilledBytes();
+    }
+
+    @Override
+    public int spillCount() {
+      return index.spillCount();
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        releaseReference(entry);
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+/**
+ * Factory of {@link EqDeleteIndex}, picks the most compact implementation for the primary key type.
+ */
+public class EqDeleteIndexes {
+
+  private EqDeleteIndexes() {
+  }
+
+  /**
+   * Create an index for primary keys of the given type.
+   *
+   * @param keyType      struct type of the primary key
+   * @param memoryBudget max bytes of JVM heap used by the index, index will spill to disk after that
+   */
+  public static EqDeleteIndex create(Types.StructType keyType, long memoryBudget) {
+    if (isLongKey(keyType)) {
+      return new LongKeyEqDeleteIndex(new IndexMemory(memoryBudget));
+    }
+    if (keyType.fields().stream().allMatch(field -> PrimaryKeyEncoder.isSupported(field.type()))) {
+      return new BinaryKeyEqDeleteIndex(keyType, new IndexMemory(memoryBudget));
+    }
+    return new StructLikeEqDeleteIndex(keyType);
+  }
+
+  private static boolean isLongKey(Types.StructType keyType) {
+    if (keyType.fields().size() != 1) {
+      return false;
+    }
+    Type.TypeID typeId = keyType.fields().get(0).type().typeId();
+    switch (typeId) {
+      case INTEGER:
+      case LONG:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        return true;
+      default:
+        return false;
+    }
+  }
+}
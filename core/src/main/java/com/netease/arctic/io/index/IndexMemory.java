@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Page allocator shared by the buffers of one delete index. Pages are allocated on heap until the memory budget is
+ * used up, after that pages are mapped from a temporary spill file so the index can keep growing without pressure
+ * on the JVM heap. Mapped pages are unmapped when the memory is closed, so the index must not be read after that.
+ * <p>
+ * A spill file is locked by its process while in use. Spill files left by crashed processes are not locked any more,
+ * they are deleted the first time this process spills into the same directory.
+ */
+class IndexMemory implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IndexMemory.class);
+
+  // null if mapped buffers can not be unmapped explicitly in this JVM, they are unmapped when garbage collected
+  private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+  private static final String SPILL_FILE_PREFIX = "arctic-delete-index-";
+  private static final String SPILL_FILE_SUFFIX = ".spill";
+  // spill directories already cleaned by this process
+  private static final Set<String> CLEANED_DIRECTORIES = new HashSet<>();
+
+  private final long memoryBudget;
+  private final File spillDirectory;
+  private final List<ByteBuffer> mappedPages = new ArrayList<>();
+
+  private long heapBytes;
+  private long spilledBytes;
+  private int spilledPages;
+
+  private File spillFile;
+  private RandomAccessFile spillAccess;
+  private FileChannel spillChannel;
+  private long spillFileLength;
+
+  IndexMemory(long memoryBudget) {
+    this(memoryBudget, new File(System.getProperty("java.io.tmpdir")));
+  }
+
+  IndexMemory(long memoryBudget, File spillDirectory) {
+    Preconditions.checkArgument(memoryBudget >= 0, "Memory budget must not be negative: %s", memoryBudget);
+    this.memoryBudget = memoryBudget;
+    this.spillDirectory = spillDirectory;
+  }
+
+  ByteBuffer allocatePage(int size) {
+    if (heapBytes + size <= memoryBudget) {
+      heapBytes += size;
+      return ByteBuffer.allocate(size);
+    }
+    return mapPage(size);
+  }
+
+  void releasePage(ByteBuffer page) {
+    // mapped pages stay in the spill file until the index is closed
+    if (!page.isDirect()) {
+      heapBytes -= page.capacity();
+    }
+  }
+
+  private ByteBuffer mapPage(int size) {
+    try {
+      if (spillChannel == null) {
+        prepareSpillDirectory(spillDirectory);
+        spillFile = File.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX, spillDirectory);
+        spillAccess = new RandomAccessFile(spillFile, "rw");
+        spillChannel = spillAccess.getChannel();
+        // released when the channel is closed, or by the OS if the process dies
+        spillChannel.lock();
+        LOG.info("delete index exceeds memory budget {} bytes, spill to {}", memoryBudget, spillFile);
+      }
+      long position = spillFileLength;
+      spillFileLength += size;
+      spillAccess.setLength(spillFileLength);
+      ByteBuffer page = spillChannel.map(FileChannel.MapMode.READ_WRITE, position, size);
+      mappedPages.add(page);
+      spilledBytes += size;
+      spilledPages++;
+      return page;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill delete index to " + spillDirectory, e);
+    }
+  }
+
+  long heapBytes() {
+    return heapBytes;
+  }
+
+  long spilledBytes() {
+    return spilledBytes;
+  }
+
+  int spilledPages() {
+    return spilledPages;
+  }
+
+  @Override
+  public void close() {
+    heapBytes = 0;
+    if (UNMAPPER != null) {
+      for (ByteBuffer page : mappedPages) {
+        UNMAPPER.accept(page);
+      }
+    }
+    mappedPages.clear();
+    if (spillChannel != null) {
+      try {
+        spillAccess.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close spill file {}", spillFile, e);
+      }
+      if (!spillFile.delete()) {
+        LOG.warn("Failed to delete spill file {}", spillFile);
+      }
+      spillChannel = null;
+      spillAccess = null;
+    }
+  }
+
+  /**
+   * Clean the spill directory the first time this process spills into it. Spill files of this process are only
+   * created after that, as closing a channel of a file may release the locks this process holds on the file.
+   */
+  private static synchronized void prepareSpillDirectory(File directory) {
+    if (CLEANED_DIRECTORIES.add(directory.getAbsolutePath())) {
+      deleteStaleSpillFiles(directory);
+    }
+  }
+
+  /**
+   * Delete the spill files in directory not locked by any process, they are left by processes crashed before closing
+   * their delete indexes.
+   */
+  static void deleteStaleSpillFiles(File directory) {
+    File[] files = directory.listFiles((dir, name) ->
+        name.startsWith(SPILL_FILE_PREFIX) && name.endsWith(SPILL_FILE_SUFFIX));
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      boolean stale = false;
+      try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+        FileLock lock = access.getChannel().tryLock();
+        if (lock != null) {
+          lock.release();
+          stale = true;
+        }
+      } catch (OverlappingFileLockException e) {
+        // in use by this process
+      } catch (IOException e) {
+        LOG.warn("Failed to check whether spill file {} is in use", file, e);
+      }
+      if (stale) {
+        if (file.delete()) {
+          LOG.info("Deleted stale spill file {}", file);
+        } else {
+          LOG.warn("Failed to delete stale spill file {}", file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Resolve the way to release a mapped buffer without waiting for garbage collection, Unsafe#invokeCleaner since
+   * Java 9 and DirectBuffer#cleaner in Java 8.
+   */
+  private static Consumer<ByteBuffer> unmapper() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      try {
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        Object unsafe = theUnsafe.get(null);
+        return buffer -> invoke(invokeCleaner, unsafe, buffer);
+      } catch (NoSuchMethodException e) {
+        Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+        return buffer -> invoke(clean, invoke(cleaner, buffer));
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.warn("Can not unmap spilled pages of delete index explicitly, they are released by garbage collection", e);
+      return null;
+    }
+  }
+
+  private static Object invoke(Method method, Object target, Object... args) {
+    try {
+      return method.invoke(target, args);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to unmap spilled page of delete index", e);
+    }
+  }
+}
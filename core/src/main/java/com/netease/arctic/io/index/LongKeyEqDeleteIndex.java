@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.StructLike;
+
+/**
+ * {@link EqDeleteIndex} for primary keys of a single int or long like field, keys are stored as primitive longs.
+ */
+class LongKeyEqDeleteIndex extends OpenAddressingEqDeleteIndex<LongKeyEqDeleteIndex.LongKey> {
+
+  private static final int KEY_OFFSET = 0;
+  private static final int STATE_OFFSET = 8;
+  private static final long STATE_VALUE = 1;
+  private static final long STATE_NULL = 2;
+
+  LongKeyEqDeleteIndex(IndexMemory memory) {
+    super(memory);
+  }
+
+  @Override
+  protected LongKey newKey() {
+    return new LongKey();
+  }
+
+  @Override
+  protected long prepareKey(LongKey key, StructLike primaryKey) {
+    Number value = primaryKey.get(0, Number.class);
+    if (value == null) {
+      key.value = 0;
+      key.state = STATE_NULL;
+    } else {
+      key.value = value.longValue();
+      key.state = STATE_VALUE;
+    }
+    return mix(key.value);
+  }
+
+  @Override
+  public boolean supportsLongKeys() {
+    return true;
+  }
+
+  @Override
+  public int select(
+      long[] primaryKeys, long[] transactionIds, long[] fileOffsets,
+      int[] selection, int count, boolean selectDeleted) {
+    if (size() == 0) {
+      return selectDeleted ? 0 : count;
+    }
+    LongKey key = probeKey();
+    long[] hashes = key.hashes(count);
+    for (int i = 0; i < count; i++) {
+      hashes[i] = mix(primaryKeys[selection[i]]);
+    }
+    key.state = STATE_VALUE;
+    int selected = 0;
+    for (int i = 0; i < count; i++) {
+      int row = selection[i];
+      key.value = primaryKeys[row];
+      if (deletesPrepared(key, hashes[i], transactionIds[row], fileOffsets[row]) == selectDeleted) {
+        selection[selected++] = row;
+      }
+    }
+    return selected;
+  }
+
+  @Override
+  protected boolean keyEquals(PagedBuffer slots, long address, LongKey key, long hash) {
+    return slots.getLong(address + STATE_OFFSET) == key.state &&
+        slots.getLong(address + KEY_OFFSET) == key.value;
+  }
+
+  @Override
+  protected void writeKey(PagedBuffer slots, long address, LongKey key, long hash) {
+    slots.putLong(address + KEY_OFFSET, key.value);
+    slots.putLong(address + STATE_OFFSET, key.state);
+  }
+
+  @Override
+  protected boolean isOccupied(PagedBuffer slots, long address) {
+    return slots.getLong(address + STATE_OFFSET) != 0;
+  }
+
+  @Override
+  protected long slotHash(PagedBuffer slots, long address) {
+    return mix(slots.getLong(address + KEY_OFFSET));
+  }
+
+  @Override
+  protected void copyKey(PagedBuffer from, long fromAddress, PagedBuffer to, long toAddress) {
+    to.putLong(toAddress + KEY_OFFSET, from.getLong(fromAddress + KEY_OFFSET));
+    to.putLong(toAddress + STATE_OFFSET, from.getLong(fromAddress + STATE_OFFSET));
+  }
+
+  /**
+   * Prepared key and the hashes buffer of {@link #select}.
+   */
+  static class LongKey {
+    private long value;
+    private long state;
+    private long[] hashes = new long[0];
+
+    long[] hashes(int count) {
+      if (hashes.length < count) {
+        hashes = new long[count];
+      }
+      return hashes;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.StructLike;
+
+/**
+ * Base of open addressing {@link EqDeleteIndex}es keeping slots in a {@link PagedBuffer}.
+ * Every slot is {@link #SLOT_BYTES} bytes wide and ends with the transaction id and file offset of the delete.
+ * <p>
+ * Keys are prepared into a scratch holder of type K before probing. Puts reuse one holder, probes take a holder of
+ * the calling thread, so a built index can be probed by several threads without locking.
+ *
+ * @param <K> scratch holder of a prepared key
+ */
+abstract class OpenAddressingEqDeleteIndex<K> implements EqDeleteIndex {
+
+  static final int SLOT_BYTES = 32;
+  private static final int TRANSACTION_ID_OFFSET = 16;
+  private static final int FILE_OFFSET_OFFSET = 24;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final double LOAD_FACTOR = 0.6;
+
+  protected final IndexMemory memory;
+  private final ThreadLocal<K> probeKeys = ThreadLocal.withInitial(this::newKey);
+  private K putKey;
+  private PagedBuffer slots;
+  private long capacity;
+  private long mask;
+  private long size;
+  private long resizeThreshold;
+
+  protected OpenAddressingEqDeleteIndex(IndexMemory memory) {
+    this.memory = memory;
+    allocateSlots(INITIAL_CAPACITY);
+  }
+
+  /**
+   * @return a new scratch holder of prepared keys
+   */
+  protected abstract K newKey();
+
+  /**
+   * Prepare the primary key into the holder for {@link #findSlot} or {@link #writeKey}.
+   *
+   * @return the hash of the key
+   */
+  protected abstract long prepareKey(K key, StructLike primaryKey);
+
+  /**
+   * @return true if the occupied slot at the address holds the prepared key
+   */
+  protected abstract boolean keyEquals(PagedBuffer slots, long address, K key, long hash);
+
+  /**
+   * Write the prepared key into the empty slot at the address and mark the slot occupied.
+   */
+  protected abstract void writeKey(PagedBuffer slots, long address, K key, long hash);
+
+  protected abstract boolean isOccupied(PagedBuffer slots, long address);
+
+  /**
+   * @return the hash of the key held by the occupied slot at the address
+   */
+  protected abstract long slotHash(PagedBuffer slots, long address);
+
+  /**
+   * Copy the key of the slot at the address into another slot buffer.
+   */
+  protected abstract void copyKey(PagedBuffer from, long fromAddress, PagedBuffer to, long toAddress);
+
+  @Override
+  public void put(StructLike primaryKey, long transactionId, long fileOffset) {
+    if (putKey == null) {
+      putKey = newKey();
+    }
+    long hash = prepareKey(putKey, primaryKey);
+    long address = findSlot(putKey, hash);
+    if (isOccupied(slots, address)) {
+      long oldTransactionId = slots.getLong(address + TRANSACTION_ID_OFFSET);
+      long oldFileOffset = slots.getLong(address + FILE_OFFSET_OFFSET);
+      if (compareLsn(oldTransactionId, oldFileOffset, transactionId, fileOffset) > 0) {
+        return;
+      }
+    } else {
+      writeKey(slots, address, putKey, hash);
+      size++;
+    }
+    slots.putLong(address + TRANSACTION_ID_OFFSET, transactionId);
+    slots.putLong(address + FILE_OFFSET_OFFSET, fileOffset);
+    if (size > resizeThreshold) {
+      allocateSlots(capacity << 1);
+    }
+  }
+
+  @Override
+  public boolean deletes(StructLike primaryKey, long transactionId, long fileOffset) {
+    if (size == 0) {
+      return false;
+    }
+    K key = probeKey();
+    return deletesPrepared(key, prepareKey(key, primaryKey), transactionId, fileOffset);
+  }
+
+  /**
+   * @return the scratch holder of probes of the calling thread
+   */
+  protected K probeKey() {
+    return probeKeys.get();
+  }
+
+  /**
+   * Probe the index with the key prepared by the subclass.
+   *
+   * @param hash the hash of the prepared key
+   */
+  protected boolean deletesPrepared(K key, long hash, long transactionId, long fileOffset) {
+    long address = findSlot(key, hash);
+    if (!isOccupied(slots, address)) {
+      return false;
+    }
+    return compareLsn(slots.getLong(address + TRANSACTION_ID_OFFSET), slots.getLong(address + FILE_OFFSET_OFFSET),
+        transactionId, fileOffset) > 0;
+  }
+
+  private long findSlot(K key, long hash) {
+    long index = hash & mask;
+    while (true) {
+      long address = index * SLOT_BYTES;
+      if (!isOccupied(slots, address) || keyEquals(slots, address, key, hash)) {
+        return address;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private void allocateSlots(long newCapacity) {
+    PagedBuffer newSlots = new PagedBuffer(memory, newCapacity * SLOT_BYTES);
+    newSlots.ensureCapacity(newCapacity * SLOT_BYTES);
+    long newMask = newCapacity - 1;
+    if (slots != null) {
+      for (long index = 0; index < capacity; index++) {
+        long address = index * SLOT_BYTES;
+        if (!isOccupied(slots, address)) {
+          continue;
+        }
+        long newIndex = slotHash(slots, address) & newMask;
+        while (isOccupied(newSlots, newIndex * SLOT_BYTES)) {
+          newIndex = (newIndex + 1) & newMask;
+        }
+        long newAddress = newIndex * SLOT_BYTES;
+        copyKey(slots, address, newSlots, newAddress);
+        newSlots.putLong(newAddress + TRANSACTION_ID_OFFSET, slots.getLong(address + TRANSACTION_ID_OFFSET));
+        newSlots.putLong(newAddress + FILE_OFFSET_OFFSET, slots.getLong(address + FILE_OFFSET_OFFSET));
+      }
+      slots.release();
+    }
+    this.slots = newSlots;
+    this.capacity = newCapacity;
+    this.mask = newMask;
+    this.resizeThreshold = (long) (newCapacity * LOAD_FACTOR);
+  }
+
+  static int compareLsn(long transactionId, long fileOffset, long otherTransactionId, long otherFileOffset) {
+    int result = Long.compare(transactionId, otherTransactionId);
+    return result != 0 ? result : Long.compare(fileOffset, otherFileOffset);
+  }
+
+  static long mix(long hash) {
+    // finalizer of MurmurHash3, spreads the bits of sequential keys over the whole table
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long heapBytes() {
+    return memory.heapBytes();
+  }
+
+  @Override
+  public long spilledBytes() {
+    return memory.spilledBytes();
+  }
+
+  @Override
+  public int spillCount() {
+    return memory.spilledPages();
+  }
+
+  @Override
+  public void close() {
+    slots.release();
+    size = 0;
+    putKey = null;
+    memory.close();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable, long addressable byte buffer made of fixed-size pages allocated from {@link IndexMemory}.
+ * Newly allocated bytes are always zero.
+ */
+class PagedBuffer {
+
+  static final int MAX_PAGE_SHIFT = 24; // 16 MB
+  private static final int MIN_PAGE_SHIFT = 12; // 4 KB
+
+  private final IndexMemory memory;
+  private final int pageShift;
+  private final int pageMask;
+  private ByteBuffer[] pages = new ByteBuffer[0];
+  private int pageCount;
+
+  PagedBuffer(IndexMemory memory, long expectedBytes) {
+    this.memory = memory;
+    int shift = 64 - Long.numberOfLeadingZeros(Math.max(expectedBytes - 1, 1));
+    this.pageShift = Math.max(MIN_PAGE_SHIFT, Math.min(MAX_PAGE_SHIFT, shift));
+    this.pageMask = (1 << pageShift) - 1;
+  }
+
+  long capacity() {
+    return ((long) pageCount) << pageShift;
+  }
+
+  int pageSize() {
+    return 1 << pageShift;
+  }
+
+  void ensureCapacity(long bytes) {
+    while (capacity() < bytes) {
+      if (pageCount == pages.length) {
+        pages = Arrays.copyOf(pages, Math.max(4, pageCount * 2));
+      }
+      pages[pageCount++] = memory.allocatePage(1 << pageShift);
+    }
+  }
+
+  long getLong(long address) {
+    return pages[(int) (address >>> pageShift)].getLong((int) (address & pageMask));
+  }
+
+  void putLong(long address, long value) {
+    pages[(int) (address >>> pageShift)].putLong((int) (address & pageMask), value);
+  }
+
+  int getInt(long address) {
+    return pages[(int) (address >>> pageShift)].getInt((int) (address & pageMask));
+  }
+
+  void putInt(long address, int value) {
+    pages[(int) (address >>> pageShift)].putInt((int) (address & pageMask), value);
+  }
+
+  void putBytes(long address, byte[] src, int length) {
+    for (int i = 0; i < length; i++) {
+      long pos = address + i;
+      pages[(int) (pos >>> pageShift)].put((int) (pos & pageMask), src[i]);
+    }
+  }
+
+  boolean bytesEqual(long address, byte[] other, int length) {
+    ByteBuffer page = pages[(int) (address >>> pageShift)];
+    int offset = (int) (address & pageMask);
+    if (offset + length <= page.capacity()) {
+      for (int i = 0; i < length; i++) {
+        if (page.get(offset + i) != other[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int i = 0; i < length; i++) {
+      long pos = address + i;
+      if (pages[(int) (pos >>> pageShift)].get((int) (pos & pageMask)) != other[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  void getBytes(long address, byte[] dst, int length) {
+    for (int i = 0; i < length; i++) {
+      long pos = address + i;
+      dst[i] = pages[(int) (pos >>> pageShift)].get((int) (pos & pageMask));
+    }
+  }
+
+  void release() {
+    for (int i = 0; i < pageCount; i++) {
+      memory.releasePage(pages[i]);
+      pages[i] = null;
+    }
+    pageCount = 0;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A compressed bitmap of row positions in the style of a roaring bitmap. Positions are grouped by their high bits
+ * into chunks of 65536 positions, sparse chunks are kept as sorted arrays of the low 16 bits and dense chunks are
+ * kept as plain bitmaps.
+ */
+public class PositionBitmap {
+
+  private static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+  private static final int BITMAP_CONTAINER_WORDS = 1024;
+
+  private int[] keys = new int[4];
+  private Object[] containers = new Object[4];
+  private int[] cardinalities = new int[4];
+  private int containerCount;
+  private long cardinality;
+  private int lastIndex = -1;
+
+  public void add(long pos) {
+    Preconditions.checkArgument(pos >= 0, "Invalid position: %s", pos);
+    int key = (int) (pos >>> 16);
+    char low = (char) pos;
+    int index = containerIndex(key);
+    if (index < 0) {
+      index = -index - 1;
+      insertContainer(index, key);
+    }
+    lastIndex = index;
+
+    Object container = containers[index];
+    if (container instanceof long[]) {
+      long[] bitmap = (long[]) container;
+      long mask = 1L << low;
+      if ((bitmap[low >>> 6] & mask) == 0) {
+        bitmap[low >>> 6] |= mask;
+        cardinalities[index]++;
+        cardinality++;
+      }
+      return;
+    }
+
+    char[] array = (char[]) container;
+    int size = cardinalities[index];
+    int insertAt;
+    if (size == 0 || array[size - 1] < low) {
+      // positions are mostly added in order
+      insertAt = size;
+    } else {
+      insertAt = Arrays.binarySearch(array, 0, size, low);
+      if (insertAt >= 0) {
+        return;
+      }
+      insertAt = -insertAt - 1;
+    }
+
+    if (size == ARRAY_CONTAINER_MAX_SIZE) {
+      long[] bitmap = new long[BITMAP_CONTAINER_WORDS];
+      for (int i = 0; i < size; i++) {
+        bitmap[array[i] >>> 6] |= 1L << array[i];
+      }
+      bitmap[low >>> 6] |= 1L << low;
+      containers[index] = bitmap;
+    } else {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, Math.min(ARRAY_CONTAINER_MAX_SIZE, Math.max(4, size * 2)));
+        containers[index] = array;
+      }
+      System.arraycopy(array, insertAt, array, insertAt + 1, size - insertAt);
+      array[insertAt] = low;
+    }
+    cardinalities[index]++;
+    cardinality++;
+  }
+
+  public boolean contains(long pos) {
+    if (pos < 0 || containerCount == 0) {
+      return false;
+    }
+    int index = containerIndex((int) (pos >>> 16));
+    if (index < 0) {
+      return false;
+    }
+    char low = (char) pos;
+    Object container = containers[index];
+    if (container instanceof long[]) {
+      return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+    return Arrays.binarySearch((char[]) container, 0, cardinalities[index], low) >= 0;
+  }
+
+  public long cardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * @return estimated bytes held by this bitmap
+   */
+  public long sizeInBytes() {
+    long bytes = keys.length * 4L + containers.length * 8L + cardinalities.length * 4L;
+    for (int i = 0; i < containerCount; i++) {
+      Object container = containers[i];
+      bytes += container instanceof long[] ? BITMAP_CONTAINER_WORDS * 8L : ((char[]) container).length * 2L;
+    }
+    return bytes;
+  }
+
+  private int containerIndex(int key) {
+    // rows are usually checked and added in order, so the last used container is likely to be hit again
+    if (lastIndex >= 0 && lastIndex < containerCount && keys[lastIndex] == key) {
+      return lastIndex;
+    }
+    if (containerCount > 0 && keys[containerCount - 1] < key) {
+      return -containerCount - 1;
+    }
+    return Arrays.binarySearch(keys, 0, containerCount, key);
+  }
+
+  private void insertContainer(int index, int key) {
+    if (containerCount == keys.length) {
+      int newLength = containerCount * 2;
+      keys = Arrays.copyOf(keys, newLength);
+      containers = Arrays.copyOf(containers, newLength);
+      cardinalities = Arrays.copyOf(cardinalities, newLength);
+    }
+    System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+    System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+    System.arraycopy(cardinalities, index, cardinalities, index + 1, containerCount - index);
+    keys[index] = key;
+    containers[index] = new char[4];
+    cardinalities[index] = 0;
+    containerCount++;
+  }
+}
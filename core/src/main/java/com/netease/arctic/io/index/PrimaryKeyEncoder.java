@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encode primary keys of primitive fields into a reusable byte array, two keys are encoded to the same bytes only
+ * if they are equal. Every field starts with a null flag, variable length fields are length prefixed.
+ */
+class PrimaryKeyEncoder {
+
+  private final Type.TypeID[] typeIds;
+  private byte[] bytes = new byte[64];
+  private int length;
+
+  PrimaryKeyEncoder(Types.StructType keyType) {
+    List<Types.NestedField> fields = keyType.fields();
+    this.typeIds = new Type.TypeID[fields.size()];
+    for (int i = 0; i < typeIds.length; i++) {
+      Type type = fields.get(i).type();
+      if (!isSupported(type)) {
+        throw new IllegalArgumentException("Unsupported primary key type: " + type);
+      }
+      typeIds[i] = type.typeId();
+    }
+  }
+
+  static boolean isSupported(Type type) {
+    return type.isPrimitiveType();
+  }
+
+  void encode(StructLike key) {
+    length = 0;
+    for (int i = 0; i < typeIds.length; i++) {
+      Object value = key.get(i, Object.class);
+      if (value == null) {
+        writeByte(0);
+        continue;
+      }
+      writeByte(1);
+      switch (typeIds[i]) {
+        case BOOLEAN:
+          writeByte((Boolean) value ? 1 : 0);
+          break;
+        case INTEGER:
+        case DATE:
+          writeInt(((Number) value).intValue());
+          break;
+        case LONG:
+        case TIME:
+        case TIMESTAMP:
+          writeLong(((Number) value).longValue());
+          break;
+        case FLOAT:
+          writeInt(Float.floatToIntBits(((Number) value).floatValue()));
+          break;
+        case DOUBLE:
+          writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+          break;
+        case STRING:
+          writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+          break;
+        case UUID:
+          if (value instanceof UUID) {
+            writeLong(((UUID) value).getMostSignificantBits());
+            writeLong(((UUID) value).getLeastSignificantBits());
+          } else {
+            writeBinary(value);
+          }
+          break;
+        case DECIMAL:
+          writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+          break;
+        case FIXED:
+        case BINARY:
+          writeBinary(value);
+          break;
+        default:
+          throw new UnsupportedOperationException("Unsupported primary key type: " + typeIds[i]);
+      }
+    }
+  }
+
+  byte[] bytes() {
+    return bytes;
+  }
+
+  int length() {
+    return length;
+  }
+
+  private void writeBinary(Object value) {
+    if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      int size = buffer.remaining();
+      writeVarInt(size);
+      ensureCapacity(size);
+      buffer.get(bytes, length, size);
+      length += size;
+    } else {
+      writeBytes((byte[]) value);
+    }
+  }
+
+  private void writeBytes(byte[] value) {
+    writeVarInt(value.length);
+    ensureCapacity(value.length);
+    System.arraycopy(value, 0, bytes, length, value.length);
+    length += value.length;
+  }
+
+  private void writeVarInt(int value) {
+    while ((value & ~0x7F) != 0) {
+      writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    writeByte(value);
+  }
+
+  private void writeByte(int value) {
+    ensureCapacity(1);
+    bytes[length++] = (byte) value;
+  }
+
+  private void writeInt(int value) {
+    ensureCapacity(4);
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      bytes[length++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void writeLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      bytes[length++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void ensureCapacity(int more) {
+    if (length + more > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+    }
+  }
+}
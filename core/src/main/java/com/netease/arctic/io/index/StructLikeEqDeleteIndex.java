@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import com.netease.arctic.data.ChangedLsn;
+import com.netease.arctic.iceberg.optimize.StructLikeMap;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link EqDeleteIndex} backed by an on-heap {@link StructLikeMap}, used for primary keys can not be encoded
+ * to bytes. This index never spills.
+ */
+class StructLikeEqDeleteIndex implements EqDeleteIndex {
+
+  // rough size of a map entry with the copied key and the lsn
+  private static final int ESTIMATED_ENTRY_BYTES = 128;
+
+  private final Types.StructType keyType;
+  private final StructLikeMap<ChangedLsn> map;
+
+  StructLikeEqDeleteIndex(Types.StructType keyType) {
+    this.keyType = keyType;
+    this.map = StructLikeMap.create(keyType);
+  }
+
+  @Override
+  public void put(StructLike primaryKey, long transactionId, long fileOffset) {
+    ChangedLsn lsn = ChangedLsn.of(transactionId, fileOffset);
+    ChangedLsn old = map.get(primaryKey);
+    if (old == null || old.compareTo(lsn) <= 0) {
+      map.put(copy(primaryKey), lsn);
+    }
+  }
+
+  @Override
+  public boolean deletes(StructLike primaryKey, long transactionId, long fileOffset) {
+    ChangedLsn lsn = map.get(primaryKey);
+    return lsn != null && lsn.compareTo(ChangedLsn.of(transactionId, fileOffset)) > 0;
+  }
+
+  /**
+   * Deep copy the key, readers of delete files reuse containers of nested values and buffers of binary values.
+   */
+  private StructLike copy(StructLike primaryKey) {
+    return copyStruct(keyType, primaryKey);
+  }
+
+  private static StructLike copyStruct(Types.StructType type, StructLike struct) {
+    List<Types.NestedField> fields = type.fields();
+    GenericRecord copy = GenericRecord.create(type);
+    for (int i = 0; i < fields.size(); i++) {
+      copy.set(i, copyValue(fields.get(i).type(), struct.get(i, Object.class)));
+    }
+    return copy;
+  }
+
+  private static Object copyValue(Type type, Object value) {
+    if (value == null) {
+      return null;
+    }
+    switch (type.typeId()) {
+      case STRUCT:
+        return copyStruct(type.asStructType(), (StructLike) value);
+      case LIST:
+        Type elementType = type.asListType().elementType();
+        List<Object> list = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+          list.add(copyValue(elementType, element));
+        }
+        return list;
+      case MAP:
+        Types.MapType mapType = type.asMapType();
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          map.put(copyValue(mapType.keyType(), entry.getKey()), copyValue(mapType.valueType(), entry.getValue()));
+        }
+        return map;
+      case STRING:
+        return value.toString();
+      case BINARY:
+      case FIXED:
+        if (value instanceof ByteBuffer) {
+          // ByteBuffers#toByteArray returns the backing array if the buffer covers all of it, so copy here
+          ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+          byte[] bytes = new byte[buffer.remaining()];
+          buffer.get(bytes);
+          return ByteBuffer.wrap(bytes);
+        }
+        return ((byte[]) value).clone();
+      default:
+        return value;
+    }
+  }
+
+  @Override
+  public long size() {
+    return map.size();
+  }
+
+  @Override
+  public long heapBytes() {
+    return map.size() * (long) ESTIMATED_ENTRY_BYTES;
+  }
+
+  @Override
+  public long spilledBytes() {
+    return 0;
+  }
+
+  @Override
+  public int spillCount() {
+    return 0;
+  }
+
+  @Override
+  public void close() {
+    map.clear();
+  }
+}
@@ -18,26 +18,32 @@
 
 package com.netease.arctic.io.reader;
 
-import com.netease.arctic.data.ChangedLsn;
 import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.PrimaryKeyedFile;
 import com.netease.arctic.iceberg.optimize.InternalRecordWrapper;
-import com.netease.arctic.iceberg.optimize.StructLikeMap;
 import com.netease.arctic.iceberg.optimize.StructProjection;
 import com.netease.arctic.io.ArcticFileIO;
+import com.netease.arctic.io.index.EqDeleteIndex;
+import com.netease.arctic.io.index.EqDeleteIndexCache;
+import com.netease.arctic.io.index.EqDeleteIndexes;
+import com.netease.arctic.io.index.PositionBitmap;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.table.MetadataColumns;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.utils.NodeFilter;
 import org.apache.iceberg.Accessor;
 import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.avro.Avro;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.data.avro.DataReader;
 import org.apache.iceberg.data.parquet.GenericParquetReaders;
+import org.apache.iceberg.deletes.Deletes;
+import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.InputFile;
@@ -46,18 +52,24 @@ import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Type;
 import org.apache.iceberg.types.TypeUtil;
 import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -67,7 +79,9 @@ import java.util.stream.Collectors;
  *
  * @param <T> to indicate the record data type.
  */
-public abstract class ArcticDeleteFilter<T> {
+public abstract class ArcticDeleteFilter<T> implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ArcticDeleteFilter.class);
 
   private static final Schema POS_DELETE_SCHEMA = new Schema(
       org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH,
@@ -78,6 +92,8 @@ public abstract class ArcticDeleteFilter<T> {
   private static final Accessor<StructLike> POSITION_ACCESSOR = POS_DELETE_SCHEMA
       .accessorForField(org.apache.iceberg.MetadataColumns.DELETE_FILE_POS.fieldId());
 
+  private static final PositionBitmap EMPTY_POSITIONS = new PositionBitmap();
+
   private final Set<PrimaryKeyedFile> eqDeletes;
   private final List<DeleteFile> posDeletes;
   private final Schema requiredSchema;
@@ -89,13 +105,31 @@ public abstract class ArcticDeleteFilter<T> {
   private final Schema deleteSchema;
   private final Filter<Record> deleteNodeFilter;
   private Predicate<T> eqPredicate;
-  private Map<String, Set<Long>> positionMap;
+  private StructProjection dataPrimaryKeyProjection;
+  private long eqDeleteIndexMemoryBytes = TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT;
+  private long eqDeleteIndexCacheBytes = TableProperties.READ_EQ_DELETE_INDEX_CACHE_BYTES_DEFAULT;
+  private final Set<DataTreeNode> sourceNodes;
+  private EqDeleteIndex eqDeleteIndex;
+  private Map<String, PositionBitmap> positionMap;
+  private boolean posDeleteStreaming = TableProperties.READ_POS_DELETE_STREAMING_ENABLED_DEFAULT;
   private final Accessor<StructLike> posAccessor;
   private final Accessor<StructLike> filePathAccessor;
   private final Set<String> pathSets;
 
   private String currentDataPath;
-  private Set<Long> currentPosSet;
+  private PositionBitmap currentPositions;
+  private Object lastDataPath;
+  private PositionBitmap lastPositions;
+
+  private String streamingPath;
+  private CloseableIterator<Long> streamingPositions;
+  // avro delete files can't skip the positions of other data files, in streaming they are read once for all data
+  // files of the task instead of once for every data file
+  private List<DeleteFile> streamingDeleteFiles;
+  private Map<String, PositionBitmap> avroPositionMap;
+  private PositionBitmap streamingAvroPositions = EMPTY_POSITIONS;
+  private long nextDeletePos = -1;
+  private long lastStreamingPos = -1;
 
   protected ArcticDeleteFilter(
       KeyedTableScanTask keyedTableScanTask, Schema tableSchema,
@@ -130,6 +164,7 @@ public abstract class ArcticDeleteFilter<T> {
     deleteIds.add(MetadataColumns.TRANSACTION_ID_FILED.fieldId());
     deleteIds.add(MetadataColumns.FILE_OFFSET_FILED.fieldId());
     this.deleteSchema = TypeUtil.select(requiredSchema, deleteIds);
+    this.sourceNodes = sourceNodes;
     if (sourceNodes != null) {
       this.deleteNodeFilter = new NodeFilter<>(sourceNodes, deleteSchema, primaryKeySpec, record -> record);
     } else {
@@ -181,21 +216,171 @@ public abstract class ArcticDeleteFilter<T> {
     return applyEqDeletes(applyPosDeletes(records), applyEqDeletes());
   }
 
+  /**
+   * Load the equality and position deletes into memory, so that the first {@link #filter} call does not block.
+   * Nothing is loaded for position deletes merged in streaming.
+   */
+  public void loadDeletes() {
+    applyEqDeletes();
+    if (!posDeletes.isEmpty() && !posDeleteStreaming) {
+      loadPositionMap();
+    }
+  }
+
+  /**
+   * @return the index of equality deletes, null if it is not built yet
+   */
+  public EqDeleteIndex eqDeleteIndex() {
+    return eqDeleteIndex;
+  }
+
+  /**
+   * Release the delete indexes and streams, the filter should not be used after closed.
+   */
+  @Override
+  public void close() {
+    if (eqDeleteIndex != null) {
+      eqDeleteIndex.close();
+      eqDeleteIndex = null;
+    }
+    closeStreamingPositions();
+  }
+
+  public void setEqDeleteIndexMemoryBytes(long eqDeleteIndexMemoryBytes) {
+    this.eqDeleteIndexMemoryBytes = eqDeleteIndexMemoryBytes;
+  }
+
+  /**
+   * Set the capacity of the process-wide {@link EqDeleteIndexCache}, 0 to build the equality delete index for this
+   * filter only.
+   */
+  public void setEqDeleteIndexCacheBytes(long eqDeleteIndexCacheBytes) {
+    this.eqDeleteIndexCacheBytes = eqDeleteIndexCacheBytes;
+  }
+
+  /**
+   * Set whether to merge sorted position deletes with the row positions of data files in streaming, instead of
+   * loading positions of all data files into memory.
+   */
+  public void setPosDeleteStreaming(boolean posDeleteStreaming) {
+    this.posDeleteStreaming = posDeleteStreaming;
+  }
+
   public void setCurrentDataPath(String currentDataPath) {
-    this.currentDataPath = currentDataPath;
-    this.currentPosSet = null;
+    if (!Objects.equals(currentDataPath, this.currentDataPath)) {
+      this.currentDataPath = currentDataPath;
+      this.currentPositions = null;
+    }
+  }
+
+  /**
+   * Apply deletes to a batch of rows read from the data file set by {@link #setCurrentDataPath}.
+   *
+   * @param selection filled with indexes of the rows not deleted, at least as long as the batch
+   * @return number of the rows not deleted
+   */
+  public int filterBatch(DeleteBatch batch, int[] selection) {
+    return selectBatch(batch, selection, false);
   }
 
-  private ChangedLsn deleteLSN(StructLike structLike) {
-    Long transactionId = (Long) deleteTransactionIdAccessor.get(structLike);
-    Long deleteOffset = (Long) deleteOffsetAccessor.get(structLike);
-    return ChangedLsn.of(transactionId, deleteOffset);
+  /**
+   * Batch version of {@link #filterNegate}, see {@link #filterBatch}.
+   *
+   * @param selection filled with indexes of the rows in equity delete file, at least as long as the batch
+   * @return number of the rows in equity delete file
+   */
+  public int filterNegateBatch(DeleteBatch batch, int[] selection) {
+    return selectBatch(batch, selection, true);
   }
 
-  private ChangedLsn dataLSN(StructLike structLike) {
-    Long transactionId = (Long) dataTransactionIdAccessor.get(structLike);
-    Long deleteOffset = (Long) dataOffsetAccessor.get(structLike);
-    return ChangedLsn.of(transactionId, deleteOffset);
+  boolean hasPosDeletes() {
+    return !posDeletes.isEmpty();
+  }
+
+  /**
+   * @return accessor of the primary key in {@link #requiredSchema()} if it is a single int or long field, else null
+   */
+  Accessor<StructLike> longPrimaryKeyAccessor() {
+    if (primaryKeyId.size() != 1) {
+      return null;
+    }
+    int fieldId = primaryKeyId.iterator().next();
+    Types.NestedField field = requiredSchema.findField(fieldId);
+    if (field == null || (field.type().typeId() != Type.TypeID.INTEGER && field.type().typeId() != Type.TypeID.LONG)) {
+      return null;
+    }
+    return requiredSchema.accessorForField(fieldId);
+  }
+
+  private int selectBatch(DeleteBatch batch, int[] selection, boolean selectEqDeleted) {
+    int count = batch.numRows();
+    for (int i = 0; i < count; i++) {
+      selection[i] = i;
+    }
+    if (!posDeletes.isEmpty()) {
+      count = removePosDeletes(batch, selection, count);
+    }
+    if (!eqDeletes.isEmpty()) {
+      count = selectEqDeletes(batch, selection, count, selectEqDeleted);
+    }
+    return count;
+  }
+
+  private int removePosDeletes(DeleteBatch batch, int[] selection, int count) {
+    Preconditions.checkState(currentDataPath != null, "Current data path should be set to filter batches");
+    if (count == 0) {
+      return 0;
+    }
+    long[] positions = batch.rowPositions();
+    int selected = 0;
+    if (posDeleteStreaming) {
+      for (int i = 0; i < count; i++) {
+        int row = selection[i];
+        if (!streamingDeletes(currentDataPath, positions[row])) {
+          selection[selected++] = row;
+        }
+      }
+      return selected;
+    }
+
+    loadPositionMap();
+    if (currentPositions == null) {
+      currentPositions = positionMap.getOrDefault(currentDataPath, EMPTY_POSITIONS);
+    }
+    if (currentPositions.isEmpty()) {
+      return count;
+    }
+    for (int i = 0; i < count; i++) {
+      int row = selection[i];
+      if (!currentPositions.contains(positions[row])) {
+        selection[selected++] = row;
+      }
+    }
+    return selected;
+  }
+
+  private int selectEqDeletes(DeleteBatch batch, int[] selection, int count, boolean selectDeleted) {
+    applyEqDeletes();
+    if (count == 0) {
+      return 0;
+    }
+    long[] transactionIds = batch.transactionIds();
+    long[] fileOffsets = batch.fileOffsets();
+    long[] primaryKeys = eqDeleteIndex.supportsLongKeys() ? batch.longPrimaryKeys() : null;
+    if (primaryKeys != null) {
+      return eqDeleteIndex.select(primaryKeys, transactionIds, fileOffsets, selection, count, selectDeleted);
+    }
+
+    int selected = 0;
+    for (int i = 0; i < count; i++) {
+      int row = selection[i];
+      boolean deleted = eqDeleteIndex.deletes(dataPrimaryKeyProjection.wrap(batch.row(row)),
+          transactionIds[row], fileOffsets[row]);
+      if (deleted == selectDeleted) {
+        selection[selected++] = row;
+      }
+    }
+    return selected;
   }
 
   private Predicate<T> applyEqDeletes() {
@@ -211,50 +396,25 @@ public abstract class ArcticDeleteFilter<T> {
     // a projection to select and reorder fields of the file schema to match the delete rows
     StructProjection deletePKProjectRow = StructProjection.create(deleteSchema, pkSchema);
     StructProjection dataPKProjectRow = StructProjection.create(requiredSchema, pkSchema);
-
-    Iterable<CloseableIterable<Record>> deleteRecords = Iterables.transform(
-        eqDeletes,
-        this::openDeletes);
-
-    // copy the delete records because they will be held in a map
-    CloseableIterable<Record> records = CloseableIterable.transform(
-        CloseableIterable.concat(deleteRecords), Record::copy);
-    if (deleteNodeFilter != null) {
-      records = deleteNodeFilter.filter(records);
-    }
-
-    CloseableIterable<StructLike> structLikeIterable = CloseableIterable.transform(
-        records, record -> new InternalRecordWrapper(deleteSchema.asStruct()).wrap(record));
-
-    StructLikeMap<ChangedLsn> structLikeMap = StructLikeMap.create(pkSchema.asStruct());
-    //init map
-    try (CloseableIterable<StructLike> deletes = structLikeIterable) {
-      Iterator<StructLike> it = getArcticFileIo() == null ? deletes.iterator()
-          : getArcticFileIo().doAs(deletes::iterator);
-      while (it.hasNext()) {
-        StructLike structLike = it.next();
-        StructLike deletePK = deletePKProjectRow.copyWrap(structLike);
-        ChangedLsn deleteLsn = deleteLSN(structLike);
-
-        ChangedLsn old = structLikeMap.get(deletePK);
-        if (old == null || old.compareTo(deleteLsn) <= 0) {
-          structLikeMap.put(deletePK, deleteLsn);
-        }
-      }
-    } catch (IOException e) {
-      e.printStackTrace();
+    this.dataPrimaryKeyProjection = dataPKProjectRow;
+
+    EqDeleteIndex index;
+    if (eqDeleteIndexCacheBytes > 0) {
+      EqDeleteIndexCache.Key key = new EqDeleteIndexCache.Key(
+          eqDeletes.stream().map(file -> file.path().toString()).collect(Collectors.toSet()),
+          sourceNodes, pkSchema.asStruct());
+      index = EqDeleteIndexCache.instance().acquire(key, eqDeleteIndexCacheBytes,
+          () -> buildEqDeleteIndex(pkSchema, deletePKProjectRow));
+    } else {
+      index = buildEqDeleteIndex(pkSchema, deletePKProjectRow);
     }
+    this.eqDeleteIndex = index;
 
     Predicate<T> isInDeleteSet = record -> {
       StructLike data = asStructLike(record);
-      StructLike dataPk = dataPKProjectRow.copyWrap(data);
-      ChangedLsn dataLSN = dataLSN(data);
-      ChangedLsn deleteLsn = structLikeMap.get(dataPk);
-      if (deleteLsn == null) {
-        return false;
-      }
-
-      return deleteLsn.compareTo(dataLSN) > 0;
+      return index.deletes(dataPKProjectRow.wrap(data),
+          (Long) dataTransactionIdAccessor.get(data),
+          (Long) dataOffsetAccessor.get(data));
     };
 
     this.eqPredicate = isInDeleteSet;
@@ -276,6 +436,41 @@ public abstract class ArcticDeleteFilter<T> {
     return remainingRowsFilter.filter(records);
   }
 
+  private EqDeleteIndex buildEqDeleteIndex(Schema pkSchema, StructProjection deletePKProjectRow) {
+    Iterable<CloseableIterable<Record>> deleteRecords = Iterables.transform(
+        eqDeletes,
+        this::openDeletes);
+
+    // the index does not hold the delete records, so containers could be reused
+    CloseableIterable<Record> records = CloseableIterable.concat(deleteRecords);
+    if (deleteNodeFilter != null) {
+      records = deleteNodeFilter.filter(records);
+    }
+
+    InternalRecordWrapper deleteWrapper = new InternalRecordWrapper(deleteSchema.asStruct());
+    CloseableIterable<StructLike> structLikeIterable = CloseableIterable.transform(
+        records, deleteWrapper::wrap);
+
+    EqDeleteIndex index = EqDeleteIndexes.create(pkSchema.asStruct(), eqDeleteIndexMemoryBytes);
+    //init index
+    try (CloseableIterable<StructLike> deletes = structLikeIterable) {
+      Iterator<StructLike> it = getArcticFileIo() == null ? deletes.iterator()
+          : getArcticFileIo().doAs(deletes::iterator);
+      while (it.hasNext()) {
+        StructLike structLike = it.next();
+        index.put(deletePKProjectRow.wrap(structLike),
+            (Long) deleteTransactionIdAccessor.get(structLike),
+            (Long) deleteOffsetAccessor.get(structLike));
+      }
+    } catch (IOException e) {
+      index.close();
+      throw new UncheckedIOException("Failed to read equality delete files", e);
+    }
+    LOG.info("build equality delete index of {} keys from {} files, heap bytes {}, spilled bytes {}, spill count {}",
+        index.size(), eqDeletes.size(), index.heapBytes(), index.spilledBytes(), index.spillCount());
+    return index;
+  }
+
   private CloseableIterable<Record> openDeletes(PrimaryKeyedFile deleteFile) {
     InputFile input = getInputFile(deleteFile.path().toString());
     Map<Integer, Object> idToConstant = new HashMap<>();
@@ -308,58 +503,130 @@ public abstract class ArcticDeleteFilter<T> {
       return records;
     }
 
-    // if there are fewer deletes than a reasonable number to keep in memory, use a set
-    if (positionMap == null) {
-      positionMap = new HashMap<>();
-      List<CloseableIterable<Record>> deletes = Lists.transform(posDeletes, this::openPosDeletes);
-      CloseableIterator<Record> iterator = CloseableIterable.concat(deletes).iterator();
-      while (iterator.hasNext()) {
-        Record deleteRecord = iterator.next();
-        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
-        if (!pathSets.contains(path)) {
-          continue;
-        }
-        Set<Long> posSet = positionMap.get(path);
-        if (posSet == null) {
-          posSet = new HashSet<>();
-          positionMap.put(path, posSet);
+    if (posDeleteStreaming) {
+      Filter<T> filter = new Filter<T>() {
+        @Override
+        protected boolean shouldKeep(T item) {
+          StructLike data = asStructLike(item);
+          String path = currentDataPath != null ? currentDataPath : filePathAccessor.get(data).toString();
+          return !streamingDeletes(path, (Long) posAccessor.get(data));
         }
-        posSet.add((Long) POSITION_ACCESSOR.get(deleteRecord));
-      }
+      };
+      return filter.filter(records);
     }
 
+    loadPositionMap();
+
     Filter<T> filter = new Filter<T>() {
       @Override
       protected boolean shouldKeep(T item) {
-
-        Set<Long> posSet;
+        StructLike data = asStructLike(item);
+        PositionBitmap positions;
         if (currentDataPath != null) {
-          if (currentPosSet == null) {
-            currentPosSet = positionMap.get(currentDataPath);
+          if (currentPositions == null) {
+            currentPositions = positionMap.getOrDefault(currentDataPath, EMPTY_POSITIONS);
           }
-          posSet = currentPosSet;
+          positions = currentPositions;
         } else {
-          posSet = positionMap.get(filePath(item));
+          // the path is usually the same constant object for all rows of a file
+          Object path = filePathAccessor.get(data);
+          if (path != lastDataPath) {
+            lastDataPath = path;
+            lastPositions = positionMap.getOrDefault(path.toString(), EMPTY_POSITIONS);
+          }
+          positions = lastPositions;
         }
 
-        if (posSet == null) {
-          return true;
-        }
-        if (!posSet.contains(pos(item))) {
-          return true;
-        }
-        return false;
+        return positions.isEmpty() || !positions.contains((Long) posAccessor.get(data));
       }
     };
 
     return filter.filter(records);
   }
 
+  private void loadPositionMap() {
+    if (positionMap != null) {
+      return;
+    }
+    this.positionMap = readPositions(posDeletes);
+  }
+
+  /**
+   * Read the positions deleted from the data files of this task.
+   */
+  private Map<String, PositionBitmap> readPositions(List<DeleteFile> deleteFiles) {
+    Map<String, PositionBitmap> positions = new HashMap<>();
+    List<CloseableIterable<Record>> deletes = Lists.transform(deleteFiles, this::openPosDeletes);
+    try (CloseableIterable<Record> deleteRecords = CloseableIterable.concat(deletes)) {
+      for (Record deleteRecord : deleteRecords) {
+        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
+        if (!pathSets.contains(path)) {
+          continue;
+        }
+        positions.computeIfAbsent(path, p -> new PositionBitmap())
+            .add((Long) POSITION_ACCESSOR.get(deleteRecord));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read position delete files", e);
+    }
+    LOG.info("build position delete index of {} data files from {} files, heap bytes {}", positions.size(),
+        deleteFiles.size(), positions.values().stream().mapToLong(PositionBitmap::sizeInBytes).sum());
+    return positions;
+  }
+
+  /**
+   * Walk the sorted positions deleted from the data file in lockstep with the row positions, which are increasing
+   * while reading a data file.
+   */
+  private boolean streamingDeletes(String path, long pos) {
+    if (!path.equals(streamingPath) || pos < lastStreamingPos) {
+      openStreamingPositions(path);
+    }
+    lastStreamingPos = pos;
+    while (nextDeletePos >= 0 && nextDeletePos < pos) {
+      nextDeletePos = streamingPositions.hasNext() ? streamingPositions.next() : -1;
+    }
+    return nextDeletePos == pos || streamingAvroPositions.contains(pos);
+  }
+
+  private void openStreamingPositions(String path) {
+    closeStreamingPositions();
+    if (streamingDeleteFiles == null) {
+      List<DeleteFile> avroDeleteFiles = posDeletes.stream()
+          .filter(deleteFile -> deleteFile.format() == FileFormat.AVRO).collect(Collectors.toList());
+      this.avroPositionMap = avroDeleteFiles.isEmpty() ? Collections.emptyMap() : readPositions(avroDeleteFiles);
+      this.streamingDeleteFiles = posDeletes.stream()
+          .filter(deleteFile -> deleteFile.format() != FileFormat.AVRO).collect(Collectors.toList());
+    }
+    this.streamingAvroPositions = avroPositionMap.getOrDefault(path, EMPTY_POSITIONS);
+    // parquet delete files skip row groups of other data files, positions of the data file are read in streaming
+    List<CloseableIterable<Record>> deletes = Lists.transform(streamingDeleteFiles,
+        deleteFile -> openPositionDeletes(deleteFile, POS_DELETE_SCHEMA, path));
+    CloseableIterable<Long> positions = Deletes.deletePositions(path, deletes);
+    this.streamingPositions = getArcticFileIo() == null ? positions.iterator()
+        : getArcticFileIo().doAs(positions::iterator);
+    this.streamingPath = path;
+    this.lastStreamingPos = -1;
+    this.nextDeletePos = streamingPositions.hasNext() ? streamingPositions.next() : -1;
+  }
+
+  private void closeStreamingPositions() {
+    if (streamingPositions != null) {
+      try {
+        streamingPositions.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to close position delete files", e);
+      }
+      streamingPositions = null;
+      streamingPath = null;
+    }
+  }
+
   private CloseableIterable<Record> openPosDeletes(DeleteFile file) {
-    return openPositionDeletes(file, POS_DELETE_SCHEMA);
+    return openPositionDeletes(file, POS_DELETE_SCHEMA, null);
   }
 
-  private CloseableIterable<Record> openPositionDeletes(DeleteFile deleteFile, Schema deleteSchema) {
+  private CloseableIterable<Record> openPositionDeletes(DeleteFile deleteFile, Schema deleteSchema, String dataPath) {
     InputFile input = getInputFile(deleteFile.path().toString());
     switch (deleteFile.format()) {
       case AVRO:
@@ -374,6 +641,10 @@ public abstract class ArcticDeleteFilter<T> {
             .project(deleteSchema)
             .reuseContainers()
             .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(deleteSchema, fileSchema));
+        if (dataPath != null) {
+          // skip row groups of other data files, positions of the same data file are sorted in the delete file
+          builder.filter(Expressions.equal(org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH.name(), dataPath));
+        }
 
         return builder.build();
 
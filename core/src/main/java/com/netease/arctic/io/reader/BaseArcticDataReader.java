@@ -24,6 +24,7 @@ import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
@@ -34,8 +35,11 @@ import org.apache.iceberg.mapping.NameMappingParser;
 import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.parquet.ParquetValueReader;
 import org.apache.iceberg.types.Type;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.parquet.schema.MessageType;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,6 +63,11 @@ public abstract class BaseArcticDataReader<T> {
   protected final BiFunction<Type, Object, Object> convertConstant;
   protected final PrimaryKeySpec primaryKeySpec;
   protected final boolean reuseContainer;
+  protected long eqDeleteIndexMemoryBytes = TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT;
+  protected long eqDeleteIndexCacheBytes = TableProperties.READ_EQ_DELETE_INDEX_CACHE_BYTES_DEFAULT;
+  protected boolean posDeleteStreaming = TableProperties.READ_POS_DELETE_STREAMING_ENABLED_DEFAULT;
+  protected int prefetchFiles = TableProperties.READ_PREFETCH_FILES_DEFAULT;
+  protected int mergeOnReadBatchSize = TableProperties.READ_MERGE_ON_READ_BATCH_SIZE_DEFAULT;
 
   public BaseArcticDataReader(
       ArcticFileIO fileIO,
@@ -93,18 +102,69 @@ public abstract class BaseArcticDataReader<T> {
     this.reuseContainer = reuseContainer;
   }
 
+  /**
+   * Set the max heap bytes of the equality delete index, the index spills to local disk after that.
+   */
+  public void setEqDeleteIndexMemoryBytes(long eqDeleteIndexMemoryBytes) {
+    this.eqDeleteIndexMemoryBytes = eqDeleteIndexMemoryBytes;
+  }
+
+  /**
+   * Set the capacity of the equality delete indexes cached and shared by readers in this JVM, 0 to disable the cache.
+   */
+  public void setEqDeleteIndexCacheBytes(long eqDeleteIndexCacheBytes) {
+    this.eqDeleteIndexCacheBytes = eqDeleteIndexCacheBytes;
+  }
+
+  /**
+   * Set whether to merge sorted position deletes with data files in streaming instead of loading them into memory.
+   */
+  public void setPosDeleteStreaming(boolean posDeleteStreaming) {
+    this.posDeleteStreaming = posDeleteStreaming;
+  }
+
+  /**
+   * Set the number of data files read ahead on background threads, 0 to read files one by one on the calling thread.
+   * Equality and position deletes are also loaded in background while prefetching.
+   */
+  public void setPrefetchFiles(int prefetchFiles) {
+    this.prefetchFiles = prefetchFiles;
+  }
+
+  /**
+   * Set the number of rows to apply deletes at once column by column, 0 to apply deletes row by row.
+   */
+  public void setMergeOnReadBatchSize(int mergeOnReadBatchSize) {
+    this.mergeOnReadBatchSize = mergeOnReadBatchSize;
+  }
+
+  /**
+   * Configure the reader with the read properties of table, properties not set in table keep their defaults.
+   *
+   * @param reader reader to configure
+   * @param tableProperties properties of table
+   * @return the reader
+   */
+  public static <R extends BaseArcticDataReader<?>> R configure(R reader, Map<String, String> tableProperties) {
+    reader.setEqDeleteIndexMemoryBytes(PropertyUtil.propertyAsLong(tableProperties,
+        TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES, TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT));
+    reader.setEqDeleteIndexCacheBytes(PropertyUtil.propertyAsLong(tableProperties,
+        TableProperties.READ_EQ_DELETE_INDEX_CACHE_BYTES, TableProperties.READ_EQ_DELETE_INDEX_CACHE_BYTES_DEFAULT));
+    reader.setPosDeleteStreaming(PropertyUtil.propertyAsBoolean(tableProperties,
+        TableProperties.READ_POS_DELETE_STREAMING_ENABLED, TableProperties.READ_POS_DELETE_STREAMING_ENABLED_DEFAULT));
+    reader.setPrefetchFiles(PropertyUtil.propertyAsInt(tableProperties,
+        TableProperties.READ_PREFETCH_FILES, TableProperties.READ_PREFETCH_FILES_DEFAULT));
+    reader.setMergeOnReadBatchSize(PropertyUtil.propertyAsInt(tableProperties,
+        TableProperties.READ_MERGE_ON_READ_BATCH_SIZE, TableProperties.READ_MERGE_ON_READ_BATCH_SIZE_DEFAULT));
+    return reader;
+  }
+
   public CloseableIterator<T> readData(KeyedTableScanTask keyedTableScanTask) {
 
     ArcticDeleteFilter<T> arcticDeleteFilter = new GenericArcticDeleteFilter(
         keyedTableScanTask, tableSchema, projectedSchema, primaryKeySpec, sourceNodes
     );
-    Schema newProjectedSchema = arcticDeleteFilter.requiredSchema();
-
-    CloseableIterable<T> dataIterable = CloseableIterable.concat(CloseableIterable.transform(
-        CloseableIterable.withNoopClose(keyedTableScanTask.dataTasks()),
-        fileScanTask -> arcticDeleteFilter.filter(newParquetIterable(fileScanTask, newProjectedSchema,
-            DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant)))));
-    return fileIO.doAs(dataIterable::iterator);
+    return readFiles(keyedTableScanTask, arcticDeleteFilter, false);
   }
 
   public CloseableIterator<T> readDeletedData(KeyedTableScanTask keyedTableScanTask) {
@@ -115,21 +175,78 @@ public abstract class BaseArcticDataReader<T> {
       ArcticDeleteFilter<T> arcticDeleteFilter = new GenericArcticDeleteFilter(
           keyedTableScanTask, tableSchema, projectedSchema, primaryKeySpec, sourceNodes
       );
-      Schema newProjectedSchema = arcticDeleteFilter.requiredSchema();
+      return readFiles(keyedTableScanTask, arcticDeleteFilter, true);
+    } else {
+      return CloseableIterator.empty();
+    }
+  }
 
+  private CloseableIterator<T> readFiles(
+      KeyedTableScanTask keyedTableScanTask, ArcticDeleteFilter<T> arcticDeleteFilter, boolean negate) {
+    Schema newProjectedSchema = arcticDeleteFilter.requiredSchema();
+    Function<CloseableIterable<T>, CloseableIterable<T>> filter;
+    if (mergeOnReadBatchSize > 0) {
+      filter = rows -> new BatchDeleteFilterIterable<>(rows, arcticDeleteFilter, mergeOnReadBatchSize, negate);
+    } else {
+      filter = negate ? arcticDeleteFilter::filterNegate : arcticDeleteFilter::filter;
+    }
+    if (prefetchFiles <= 0) {
+      // rows are buffered while filtering in batches, so containers can not be reused
+      boolean reuseContainers = reuseContainer && mergeOnReadBatchSize <= 0;
       CloseableIterable<T> dataIterable = CloseableIterable.concat(CloseableIterable.transform(
           CloseableIterable.withNoopClose(keyedTableScanTask.dataTasks()),
-          fileScanTask -> arcticDeleteFilter.filterNegate(
-              newParquetIterable(fileScanTask, newProjectedSchema,
-                  DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant)))));
-      return fileIO.doAs(dataIterable::iterator);
-    } else {
-      return CloseableIterator.empty();
+          fileScanTask -> filter.apply(newParquetIterable(fileScanTask, newProjectedSchema,
+              DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant), reuseContainers))));
+      return closeWith(fileIO.doAs(dataIterable::iterator), arcticDeleteFilter);
     }
+
+    PrefetchFileReader.BackgroundTask deletesLoaded = PrefetchFileReader.submit(() -> fileIO.doAs(() -> {
+      arcticDeleteFilter.loadDeletes();
+      return null;
+    }));
+    // prefetched rows are held in queues, so containers can not be reused
+    PrefetchFileReader<ArcticFileScanTask, T> prefetchReader = new PrefetchFileReader<>(
+        keyedTableScanTask.dataTasks(),
+        fileScanTask -> newParquetIterable(fileScanTask, newProjectedSchema,
+            DataReaderCommon.getIdToConstant(fileScanTask, newProjectedSchema, convertConstant), false),
+        prefetchFiles, fileIO);
+    CloseableIterable<T> dataIterable = CloseableIterable.concat(CloseableIterable.transform(
+        prefetchReader,
+        fileRows -> {
+          deletesLoaded.get();
+          return filter.apply(fileRows);
+        }));
+    // the delete load is stopped before the filter it is building is closed
+    return closeWith(dataIterable.iterator(), deletesLoaded, prefetchReader, arcticDeleteFilter);
+  }
+
+  private CloseableIterator<T> closeWith(CloseableIterator<T> iterator, Closeable... closeables) {
+    return new CloseableIterator<T>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        return iterator.next();
+      }
+
+      @Override
+      public void close() throws IOException {
+        try {
+          iterator.close();
+        } finally {
+          for (Closeable closeable : closeables) {
+            closeable.close();
+          }
+        }
+      }
+    };
   }
 
   private CloseableIterable<T> newParquetIterable(
-      FileScanTask task, Schema schema, Map<Integer, ?> idToConstant) {
+      FileScanTask task, Schema schema, Map<Integer, ?> idToConstant, boolean reuseContainers) {
     Parquet.ReadBuilder builder = Parquet.read(fileIO.newInputFile(task.file().path().toString()))
         .split(task.start(), task.length())
         .project(schema)
@@ -137,7 +254,7 @@ public abstract class BaseArcticDataReader<T> {
         .filter(task.residual())
         .caseSensitive(caseSensitive);
 
-    if (reuseContainer) {
+    if (reuseContainers) {
       builder.reuseContainers();
     }
     if (nameMapping != null) {
@@ -162,6 +279,9 @@ public abstract class BaseArcticDataReader<T> {
         Schema tableSchema, Schema requestedSchema, PrimaryKeySpec primaryKeySpec) {
       super(keyedTableScanTask, tableSchema, requestedSchema, primaryKeySpec);
       this.asStructLike = BaseArcticDataReader.this.toStructLikeFunction().apply(requiredSchema());
+      setEqDeleteIndexMemoryBytes(BaseArcticDataReader.this.eqDeleteIndexMemoryBytes);
+      setEqDeleteIndexCacheBytes(BaseArcticDataReader.this.eqDeleteIndexCacheBytes);
+      setPosDeleteStreaming(BaseArcticDataReader.this.posDeleteStreaming);
     }
 
     protected GenericArcticDeleteFilter(
@@ -172,6 +292,9 @@ public abstract class BaseArcticDataReader<T> {
         Set<DataTreeNode> sourceNodes) {
       super(keyedTableScanTask, tableSchema, requestedSchema, primaryKeySpec, sourceNodes);
       this.asStructLike = BaseArcticDataReader.this.toStructLikeFunction().apply(requiredSchema());
+      setEqDeleteIndexMemoryBytes(BaseArcticDataReader.this.eqDeleteIndexMemoryBytes);
+      setEqDeleteIndexCacheBytes(BaseArcticDataReader.this.eqDeleteIndexCacheBytes);
+      setPosDeleteStreaming(BaseArcticDataReader.this.posDeleteStreaming);
     }
 
     @Override
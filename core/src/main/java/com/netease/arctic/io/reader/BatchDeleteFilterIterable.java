@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.netease.arctic.table.MetadataColumns;
+import org.apache.iceberg.Accessor;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Apply deletes to rows of a data file batch by batch with {@link ArcticDeleteFilter#filterBatch}, the columns
+ * needed by deletes are extracted from a whole batch of rows at once. Rows are buffered in batches, so the rows
+ * must not reuse containers.
+ *
+ * @param <T> to indicate the record data type.
+ */
+class BatchDeleteFilterIterable<T> implements CloseableIterable<T> {
+
+  private final CloseableIterable<T> rows;
+  private final ArcticDeleteFilter<T> deleteFilter;
+  private final int batchSize;
+  private final boolean negate;
+
+  BatchDeleteFilterIterable(
+      CloseableIterable<T> rows, ArcticDeleteFilter<T> deleteFilter, int batchSize, boolean negate) {
+    this.rows = rows;
+    this.deleteFilter = deleteFilter;
+    this.batchSize = batchSize;
+    this.negate = negate;
+  }
+
+  @Override
+  public CloseableIterator<T> iterator() {
+    return new BatchIterator(rows.iterator());
+  }
+
+  @Override
+  public void close() throws IOException {
+    rows.close();
+  }
+
+  private class BatchIterator implements CloseableIterator<T> {
+
+    private final CloseableIterator<T> source;
+    private final RowBatch batch = new RowBatch();
+    private final int[] selection = new int[batchSize];
+    private int selected;
+    private int next;
+
+    BatchIterator(CloseableIterator<T> source) {
+      this.source = source;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+      while (next >= selected && source.hasNext()) {
+        batch.fill(source);
+        if (deleteFilter.hasPosDeletes()) {
+          deleteFilter.setCurrentDataPath(deleteFilter.filePath((T) batch.rows[0]));
+        }
+        selected = negate ? deleteFilter.filterNegateBatch(batch, selection) :
+            deleteFilter.filterBatch(batch, selection);
+        next = 0;
+      }
+      return next < selected;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return (T) batch.rows[selection[next++]];
+    }
+
+    @Override
+    public void close() throws IOException {
+      source.close();
+    }
+  }
+
+  private class RowBatch implements DeleteBatch {
+
+    private final Object[] rows = new Object[batchSize];
+    private final long[] positions = new long[batchSize];
+    private final long[] transactionIds = new long[batchSize];
+    private final long[] fileOffsets = new long[batchSize];
+    private final long[] primaryKeys = new long[batchSize];
+    private final Accessor<StructLike> positionAccessor;
+    private final Accessor<StructLike> transactionIdAccessor;
+    private final Accessor<StructLike> fileOffsetAccessor;
+    private final Accessor<StructLike> primaryKeyAccessor;
+    private int numRows;
+
+    RowBatch() {
+      Schema schema = deleteFilter.requiredSchema();
+      this.positionAccessor = schema.accessorForField(org.apache.iceberg.MetadataColumns.ROW_POSITION.fieldId());
+      this.transactionIdAccessor = schema.accessorForField(MetadataColumns.TRANSACTION_ID_FILED_ID);
+      this.fileOffsetAccessor = schema.accessorForField(MetadataColumns.FILE_OFFSET_FILED_ID);
+      this.primaryKeyAccessor = deleteFilter.longPrimaryKeyAccessor();
+    }
+
+    void fill(CloseableIterator<T> source) {
+      int count = 0;
+      while (count < batchSize && source.hasNext()) {
+        rows[count++] = source.next();
+      }
+      for (int i = count; i < numRows; i++) {
+        rows[i] = null;
+      }
+      this.numRows = count;
+    }
+
+    @Override
+    public int numRows() {
+      return numRows;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public StructLike row(int row) {
+      return deleteFilter.asStructLike((T) rows[row]);
+    }
+
+    @Override
+    public long[] rowPositions() {
+      requiredColumn(positionAccessor, positions, "row position");
+      return positions;
+    }
+
+    @Override
+    public long[] transactionIds() {
+      requiredColumn(transactionIdAccessor, transactionIds, "transaction id");
+      return transactionIds;
+    }
+
+    @Override
+    public long[] fileOffsets() {
+      requiredColumn(fileOffsetAccessor, fileOffsets, "file offset");
+      return fileOffsets;
+    }
+
+    @Override
+    public long[] longPrimaryKeys() {
+      if (primaryKeyAccessor == null) {
+        return null;
+      }
+      return column(primaryKeyAccessor, primaryKeys) ? primaryKeys : null;
+    }
+
+    private void requiredColumn(Accessor<StructLike> accessor, long[] values, String name) {
+      Preconditions.checkState(accessor != null, "Column of %s is not read", name);
+      Preconditions.checkState(column(accessor, values), "Column of %s should not have null values", name);
+    }
+
+    /**
+     * @return false if the column has null values
+     */
+    @SuppressWarnings("unchecked")
+    private boolean column(Accessor<StructLike> accessor, long[] values) {
+      for (int i = 0; i < numRows; i++) {
+        Object value = accessor.get(deleteFilter.asStructLike((T) rows[i]));
+        if (value == null) {
+          return false;
+        }
+        values[i] = ((Number) value).longValue();
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import org.apache.iceberg.StructLike;
+
+/**
+ * A batch of rows read from one data file, exposing the columns needed to apply deletes in
+ * {@link ArcticDeleteFilter#filterBatch}. Engines reading data files in column batches implement this as a view of
+ * their batches, so that deletes are applied column by column instead of row by row.
+ * <p>
+ * Every column method is called at most once for a batch and only if the column is needed by the deletes. The row
+ * position, transaction id and file offset columns are required to have no null values, implementations should throw
+ * instead of returning values of null rows.
+ */
+public interface DeleteBatch {
+
+  int numRows();
+
+  /**
+   * @return the row of the batch in layout of {@link ArcticDeleteFilter#requiredSchema()}
+   */
+  StructLike row(int row);
+
+  /**
+   * @return the column of positions of the rows in the data file
+   */
+  long[] rowPositions();
+
+  /**
+   * @return the column of transaction ids of the rows
+   */
+  long[] transactionIds();
+
+  /**
+   * @return the column of file offsets of the rows
+   */
+  long[] fileOffsets();
+
+  /**
+   * @return the column of primary keys if the primary key is a single int or long field without nulls in the batch,
+   * or null to look up equality deletes row by row with {@link #row}
+   */
+  default long[] longPrimaryKeys() {
+    return null;
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.data.ChangedLsn;
+import com.netease.arctic.iceberg.optimize.InternalRecordWrapper;
+import com.netease.arctic.iceberg.optimize.StructProjection;
+import com.netease.arctic.io.ArcticFileIO;
+import com.netease.arctic.io.index.EqDeleteIndex;
+import com.netease.arctic.io.index.EqDeleteIndexes;
+import com.netease.arctic.scan.ArcticFileScanTask;
+import com.netease.arctic.table.MetadataColumns;
+import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.avro.Avro;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.IdentityPartitionConverters;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.avro.DataReader;
+import org.apache.iceberg.data.parquet.GenericParquetReaders;
+import org.apache.iceberg.deletes.Deletes;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.StructLikeMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read files planned by {@link com.netease.arctic.scan.KeyedTableIncrementalScan} and merge rows of the same primary
+ * key by {@link ChangedLsn}, emitting only the latest change of every primary key. Rows of upserted keys are emitted
+ * with {@link ChangeAction#INSERT} and rows of deleted keys with {@link ChangeAction#DELETE} in the
+ * {@link MetadataColumns#CHANGE_ACTION_FIELD} column.
+ * <p>
+ * Rows of base files are treated as inserts with the transaction id of the base file, so a key rewritten into base
+ * store after its changes is emitted once, rows removed by the position deletes of base files are skipped. The latest
+ * rows of changed keys are held in memory, memory usage is proportional to the number of keys changed in the range.
+ * Base files may be as large as the table, they are read twice and streamed: the first read only indexes the latest
+ * {@link ChangedLsn} of their keys, in an index spilling to disk once it exceeds the memory budget.
+ */
+public class GenericChangeMergeReader {
+
+  private static final Schema POS_DELETE_SCHEMA = new Schema(
+      org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH,
+      org.apache.iceberg.MetadataColumns.DELETE_FILE_POS);
+
+  private final ArcticFileIO fileIO;
+  private final Schema readSchema;
+  private final Schema primaryKeySchema;
+  private final int transactionIdPos;
+  private final int fileOffsetPos;
+  private final int changeActionPos;
+  private final int rowPositionPos;
+  // schema read from base files to index their keys
+  private final Schema baseKeySchema;
+  private long indexMemoryBytes = TableProperties.READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT;
+
+  public GenericChangeMergeReader(
+      ArcticFileIO fileIO, Schema tableSchema, Schema projectedSchema, PrimaryKeySpec primaryKeySpec) {
+    this.fileIO = fileIO;
+    Set<Integer> primaryKeyIds = primaryKeySpec.primaryKeyStruct().fields().stream()
+        .map(Types.NestedField::fieldId).collect(Collectors.toSet());
+    Set<Integer> projectedIds = TypeUtil.getProjectedIds(projectedSchema);
+    List<Types.NestedField> columns = Lists.newArrayList(projectedSchema.columns());
+    for (int fieldId : Sets.difference(primaryKeyIds, projectedIds)) {
+      columns.add(tableSchema.findField(fieldId));
+    }
+    for (Types.NestedField metadataColumn : Lists.newArrayList(MetadataColumns.TRANSACTION_ID_FILED,
+        MetadataColumns.FILE_OFFSET_FILED, MetadataColumns.CHANGE_ACTION_FIELD,
+        org.apache.iceberg.MetadataColumns.ROW_POSITION)) {
+      if (!projectedIds.contains(metadataColumn.fieldId())) {
+        columns.add(metadataColumn);
+      }
+    }
+    this.readSchema = new Schema(columns);
+    this.primaryKeySchema = TypeUtil.select(readSchema, primaryKeyIds);
+    this.transactionIdPos = position(readSchema, MetadataColumns.TRANSACTION_ID_FILED_ID);
+    this.fileOffsetPos = position(readSchema, MetadataColumns.FILE_OFFSET_FILED_ID);
+    this.changeActionPos = position(readSchema, MetadataColumns.CHANGE_ACTION_ID);
+    this.rowPositionPos = position(readSchema, org.apache.iceberg.MetadataColumns.ROW_POSITION.fieldId());
+    List<Types.NestedField> baseKeyColumns = Lists.newArrayList(primaryKeySchema.columns());
+    baseKeyColumns.add(MetadataColumns.TRANSACTION_ID_FILED);
+    baseKeyColumns.add(MetadataColumns.FILE_OFFSET_FILED);
+    baseKeyColumns.add(org.apache.iceberg.MetadataColumns.ROW_POSITION);
+    this.baseKeySchema = new Schema(baseKeyColumns);
+  }
+
+  /**
+   * @return schema of the rows emitted, the projected schema with primary key and metadata columns appended
+   */
+  public Schema schema() {
+    return readSchema;
+  }
+
+  /**
+   * Set max bytes of JVM heap used by the index of base file keys, the index spills to disk after that.
+   */
+  public void setIndexMemoryBytes(long indexMemoryBytes) {
+    this.indexMemoryBytes = indexMemoryBytes;
+  }
+
+  /**
+   * Merge rows of the files into the latest change of every primary key. The returned iterable must be closed to
+   * release the index of base file keys.
+   *
+   * @param baseFiles   base files planned by {@link com.netease.arctic.scan.KeyedTableIncrementalScan#planBaseFiles()}
+   * @param changeFiles change files planned by
+   *                    {@link com.netease.arctic.scan.KeyedTableIncrementalScan#planChangeFiles()}
+   * @return the latest row of every changed primary key
+   */
+  public CloseableIterable<Record> read(
+      Iterable<ArcticFileScanTask> baseFiles, Iterable<ArcticFileScanTask> changeFiles) {
+    Map<StructLike, Record> latestChanges = readLatestChanges(changeFiles);
+    EqDeleteIndex baseIndex = indexBaseKeys(baseFiles);
+
+    InternalRecordWrapper wrapper = new InternalRecordWrapper(readSchema.asStruct());
+    StructProjection primaryKeyProjection = StructProjection.create(readSchema, primaryKeySchema);
+    // a base row is emitted if it is the latest row of its key in base files and no later change of the key exists
+    CloseableIterable<Record> baseRows = CloseableIterable.concat(Iterables.transform(baseFiles,
+        task -> CloseableIterable.filter(openFile(task, readSchema), row -> {
+          initChangeAction(row);
+          StructLike primaryKey = primaryKeyProjection.wrap(wrapper.wrap(row));
+          long transactionId = (Long) row.get(transactionIdPos);
+          long fileOffset = (Long) row.get(fileOffsetPos);
+          if (baseIndex.deletes(primaryKey, transactionId, fileOffset)) {
+            return false;
+          }
+          Record change = latestChanges.get(primaryKey);
+          return change == null || lsn(change).compareTo(ChangedLsn.of(transactionId, fileOffset)) < 0;
+        })));
+    // a change is emitted if no later row of the key exists in base files
+    CloseableIterable<Record> changeRows = CloseableIterable.filter(
+        CloseableIterable.withNoopClose(latestChanges.values()),
+        row -> !baseIndex.deletes(primaryKeyProjection.wrap(wrapper.wrap(row)),
+            (Long) row.get(transactionIdPos), (Long) row.get(fileOffsetPos)));
+
+    CloseableIterable<Record> rows = CloseableIterable.concat(Lists.newArrayList(baseRows, changeRows));
+    return CloseableIterable.combine(rows, () -> {
+      try {
+        rows.close();
+      } finally {
+        baseIndex.close();
+      }
+    });
+  }
+
+  private Map<StructLike, Record> readLatestChanges(Iterable<ArcticFileScanTask> changeFiles) {
+    Map<StructLike, Record> latestRows = StructLikeMap.create(primaryKeySchema.asStruct());
+    InternalRecordWrapper wrapper = new InternalRecordWrapper(readSchema.asStruct());
+    StructProjection primaryKeyProjection = StructProjection.create(readSchema, primaryKeySchema);
+
+    for (ArcticFileScanTask task : changeFiles) {
+      try (CloseableIterable<Record> rows = openFile(task, readSchema)) {
+        for (Record row : rows) {
+          initChangeAction(row);
+          StructLike primaryKey = primaryKeyProjection.wrap(wrapper.wrap(row));
+          Record latest = latestRows.get(primaryKey);
+          if (latest == null) {
+            latestRows.put(copyKey(primaryKey), row);
+          } else if (lsn(row).compareTo(lsn(latest)) >= 0) {
+            latestRows.put(primaryKey, row);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read file " + task.file().path(), e);
+      }
+    }
+    return latestRows;
+  }
+
+  private EqDeleteIndex indexBaseKeys(Iterable<ArcticFileScanTask> baseFiles) {
+    EqDeleteIndex index = EqDeleteIndexes.create(primaryKeySchema.asStruct(), indexMemoryBytes);
+    InternalRecordWrapper wrapper = new InternalRecordWrapper(baseKeySchema.asStruct());
+    StructProjection primaryKeyProjection = StructProjection.create(baseKeySchema, primaryKeySchema);
+    int keyTransactionIdPos = position(baseKeySchema, MetadataColumns.TRANSACTION_ID_FILED_ID);
+    int keyFileOffsetPos = position(baseKeySchema, MetadataColumns.FILE_OFFSET_FILED_ID);
+
+    try {
+      for (ArcticFileScanTask task : baseFiles) {
+        try (CloseableIterable<Record> rows = openFile(task, baseKeySchema)) {
+          for (Record row : rows) {
+            index.put(primaryKeyProjection.wrap(wrapper.wrap(row)),
+                (Long) row.get(keyTransactionIdPos), (Long) row.get(keyFileOffsetPos));
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to read file " + task.file().path(), e);
+        }
+      }
+    } catch (RuntimeException e) {
+      index.close();
+      throw e;
+    }
+    return index;
+  }
+
+  private CloseableIterable<Record> openFile(ArcticFileScanTask task, Schema schema) {
+    CloseableIterable<Record> rows = fileIO.doAs(() -> openDataFile(task, schema));
+    if (task.deletes().isEmpty()) {
+      return rows;
+    }
+    String path = task.file().path().toString();
+    int positionPos = position(schema, org.apache.iceberg.MetadataColumns.ROW_POSITION.fieldId());
+    List<CloseableIterable<Record>> deletes = Lists.transform(task.deletes(),
+        deleteFile -> fileIO.doAs(() -> openPositionDeletes(deleteFile, path)));
+    return Deletes.streamingFilter(rows, row -> (Long) row.get(positionPos), Deletes.deletePositions(path, deletes));
+  }
+
+  private CloseableIterable<Record> openDataFile(ArcticFileScanTask task, Schema schema) {
+    Map<Integer, ?> idToConstant = DataReaderCommon.getIdToConstant(task, schema,
+        IdentityPartitionConverters::convertConstant);
+    switch (task.file().format()) {
+      case PARQUET:
+        return Parquet.read(fileIO.newInputFile(task.file().path().toString()))
+            .project(schema)
+            .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(schema, fileSchema, idToConstant))
+            .filter(task.residual())
+            .build();
+      default:
+        throw new UnsupportedOperationException(String.format(
+            "Cannot read changes, %s is not a supported format: %s", task.file().format(), task.file().path()));
+    }
+  }
+
+  private CloseableIterable<Record> openPositionDeletes(DeleteFile deleteFile, String dataPath) {
+    InputFile input = fileIO.newInputFile(deleteFile.path().toString());
+    switch (deleteFile.format()) {
+      case AVRO:
+        return Avro.read(input)
+            .project(POS_DELETE_SCHEMA)
+            .reuseContainers()
+            .createReaderFunc(DataReader::create)
+            .build();
+      case PARQUET:
+        return Parquet.read(input)
+            .project(POS_DELETE_SCHEMA)
+            .reuseContainers()
+            .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(POS_DELETE_SCHEMA, fileSchema))
+            .filter(Expressions.equal(org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH.name(), dataPath))
+            .build();
+      default:
+        throw new UnsupportedOperationException(String.format(
+            "Cannot read deletes, %s is not a supported format: %s", deleteFile.format(), deleteFile.path()));
+    }
+  }
+
+  private void initChangeAction(Record row) {
+    if (row.get(changeActionPos) == null) {
+      row.set(changeActionPos, ChangeAction.INSERT.toString());
+    }
+  }
+
+  private ChangedLsn lsn(Record row) {
+    return ChangedLsn.of((Long) row.get(transactionIdPos), (Long) row.get(fileOffsetPos));
+  }
+
+  private StructLike copyKey(StructLike primaryKey) {
+    GenericRecord copy = GenericRecord.create(primaryKeySchema.asStruct());
+    for (int i = 0; i < primaryKey.size(); i++) {
+      copy.set(i, primaryKey.get(i, Object.class));
+    }
+    return copy;
+  }
+
+  private static int position(Schema schema, int fieldId) {
+    List<Types.NestedField> columns = schema.columns();
+    return columns.indexOf(schema.findField(fieldId));
+  }
+}
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import com.netease.arctic.io.ArcticFileIO;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Read rows of files on background threads, up to {@code prefetchFiles} files are read ahead of the consumer.
+ * Rows of every file are buffered in a bounded queue and returned file by file in the original order, so
+ * the opened files must not reuse row containers.
+ *
+ * @param <F> to indicate the file type
+ * @param <T> to indicate the record data type
+ */
+class PrefetchFileReader<F, T> implements CloseableIterable<CloseableIterable<T>> {
+
+  private static final int FILE_QUEUE_CAPACITY = 1024;
+  private static final long OFFER_TIMEOUT_MS = 100;
+  private static final Object END = new Object();
+
+  /**
+   * System property to cap the threads shared by all prefetching readers of the process, files and delete loads
+   * beyond the cap wait in the queue of the pool.
+   */
+  static final String PREFETCH_THREADS_PROPERTY = "arctic.reader.prefetch.threads";
+  private static final int PREFETCH_THREADS = Math.max(1, Integer.getInteger(PREFETCH_THREADS_PROPERTY,
+      Runtime.getRuntime().availableProcessors() * 2));
+
+  private static final ThreadPoolExecutor PREFETCH_POOL = newPrefetchPool();
+
+  private final Iterator<F> files;
+  private final Function<F, CloseableIterable<T>> openFile;
+  private final int prefetchFiles;
+  private final ArcticFileIO fileIO;
+  private final Deque<FileBuffer> buffers = new ArrayDeque<>();
+  private volatile boolean closed = false;
+
+  PrefetchFileReader(
+      Iterable<F> files, Function<F, CloseableIterable<T>> openFile,
+      int prefetchFiles, ArcticFileIO fileIO) {
+    this.files = files.iterator();
+    this.openFile = openFile;
+    this.prefetchFiles = prefetchFiles;
+    this.fileIO = fileIO;
+  }
+
+  private static ThreadPoolExecutor newPrefetchPool() {
+    // tasks are queued in submission order, so the file a consumer is waiting for never waits for a later one
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(PREFETCH_THREADS, PREFETCH_THREADS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("arctic-reader-prefetch-%d").build());
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Run the action on the prefetch thread pool.
+   */
+  static BackgroundTask submit(Callable<?> action) {
+    BackgroundTask task = new BackgroundTask(action);
+    PREFETCH_POOL.execute(task);
+    return task;
+  }
+
+  @Override
+  public CloseableIterator<CloseableIterable<T>> iterator() {
+    fillBuffers();
+    return new CloseableIterator<CloseableIterable<T>>() {
+      @Override
+      public boolean hasNext() {
+        return !buffers.isEmpty();
+      }
+
+      @Override
+      public CloseableIterable<T> next() {
+        if (buffers.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        FileBuffer buffer = buffers.poll();
+        fillBuffers();
+        return buffer;
+      }
+
+      @Override
+      public void close() {
+        PrefetchFileReader.this.close();
+      }
+    };
+  }
+
+  private void fillBuffers() {
+    while (!closed && buffers.size() < prefetchFiles && files.hasNext()) {
+      FileBuffer buffer = new FileBuffer(files.next());
+      buffer.future = PREFETCH_POOL.submit(buffer::produce);
+      buffers.add(buffer);
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    List<FileBuffer> pending = Lists.newArrayList(buffers);
+    buffers.clear();
+    pending.forEach(FileBuffer::close);
+  }
+
+  private class FileBuffer implements CloseableIterable<T> {
+    private final F file;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(FILE_QUEUE_CAPACITY);
+    private volatile boolean bufferClosed = false;
+    private volatile Throwable failure;
+    private Future<?> future;
+
+    FileBuffer(F file) {
+      this.file = file;
+    }
+
+    private void produce() {
+      try {
+        fileIO.doAs(() -> {
+          try (CloseableIterable<T> rows = openFile.apply(file)) {
+            for (T row : rows) {
+              if (!offer(row)) {
+                break;
+              }
+            }
+          }
+          return null;
+        });
+      } catch (Throwable t) {
+        failure = t;
+      } finally {
+        offer(END);
+      }
+    }
+
+    private boolean offer(Object item) {
+      try {
+        while (!bufferClosed && !closed) {
+          if (queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return false;
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+      return new CloseableIterator<T>() {
+        private Object next;
+
+        @Override
+        public boolean hasNext() {
+          if (next == null) {
+            try {
+              next = queue.take();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new RuntimeException("Interrupted while waiting for prefetched rows of " + file, e);
+            }
+          }
+          if (next == END) {
+            if (failure != null) {
+              throw new RuntimeException("Failed to prefetch rows of " + file, failure);
+            }
+            return false;
+          }
+          return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          T row = (T) next;
+          next = null;
+          return row;
+        }
+
+        @Override
+        public void close() {
+          FileBuffer.this.close();
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      bufferClosed = true;
+      queue.clear();
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * An action running on the prefetch thread pool, {@link #close()} returns only after the action is stopped so
+   * resources used by the action can be released safely then.
+   */
+  static class BackgroundTask implements Runnable, Closeable {
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+
+    private final Callable<?> action;
+    private final CountDownLatch done = new CountDownLatch(1);
+    // guarded by this
+    private int state = NEW;
+    private Thread runner;
+    private volatile Throwable failure;
+
+    private BackgroundTask(Callable<?> action) {
+      this.action = action;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (state != NEW) {
+          return;
+        }
+        state = RUNNING;
+        runner = Thread.currentThread();
+      }
+      try {
+        action.call();
+      } catch (Throwable t) {
+        failure = t;
+      } finally {
+        synchronized (this) {
+          state = DONE;
+          runner = null;
+          // do not leak the interrupt of close() to the next task of the pool thread
+          Thread.interrupted();
+        }
+        done.countDown();
+      }
+    }
+
+    /**
+     * Wait for the action to finish.
+     *
+     * @throws RuntimeException if the action failed or the task is closed
+     */
+    void get() {
+      try {
+        done.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for the background task", e);
+      }
+      if (failure != null) {
+        throw new RuntimeException("Background task failed", failure);
+      }
+    }
+
+    /**
+     * Interrupt the running action and wait for it to stop, the action is not run if not started yet.
+     */
+    @Override
+    public void close() {
+      synchronized (this) {
+        if (state == NEW) {
+          state = CANCELLED;
+          failure = new CancellationException("Background task is cancelled");
+          done.countDown();
+          return;
+        }
+        if (state == RUNNING) {
+          runner.interrupt();
+        }
+      }
+      boolean interrupted = false;
+      while (true) {
+        try {
+          done.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -38,14 +38,21 @@ import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.util.Tasks;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Abstract implementation of writer for {@link com.netease.arctic.table.BaseTable}.
+ * <p>
+ * Open writers are bounded by {@link #setMaxOpenWriters(int)}, the least recently written one is closed and rolled
+ * to a new file when the bound is reached. With {@link #setClusterBufferRows(int)} rows are buffered and written
+ * grouped by writer key, which keeps unsorted input from cycling through the open writers.
  * @param <T> to indicate the record data type.
  */
 public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
+  private static final int FILE_TYPES = DataFileType.values().length;
+
   private final FileFormat format;
   private final FileAppenderFactory<T> appenderFactory;
   private final OutputFileFactory outputFileFactory;
@@ -56,9 +63,20 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
   private final PartitionKey partitionKey;
   private final PrimaryKeyData primaryKey;
 
-  private final Map<TaskWriterKey, DataWriter<T>> dataWriterMap = Maps.newHashMap();
+  private final Map<StructLike, PartitionWriters<T>> partitionWriters = Maps.newHashMap();
+  private final List<WriterSlot<T>> openWriters = Lists.newArrayList();
   private final List<DataFile> completedFiles = Lists.newArrayList();
 
+  private int maxOpenWriters = 0;
+  private int clusterBufferRows = 0;
+  private int nextSlotId = 0;
+  private long writeSequence = 0;
+
+  private long[] bufferedOrder;
+  private Object[] bufferedSlots;
+  private Object[] bufferedRows;
+  private int bufferedCount = 0;
+
   protected BaseTaskWriter(FileFormat format, FileAppenderFactory<T> appenderFactory,
                            OutputFileFactory outputFileFactory, ArcticFileIO io, long targetFileSize, long mask,
                            Schema schema, PartitionSpec spec, PrimaryKeySpec primaryKeySpec) {
@@ -72,24 +90,39 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     this.primaryKey = new PrimaryKeyData(primaryKeySpec, schema);
   }
 
+  /**
+   * Set the max number of data writers kept open at the same time, 0 means no limit.
+   */
+  public void setMaxOpenWriters(int maxOpenWriters) {
+    this.maxOpenWriters = maxOpenWriters;
+  }
+
+  /**
+   * Set the number of rows buffered and grouped by writer key before they are written, 0 means rows are written
+   * as they come. Subclasses receiving reused row objects should override {@link #copy(Object)}.
+   */
+  public void setClusterBufferRows(int clusterBufferRows) {
+    this.clusterBufferRows = clusterBufferRows;
+  }
+
   @Override
   public void write(T row) throws IOException {
-    TaskWriterKey writerKey = buildWriterKey(row);
-    DataWriter<T> writer;
-    if (!dataWriterMap.containsKey(writerKey)) {
-      TaskWriterKey key = new TaskWriterKey(partitionKey.copy(), writerKey.getTreeNode(), writerKey.getFileType());
-      writer = io.doAs(() -> appenderFactory.newDataWriter(
-          outputFileFactory.newOutputFile(writerKey), format, key.getPartitionKey()));
-      dataWriterMap.put(key, writer);
-    } else {
-      writer = dataWriterMap.get(writerKey);
+    WriterSlot<T> slot = writerSlot(row);
+    if (clusterBufferRows <= 0) {
+      writeToSlot(slot, prepare(row));
+      return;
     }
-    write(writer, row);
 
-    if (shouldRollToNewFile(writer)) {
-      writer.close();
-      completedFiles.add(writer.toDataFile());
-      dataWriterMap.remove(writerKey);
+    if (bufferedRows == null) {
+      bufferedOrder = new long[clusterBufferRows];
+      bufferedSlots = new Object[clusterBufferRows];
+      bufferedRows = new Object[clusterBufferRows];
+    }
+    bufferedSlots[bufferedCount] = slot;
+    bufferedRows[bufferedCount] = prepare(copy(row));
+    bufferedCount++;
+    if (bufferedCount >= clusterBufferRows) {
+      flushBuffer();
     }
   }
 
@@ -97,12 +130,107 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     writer.add(row);
   }
 
-  protected TaskWriterKey buildWriterKey(T row) {
+  /**
+   * Prepare the row to be written, called in the order rows are received even if they are buffered.
+   */
+  protected T prepare(T row) {
+    return row;
+  }
+
+  /**
+   * Copy the row before it is buffered.
+   */
+  protected T copy(T row) {
+    return row;
+  }
+
+  /**
+   * Get the file type the row should be written to.
+   */
+  protected DataFileType fileType(T row) {
+    return DataFileType.BASE_FILE;
+  }
+
+  private WriterSlot<T> writerSlot(T row) {
     StructLike structLike = asStructLike(row);
     partitionKey.partition(structLike);
     primaryKey.primaryKey(structLike);
-    DataTreeNode node = primaryKey.treeNode(mask);
-    return new TaskWriterKey(partitionKey, node, DataFileType.BASE_FILE);
+    long nodeIndex = Math.abs(primaryKey.hashCode()) & mask;
+    DataFileType fileType = fileType(row);
+
+    PartitionWriters<T> writers = partitionWriters.get(partitionKey);
+    if (writers == null) {
+      writers = new PartitionWriters<>(partitionKey.copy(), (int) (mask + 1) * FILE_TYPES);
+      partitionWriters.put(writers.partition, writers);
+    }
+    int slotIndex = (int) nodeIndex * FILE_TYPES + fileType.ordinal();
+    WriterSlot<T> slot = writers.slots[slotIndex];
+    if (slot == null) {
+      TaskWriterKey key = new TaskWriterKey(writers.partition, DataTreeNode.of(mask, nodeIndex), fileType);
+      slot = new WriterSlot<>(nextSlotId++, key);
+      writers.slots[slotIndex] = slot;
+    }
+    return slot;
+  }
+
+  private void writeToSlot(WriterSlot<T> slot, T row) throws IOException {
+    if (slot.writer == null) {
+      open(slot);
+    }
+    slot.lastWrite = ++writeSequence;
+    write(slot.writer, row);
+
+    if (shouldRollToNewFile(slot.writer)) {
+      closeWriter(slot);
+    }
+  }
+
+  private void open(WriterSlot<T> slot) throws IOException {
+    if (maxOpenWriters > 0 && openWriters.size() >= maxOpenWriters) {
+      WriterSlot<T> leastRecentlyWritten = openWriters.get(0);
+      for (WriterSlot<T> openWriter : openWriters) {
+        if (openWriter.lastWrite < leastRecentlyWritten.lastWrite) {
+          leastRecentlyWritten = openWriter;
+        }
+      }
+      closeWriter(leastRecentlyWritten);
+    }
+    TaskWriterKey key = slot.key;
+    slot.writer = io.doAs(() -> appenderFactory.newDataWriter(
+        outputFileFactory.newOutputFile(key), format, key.getPartitionKey()));
+    openWriters.add(slot);
+  }
+
+  private void closeWriter(WriterSlot<T> slot) throws IOException {
+    slot.writer.close();
+    completedFiles.add(slot.writer.toDataFile());
+    slot.writer = null;
+    openWriters.remove(slot);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void flushBuffer() throws IOException {
+    if (bufferedCount == 0) {
+      return;
+    }
+    // slot id in the high bits keeps rows of a slot together, row index in the low bits keeps them in order
+    for (int i = 0; i < bufferedCount; i++) {
+      bufferedOrder[i] = ((long) ((WriterSlot<T>) bufferedSlots[i]).id << 32) | i;
+    }
+    Arrays.sort(bufferedOrder, 0, bufferedCount);
+    for (int i = 0; i < bufferedCount; i++) {
+      int index = (int) bufferedOrder[i];
+      writeToSlot((WriterSlot<T>) bufferedSlots[index], (T) bufferedRows[index]);
+    }
+    clearBuffer();
+  }
+
+  private void clearBuffer() {
+    if (bufferedRows != null) {
+      Arrays.fill(bufferedSlots, 0, bufferedCount, null);
+      Arrays.fill(bufferedRows, 0, bufferedCount, null);
+    }
+    bufferedCount = 0;
   }
 
   private boolean shouldRollToNewFile(DataWriter<T> dataWriter) {
@@ -112,6 +240,7 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
   @Override
   public void abort() throws IOException {
+    clearBuffer();
     close();
 
     // clean up files created by this writer
@@ -131,15 +260,41 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
   @Override
   public void close() throws IOException {
-    for (DataWriter<T> dataWriter : dataWriterMap.values()) {
-      dataWriter.close();
-      completedFiles.add(dataWriter.toDataFile());
+    flushBuffer();
+    for (WriterSlot<T> slot : openWriters) {
+      slot.writer.close();
+      completedFiles.add(slot.writer.toDataFile());
+      slot.writer = null;
     }
-    dataWriterMap.clear();
+    openWriters.clear();
+    partitionWriters.clear();
   }
 
   /**
    * Wrap the data as a {@link StructLike}.
    */
   protected abstract StructLike asStructLike(T data);
+
+  private static class PartitionWriters<T> {
+    private final StructLike partition;
+    private final WriterSlot<T>[] slots;
+
+    @SuppressWarnings("unchecked")
+    PartitionWriters(StructLike partition, int size) {
+      this.partition = partition;
+      this.slots = (WriterSlot<T>[]) new WriterSlot<?>[size];
+    }
+  }
+
+  private static class WriterSlot<T> {
+    private final int id;
+    private final TaskWriterKey key;
+    private DataWriter<T> writer;
+    private long lastWrite;
+
+    WriterSlot(int id, TaskWriterKey key) {
+      this.id = id;
+      this.key = key;
+    }
+  }
 }
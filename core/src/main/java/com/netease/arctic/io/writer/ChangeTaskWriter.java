@@ -25,11 +25,8 @@ import com.netease.arctic.table.PrimaryKeySpec;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
-import org.apache.iceberg.io.DataWriter;
 import org.apache.iceberg.io.FileAppenderFactory;
 
-import java.io.IOException;
-
 /**
  * Abstract implementation of writer for {@link com.netease.arctic.table.ChangeTable}.
  * @param <T> to indicate the record data type
@@ -45,24 +42,23 @@ public abstract class ChangeTaskWriter<T> extends BaseTaskWriter<T> {
   }
 
   @Override
-  protected TaskWriterKey buildWriterKey(T row) {
-    TaskWriterKey key = super.buildWriterKey(row);
+  protected DataFileType fileType(T row) {
     ChangeAction action = action(row);
     switch (action) {
       case INSERT:
       case UPDATE_AFTER:
-        return new TaskWriterKey(key.getPartitionKey(), key.getTreeNode(), DataFileType.INSERT_FILE);
+        return DataFileType.INSERT_FILE;
       case DELETE:
       case UPDATE_BEFORE:
-        return new TaskWriterKey(key.getPartitionKey(), key.getTreeNode(), DataFileType.EQ_DELETE_FILE);
+        return DataFileType.EQ_DELETE_FILE;
       default:
         throw new IllegalArgumentException("Unknown action:" + action.name());
     }
   }
 
   @Override
-  protected void write(DataWriter<T> writer, T row) throws IOException {
-    super.write(writer, appendFileOffset(row));
+  protected T prepare(T row) {
+    return appendFileOffset(row);
   }
 
   private T appendFileOffset(T row) {
@@ -46,4 +46,9 @@ public class GenericBaseTaskWriter extends BaseTaskWriter<Record> {
   protected StructLike asStructLike(Record data) {
     return wrapper.wrap(data);
   }
+
+  @Override
+  protected Record copy(Record row) {
+    return row.copy();
+  }
 }
@@ -84,10 +84,16 @@ public class GenericTaskWriters {
           TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
       long mask = PropertyUtil.propertyAsLong(table.properties(), TableProperties.BASE_FILE_INDEX_HASH_BUCKET,
           TableProperties.BASE_FILE_INDEX_HASH_BUCKET_DEFAULT) - 1;
-      return new GenericBaseTaskWriter(fileFormat, new GenericAppenderFactory(table.baseTable().schema(), table.spec()),
+      GenericBaseTaskWriter writer = new GenericBaseTaskWriter(fileFormat,
+          new GenericAppenderFactory(table.baseTable().schema(), table.spec()),
           new OutputFileFactory(table.baseLocation(), table.spec(), fileFormat, table.io(),
               table.baseTable().encryption(), partitionId, taskId, transactionId),
           table.io(), fileSizeBytes, mask, table.baseTable().schema(), table.spec(), table.primaryKeySpec());
+      writer.setMaxOpenWriters(PropertyUtil.propertyAsInt(table.properties(),
+          TableProperties.WRITE_MAX_OPEN_WRITERS, TableProperties.WRITE_MAX_OPEN_WRITERS_DEFAULT));
+      writer.setClusterBufferRows(PropertyUtil.propertyAsInt(table.properties(),
+          TableProperties.WRITE_CLUSTER_BUFFER_ROWS, TableProperties.WRITE_CLUSTER_BUFFER_ROWS_DEFAULT));
+      return writer;
     }
 
     public SortedPosDeleteWriter<Record> buildBasePosDeleteWriter(long mask, long index, StructLike partitionKey) {
@@ -102,10 +108,16 @@ public class GenericTaskWriters {
       appenderFactory.set(
           org.apache.iceberg.TableProperties.METRICS_MODE_COLUMN_CONF_PREFIX + MetadataColumns.DELETE_FILE_POS.name(),
           MetricsModes.Full.get().toString());
+      long memoryBytes = PropertyUtil.propertyAsLong(table.properties(),
+          TableProperties.WRITE_POS_DELETE_BUFFER_MEMORY_BYTES,
+          TableProperties.WRITE_POS_DELETE_BUFFER_MEMORY_BYTES_DEFAULT);
+      boolean externalMerge = PropertyUtil.propertyAsBoolean(table.properties(),
+          TableProperties.WRITE_POS_DELETE_EXTERNAL_MERGE_ENABLED,
+          TableProperties.WRITE_POS_DELETE_EXTERNAL_MERGE_ENABLED_DEFAULT);
       return new SortedPosDeleteWriter<>(appenderFactory,
           new OutputFileFactory(table.baseLocation(), table.spec(), fileFormat, table.io(),
               table.baseTable().encryption(), partitionId, taskId, transactionId),
-          fileFormat, mask, index, partitionKey);
+          fileFormat, mask, index, partitionKey, Long.MAX_VALUE, memoryBytes, externalMerge);
     }
 
     public GenericChangeTaskWriter buildChangeWriter() {
@@ -117,12 +129,17 @@ public class GenericTaskWriters {
       long mask = PropertyUtil.propertyAsLong(table.properties(), TableProperties.CHANGE_FILE_INDEX_HASH_BUCKET,
           TableProperties.CHANGE_FILE_INDEX_HASH_MOD_BUCKET) - 1;
       Schema changeWriteSchema = SchemaUtil.changeWriteSchema(table.changeTable().schema());
-      return new GenericChangeTaskWriter(fileFormat,
+      GenericChangeTaskWriter writer = new GenericChangeTaskWriter(fileFormat,
           new GenericAppenderFactory(changeWriteSchema, table.spec()),
           new OutputFileFactory(table.changeLocation(), table.spec(), fileFormat, table.io(),
               table.changeTable().encryption(), partitionId, taskId, transactionId),
           table.io(), fileSizeBytes, mask, table.changeTable().schema(), table.spec(), table.primaryKeySpec(),
           changeAction);
+      writer.setMaxOpenWriters(PropertyUtil.propertyAsInt(table.properties(),
+          TableProperties.WRITE_MAX_OPEN_WRITERS, TableProperties.WRITE_MAX_OPEN_WRITERS_DEFAULT));
+      writer.setClusterBufferRows(PropertyUtil.propertyAsInt(table.properties(),
+          TableProperties.WRITE_CLUSTER_BUFFER_ROWS, TableProperties.WRITE_CLUSTER_BUFFER_ROWS_DEFAULT));
+      return writer;
     }
 
   }
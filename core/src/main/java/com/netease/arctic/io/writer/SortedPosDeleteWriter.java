@@ -31,22 +31,48 @@ import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.types.Comparators;
 import org.apache.iceberg.util.CharSequenceSet;
 import org.apache.iceberg.util.CharSequenceWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 /**
  * Abstract implementation of positional delete writer for {@link com.netease.arctic.table.BaseTable}.
+ * <p>
+ * Deletes are buffered as a path id and a position in primitive arrays. When the buffer exceeds the record or memory
+ * threshold it is sorted and spilled to a local run file, and all runs are merged into a single sorted pos-delete
+ * file on close. Buffers holding deleted rows cannot be spilled and are written out as separate files instead.
  * @param <T> to indicate the record data type.
  */
 public class SortedPosDeleteWriter<T> implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SortedPosDeleteWriter.class);
+
   private static final long DEFAULT_RECORDS_NUM_THRESHOLD = Long.MAX_VALUE;
+  private static final long DEFAULT_MEMORY_BYTES_THRESHOLD = Long.MAX_VALUE;
+  private static final int INITIAL_CAPACITY = 1024;
+  // path id and position of a buffered delete, plus the row reference when rows are kept
+  private static final int ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+  private static final int ROW_REFERENCE_BYTES = 8;
+  private static final int PATH_OVERHEAD_BYTES = 64;
 
-  private final Map<CharSequenceWrapper, List<PosRow<T>>> posDeletes = Maps.newHashMap();
+  private final Map<CharSequenceWrapper, Integer> pathIds = Maps.newHashMap();
+  private final List<CharSequence> paths = Lists.newArrayList();
+  private final List<File> spilledRuns = Lists.newArrayList();
   private final List<DeleteFile> completedFiles = Lists.newArrayList();
   private final CharSequenceSet referencedDataFiles = CharSequenceSet.empty();
   private final CharSequenceWrapper wrapper = CharSequenceWrapper.wrap(null);
@@ -56,20 +82,40 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   private final FileFormat format;
   private final TaskWriterKey writerKey;
   private final long recordsNumThreshold;
+  private final long memoryBytesThreshold;
+  private final boolean externalMerge;
 
+  private int[] bufferPathIds = new int[INITIAL_CAPACITY];
+  private long[] bufferPositions = new long[INITIAL_CAPACITY];
+  private Object[] bufferRows;
   private int records = 0;
+  private long pathBytes = 0;
 
   public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
                                OutputFileFactory fileFactory,
                                FileFormat format,
                                long mask, long index,
                                StructLike partitionKey,
-                               long recordsNumThreshold) {
+                               long recordsNumThreshold,
+                               long memoryBytesThreshold,
+                               boolean externalMerge) {
     this.appenderFactory = appenderFactory;
     this.fileFactory = fileFactory;
     this.format = format;
     this.writerKey = new TaskWriterKey(partitionKey, DataTreeNode.of(mask, index), DataFileType.POS_DELETE_FILE);
     this.recordsNumThreshold = recordsNumThreshold;
+    this.memoryBytesThreshold = memoryBytesThreshold;
+    this.externalMerge = externalMerge;
+  }
+
+  public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
+                               OutputFileFactory fileFactory,
+                               FileFormat format,
+                               long mask, long index,
+                               StructLike partitionKey,
+                               long recordsNumThreshold) {
+    this(appenderFactory, fileFactory, format, mask, index, partitionKey, recordsNumThreshold,
+        DEFAULT_MEMORY_BYTES_THRESHOLD, false);
   }
 
   public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
@@ -85,18 +131,20 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   }
 
   public void delete(CharSequence path, long pos, T row) {
-    List<PosRow<T>> posRows = posDeletes.get(wrapper.set(path));
-    if (posRows != null) {
-      posRows.add(PosRow.of(pos, row));
-    } else {
-      posDeletes.put(CharSequenceWrapper.wrap(path), Lists.newArrayList(PosRow.of(pos, row)));
+    ensureCapacity(records + 1);
+    if (row != null && bufferRows == null) {
+      bufferRows = new Object[bufferPositions.length];
+    }
+    bufferPathIds[records] = pathId(path);
+    bufferPositions[records] = pos;
+    if (bufferRows != null) {
+      bufferRows[records] = row;
     }
 
     records += 1;
 
-    // TODO Flush buffer based on the policy that checking whether whole heap memory size exceed the threshold.
-    if (records >= recordsNumThreshold) {
-      flushDeletes();
+    if (records >= recordsNumThreshold || bufferedBytes() >= memoryBytesThreshold) {
+      flushBuffer();
     }
   }
 
@@ -111,19 +159,71 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   }
 
   public boolean isEmpty() {
-    return posDeletes.isEmpty();
+    return records == 0 && spilledRuns.isEmpty();
   }
 
   @Override
   public void close() throws IOException {
-    flushDeletes();
+    try {
+      if (spilledRuns.isEmpty()) {
+        flushDeletes();
+      } else {
+        flushBuffer();
+        mergeRuns();
+      }
+    } finally {
+      spilledRuns.forEach(File::delete);
+      spilledRuns.clear();
+    }
+  }
+
+  private int pathId(CharSequence path) {
+    Integer id = pathIds.get(wrapper.set(path));
+    if (id == null) {
+      id = paths.size();
+      paths.add(path);
+      pathIds.put(CharSequenceWrapper.wrap(path), id);
+      pathBytes += 2L * path.length() + PATH_OVERHEAD_BYTES;
+    }
+    return id;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= bufferPositions.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, bufferPositions.length + (bufferPositions.length >> 1));
+    bufferPathIds = Arrays.copyOf(bufferPathIds, newCapacity);
+    bufferPositions = Arrays.copyOf(bufferPositions, newCapacity);
+    if (bufferRows != null) {
+      bufferRows = Arrays.copyOf(bufferRows, newCapacity);
+    }
   }
 
+  private long bufferedBytes() {
+    int entryBytes = bufferRows == null ? ENTRY_BYTES : ENTRY_BYTES + ROW_REFERENCE_BYTES;
+    return (long) records * entryBytes + pathBytes;
+  }
+
+  private void flushBuffer() {
+    if (records == 0) {
+      return;
+    }
+    if (externalMerge && bufferRows == null) {
+      spillDeletes();
+    } else {
+      flushDeletes();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
   private void flushDeletes() {
-    if (posDeletes.isEmpty()) {
+    if (records == 0) {
       return;
     }
 
+    List<CharSequence> sortedPaths = sortBuffer();
+
     // Create a new output file.
     EncryptedOutputFile outputFile;
     outputFile = fileFactory.newOutputFile(writerKey);
@@ -131,19 +231,10 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     PositionDeleteWriter<T> writer = appenderFactory
         .newPosDeleteWriter(outputFile, format, writerKey.getPartitionKey());
     try (PositionDeleteWriter<T> closeableWriter = writer) {
-      // Sort all the paths.
-      List<CharSequence> paths = Lists.newArrayListWithCapacity(posDeletes.keySet().size());
-      for (CharSequenceWrapper charSequenceWrapper : posDeletes.keySet()) {
-        paths.add(charSequenceWrapper.get());
-      }
-      paths.sort(Comparators.charSequences());
-
       // Write all the sorted <path, pos, row> triples.
-      for (CharSequence path : paths) {
-        List<PosRow<T>> positions = posDeletes.get(wrapper.set(path));
-        positions.sort(Comparator.comparingLong(PosRow::pos));
-
-        positions.forEach(posRow -> closeableWriter.delete(path, posRow.pos(), posRow.row()));
+      for (int i = 0; i < records; i++) {
+        T row = bufferRows == null ? null : (T) bufferRows[i];
+        closeableWriter.delete(sortedPaths.get(bufferPathIds[i]), bufferPositions[i], row);
       }
     } catch (IOException e) {
       throw new UncheckedIOException("Failed to write the sorted path/pos pairs to pos-delete file: " +
@@ -151,8 +242,7 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     }
 
     // Clear the buffered pos-deletions.
-    posDeletes.clear();
-    records = 0;
+    resetBuffer();
 
     // Add the referenced data files.
     referencedDataFiles.addAll(writer.referencedDataFiles());
@@ -161,25 +251,225 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     completedFiles.add(writer.toDeleteFile());
   }
 
-  private static class PosRow<R> {
-    private final long pos;
-    private final R row;
+  /**
+   * Writes the sorted buffer to a local run file. A run is the number of paths followed by, for each path in order,
+   * its UTF-8 bytes, the number of positions and the sorted positions.
+   */
+  private void spillDeletes() {
+    List<CharSequence> sortedPaths = sortBuffer();
 
-    static <R> PosRow<R> of(long pos, R row) {
-      return new PosRow<>(pos, row);
+    File runFile;
+    try {
+      runFile = File.createTempFile("arctic-pos-delete-", ".run");
+      runFile.deleteOnExit();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create pos-delete spill file", e);
     }
+    spilledRuns.add(runFile);
 
-    private PosRow(long pos, R row) {
-      this.pos = pos;
-      this.row = row;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)))) {
+      out.writeInt(sortedPaths.size());
+      int start = 0;
+      while (start < records) {
+        int pathRank = bufferPathIds[start];
+        int end = start;
+        while (end < records && bufferPathIds[end] == pathRank) {
+          end++;
+        }
+        byte[] pathBytes = sortedPaths.get(pathRank).toString().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(pathBytes.length);
+        out.write(pathBytes);
+        out.writeInt(end - start);
+        for (int i = start; i < end; i++) {
+          out.writeLong(bufferPositions[i]);
+        }
+        start = end;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill sorted path/pos pairs to " + runFile, e);
+    }
+    LOG.info("spilled {} pos-deletes of {} data files to {}", records, sortedPaths.size(), runFile);
+
+    resetBuffer();
+  }
+
+  private void mergeRuns() {
+    EncryptedOutputFile outputFile = fileFactory.newOutputFile(writerKey);
+    PositionDeleteWriter<T> writer = appenderFactory
+        .newPosDeleteWriter(outputFile, format, writerKey.getPartitionKey());
+    List<RunReader> readers = Lists.newArrayListWithCapacity(spilledRuns.size());
+    try (PositionDeleteWriter<T> closeableWriter = writer) {
+      PriorityQueue<RunReader> queue = new PriorityQueue<>(spilledRuns.size(), RunReader.COMPARATOR);
+      Map<String, String> sharedPaths = Maps.newHashMap();
+      for (File runFile : spilledRuns) {
+        RunReader reader = new RunReader(runFile, sharedPaths);
+        readers.add(reader);
+        if (reader.advance()) {
+          queue.add(reader);
+        }
+      }
+
+      while (!queue.isEmpty()) {
+        RunReader reader = queue.poll();
+        closeableWriter.delete(reader.path(), reader.pos());
+        if (reader.advance()) {
+          queue.add(reader);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to merge the spilled path/pos pairs to pos-delete file: " +
+          outputFile.encryptingOutputFile().location(), e);
+    } finally {
+      readers.forEach(RunReader::close);
+    }
+    LOG.info("merged {} spilled runs to {}", spilledRuns.size(), outputFile.encryptingOutputFile().location());
+
+    referencedDataFiles.addAll(writer.referencedDataFiles());
+    completedFiles.add(writer.toDeleteFile());
+  }
+
+  /**
+   * Sorts the buffer by path and position, replacing the path ids in the buffer with the index of the path in the
+   * returned list.
+   */
+  private List<CharSequence> sortBuffer() {
+    Integer[] order = new Integer[paths.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparing(paths::get, Comparators.charSequences()));
+
+    int[] ranks = new int[order.length];
+    List<CharSequence> sortedPaths = Lists.newArrayListWithCapacity(order.length);
+    for (int rank = 0; rank < order.length; rank++) {
+      ranks[order[rank]] = rank;
+      sortedPaths.add(paths.get(order[rank]));
+    }
+    for (int i = 0; i < records; i++) {
+      bufferPathIds[i] = ranks[bufferPathIds[i]];
+    }
+
+    sort(0, records - 1);
+    return sortedPaths;
+  }
+
+  private void sort(int low, int high) {
+    while (high - low > 16) {
+      int middle = (low + high) >>> 1;
+      int pivotPath = bufferPathIds[middle];
+      long pivotPos = bufferPositions[middle];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (compare(i, pivotPath, pivotPos) < 0) {
+          i++;
+        }
+        while (compare(j, pivotPath, pivotPos) > 0) {
+          j--;
+        }
+        if (i <= j) {
+          swap(i++, j--);
+        }
+      }
+      // recurse into the smaller half to bound the stack depth
+      if (j - low < high - i) {
+        sort(low, j);
+        low = i;
+      } else {
+        sort(i, high);
+        high = j;
+      }
+    }
+    for (int i = low + 1; i <= high; i++) {
+      for (int j = i; j > low && compare(j - 1, bufferPathIds[j], bufferPositions[j]) > 0; j--) {
+        swap(j - 1, j);
+      }
+    }
+  }
+
+  private int compare(int index, int path, long pos) {
+    int cmp = Integer.compare(bufferPathIds[index], path);
+    return cmp != 0 ? cmp : Long.compare(bufferPositions[index], pos);
+  }
+
+  private void swap(int i, int j) {
+    int path = bufferPathIds[i];
+    bufferPathIds[i] = bufferPathIds[j];
+    bufferPathIds[j] = path;
+    long pos = bufferPositions[i];
+    bufferPositions[i] = bufferPositions[j];
+    bufferPositions[j] = pos;
+    if (bufferRows != null) {
+      Object row = bufferRows[i];
+      bufferRows[i] = bufferRows[j];
+      bufferRows[j] = row;
+    }
+  }
+
+  private void resetBuffer() {
+    pathIds.clear();
+    paths.clear();
+    pathBytes = 0;
+    records = 0;
+    if (bufferRows != null) {
+      Arrays.fill(bufferRows, null);
+      bufferRows = null;
+    }
+  }
+
+  private static class RunReader implements Closeable {
+    // paths are shared between readers, so equal paths usually compare by reference
+    static final Comparator<RunReader> COMPARATOR = (left, right) -> {
+      int cmp = left.path == right.path ? 0 : Comparators.charSequences().compare(left.path, right.path);
+      return cmp != 0 ? cmp : Long.compare(left.pos, right.pos);
+    };
+
+    private final File file;
+    private final DataInputStream in;
+    private final Map<String, String> sharedPaths;
+    private int remainingPaths;
+    private int remainingPositions;
+    private String path;
+    private long pos;
+
+    RunReader(File file, Map<String, String> sharedPaths) throws IOException {
+      this.file = file;
+      this.sharedPaths = sharedPaths;
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      this.remainingPaths = in.readInt();
+    }
+
+    boolean advance() throws IOException {
+      while (remainingPositions == 0) {
+        if (remainingPaths == 0) {
+          return false;
+        }
+        byte[] pathBytes = new byte[in.readInt()];
+        in.readFully(pathBytes);
+        path = sharedPaths.computeIfAbsent(new String(pathBytes, StandardCharsets.UTF_8), key -> key);
+        remainingPositions = in.readInt();
+        remainingPaths--;
+      }
+      pos = in.readLong();
+      remainingPositions--;
+      return true;
+    }
+
+    String path() {
+      return path;
     }
 
     long pos() {
       return pos;
     }
 
-    R row() {
-      return row;
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        LOG.warn("failed to close pos-delete spill file {}", file, e);
+      }
     }
   }
 }
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.scan;
+
+import com.netease.arctic.data.DefaultKeyedFile;
+import com.netease.arctic.data.PrimaryKeyedFile;
+import com.netease.arctic.table.KeyedTable;
+import com.netease.arctic.table.UnkeyedTable;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.expressions.Evaluator;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.InclusiveMetricsEvaluator;
+import org.apache.iceberg.expressions.Projections;
+import org.apache.iceberg.expressions.ResidualEvaluator;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.util.SnapshotUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base implementation of {@link KeyedTableIncrementalScan}, walking the snapshots of the range from the to snapshot
+ * back to the from snapshot and collecting files added and not deleted in the range.
+ */
+public class BaseKeyedTableIncrementalScan implements KeyedTableIncrementalScan {
+  private static final Logger LOG = LoggerFactory.getLogger(BaseKeyedTableIncrementalScan.class);
+
+  private final KeyedTable table;
+  private Expression expression = Expressions.alwaysTrue();
+  private Long fromChangeSnapshotId;
+  private Long toChangeSnapshotId;
+  private Long fromBaseSnapshotId;
+  private Long toBaseSnapshotId;
+
+  public BaseKeyedTableIncrementalScan(KeyedTable table) {
+    this.table = table;
+  }
+
+  @Override
+  public KeyedTableIncrementalScan filter(Expression expr) {
+    expression = Expressions.and(expression, expr);
+    return this;
+  }
+
+  @Override
+  public KeyedTableIncrementalScan changeSnapshotsBetween(Long fromSnapshotId, long toSnapshotId) {
+    this.fromChangeSnapshotId = fromSnapshotId;
+    this.toChangeSnapshotId = toSnapshotId;
+    return this;
+  }
+
+  @Override
+  public KeyedTableIncrementalScan baseSnapshotsBetween(Long fromSnapshotId, long toSnapshotId) {
+    this.fromBaseSnapshotId = fromSnapshotId;
+    this.toBaseSnapshotId = toSnapshotId;
+    return this;
+  }
+
+  @Override
+  public CloseableIterable<ArcticFileScanTask> planChangeFiles() {
+    if (toChangeSnapshotId == null) {
+      return CloseableIterable.empty();
+    }
+    List<ArcticFileScanTask> files = planFiles(table.changeTable(), fromChangeSnapshotId, toChangeSnapshotId,
+        false);
+    files.sort(Comparator.comparingLong(task -> task.file().transactionId()));
+    LOG.info("planning table {} incremental change files between snapshot {} and {}, file size {}", table.id(),
+        fromChangeSnapshotId, toChangeSnapshotId, files.size());
+    return CloseableIterable.withNoopClose(files);
+  }
+
+  @Override
+  public CloseableIterable<ArcticFileScanTask> planBaseFiles() {
+    if (toBaseSnapshotId == null) {
+      return CloseableIterable.empty();
+    }
+    List<ArcticFileScanTask> files = planFiles(table.baseTable(), fromBaseSnapshotId, toBaseSnapshotId, true);
+    LOG.info("planning table {} incremental base files between snapshot {} and {}, file size {}", table.id(),
+        fromBaseSnapshotId, toBaseSnapshotId, files.size());
+    return CloseableIterable.withNoopClose(files);
+  }
+
+  private List<ArcticFileScanTask> planFiles(
+      UnkeyedTable store, Long fromSnapshotId, long toSnapshotId, boolean withPosDeletes) {
+    Snapshot toSnapshot = store.snapshot(toSnapshotId);
+    Preconditions.checkArgument(toSnapshot != null, "Cannot find snapshot %s of table %s", toSnapshotId, store.id());
+    List<Long> snapshotIds;
+    if (fromSnapshotId == null) {
+      snapshotIds = SnapshotUtil.ancestorIds(toSnapshot, store::snapshot);
+    } else {
+      Preconditions.checkArgument(SnapshotUtil.ancestorOf(store, toSnapshotId, fromSnapshotId),
+          "Snapshot %s is not an ancestor of snapshot %s of table %s", fromSnapshotId, toSnapshotId, store.id());
+      snapshotIds = SnapshotUtil.snapshotIdsBetween(store, fromSnapshotId, toSnapshotId);
+    }
+
+    PartitionSpec spec = store.spec();
+    Evaluator partitionEvaluator = new Evaluator(spec.partitionType(),
+        Projections.inclusive(spec).project(expression));
+    InclusiveMetricsEvaluator metricsEvaluator = new InclusiveMetricsEvaluator(store.schema(), expression);
+    ResidualEvaluator residualEvaluator = ResidualEvaluator.of(spec, expression, true);
+
+    // snapshot ids are ordered from the newest, files deleted by a newer snapshot are skipped
+    Set<String> deletedPaths = new HashSet<>();
+    Map<String, DataFile> addedFiles = new LinkedHashMap<>();
+    table.io().doAs(() -> {
+      for (Long snapshotId : snapshotIds) {
+        Snapshot snapshot = store.snapshot(snapshotId);
+        for (DataFile file : snapshot.addedFiles()) {
+          String path = file.path().toString();
+          if (!deletedPaths.contains(path) && partitionEvaluator.eval(file.partition()) &&
+              metricsEvaluator.eval(file)) {
+            addedFiles.putIfAbsent(path, file.copy());
+          }
+        }
+        snapshot.deletedFiles().forEach(file -> deletedPaths.add(file.path().toString()));
+      }
+      return null;
+    });
+
+    Map<String, List<DeleteFile>> posDeletes = withPosDeletes && !addedFiles.isEmpty() ?
+        planPosDeletes(store, toSnapshotId, addedFiles.keySet()) : Collections.emptyMap();
+    List<ArcticFileScanTask> tasks = new ArrayList<>(addedFiles.size());
+    addedFiles.forEach((path, file) -> {
+      PrimaryKeyedFile keyedFile = new DefaultKeyedFile(file);
+      tasks.add(new BaseArcticFileScanTask(keyedFile, posDeletes.getOrDefault(path, Collections.emptyList()), spec,
+          residualEvaluator.residualFor(file.partition())));
+    });
+    return tasks;
+  }
+
+  /**
+   * Position deletes of a data file may be added by any snapshot after the file, they are planned by a scan of the
+   * to snapshot, where all files added and not deleted in the range are still alive.
+   */
+  private Map<String, List<DeleteFile>> planPosDeletes(UnkeyedTable store, long toSnapshotId, Set<String> paths) {
+    Map<String, List<DeleteFile>> posDeletes = new HashMap<>();
+    table.io().doAs(() -> {
+      try (CloseableIterable<FileScanTask> fileScanTasks = store.newScan().useSnapshot(toSnapshotId)
+          .filter(expression).planFiles()) {
+        for (FileScanTask fileScanTask : fileScanTasks) {
+          String path = fileScanTask.file().path().toString();
+          if (!fileScanTask.deletes().isEmpty() && paths.contains(path)) {
+            posDeletes.put(path, fileScanTask.deletes());
+          }
+        }
+      }
+      return null;
+    });
+    return posDeletes;
+  }
+}
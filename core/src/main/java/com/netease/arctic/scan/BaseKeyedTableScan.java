@@ -35,11 +35,14 @@ import org.apache.iceberg.relocated.com.google.common.collect.Multimaps;
 import org.apache.iceberg.util.BinPacking;
 import org.apache.iceberg.util.PropertyUtil;
 import org.apache.iceberg.util.StructLikeMap;
+import org.apache.iceberg.util.Tasks;
+import org.apache.iceberg.util.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -86,41 +89,56 @@ public class BaseKeyedTableScan implements KeyedTableScan {
 
   @Override
   public CloseableIterable<CombinedScanTask> planTasks() {
-    // base file
+    long startTime = System.currentTimeMillis();
+    // manifests of each store are read in parallel on the iceberg worker pool, so stores are planned one by one on
+    // this thread, a planning task waiting on the worker pool must not occupy a thread of the same pool
+    List<ArcticFileScanTask> baseFileList = planArcticFiles(table.baseTable());
+    long baseEndTime = System.currentTimeMillis();
     List<ArcticFileScanTask> changeFileList = new ArrayList<>();
-    List<ArcticFileScanTask> baseFileList = new ArrayList<>();
-    table.io().doAs(() -> {
-      planFiles(table.baseTable()).forEach(
-          fileScanTask -> baseFileList.add(new BaseArcticFileScanTask(fileScanTask))
-      );
-      return null;
-    });
-
     if (table.primaryKeySpec().primaryKeyExisted()) {
-      table.io().doAs(() -> {
-        planFiles(table.changeTable()).forEach(
-            fileScanTask -> changeFileList.add(new BaseArcticFileScanTask(fileScanTask))
-        );
-        return null;
-      });
+      changeFileList = planArcticFiles(table.changeTable());
     }
+    long planFilesEndTime = System.currentTimeMillis();
     LOG.info("mor statistics plan change file size {},base file size {}", changeFileList.size(), baseFileList.size());
 
     // 1. group files by partition
     Map<StructLike, Collection<ArcticFileScanTask>> partitionedFiles =
         groupFilesByPartition(changeFileList, baseFileList);
     LOG.info("planning table {} need plan partition size {}", table.id(), partitionedFiles.size());
-    partitionedFiles.forEach(this::partitionPlan);
+    // partitions are planned independently on the shared worker pool
+    Map<StructLike, List<NodeFileScanTask>> partitionTasks = Collections.synchronizedMap(new HashMap<>());
+    Tasks.foreach(partitionedFiles.entrySet())
+        .executeWith(ThreadPools.getWorkerPool())
+        .stopOnFailure()
+        .throwFailureWhenFinished()
+        .run(entry -> partitionTasks.put(entry.getKey(), partitionPlan(entry.getValue())));
+    fileScanTasks.putAll(partitionTasks);
+    long partitionPlanEndTime = System.currentTimeMillis();
     LOG.info("planning table {} partitionPlan end", table.id());
     // 2.split node task (FileScanTask -> FileScanTask List)
     split();
+    long splitEndTime = System.currentTimeMillis();
     LOG.info("planning table {} split end", table.id());
+    LOG.info("planning table {} cost {} ms, plan base files {} ms, plan change files {} ms, partition plan {} ms, " +
+            "split {} ms", table.id(), splitEndTime - startTime, baseEndTime - startTime,
+        planFilesEndTime - startTime, partitionPlanEndTime - planFilesEndTime, splitEndTime - partitionPlanEndTime);
     // 3.combine node task (FileScanTask List -> CombinedScanTask)
     CloseableIterable<CombinedScanTask> tasksIterable = combineNode(CloseableIterable.withNoopClose(splitTasks),
         splitSize, lookBack, openFileCost);
     return tasksIterable;
   }
 
+  private List<ArcticFileScanTask> planArcticFiles(UnkeyedTable internalTable) {
+    List<ArcticFileScanTask> files = new ArrayList<>();
+    table.io().doAs(() -> {
+      try (CloseableIterable<FileScanTask> fileScanTasks = planFiles(internalTable)) {
+        fileScanTasks.forEach(fileScanTask -> files.add(new BaseArcticFileScanTask(fileScanTask)));
+      }
+      return null;
+    });
+    return files;
+  }
+
   private CloseableIterable<FileScanTask> planFiles(UnkeyedTable internalTable) {
     TableScan scan = internalTable.newScan();
     if (this.expression != null) {
@@ -182,9 +200,10 @@ public class BaseKeyedTableScan implements KeyedTableScan {
   /**
    * Construct tree node task according to partition
    * 1. Put all files into the node they originally belonged to
-   * 2. Find all data nodes, traverse, and find the delete that intersects them
+   * 2. Find all data nodes, traverse, and find the delete that intersects them, which are deletes of the ancestor
+   * and descendant nodes
    */
-  private void partitionPlan(StructLike partition, Collection<ArcticFileScanTask> keyedTableTasks) {
+  private List<NodeFileScanTask> partitionPlan(Collection<ArcticFileScanTask> keyedTableTasks) {
     Map<DataTreeNode, NodeFileScanTask> nodeFileScanTaskMap = new HashMap<>();
     // planfiles() cannot guarantee the uniqueness of the file,
     // so Set<path> here is used to remove duplicate files
@@ -199,20 +218,20 @@ public class BaseKeyedTableScan implements KeyedTableScan {
       }
     });
 
+    // index nodes with deletes by their ancestors, so that the descendants of a node are found without a full scan
+    Map<DataTreeNode, List<DataTreeNode>> descendantDeleteNodes = new HashMap<>();
     nodeFileScanTaskMap.forEach((treeNode, nodeFileScanTask) -> {
-      if (!nodeFileScanTask.isDataNode()) {
+      if (nodeFileScanTask.arcticEquityDeletes().isEmpty()) {
         return;
       }
-
-      nodeFileScanTaskMap.forEach((treeNode1, nodeFileScanTask1) -> {
-        if (!treeNode1.equals(treeNode) && (treeNode1.isSonOf(treeNode) || treeNode.isSonOf(treeNode1))) {
-          List<ArcticFileScanTask> deletes = nodeFileScanTask1.arcticEquityDeletes().stream()
-              .filter(file -> file.file().node().equals(treeNode1))
-              .collect(Collectors.toList());
-
-          nodeFileScanTask.addTasks(deletes);
+      DataTreeNode ancestor = treeNode;
+      while (ancestor.mask() > 0) {
+        ancestor = ancestor.parent();
+        NodeFileScanTask ancestorTask = nodeFileScanTaskMap.get(ancestor);
+        if (ancestorTask != null && ancestorTask.isDataNode()) {
+          descendantDeleteNodes.computeIfAbsent(ancestor, node -> new ArrayList<>()).add(treeNode);
         }
-      });
+      }
     });
 
     List<NodeFileScanTask> fileScanTaskList = new ArrayList<>();
@@ -220,10 +239,29 @@ public class BaseKeyedTableScan implements KeyedTableScan {
       if (!nodeFileScanTask.isDataNode()) {
         return;
       }
+
+      DataTreeNode ancestor = treeNode;
+      while (ancestor.mask() > 0) {
+        ancestor = ancestor.parent();
+        addDeletes(nodeFileScanTask, nodeFileScanTaskMap.get(ancestor));
+      }
+      descendantDeleteNodes.getOrDefault(treeNode, Collections.emptyList())
+          .forEach(descendant -> addDeletes(nodeFileScanTask, nodeFileScanTaskMap.get(descendant)));
       fileScanTaskList.add(nodeFileScanTask);
     });
 
-    fileScanTasks.put(partition, fileScanTaskList);
+    return fileScanTaskList;
+  }
+
+  private void addDeletes(NodeFileScanTask nodeFileScanTask, NodeFileScanTask deleteNodeTask) {
+    if (deleteNodeTask == null || deleteNodeTask.arcticEquityDeletes().isEmpty()) {
+      return;
+    }
+    // deletes of the data node are added by previous steps, only deletes belongs to the delete node are added
+    List<ArcticFileScanTask> deletes = deleteNodeTask.arcticEquityDeletes().stream()
+        .filter(file -> file.file().node().equals(deleteNodeTask.treeNode()))
+        .collect(Collectors.toList());
+    nodeFileScanTask.addTasks(deletes);
   }
 
   public Map<StructLike, Collection<ArcticFileScanTask>> groupFilesByPartition(List<ArcticFileScanTask> changeTasks,
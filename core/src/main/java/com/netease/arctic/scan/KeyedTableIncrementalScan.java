@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.scan;
+
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.io.CloseableIterable;
+
+/**
+ * API for configuring an incremental scan of a {@link com.netease.arctic.table.KeyedTable}, planning only the files
+ * added to the change store and the base store between two snapshots of each store.
+ */
+public interface KeyedTableIncrementalScan {
+
+  /**
+   * Config this scan with filter by the {@link Expression}.
+   *
+   * @param expr a filter expression
+   * @return scan based on this with results filtered by the expression
+   */
+  KeyedTableIncrementalScan filter(Expression expr);
+
+  /**
+   * Config this scan to plan change files added after the from snapshot until the to snapshot of the change store.
+   *
+   * @param fromSnapshotId id of the snapshot exclusive, null to plan from the first snapshot
+   * @param toSnapshotId   id of the snapshot inclusive
+   * @return this for method chaining
+   */
+  KeyedTableIncrementalScan changeSnapshotsBetween(Long fromSnapshotId, long toSnapshotId);
+
+  /**
+   * Config this scan to plan base files added after the from snapshot until the to snapshot of the base store, which
+   * are files rewritten by optimizing or overwriting.
+   *
+   * @param fromSnapshotId id of the snapshot exclusive, null to plan from the first snapshot
+   * @param toSnapshotId   id of the snapshot inclusive
+   * @return this for method chaining
+   */
+  KeyedTableIncrementalScan baseSnapshotsBetween(Long fromSnapshotId, long toSnapshotId);
+
+  /**
+   * Plan insert files and equality delete files added to the change store in the snapshot range, ordered by
+   * transaction id. Files are not planned if the change snapshot range is not set.
+   *
+   * @return an Iterable of change file tasks
+   */
+  CloseableIterable<ArcticFileScanTask> planChangeFiles();
+
+  /**
+   * Plan data files added to the base store in the snapshot range. Files are not planned if the base snapshot range
+   * is not set.
+   *
+   * @return an Iterable of base file tasks
+   */
+  CloseableIterable<ArcticFileScanTask> planBaseFiles();
+}
@@ -27,7 +27,9 @@ import com.netease.arctic.op.KeyedSchemaUpdate;
 import com.netease.arctic.op.OverwriteBaseFiles;
 import com.netease.arctic.op.RewritePartitions;
 import com.netease.arctic.op.UpdateKeyedTableProperties;
+import com.netease.arctic.scan.BaseKeyedTableIncrementalScan;
 import com.netease.arctic.scan.BaseKeyedTableScan;
+import com.netease.arctic.scan.KeyedTableIncrementalScan;
 import com.netease.arctic.scan.KeyedTableScan;
 import com.netease.arctic.trace.AmsTableTracer;
 import com.netease.arctic.trace.TracedUpdateProperties;
@@ -146,6 +148,11 @@ public class BaseKeyedTable implements KeyedTable {
     return new BaseKeyedTableScan(this);
   }
 
+  @Override
+  public KeyedTableIncrementalScan newIncrementalScan() {
+    return new BaseKeyedTableIncrementalScan(this);
+  }
+
   @Override
   public UpdateSchema updateSchema() {
     if (PrimaryKeySpec.noPrimaryKey().equals(primaryKeySpec())) {
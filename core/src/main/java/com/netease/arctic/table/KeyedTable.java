@@ -20,6 +20,7 @@ package com.netease.arctic.table;
 
 import com.netease.arctic.op.OverwriteBaseFiles;
 import com.netease.arctic.op.RewritePartitions;
+import com.netease.arctic.scan.KeyedTableIncrementalScan;
 import com.netease.arctic.scan.KeyedTableScan;
 import org.apache.iceberg.UpdateProperties;
 import org.apache.iceberg.UpdateSchema;
@@ -67,6 +68,14 @@ public interface KeyedTable extends ArcticTable {
    */
   KeyedTableScan newScan();
 
+  /**
+   * Create a new {@link KeyedTableIncrementalScan incremental scan} for this table, planning files added between
+   * snapshots.
+   *
+   * @return an incremental scan for this table
+   */
+  KeyedTableIncrementalScan newIncrementalScan();
+
   /**
    * Create a new {@link UpdateSchema} to alter the columns of this table and commit the change.
    *
@@ -138,6 +138,21 @@ public class TableProperties {
   public static final String WRITE_DISTRIBUTION_HASH_AUTO = "auto";
   public static final String WRITE_DISTRIBUTION_HASH_DEFAULT = WRITE_DISTRIBUTION_HASH_AUTO;
 
+  public static final String WRITE_DISTRIBUTION_SKEW_AWARE = "write.distribution.skew-aware";
+  public static final boolean WRITE_DISTRIBUTION_SKEW_AWARE_DEFAULT = false;
+
+  public static final String WRITE_MAX_OPEN_WRITERS = "write.max-open-writers";
+  public static final int WRITE_MAX_OPEN_WRITERS_DEFAULT = 0; // unlimited
+
+  public static final String WRITE_CLUSTER_BUFFER_ROWS = "write.cluster-buffer.rows";
+  public static final int WRITE_CLUSTER_BUFFER_ROWS_DEFAULT = 0; // disabled
+
+  public static final String WRITE_POS_DELETE_BUFFER_MEMORY_BYTES = "write.pos-delete.buffer-memory-bytes";
+  public static final long WRITE_POS_DELETE_BUFFER_MEMORY_BYTES_DEFAULT = 134217728L; // 128 MB
+
+  public static final String WRITE_POS_DELETE_EXTERNAL_MERGE_ENABLED = "write.pos-delete.external-merge.enabled";
+  public static final boolean WRITE_POS_DELETE_EXTERNAL_MERGE_ENABLED_DEFAULT = true;
+
   /**
    * table read related properties
    */
@@ -160,6 +175,22 @@ public class TableProperties {
 
   public static final String SPLIT_OPEN_FILE_COST = org.apache.iceberg.TableProperties.SPLIT_OPEN_FILE_COST;
   public static final long SPLIT_OPEN_FILE_COST_DEFAULT = 4 * 1024 * 1024; // 4MB
+
+  public static final String READ_EQ_DELETE_INDEX_MEMORY_BYTES = "read.eq-delete-index.memory-bytes";
+  public static final long READ_EQ_DELETE_INDEX_MEMORY_BYTES_DEFAULT = 268435456L; // 256 MB
+
+  public static final String READ_EQ_DELETE_INDEX_CACHE_BYTES = "read.eq-delete-index.cache-bytes";
+  public static final long READ_EQ_DELETE_INDEX_CACHE_BYTES_DEFAULT = 0L; // disabled
+
+  public static final String READ_POS_DELETE_STREAMING_ENABLED = "read.pos-delete.streaming.enabled";
+  public static final boolean READ_POS_DELETE_STREAMING_ENABLED_DEFAULT = false;
+
+  public static final String READ_PREFETCH_FILES = "read.prefetch.files";
+  public static final int READ_PREFETCH_FILES_DEFAULT = 0; // disabled
+
+  public static final String READ_MERGE_ON_READ_BATCH_SIZE = "read.merge-on-read.batch-size";
+  public static final int READ_MERGE_ON_READ_BATCH_SIZE_DEFAULT = 0; // row by row
+
   /**
    * log store related properties
    */
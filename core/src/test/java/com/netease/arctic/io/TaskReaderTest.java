@@ -19,20 +19,30 @@
 package com.netease.arctic.io;
 
 import com.google.common.collect.Sets;
+import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.data.DefaultKeyedFile;
+import com.netease.arctic.io.index.EqDeleteIndexCache;
 import com.netease.arctic.io.reader.BaseIcebergPosDeleteReader;
 import com.netease.arctic.io.reader.GenericArcticDataReader;
+import com.netease.arctic.io.writer.GenericTaskWriters;
+import com.netease.arctic.io.writer.SortedPosDeleteWriter;
 import com.netease.arctic.scan.CombinedScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.RowDelta;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.IdentityPartitionConverters;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -66,6 +76,169 @@ public class TaskReaderTest extends TableTestBaseWithInitData {
     Assert.assertEquals(rightIds, resultIds);
   }
 
+  @Test
+  public void testReadWithStreamingPosDelete() {
+    CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks();
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    genericArcticDataReader.setPosDeleteStreaming(true);
+    ImmutableList.Builder<Record> builder = ImmutableList.builder();
+    for (CombinedScanTask combinedScanTask : combinedScanTasks) {
+      for (KeyedTableScanTask keyedTableScanTask : combinedScanTask.tasks()) {
+        builder.addAll(genericArcticDataReader.readData(keyedTableScanTask));
+      }
+    }
+    Set<Object> resultIds = builder.build().stream().map(s -> s.get(0)).collect(Collectors.toSet());
+
+    Assert.assertEquals(Sets.newHashSet(1, 2, 3, 6), resultIds);
+  }
+
+  @Test
+  public void testReadWithStreamingAvroPosDelete() throws IOException {
+    testKeyedTable.updateProperties().set(TableProperties.BASE_FILE_FORMAT, "avro").commit();
+    RowDelta rowDelta = testKeyedTable.baseTable().newRowDelta();
+    try (CloseableIterable<FileScanTask> fileScanTasks = testKeyedTable.baseTable().newScan().planFiles()) {
+      for (FileScanTask fileScanTask : fileScanTasks) {
+        DataTreeNode node = new DefaultKeyedFile(fileScanTask.file()).node();
+        SortedPosDeleteWriter<Record> writer = GenericTaskWriters.builderFor(testKeyedTable)
+            .withTransactionId(5).buildBasePosDeleteWriter(node.mask(), node.index(), fileScanTask.file().partition());
+        writer.delete(fileScanTask.file().path().toString(), 0);
+        writer.complete().forEach(rowDelta::addDeletes);
+      }
+    }
+    rowDelta.commit();
+
+    Schema schema = testKeyedTable.schema();
+    Set<Object> resultIds = null;
+    for (boolean streaming : new boolean[] {false, true}) {
+      GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+          testKeyedTable.io(),
+          schema,
+          schema,
+          testKeyedTable.primaryKeySpec(),
+          null,
+          true,
+          IdentityPartitionConverters::convertConstant
+      );
+      genericArcticDataReader.setPosDeleteStreaming(streaming);
+      ImmutableList.Builder<Record> builder = ImmutableList.builder();
+      for (CombinedScanTask combinedScanTask : testKeyedTable.newScan().planTasks()) {
+        for (KeyedTableScanTask keyedTableScanTask : combinedScanTask.tasks()) {
+          try (CloseableIterator<Record> records = genericArcticDataReader.readData(keyedTableScanTask)) {
+            records.forEachRemaining(builder::add);
+          }
+        }
+      }
+      Set<Object> ids = builder.build().stream().map(s -> s.get(0)).collect(Collectors.toSet());
+      if (resultIds == null) {
+        resultIds = ids;
+      } else {
+        Assert.assertEquals(resultIds, ids);
+      }
+    }
+    Assert.assertTrue(Sets.newHashSet(1, 2, 3, 6).containsAll(resultIds));
+    Assert.assertNotEquals(Sets.newHashSet(1, 2, 3, 6), resultIds);
+  }
+
+  @Test
+  public void testReadWithPrefetch() throws IOException {
+    CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks();
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    genericArcticDataReader.setPrefetchFiles(2);
+    ImmutableList.Builder<Record> builder = ImmutableList.builder();
+    for (CombinedScanTask combinedScanTask : combinedScanTasks) {
+      for (KeyedTableScanTask keyedTableScanTask : combinedScanTask.tasks()) {
+        try (CloseableIterator<Record> records = genericArcticDataReader.readData(keyedTableScanTask)) {
+          records.forEachRemaining(builder::add);
+        }
+      }
+    }
+    Set<Object> resultIds = builder.build().stream().map(s -> s.get(0)).collect(Collectors.toSet());
+
+    Assert.assertEquals(Sets.newHashSet(1, 2, 3, 6), resultIds);
+  }
+
+  @Test
+  public void testReadInBatches() throws IOException {
+    CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks();
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    genericArcticDataReader.setMergeOnReadBatchSize(2);
+    ImmutableList.Builder<Record> builder = ImmutableList.builder();
+    ImmutableList.Builder<Record> deletedBuilder = ImmutableList.builder();
+    for (CombinedScanTask combinedScanTask : combinedScanTasks) {
+      for (KeyedTableScanTask keyedTableScanTask : combinedScanTask.tasks()) {
+        try (CloseableIterator<Record> records = genericArcticDataReader.readData(keyedTableScanTask)) {
+          records.forEachRemaining(builder::add);
+        }
+        try (CloseableIterator<Record> records = genericArcticDataReader.readDeletedData(keyedTableScanTask)) {
+          records.forEachRemaining(deletedBuilder::add);
+        }
+      }
+    }
+    Set<Object> resultIds = builder.build().stream().map(s -> s.get(0)).collect(Collectors.toSet());
+    Assert.assertEquals(Sets.newHashSet(1, 2, 3, 6), resultIds);
+    Set<Object> deletedIds = deletedBuilder.build().stream().map(s -> s.get(0)).collect(Collectors.toSet());
+    Assert.assertEquals(Sets.newHashSet(5), deletedIds);
+  }
+
+  @Test
+  public void testReadWithDeleteIndexCache() throws IOException {
+    Schema schema = testKeyedTable.schema();
+    GenericArcticDataReader genericArcticDataReader = new GenericArcticDataReader(
+        testKeyedTable.io(),
+        schema,
+        schema,
+        testKeyedTable.primaryKeySpec(),
+        null,
+        true,
+        IdentityPartitionConverters::convertConstant
+    );
+    genericArcticDataReader.setEqDeleteIndexCacheBytes(1L << 30);
+    try {
+      for (int i = 0; i < 2; i++) {
+        ImmutableList.Builder<Record> builder = ImmutableList.builder();
+        for (CombinedScanTask combinedScanTask : testKeyedTable.newScan().planTasks()) {
+          for (KeyedTableScanTask keyedTableScanTask : combinedScanTask.tasks()) {
+            try (CloseableIterator<Record> records = genericArcticDataReader.readData(keyedTableScanTask)) {
+              records.forEachRemaining(builder::add);
+            }
+          }
+        }
+        Set<Object> resultIds = builder.build().stream().map(s -> s.get(0)).collect(Collectors.toSet());
+        Assert.assertEquals(Sets.newHashSet(1, 2, 3, 6), resultIds);
+      }
+      Assert.assertTrue(EqDeleteIndexCache.instance().size() > 0);
+    } finally {
+      EqDeleteIndexCache.instance().clear();
+    }
+  }
+
   @Test
   public void testReadPosDelete() {
     BaseIcebergPosDeleteReader baseIcebergPosDeleteReader =
@@ -19,10 +19,12 @@
 package com.netease.arctic.io;
 
 import com.netease.arctic.TableTestBase;
+import com.netease.arctic.io.reader.BaseIcebergPosDeleteReader;
 import com.netease.arctic.io.writer.GenericBaseTaskWriter;
 import com.netease.arctic.io.writer.GenericChangeTaskWriter;
 import com.netease.arctic.io.writer.GenericTaskWriters;
 import com.netease.arctic.io.writer.SortedPosDeleteWriter;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.utils.ManifestEntryFields;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
@@ -33,15 +35,18 @@ import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.IcebergGenerics;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.WriteResult;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -59,6 +64,33 @@ public class TaskWriterTest extends TableTestBase {
     Assert.assertEquals(4, result.dataFiles().length);
   }
 
+  @Test
+  public void testBaseWriterWithMaxOpenWriters() throws IOException {
+    GenericBaseTaskWriter writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withTransactionId(1).buildBaseWriter();
+    writer.setMaxOpenWriters(1);
+    for (int i = 0; i < 2; i++) {
+      for (Record record : writeRecords()) {
+        writer.write(record);
+      }
+    }
+    // the writer of a key is rolled whenever another key is written in between
+    Assert.assertEquals(9, writer.complete().dataFiles().length);
+
+    writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withTransactionId(2).buildBaseWriter();
+    writer.setMaxOpenWriters(1);
+    writer.setClusterBufferRows(100);
+    for (int i = 0; i < 2; i++) {
+      for (Record record : writeRecords()) {
+        writer.write(record);
+      }
+    }
+    WriteResult result = writer.complete();
+    Assert.assertEquals(4, result.dataFiles().length);
+    Assert.assertEquals(10, Arrays.stream(result.dataFiles()).mapToLong(DataFile::recordCount).sum());
+  }
+
   @Test
   public void testBasePosDeleteWriter() throws IOException {
     SortedPosDeleteWriter<Record> writer = GenericTaskWriters.builderFor(testKeyedTable)
@@ -92,6 +124,40 @@ public class TaskWriterTest extends TableTestBase {
         });
   }
 
+  @Test
+  public void testBasePosDeleteWriterWithSpill() throws IOException {
+    testKeyedTable.updateProperties()
+        .set(TableProperties.WRITE_POS_DELETE_BUFFER_MEMORY_BYTES, "512")
+        .commit();
+    SortedPosDeleteWriter<Record> writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withTransactionId(1).buildBasePosDeleteWriter(2, 1, FILE_A.partition());
+
+    String pathB = FILE_A.path() + ".b";
+    List<String> expected = Lists.newArrayList();
+    for (long pos = 0; pos < 100; pos++) {
+      long reversed = 99 - pos;
+      writer.delete(pathB, reversed);
+      writer.delete(FILE_A.path(), reversed * 2);
+    }
+    for (long pos = 0; pos < 100; pos++) {
+      expected.add(FILE_A.path() + ":" + pos * 2);
+    }
+    for (long pos = 0; pos < 100; pos++) {
+      expected.add(pathB + ":" + pos);
+    }
+
+    List<DeleteFile> result = writer.complete();
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals(200, result.get(0).recordCount());
+
+    BaseIcebergPosDeleteReader reader = new BaseIcebergPosDeleteReader(testKeyedTable.io(), result);
+    List<String> actual = Lists.newArrayList();
+    try (CloseableIterable<Record> deletes = reader.readDeletes()) {
+      deletes.forEach(record -> actual.add(reader.readPath(record) + ":" + reader.readPos(record)));
+    }
+    Assert.assertEquals(expected, actual);
+  }
+
   @Test
   public void testChangeWriter() throws IOException {
     GenericChangeTaskWriter writer =   GenericTaskWriters.builderFor(testKeyedTable)
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Types;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EqDeleteIndexCacheTest {
+
+  private static final Types.StructType LONG_KEY = Types.StructType.of(
+      Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  private final EqDeleteIndexCache cache = EqDeleteIndexCache.instance();
+
+  @After
+  public void clear() {
+    cache.clear();
+  }
+
+  @Test
+  public void testShareIndex() {
+    AtomicInteger builds = new AtomicInteger();
+    EqDeleteIndexCache.Key key = new EqDeleteIndexCache.Key(Sets.newHashSet("delete-1"), null, LONG_KEY);
+    EqDeleteIndex first = cache.acquire(key, 1L << 30, () -> build(builds, 1));
+    EqDeleteIndex second = cache.acquire(
+        new EqDeleteIndexCache.Key(Sets.newHashSet("delete-1"), null, LONG_KEY), 1L << 30, () -> build(builds, 1));
+    Assert.assertEquals(1, builds.get());
+
+    Record pk = GenericRecord.create(LONG_KEY);
+    pk.set(0, 1L);
+    Assert.assertTrue(first.deletes(pk, 1, 0));
+    Assert.assertTrue(second.deletes(pk, 1, 0));
+    Assert.assertThrows(UnsupportedOperationException.class, () -> first.put(pk, 3, 0));
+
+    first.close();
+    // closing twice does not release the reference of another reader
+    first.close();
+    Assert.assertTrue(second.deletes(pk, 1, 0));
+    second.close();
+    Assert.assertEquals(1, cache.size());
+
+    cache.acquire(key, 1L << 30, () -> build(builds, 1)).close();
+    Assert.assertEquals(1, builds.get());
+  }
+
+  @Test
+  public void testEvictUnusedIndex() {
+    AtomicInteger builds = new AtomicInteger();
+    EqDeleteIndexCache.Key key1 = new EqDeleteIndexCache.Key(Sets.newHashSet("delete-1"), null, LONG_KEY);
+    EqDeleteIndexCache.Key key2 = new EqDeleteIndexCache.Key(Sets.newHashSet("delete-2"), null, LONG_KEY);
+    // capacity of a single index
+    EqDeleteIndex index1 = cache.acquire(key1, 1, () -> build(builds, 1));
+    EqDeleteIndex index2 = cache.acquire(key2, 1, () -> build(builds, 2));
+    // indexes in use are not evicted
+    Assert.assertEquals(2, cache.size());
+
+    index1.close();
+    Assert.assertEquals(1, cache.size());
+    index2.close();
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(0, cache.cachedBytes());
+  }
+
+  private static EqDeleteIndex build(AtomicInteger builds, long key) {
+    builds.incrementAndGet();
+    EqDeleteIndex index = EqDeleteIndexes.create(LONG_KEY, 1L << 30);
+    Record pk = GenericRecord.create(LONG_KEY);
+    pk.set(0, key);
+    index.put(pk, 2, 0);
+    return index;
+  }
+}
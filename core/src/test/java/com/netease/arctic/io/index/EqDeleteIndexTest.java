@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class EqDeleteIndexTest {
+
+  private static final Types.StructType LONG_KEY = Types.StructType.of(
+      Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  private static final Types.StructType BINARY_KEY = Types.StructType.of(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      Types.NestedField.optional(2, "name", Types.StringType.get()));
+
+  private static final Types.StructType NESTED_KEY = Types.StructType.of(
+      Types.NestedField.required(1, "id", Types.ListType.ofRequired(3, Types.IntegerType.get())));
+
+  private static final Types.StructType NESTED_BINARY_KEY = Types.StructType.of(
+      Types.NestedField.required(1, "ids", Types.ListType.ofRequired(3, Types.IntegerType.get())),
+      Types.NestedField.required(2, "payload", Types.BinaryType.get()));
+
+  @Test
+  public void testLongKeyIndex() {
+    try (EqDeleteIndex index = EqDeleteIndexes.create(LONG_KEY, 1L << 30)) {
+      Assert.assertTrue(index instanceof LongKeyEqDeleteIndex);
+      Record key = GenericRecord.create(LONG_KEY);
+      for (long i = 0; i < 10000; i++) {
+        key.set(0, i);
+        index.put(key, 2, i);
+      }
+      // smaller lsn should not overwrite the larger one
+      key.set(0, 1L);
+      index.put(key, 1, 100);
+      Assert.assertEquals(10000, index.size());
+      Assert.assertTrue(index.deletes(key, 1, 100));
+      Assert.assertTrue(index.deletes(key, 2, 0));
+      Assert.assertFalse(index.deletes(key, 2, 1));
+      key.set(0, 10001L);
+      Assert.assertFalse(index.deletes(key, 1, 0));
+      Assert.assertEquals(0, index.spillCount());
+    }
+  }
+
+  @Test
+  public void testLongKeyBatchSelect() {
+    try (EqDeleteIndex index = EqDeleteIndexes.create(LONG_KEY, 1L << 30)) {
+      Assert.assertTrue(index.supportsLongKeys());
+      Record key = GenericRecord.create(LONG_KEY);
+      for (long i = 0; i < 100; i += 2) {
+        key.set(0, i);
+        index.put(key, 2, 0);
+      }
+      long[] keys = new long[] {0, 1, 2, 3, 4};
+      long[] transactionIds = new long[] {1, 1, 1, 1, 3};
+      long[] fileOffsets = new long[5];
+
+      int[] selection = new int[] {0, 1, 2, 3, 4};
+      Assert.assertEquals(3, index.select(keys, transactionIds, fileOffsets, selection, 5, false));
+      Assert.assertArrayEquals(new int[] {1, 3, 4}, Arrays.copyOf(selection, 3));
+
+      selection = new int[] {0, 1, 2, 3, 4};
+      Assert.assertEquals(2, index.select(keys, transactionIds, fileOffsets, selection, 5, true));
+      Assert.assertArrayEquals(new int[] {0, 2}, Arrays.copyOf(selection, 2));
+    }
+  }
+
+  @Test
+  public void testBinaryKeyIndex() {
+    try (EqDeleteIndex index = EqDeleteIndexes.create(BINARY_KEY, 1L << 30)) {
+      Assert.assertTrue(index instanceof BinaryKeyEqDeleteIndex);
+      assertBinaryKeys(index);
+      Assert.assertEquals(0, index.spillCount());
+    }
+  }
+
+  @Test
+  public void testSpill() {
+    try (EqDeleteIndex index = new BinaryKeyEqDeleteIndex(BINARY_KEY, new IndexMemory(64 * 1024))) {
+      assertBinaryKeys(index);
+      Assert.assertTrue(index.spillCount() > 0);
+      Assert.assertTrue(index.spilledBytes() > 0);
+      Assert.assertTrue(index.heapBytes() <= 64 * 1024);
+    }
+  }
+
+  @Test
+  public void testStructLikeIndex() {
+    try (EqDeleteIndex index = EqDeleteIndexes.create(NESTED_KEY, 1L << 30)) {
+      Assert.assertTrue(index instanceof StructLikeEqDeleteIndex);
+    }
+  }
+
+  @Test
+  public void testStructLikeIndexCopiesReusedKeys() {
+    try (EqDeleteIndex index = EqDeleteIndexes.create(NESTED_BINARY_KEY, 1L << 30)) {
+      Assert.assertTrue(index instanceof StructLikeEqDeleteIndex);
+      // readers of delete files reuse the containers of nested and binary values
+      Record key = GenericRecord.create(NESTED_BINARY_KEY);
+      List<Integer> ids = new ArrayList<>();
+      ByteBuffer payload = ByteBuffer.allocate(4);
+      key.set(0, ids);
+      key.set(1, payload);
+      for (int i = 0; i < 100; i++) {
+        ids.clear();
+        ids.add(i);
+        ids.add(i + 1);
+        payload.putInt(0, i);
+        index.put(key, 2, 0);
+      }
+      Assert.assertEquals(100, index.size());
+
+      for (int i = 0; i < 100; i++) {
+        Record probe = GenericRecord.create(NESTED_BINARY_KEY);
+        probe.set(0, Arrays.asList(i, i + 1));
+        probe.set(1, ByteBuffer.allocate(4).putInt(0, i));
+        Assert.assertTrue(index.deletes(probe, 1, 0));
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentProbes() throws Exception {
+    try (EqDeleteIndex longKeyIndex = EqDeleteIndexes.create(LONG_KEY, 1L << 30);
+         EqDeleteIndex binaryKeyIndex = new BinaryKeyEqDeleteIndex(BINARY_KEY, new IndexMemory(64 * 1024))) {
+      Record longKey = GenericRecord.create(LONG_KEY);
+      Record binaryKey = GenericRecord.create(BINARY_KEY);
+      for (int i = 0; i < 10000; i += 2) {
+        longKey.set(0, (long) i);
+        longKeyIndex.put(longKey, 2, 0);
+        binaryKey.set(0, i);
+        binaryKey.set(1, "name" + i);
+        binaryKeyIndex.put(binaryKey, 2, 0);
+      }
+
+      // probes of built indexes keep no shared state, readers of a cached index probe it without locking
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+          futures.add(executor.submit(() -> {
+            Record probeLongKey = GenericRecord.create(LONG_KEY);
+            Record probeBinaryKey = GenericRecord.create(BINARY_KEY);
+            long[] keys = new long[10000];
+            long[] transactionIds = new long[10000];
+            long[] fileOffsets = new long[10000];
+            int[] selection = new int[10000];
+            for (int round = 0; round < 10; round++) {
+              for (int i = 0; i < 10000; i++) {
+                probeLongKey.set(0, (long) i);
+                Assert.assertEquals(i % 2 == 0, longKeyIndex.deletes(probeLongKey, 1, 0));
+                probeBinaryKey.set(0, i);
+                probeBinaryKey.set(1, "name" + i);
+                Assert.assertEquals(i % 2 == 0, binaryKeyIndex.deletes(probeBinaryKey, 1, 0));
+                keys[i] = i;
+                transactionIds[i] = 1;
+                selection[i] = i;
+              }
+              Assert.assertEquals(5000, longKeyIndex.select(keys, transactionIds, fileOffsets, selection, 10000, true));
+              for (int i = 0; i < 5000; i++) {
+                Assert.assertEquals(i * 2, selection[i]);
+              }
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+
+  private void assertBinaryKeys(EqDeleteIndex index) {
+    Record key = GenericRecord.create(BINARY_KEY);
+    for (int i = 0; i < 10000; i++) {
+      key.set(0, i);
+      key.set(1, i % 2 == 0 ? null : "name" + i);
+      index.put(key, 2, 0);
+    }
+    Assert.assertEquals(10000, index.size());
+    key.set(0, 3);
+    key.set(1, "name3");
+    Assert.assertTrue(index.deletes(key, 1, 0));
+    Assert.assertFalse(index.deletes(key, 2, 0));
+    key.set(1, "name33");
+    Assert.assertFalse(index.deletes(key, 1, 0));
+    key.set(0, 4);
+    key.set(1, null);
+    Assert.assertTrue(index.deletes(key, 1, 0));
+  }
+}
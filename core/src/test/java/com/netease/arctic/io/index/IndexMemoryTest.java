@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+
+public class IndexMemoryTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testDeleteStaleSpillFiles() throws Exception {
+    File stale = temp.newFile("arctic-delete-index-1.spill");
+    File other = temp.newFile("other.spill");
+    File locked = temp.newFile("arctic-delete-index-2.spill");
+    try (RandomAccessFile access = new RandomAccessFile(locked, "rw");
+         FileLock ignored = access.getChannel().lock()) {
+      IndexMemory.deleteStaleSpillFiles(temp.getRoot());
+    }
+    Assert.assertFalse(stale.exists());
+    Assert.assertTrue(other.exists());
+    // still used by its process
+    Assert.assertTrue(locked.exists());
+  }
+
+  @Test
+  public void testSpillFileDeletedOnClose() throws Exception {
+    File stale = temp.newFile("arctic-delete-index-1.spill");
+    File spillDirectory = temp.getRoot();
+    try (IndexMemory memory = new IndexMemory(0, spillDirectory)) {
+      memory.allocatePage(1024);
+      Assert.assertEquals(1, memory.spilledPages());
+      // stale files are cleaned before spilling into the directory at the first time
+      Assert.assertFalse(stale.exists());
+      Assert.assertEquals(1, spillDirectory.listFiles().length);
+    }
+    Assert.assertEquals(0, spillDirectory.listFiles().length);
+  }
+}
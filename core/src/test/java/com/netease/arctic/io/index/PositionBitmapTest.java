@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.index;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class PositionBitmapTest {
+
+  @Test
+  public void testAddAndContains() {
+    PositionBitmap bitmap = new PositionBitmap();
+    Set<Long> expected = new HashSet<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100000; i++) {
+      // dense positions in the first chunks and sparse positions after
+      long pos = i % 2 == 0 ? random.nextInt(200000) : random.nextInt(Integer.MAX_VALUE) * 8L;
+      bitmap.add(pos);
+      expected.add(pos);
+    }
+    Assert.assertEquals(expected.size(), bitmap.cardinality());
+    for (long pos : expected) {
+      Assert.assertTrue(bitmap.contains(pos));
+    }
+    for (int i = 0; i < 100000; i++) {
+      long pos = random.nextInt(Integer.MAX_VALUE) * 8L + 1;
+      Assert.assertEquals(expected.contains(pos), bitmap.contains(pos));
+    }
+    Assert.assertFalse(bitmap.contains(-1));
+  }
+
+  @Test
+  public void testSortedAdd() {
+    PositionBitmap bitmap = new PositionBitmap();
+    for (long pos = 0; pos < 1000000; pos += 3) {
+      bitmap.add(pos);
+    }
+    Assert.assertEquals(333334, bitmap.cardinality());
+    Assert.assertTrue(bitmap.contains(999999));
+    Assert.assertFalse(bitmap.contains(999998));
+    // dense chunks are kept as bitmaps, 8 KB for every 65536 positions
+    Assert.assertTrue(bitmap.sizeInBytes() < 200 * 1024);
+  }
+}
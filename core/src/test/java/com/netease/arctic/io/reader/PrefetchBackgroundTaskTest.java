@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.reader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PrefetchBackgroundTaskTest {
+
+  @Test
+  public void testCloseWaitsForRunningTask() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean finished = new AtomicBoolean(false);
+    PrefetchFileReader.BackgroundTask task = PrefetchFileReader.submit(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+        // keep working after the interrupt, close must still wait for the end
+        long busyUntil = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < busyUntil) {
+          Thread.yield();
+        }
+      }
+      finished.set(true);
+      return null;
+    });
+    started.await();
+    task.close();
+    Assert.assertTrue(finished.get());
+  }
+
+  @Test
+  public void testGetRethrowsFailure() {
+    PrefetchFileReader.BackgroundTask task = PrefetchFileReader.submit(() -> {
+      throw new IllegalStateException("failed");
+    });
+    RuntimeException e = Assert.assertThrows(RuntimeException.class, task::get);
+    Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    task.close();
+  }
+}
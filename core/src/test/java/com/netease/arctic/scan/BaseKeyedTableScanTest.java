@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.scan;
+
+import com.netease.arctic.TableTestBase;
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class BaseKeyedTableScanTest extends TableTestBase {
+
+  @Test
+  public void testDeletesOfAncestorAndDescendantNodes() throws IOException {
+    writeBase(PK_TABLE_ID, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 1, "aaa", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 2, "bbb", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 3, "ccc", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 4, "ddd", quickDate(1))
+    ));
+    // deletes in the root node
+    testKeyedTable.updateProperties().set(TableProperties.CHANGE_FILE_INDEX_HASH_BUCKET, "1").commit();
+    writeChange(PK_TABLE_ID, ChangeAction.DELETE, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 1, "aaa", quickDate(1))
+    ));
+    // deletes in nodes under the base nodes
+    testKeyedTable.updateProperties().set(TableProperties.CHANGE_FILE_INDEX_HASH_BUCKET, "8").commit();
+    writeChange(PK_TABLE_ID, ChangeAction.DELETE, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 2, "bbb", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 3, "ccc", quickDate(1))
+    ));
+    testKeyedTable.baseTable().refresh();
+    testKeyedTable.changeTable().refresh();
+
+    try (CloseableIterable<CombinedScanTask> combinedScanTasks = testKeyedTable.newScan().planTasks()) {
+      int deleteFiles = 0;
+      for (CombinedScanTask combinedScanTask : combinedScanTasks) {
+        for (KeyedTableScanTask task : combinedScanTask.tasks()) {
+          Set<DataTreeNode> dataNodes = task.dataTasks().stream()
+              .map(file -> file.file().node()).collect(Collectors.toSet());
+          for (ArcticFileScanTask delete : task.arcticEquityDeletes()) {
+            DataTreeNode deleteNode = delete.file().node();
+            Assert.assertTrue(dataNodes.stream()
+                .anyMatch(node -> node.isSonOf(deleteNode) || deleteNode.isSonOf(node)));
+            deleteFiles++;
+          }
+        }
+      }
+      Assert.assertTrue(deleteFiles >= 3);
+    }
+
+    List<Record> rows = readKeyedTable(testKeyedTable);
+    Set<Object> ids = rows.stream().map(r -> r.get(0)).collect(Collectors.toSet());
+    Assert.assertEquals(Sets.newHashSet(4), ids);
+  }
+}
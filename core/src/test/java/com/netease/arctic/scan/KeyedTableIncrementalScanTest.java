@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.scan;
+
+import com.netease.arctic.TableTestBase;
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.data.DefaultKeyedFile;
+import com.netease.arctic.io.reader.GenericChangeMergeReader;
+import com.netease.arctic.io.writer.GenericTaskWriters;
+import com.netease.arctic.io.writer.SortedPosDeleteWriter;
+import com.netease.arctic.table.MetadataColumns;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class KeyedTableIncrementalScanTest extends TableTestBase {
+
+  @Test
+  public void testPlanAndMergeChanges() throws IOException {
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 1, "aaa", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 2, "bbb", quickDate(1))
+    ));
+    testKeyedTable.changeTable().refresh();
+    long fromSnapshotId = testKeyedTable.changeTable().currentSnapshot().snapshotId();
+    Set<String> initialFiles = Sets.newHashSet();
+    testKeyedTable.changeTable().currentSnapshot().addedFiles()
+        .forEach(file -> initialFiles.add(file.path().toString()));
+
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 3, "ccc", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 4, "ddd", quickDate(2))
+    ));
+    writeChange(PK_TABLE_ID, ChangeAction.DELETE, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 1, "aaa", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 3, "ccc", quickDate(1))
+    ));
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 3, "ccc2", quickDate(1))
+    ));
+    testKeyedTable.changeTable().refresh();
+    long toSnapshotId = testKeyedTable.changeTable().currentSnapshot().snapshotId();
+
+    KeyedTableIncrementalScan scan = testKeyedTable.newIncrementalScan()
+        .changeSnapshotsBetween(fromSnapshotId, toSnapshotId);
+    List<ArcticFileScanTask> changeFiles = Lists.newArrayList(scan.planChangeFiles());
+    Assert.assertFalse(changeFiles.isEmpty());
+    changeFiles.forEach(task -> Assert.assertFalse(initialFiles.contains(task.file().path().toString())));
+    for (int i = 1; i < changeFiles.size(); i++) {
+      Assert.assertTrue(changeFiles.get(i - 1).file().transactionId() <= changeFiles.get(i).file().transactionId());
+    }
+    Assert.assertFalse(scan.planBaseFiles().iterator().hasNext());
+
+    GenericChangeMergeReader reader = new GenericChangeMergeReader(
+        testKeyedTable.io(), testKeyedTable.schema(), testKeyedTable.schema(), testKeyedTable.primaryKeySpec());
+    Map<Object, String> changes;
+    try (CloseableIterable<Record> rows = reader.read(scan.planBaseFiles(), changeFiles)) {
+      changes = Lists.newArrayList(rows).stream().collect(Collectors.toMap(
+          row -> row.get(0), row -> row.get(1) + ":" + row.getField(MetadataColumns.CHANGE_ACTION_NAME)));
+    }
+    Assert.assertEquals(ImmutableMap.of(
+        1, "aaa:" + ChangeAction.DELETE,
+        3, "ccc2:" + ChangeAction.INSERT,
+        4, "ddd:" + ChangeAction.INSERT), changes);
+  }
+
+  @Test
+  public void testMergeBaseFilesWithPosDeletes() throws IOException {
+    DataFile deletedFile = writeBase(PK_TABLE_ID, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 1, "aaa", quickDate(1)))).get(0);
+    writeBase(PK_TABLE_ID, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 2, "bbb", quickDate(1))));
+    DefaultKeyedFile keyedFile = new DefaultKeyedFile(deletedFile);
+    SortedPosDeleteWriter<Record> writer = GenericTaskWriters.builderFor(testKeyedTable)
+        .withTransactionId(testKeyedTable.beginTransaction(""))
+        .buildBasePosDeleteWriter(keyedFile.node().mask(), keyedFile.node().index(), deletedFile.partition());
+    writer.delete(deletedFile.path().toString(), 0);
+    testKeyedTable.baseTable().newRowDelta().addDeletes(writer.complete().get(0)).commit();
+    testKeyedTable.baseTable().refresh();
+    long toSnapshotId = testKeyedTable.baseTable().currentSnapshot().snapshotId();
+
+    KeyedTableIncrementalScan scan = testKeyedTable.newIncrementalScan()
+        .baseSnapshotsBetween(null, toSnapshotId);
+    List<ArcticFileScanTask> baseFiles = Lists.newArrayList(scan.planBaseFiles());
+    Assert.assertEquals(2, baseFiles.size());
+    baseFiles.forEach(task -> Assert.assertEquals(
+        task.file().path().toString().equals(deletedFile.path().toString()) ? 1 : 0, task.deletes().size()));
+
+    GenericChangeMergeReader reader = new GenericChangeMergeReader(
+        testKeyedTable.io(), testKeyedTable.schema(), testKeyedTable.schema(), testKeyedTable.primaryKeySpec());
+    Map<Object, String> changes;
+    try (CloseableIterable<Record> rows = reader.read(baseFiles, CloseableIterable.empty())) {
+      changes = Lists.newArrayList(rows).stream().collect(Collectors.toMap(
+          row -> row.get(0), row -> row.get(1) + ":" + row.getField(MetadataColumns.CHANGE_ACTION_NAME)));
+    }
+    Assert.assertEquals(ImmutableMap.of(2, "bbb:" + ChangeAction.INSERT), changes);
+  }
+
+  @Test
+  public void testPlanWithFilter() {
+    writeChange(PK_TABLE_ID, ChangeAction.INSERT, Lists.newArrayList(
+        newGenericRecord(TABLE_SCHEMA, 1, "aaa", quickDate(1)),
+        newGenericRecord(TABLE_SCHEMA, 2, "bbb", quickDate(2))
+    ));
+    testKeyedTable.changeTable().refresh();
+    long toSnapshotId = testKeyedTable.changeTable().currentSnapshot().snapshotId();
+
+    List<ArcticFileScanTask> changeFiles = Lists.newArrayList(testKeyedTable.newIncrementalScan()
+        .filter(Expressions.equal("id", 1))
+        .changeSnapshotsBetween(null, toSnapshotId)
+        .planChangeFiles());
+    Assert.assertEquals(1, changeFiles.size());
+  }
+}
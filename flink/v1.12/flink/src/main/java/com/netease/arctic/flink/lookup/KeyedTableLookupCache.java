@@ -0,0 +1,462 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.flink.lookup;
+
+import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.data.PrimaryKeyData;
+import com.netease.arctic.flink.read.FlinkSplitPlanner;
+import com.netease.arctic.flink.read.hybrid.reader.RowDataReaderFunction;
+import com.netease.arctic.flink.read.hybrid.split.ArcticSplit;
+import com.netease.arctic.flink.read.source.DataIterator;
+import com.netease.arctic.flink.read.source.FlinkKeyedMORDataReader;
+import com.netease.arctic.flink.table.ArcticTableLoader;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
+import com.netease.arctic.flink.util.ArcticUtils;
+import com.netease.arctic.io.reader.BaseArcticDataReader;
+import com.netease.arctic.scan.ArcticFileScanTask;
+import com.netease.arctic.scan.CombinedScanTask;
+import com.netease.arctic.scan.KeyedTableScanTask;
+import com.netease.arctic.table.KeyedTable;
+import com.netease.arctic.table.TableProperties;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.iceberg.util.PropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A local cache of the latest row of each primary key of a {@link KeyedTable}, serving lookup joins.
+ * <p>
+ * The cache is bootstrapped by a merge-on-read scan of the table, and kept fresh by applying the change snapshots
+ * committed after that in transaction order. Rows are kept in a {@link RocksDBRowStore}, so the cache may be larger
+ * than the memory of the task manager. If the change snapshots can not be applied incrementally, e.g. they have
+ * been expired, the cache is rebuilt aside and swapped in without blocking lookups.
+ * <p>
+ * With {@link ArcticValidator#LOOKUP_CACHE_SHARD_BY_NODE} enabled, each subtask only caches the keys of base tree
+ * nodes whose index modulo the parallelism equals its subtask index.
+ */
+public class KeyedTableLookupCache implements Serializable {
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LoggerFactory.getLogger(KeyedTableLookupCache.class);
+  private static final long REFRESHER_TERMINATION_TIMEOUT_SECONDS = 60;
+
+  private final ArcticTableLoader loader;
+  private final Schema readSchema;
+  private final RowType rowType;
+  private final int[] primaryKeyPositions;
+  private final int[] lookupKeyOrder;
+  private final long refreshIntervalMillis;
+  private final String localDir;
+  private final boolean shardByNode;
+
+  private transient KeyedTable table;
+  private transient RowDataReaderFunction changeReaderFunction;
+  private transient RowData.FieldGetter[] fieldGetters;
+  private transient ThreadLocal<RowDataSerializer> keySerializer;
+  private transient ThreadLocal<RowDataSerializer> rowSerializer;
+  private transient ThreadLocal<DataOutputSerializer> output;
+  private transient PrimaryKeyData primaryKeyData;
+  private transient RowDataWrapper rowDataWrapper;
+  private transient AtomicInteger splitCount;
+  private transient ReadWriteLock storeLock;
+  private transient RocksDBRowStore store;
+  private transient Long changeSnapshotId;
+  private transient ScheduledExecutorService refresher;
+  private transient int subtaskIndex;
+  private transient int numSubtasks;
+  private transient long bucketMask;
+
+  /**
+   * @param loader     loader of the keyed table
+   * @param table      the keyed table
+   * @param readSchema schema of the rows produced by the lookup, must contain the primary key
+   * @param rowType    flink type of the rows produced by the lookup
+   * @param lookupKeys positions of the lookup keys in the produced rows, must be the primary key of the table
+   * @param options    lookup options
+   */
+  public KeyedTableLookupCache(
+      ArcticTableLoader loader, KeyedTable table, Schema readSchema, RowType rowType, int[] lookupKeys,
+      ReadableConfig options) {
+    this.loader = loader;
+    this.readSchema = readSchema;
+    this.rowType = rowType;
+    List<String> primaryKeys = table.primaryKeySpec().fieldNames();
+    List<String> fieldNames = rowType.getFieldNames();
+    this.primaryKeyPositions = new int[primaryKeys.size()];
+    this.lookupKeyOrder = new int[primaryKeys.size()];
+    for (int i = 0; i < primaryKeys.size(); i++) {
+      primaryKeyPositions[i] = fieldNames.indexOf(primaryKeys.get(i));
+      lookupKeyOrder[i] = indexOf(lookupKeys, primaryKeyPositions[i]);
+    }
+    if (lookupKeys.length != primaryKeys.size() || Arrays.stream(lookupKeyOrder).anyMatch(i -> i < 0)) {
+      String[] lookupKeyNames = Arrays.stream(lookupKeys).mapToObj(fieldNames::get).toArray(String[]::new);
+      throw new ValidationException(String.format(
+          "Arctic table %s only supports lookup by its primary key %s, but the lookup keys are %s.",
+          table.id(), primaryKeys, Arrays.toString(lookupKeyNames)));
+    }
+    this.refreshIntervalMillis = options.get(ArcticValidator.LOOKUP_CACHE_REFRESH_INTERVAL).toMillis();
+    this.localDir = options.getOptional(ArcticValidator.LOOKUP_CACHE_LOCAL_DIR)
+        .orElse(System.getProperty("java.io.tmpdir"));
+    this.shardByNode = options.get(ArcticValidator.LOOKUP_CACHE_SHARD_BY_NODE);
+  }
+
+  public void open(FunctionContext context) throws IOException {
+    if (shardByNode) {
+      RuntimeContext runtimeContext = runtimeContext(context);
+      this.subtaskIndex = runtimeContext.getIndexOfThisSubtask();
+      this.numSubtasks = runtimeContext.getNumberOfParallelSubtasks();
+    } else {
+      this.subtaskIndex = 0;
+      this.numSubtasks = 1;
+    }
+    this.table = ArcticUtils.loadArcticTable(loader).asKeyedTable();
+    this.bucketMask = PropertyUtil.propertyAsInt(table.properties(), TableProperties.BASE_FILE_INDEX_HASH_BUCKET,
+        TableProperties.BASE_FILE_INDEX_HASH_BUCKET_DEFAULT) - 1;
+    this.changeReaderFunction = new RowDataReaderFunction(new Configuration(), table.schema(), readSchema,
+        table.primaryKeySpec(), null, false, table.io());
+
+    this.fieldGetters = new RowData.FieldGetter[rowType.getFieldCount()];
+    for (int i = 0; i < fieldGetters.length; i++) {
+      fieldGetters[i] = RowData.createFieldGetter(rowType.getTypeAt(i), i);
+    }
+    RowType keyType = RowType.of(Arrays.stream(primaryKeyPositions)
+        .mapToObj(rowType::getTypeAt)
+        .toArray(LogicalType[]::new));
+    this.keySerializer = ThreadLocal.withInitial(() -> new RowDataSerializer(keyType));
+    this.rowSerializer = ThreadLocal.withInitial(() -> new RowDataSerializer(rowType));
+    this.output = ThreadLocal.withInitial(() -> new DataOutputSerializer(256));
+    this.primaryKeyData = new PrimaryKeyData(table.primaryKeySpec(), readSchema);
+    this.rowDataWrapper = new RowDataWrapper(rowType, readSchema.asStruct());
+    this.splitCount = new AtomicInteger();
+    this.storeLock = new ReentrantReadWriteLock();
+
+    this.store = load();
+    this.refresher = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("arctic-lookup-refresh-%d").build());
+    refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMillis, refreshIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Look up the latest row of a primary key.
+   *
+   * @param keys values of the lookup keys, in the order of the lookup keys
+   * @return the row, or null if the key does not exist
+   */
+  public RowData get(Object... keys) {
+    GenericRowData keyRow = new GenericRowData(lookupKeyOrder.length);
+    for (int i = 0; i < lookupKeyOrder.length; i++) {
+      keyRow.setField(i, keys[lookupKeyOrder[i]]);
+    }
+    byte[] key = serialize(keySerializer.get(), keyRow);
+    byte[] value;
+    storeLock.readLock().lock();
+    try {
+      if (store == null) {
+        throw new IllegalStateException("The lookup cache of " + table.id() + " is closed");
+      }
+      value = store.get(key);
+    } finally {
+      storeLock.readLock().unlock();
+    }
+    if (value == null) {
+      return null;
+    }
+    try {
+      return rowSerializer.get().deserialize(new DataInputDeserializer(value));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Apply the change snapshots committed since the last refresh to the cache, or rebuild the cache if they can not
+   * be applied incrementally. Called periodically by the refresher thread.
+   */
+  public synchronized void refresh() {
+    try {
+      table.refresh();
+      Snapshot changeSnapshot = table.changeTable().currentSnapshot();
+      if (changeSnapshot == null || Objects.equals(changeSnapshotId, changeSnapshot.snapshotId())) {
+        return;
+      }
+      try {
+        applyChanges(changeSnapshot.snapshotId());
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to apply change snapshots after {} of {} to the lookup cache, reload it",
+            changeSnapshotId, table.id(), e);
+        reload();
+      }
+    } catch (Throwable t) {
+      LOG.error("Failed to refresh the lookup cache of {}", table.id(), t);
+    }
+  }
+
+  public void close() throws IOException {
+    if (refresher != null) {
+      refresher.shutdownNow();
+      try {
+        if (!refresher.awaitTermination(REFRESHER_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          LOG.warn("The lookup cache refresher of {} did not terminate in {} seconds", table.id(),
+              REFRESHER_TERMINATION_TIMEOUT_SECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (storeLock == null) {
+      return;
+    }
+    storeLock.writeLock().lock();
+    try {
+      if (store != null) {
+        store.close();
+        store = null;
+      }
+    } finally {
+      storeLock.writeLock().unlock();
+    }
+  }
+
+  private RocksDBRowStore load() throws IOException {
+    long startTime = System.currentTimeMillis();
+    table.refresh();
+    Snapshot changeSnapshot = table.changeTable().currentSnapshot();
+    RocksDBRowStore newStore = new RocksDBRowStore(new File(localDir, "arctic-lookup-" + UUID.randomUUID()));
+    try {
+      FlinkKeyedMORDataReader reader = new FlinkKeyedMORDataReader(table.io(), table.schema(), readSchema,
+          table.primaryKeySpec(), null, false);
+      BaseArcticDataReader.configure(reader, table.properties());
+
+      long rowCount = 0;
+      try (CloseableIterable<CombinedScanTask> combinedTasks = table.newScan().planTasks()) {
+        for (CombinedScanTask combinedTask : combinedTasks) {
+          for (KeyedTableScanTask task : combinedTask.tasks()) {
+            if (task.dataTasks().stream().map(ArcticFileScanTask::file).noneMatch(file -> isOwned(file.node()))) {
+              continue;
+            }
+            try (CloseableIterator<RowData> rows = reader.readData(task)) {
+              while (rows.hasNext()) {
+                RowData row = rows.next();
+                if (isOwned(row)) {
+                  newStore.put(keyOf(row), valueOf(row));
+                  rowCount++;
+                }
+              }
+            }
+          }
+        }
+      }
+      this.changeSnapshotId = changeSnapshot == null ? null : changeSnapshot.snapshotId();
+      LOG.info("Loaded {} rows of {} into the lookup cache of subtask {}/{} at change snapshot {} in {} ms",
+          rowCount, table.id(), subtaskIndex, numSubtasks, changeSnapshotId,
+          System.currentTimeMillis() - startTime);
+      return newStore;
+    } catch (IOException | RuntimeException e) {
+      newStore.close();
+      throw e;
+    }
+  }
+
+  private void applyChanges(long toSnapshotId) throws IOException {
+    TableScan changeScan = changeSnapshotId == null ?
+        table.changeTable().newScan().useSnapshot(toSnapshotId) :
+        table.changeTable().newScan().appendsBetween(changeSnapshotId, toSnapshotId);
+    // splits are ordered by transaction id, rows of a split are ordered by file offset
+    List<ArcticSplit> splits = FlinkSplitPlanner.planChangeTable(changeScan, splitCount);
+    long upsertCount = 0;
+    long deleteCount = 0;
+    for (ArcticSplit split : splits) {
+      if (!isOwned(split.dataTreeNode())) {
+        continue;
+      }
+      // writes hold the read lock, so the store is never closed under them
+      storeLock.readLock().lock();
+      try {
+        if (store == null) {
+          return;
+        }
+        try (DataIterator<RowData> rows = changeReaderFunction.createDataIterator(split)) {
+          while (rows.hasNext()) {
+            RowData row = rows.next();
+            if (!isOwned(row)) {
+              continue;
+            }
+            switch (row.getRowKind()) {
+              case INSERT:
+              case UPDATE_AFTER:
+                store.put(keyOf(row), valueOf(row));
+                upsertCount++;
+                break;
+              default:
+                store.delete(keyOf(row));
+                deleteCount++;
+            }
+          }
+        }
+      } finally {
+        storeLock.readLock().unlock();
+      }
+    }
+    LOG.info("Applied change snapshots ({}, {}] of {} to the lookup cache, {} upserts and {} deletes",
+        changeSnapshotId, toSnapshotId, table.id(), upsertCount, deleteCount);
+    this.changeSnapshotId = toSnapshotId;
+  }
+
+  private void reload() throws IOException {
+    RocksDBRowStore newStore = load();
+    RocksDBRowStore oldStore;
+    storeLock.writeLock().lock();
+    try {
+      oldStore = store;
+      if (oldStore != null) {
+        store = newStore;
+      }
+    } finally {
+      storeLock.writeLock().unlock();
+    }
+    // the cache has been closed while reloading if there is no old store
+    (oldStore == null ? newStore : oldStore).close();
+  }
+
+  private boolean isOwned(DataTreeNode node) {
+    if (!shardByNode || node == null) {
+      return true;
+    }
+    if (node.mask() >= bucketMask) {
+      return isOwnedBucket(node.index() & bucketMask);
+    }
+    // a coarser node holds the keys of every bucket under it
+    for (long bucket = node.index(); bucket <= bucketMask; bucket += node.mask() + 1) {
+      if (isOwnedBucket(bucket)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isOwned(RowData row) {
+    if (!shardByNode) {
+      return true;
+    }
+    primaryKeyData.primaryKey(rowDataWrapper.wrap(row));
+    return isOwnedBucket(primaryKeyData.treeNode(bucketMask).index());
+  }
+
+  private boolean isOwnedBucket(long bucket) {
+    return bucket % numSubtasks == subtaskIndex;
+  }
+
+  private byte[] keyOf(RowData row) {
+    GenericRowData keyRow = new GenericRowData(primaryKeyPositions.length);
+    for (int i = 0; i < primaryKeyPositions.length; i++) {
+      keyRow.setField(i, fieldGetters[primaryKeyPositions[i]].getFieldOrNull(row));
+    }
+    return serialize(keySerializer.get(), keyRow);
+  }
+
+  private byte[] valueOf(RowData row) {
+    // rows read by merge-on-read may carry extra meta columns after the projected ones
+    GenericRowData valueRow = new GenericRowData(fieldGetters.length);
+    for (int i = 0; i < fieldGetters.length; i++) {
+      valueRow.setField(i, fieldGetters[i].getFieldOrNull(row));
+    }
+    return serialize(rowSerializer.get(), valueRow);
+  }
+
+  private byte[] serialize(RowDataSerializer serializer, RowData row) {
+    DataOutputSerializer out = output.get();
+    out.clear();
+    try {
+      serializer.serialize(row, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.getCopyOfBuffer();
+  }
+
+  private static int indexOf(int[] array, int value) {
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * {@link FunctionContext} does not expose the subtask of the function, and the subtask index in the scope
+   * variables of its metric group comes without the parallelism, so read both from the private runtime context
+   * field of {@link FunctionContext}. The field is known to exist in Flink 1.12 and 1.14, the versions this module is
+   * built against. It is only read with {@link ArcticValidator#LOOKUP_CACHE_SHARD_BY_NODE} enabled, which fails to
+   * open instead of sharding wrongly if the field is gone.
+   */
+  private static RuntimeContext runtimeContext(FunctionContext context) {
+    try {
+      Field field = FunctionContext.class.getDeclaredField("context");
+      if (!RuntimeContext.class.isAssignableFrom(field.getType())) {
+        throw new NoSuchFieldException("FunctionContext#context is not a RuntimeContext but " + field.getType());
+      }
+      field.setAccessible(true);
+      RuntimeContext runtimeContext = (RuntimeContext) field.get(context);
+      if (runtimeContext == null) {
+        throw new IllegalStateException("The lookup function is not running in a subtask");
+      }
+      return runtimeContext;
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(String.format(
+          "Failed to get the subtask of the lookup function from this Flink version, disable %s to look up " +
+              "without sharding", ArcticValidator.LOOKUP_CACHE_SHARD_BY_NODE.key()), e);
+    }
+  }
+}
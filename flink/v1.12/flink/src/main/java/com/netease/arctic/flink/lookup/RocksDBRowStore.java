@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.flink.lookup;
+
+import org.apache.flink.util.FileUtils;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteOptions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A local key-value store of serialized rows backed by RocksDB, which keeps hot blocks in memory and spills the
+ * rest to the local disk. The write-ahead log is disabled as the store is rebuilt from the table after a restart.
+ */
+class RocksDBRowStore implements Closeable {
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  private final File directory;
+  private final Options options;
+  private final WriteOptions writeOptions;
+  private final RocksDB db;
+
+  RocksDBRowStore(File directory) throws IOException {
+    this.directory = directory;
+    this.options = new Options().setCreateIfMissing(true);
+    this.writeOptions = new WriteOptions().setDisableWAL(true);
+    try {
+      FileUtils.deleteDirectory(directory);
+      if (!directory.mkdirs()) {
+        throw new IOException("Failed to create lookup cache directory " + directory);
+      }
+      this.db = RocksDB.open(options, directory.getAbsolutePath());
+    } catch (RocksDBException e) {
+      writeOptions.close();
+      options.close();
+      throw new IOException("Failed to open lookup cache in " + directory, e);
+    }
+  }
+
+  byte[] get(byte[] key) {
+    try {
+      return db.get(key);
+    } catch (RocksDBException e) {
+      throw new UncheckedIOException(new IOException("Failed to read lookup cache in " + directory, e));
+    }
+  }
+
+  void put(byte[] key, byte[] value) {
+    try {
+      db.put(writeOptions, key, value);
+    } catch (RocksDBException e) {
+      throw new UncheckedIOException(new IOException("Failed to write lookup cache in " + directory, e));
+    }
+  }
+
+  void delete(byte[] key) {
+    try {
+      db.delete(writeOptions, key);
+    } catch (RocksDBException e) {
+      throw new UncheckedIOException(new IOException("Failed to write lookup cache in " + directory, e));
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    db.close();
+    writeOptions.close();
+    options.close();
+    FileUtils.deleteDirectory(directory);
+  }
+}
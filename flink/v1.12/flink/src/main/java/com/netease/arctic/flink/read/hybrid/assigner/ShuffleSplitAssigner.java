@@ -26,6 +26,7 @@ import com.netease.arctic.scan.ArcticFileScanTask;
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.connector.source.SplitEnumeratorContext;
 import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,20 +34,27 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * According to Mark,Index TreeNodes and subtaskId assigning a split to special subtask to read.
+ * <p>
+ * All splits of one (partition, tree node) group are read by the same subtask in task index order, which the
+ * changelog splits rely on. New groups are bound to the subtask with the least pending split cost, and an idle
+ * subtask steals whole groups that no subtask has started reading yet from the most loaded subtask.
  */
 public class ShuffleSplitAssigner implements SplitAssigner {
   private static final Logger LOG = LoggerFactory.getLogger(ShuffleSplitAssigner.class);
+  private static final long STEALABLE_FLAG = 1L << 32;
 
   private final SplitEnumeratorContext<ArcticSplit> enumeratorContext;
 
@@ -63,7 +71,14 @@ public class ShuffleSplitAssigner implements SplitAssigner {
    * Key is subtaskId, Value is the queue of unAssigned arctic splits.
    */
   private final Map<Integer, Queue<ArcticSplit>> subtaskSplitMap;
-
+  /**
+   * Key is subtaskId, Value is the total cost of unAssigned arctic splits of the subtask.
+   */
+  private final Map<Integer, Long> subtaskPendingCost;
+  /**
+   * The partition and file index keys of the groups which are not assigned to readers yet, only they can be stolen.
+   */
+  private final Set<Long> stealableGroups;
 
   public ShuffleSplitAssigner(
       SplitEnumeratorContext<ArcticSplit> enumeratorContext) {
@@ -71,6 +86,8 @@ public class ShuffleSplitAssigner implements SplitAssigner {
     this.totalParallelism = enumeratorContext.currentParallelism();
     this.partitionIndexSubtaskMap = new ConcurrentHashMap<>();
     this.subtaskSplitMap = new ConcurrentHashMap<>();
+    this.subtaskPendingCost = new ConcurrentHashMap<>();
+    this.stealableGroups = ConcurrentHashMap.newKeySet();
   }
 
   public ShuffleSplitAssigner(
@@ -79,8 +96,11 @@ public class ShuffleSplitAssigner implements SplitAssigner {
     this.enumeratorContext = enumeratorContext;
     this.partitionIndexSubtaskMap = new ConcurrentHashMap<>();
     this.subtaskSplitMap = new ConcurrentHashMap<>();
+    this.subtaskPendingCost = new ConcurrentHashMap<>();
+    this.stealableGroups = ConcurrentHashMap.newKeySet();
     deserializePartitionIndex(shuffleSplitRelation);
     splitStates.forEach(state -> onDiscoveredSplits(Collections.singleton(state.toSourceSplit())));
+    rebindIfParallelismChanged();
   }
 
   @Override
@@ -90,34 +110,52 @@ public class ShuffleSplitAssigner implements SplitAssigner {
 
   @Override
   public Optional<ArcticSplit> getNext(int subTaskId) {
-    int currentParallelism = enumeratorContext.currentParallelism();
-    if (totalParallelism != currentParallelism) {
-      throw new FlinkRuntimeException(
-          String.format(
-              "Source parallelism has been changed, before parallelism is %s, now is %s",
-              totalParallelism, currentParallelism));
-    }
-    if (subtaskSplitMap.containsKey(subTaskId)) {
+    synchronized (lock) {
+      rebindIfParallelismChanged();
       Queue<ArcticSplit> queue = subtaskSplitMap.get(subTaskId);
-      ArcticSplit arcticSplit = queue.poll();
-      if (arcticSplit == null) {
-        LOG.debug("Subtask {}, couldn't retrieve arctic source split in the queue.", subTaskId);
+      if (queue == null || queue.isEmpty()) {
+        queue = stealGroup(subTaskId);
+      }
+      if (queue == null || queue.isEmpty()) {
+        LOG.info("Subtask {}, it's an idle subtask due to the empty queue with this subtask.", subTaskId);
         return Optional.empty();
-      } else {
-        LOG.info("get next arctic split taskIndex {}, totalSplitNum {}, arcticSplit {}.",
-            arcticSplit.taskIndex(), totalSplitNum, arcticSplit);
-        return Optional.of(arcticSplit);
       }
-    } else {
-      LOG.info("Subtask {}, it's an idle subtask due to the empty queue with this subtask.", subTaskId);
-      return Optional.empty();
+
+      ArcticSplit arcticSplit = queue.poll();
+      stealableGroups.remove(groupKey(arcticSplit));
+      subtaskPendingCost.merge(subTaskId, -splitCost(arcticSplit), Long::sum);
+      LOG.info("get next arctic split taskIndex {}, totalSplitNum {}, arcticSplit {}.",
+          arcticSplit.taskIndex(), totalSplitNum, arcticSplit);
+      return Optional.of(arcticSplit);
     }
   }
 
   @Override
   public void onDiscoveredSplits(Collection<ArcticSplit> splits) {
-    splits.forEach(this::putArcticIntoQueue);
-    totalSplitNum += splits.size();
+    synchronized (lock) {
+      // bind the costliest new groups first, so that they are spread over the least loaded subtasks
+      Map<Long, List<ArcticSplit>> newGroups = Maps.newHashMap();
+      for (ArcticSplit split : splits) {
+        long groupKey = groupKey(split);
+        if (partitionIndexSubtaskMap.containsKey(groupKey)) {
+          putArcticIntoQueue(split, partitionIndexSubtaskMap.get(groupKey));
+        } else {
+          newGroups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(split);
+        }
+      }
+      newGroups.entrySet().stream()
+          .sorted(Comparator.comparingLong(
+              (Map.Entry<Long, List<ArcticSplit>> group) -> group.getValue().stream()
+                  .mapToLong(ShuffleSplitAssigner::splitCost).sum()).reversed())
+          .forEach(group -> {
+            int subtaskId = leastLoadedSubtask();
+            partitionIndexSubtaskMap.put(group.getKey(), subtaskId);
+            stealableGroups.add(group.getKey());
+            group.getValue().forEach(split -> putArcticIntoQueue(split, subtaskId));
+            LOG.info("group = {}, splits = {}, subtaskId = {}", group.getKey(), group.getValue().size(), subtaskId);
+          });
+      totalSplitNum += splits.size();
+    }
   }
 
   @Override
@@ -125,40 +163,145 @@ public class ShuffleSplitAssigner implements SplitAssigner {
     onDiscoveredSplits(splits);
   }
 
-  void putArcticIntoQueue(ArcticSplit split) {
-    int subtaskId = getSubtaskIdByArcticSplit(split);
-    Queue<ArcticSplit> queue = subtaskSplitMap.getOrDefault(subtaskId, new PriorityQueue<>());
-    queue.add(split);
-    subtaskSplitMap.put(subtaskId, queue);
+  private void putArcticIntoQueue(ArcticSplit split, int subtaskId) {
+    subtaskSplitMap.computeIfAbsent(subtaskId, key -> new PriorityQueue<>()).add(split);
+    subtaskPendingCost.merge(subtaskId, splitCost(split), Long::sum);
   }
 
-  private int getSubtaskIdByArcticSplit(ArcticSplit arcticSplit) {
-    PrimaryKeyedFile file = findAnyFileInArcticSplit(arcticSplit);
-    long partitionIndexKey = partitionAndIndexHashCode(
-        file.partition().toString(), arcticSplit);
-
-    int subtaskId = partitionIndexSubtaskMap.computeIfAbsent(
-        partitionIndexKey, key -> (partitionIndexSubtaskMap.size() + 1) % totalParallelism);
-    LOG.info("partition = {}, index = {}, subtaskId = {}", file.partition().toString(), file.node().index(), subtaskId);
+  private int leastLoadedSubtask() {
+    int subtaskId = 0;
+    long minCost = Long.MAX_VALUE;
+    for (int i = 0; i < totalParallelism; i++) {
+      long cost = subtaskPendingCost.getOrDefault(i, 0L);
+      if (cost < minCost) {
+        minCost = cost;
+        subtaskId = i;
+      }
+    }
     return subtaskId;
   }
 
+  /**
+   * Move the costliest group which is not started yet from the most loaded subtask to the idle subtask.
+   *
+   * @return the queue of the idle subtask, null if there is nothing to steal
+   */
+  private Queue<ArcticSplit> stealGroup(int idleSubtaskId) {
+    Map<Long, Long> stealableCost = Maps.newHashMap();
+    subtaskSplitMap.forEach((subtaskId, queue) -> {
+      if (subtaskId != idleSubtaskId) {
+        queue.stream()
+            .filter(split -> stealableGroups.contains(groupKey(split)))
+            .forEach(split -> stealableCost.merge(groupKey(split), splitCost(split), Long::sum));
+      }
+    });
+    Optional<Long> victimGroup = stealableCost.keySet().stream()
+        .max(Comparator.comparingLong((Long group) ->
+                subtaskPendingCost.getOrDefault(partitionIndexSubtaskMap.get(group), 0L))
+            .thenComparingLong(stealableCost::get));
+    if (!victimGroup.isPresent()) {
+      return null;
+    }
+
+    long group = victimGroup.get();
+    int victimSubtaskId = partitionIndexSubtaskMap.get(group);
+    Queue<ArcticSplit> victimQueue = subtaskSplitMap.get(victimSubtaskId);
+    List<ArcticSplit> stolen = victimQueue.stream()
+        .filter(split -> groupKey(split) == group)
+        .collect(Collectors.toList());
+    victimQueue.removeAll(stolen);
+    subtaskPendingCost.merge(victimSubtaskId, -stealableCost.get(group), Long::sum);
+    partitionIndexSubtaskMap.put(group, idleSubtaskId);
+    stolen.forEach(split -> putArcticIntoQueue(split, idleSubtaskId));
+    LOG.info("Subtask {} steals group {} of {} splits from subtask {}.", idleSubtaskId, group, stolen.size(),
+        victimSubtaskId);
+    return subtaskSplitMap.get(idleSubtaskId);
+  }
+
+  /**
+   * Rebind the groups of the subtasks that no longer exist after the source parallelism has been changed, and
+   * move their pending splits to the new owners.
+   */
+  private void rebindIfParallelismChanged() {
+    int currentParallelism = enumeratorContext.currentParallelism();
+    if (totalParallelism == currentParallelism) {
+      return;
+    }
+    LOG.warn("Source parallelism has been changed, before parallelism is {}, now is {}, rebind the groups of " +
+        "removed subtasks.", totalParallelism, currentParallelism);
+    totalParallelism = currentParallelism;
+
+    // groups that have been started keep being not stealable on their new owners
+    Set<Long> startedGroups = partitionIndexSubtaskMap.entrySet().stream()
+        .filter(entry -> entry.getValue() >= currentParallelism && !stealableGroups.contains(entry.getKey()))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+    List<ArcticSplit> orphanSplits = new ArrayList<>();
+    subtaskSplitMap.keySet().removeIf(subtaskId -> {
+      if (subtaskId < currentParallelism) {
+        return false;
+      }
+      orphanSplits.addAll(subtaskSplitMap.get(subtaskId));
+      subtaskPendingCost.remove(subtaskId);
+      return true;
+    });
+    subtaskPendingCost.keySet().removeIf(subtaskId -> subtaskId >= currentParallelism);
+    partitionIndexSubtaskMap.entrySet().removeIf(entry -> entry.getValue() >= currentParallelism);
+    totalSplitNum -= orphanSplits.size();
+    onDiscoveredSplits(orphanSplits);
+    stealableGroups.removeAll(startedGroups);
+  }
+
+  private long groupKey(ArcticSplit split) {
+    PrimaryKeyedFile file = findAnyFileInArcticSplit(split);
+    return partitionAndIndexHashCode(file.partition().toString(), split);
+  }
+
+  private static long splitCost(ArcticSplit split) {
+    long cost = 0;
+    if (split.isChangelogSplit()) {
+      for (ArcticFileScanTask task : split.asChangelogSplit().insertTasks()) {
+        cost += task.length();
+      }
+      for (ArcticFileScanTask task : split.asChangelogSplit().deleteTasks()) {
+        cost += task.length();
+      }
+    } else if (split.isSnapshotSplit()) {
+      for (ArcticFileScanTask task : split.asSnapshotSplit().insertTasks()) {
+        cost += task.length();
+      }
+    }
+    return cost;
+  }
+
   @Override
   public Collection<ArcticSplitState> state() {
     List<ArcticSplitState> arcticSplitStates = new ArrayList<>();
-    subtaskSplitMap.forEach((key, value) ->
-        arcticSplitStates.addAll(
-            value.stream()
-                .map(ArcticSplitState::new)
-                .collect(Collectors.toList())));
+    synchronized (lock) {
+      subtaskSplitMap.forEach((key, value) ->
+          arcticSplitStates.addAll(
+              value.stream()
+                  .map(ArcticSplitState::new)
+                  .collect(Collectors.toList())));
+    }
 
     return arcticSplitStates;
   }
 
+  @Override
+  public int pendingSplitCount() {
+    // called by the metric reporter thread besides the enumerator thread
+    synchronized (lock) {
+      return subtaskSplitMap.values().stream().mapToInt(Queue::size).sum();
+    }
+  }
+
   @Override
   public void close() throws IOException {
     subtaskSplitMap.clear();
     partitionIndexSubtaskMap.clear();
+    subtaskPendingCost.clear();
+    stealableGroups.clear();
   }
 
   public long[] serializePartitionIndex() {
@@ -171,7 +314,9 @@ public class ShuffleSplitAssigner implements SplitAssigner {
     int i = prefixParams;
     for (Map.Entry<Long, Integer> entry : partitionIndexSubtaskMap.entrySet()) {
       shuffleSplitRelation[i++] = entry.getKey();
-      shuffleSplitRelation[i++] = entry.getValue();
+      // the stealable flag is kept in the high bits, state without it restores every group as started
+      shuffleSplitRelation[i++] = stealableGroups.contains(entry.getKey()) ?
+          entry.getValue() | STEALABLE_FLAG : entry.getValue();
     }
     return shuffleSplitRelation;
   }
@@ -183,7 +328,12 @@ public class ShuffleSplitAssigner implements SplitAssigner {
     this.currentMaskOfTreeNode = shuffleSplitRelation[2] == -1 ? null : shuffleSplitRelation[2];
 
     for (int i = prefixParams; i < shuffleSplitRelation.length; i++) {
-      partitionIndexSubtaskMap.put(shuffleSplitRelation[i], (int) shuffleSplitRelation[++i]);
+      long group = shuffleSplitRelation[i];
+      long subtask = shuffleSplitRelation[++i];
+      partitionIndexSubtaskMap.put(group, (int) subtask);
+      if ((subtask & STEALABLE_FLAG) != 0) {
+        stealableGroups.add(group);
+      }
     }
   }
 
@@ -55,4 +55,10 @@ public interface SplitAssigner extends Closeable {
   }
 
   Collection<ArcticSplitState> state();
+
+  /**
+   * The number of splits that are not assigned to readers yet, it is called by the metric reporter thread as well so
+   * it should be cheap and thread-safe
+   */
+  int pendingSplitCount();
 }
@@ -21,14 +21,20 @@ package com.netease.arctic.flink.read.hybrid.enumerator;
 import com.netease.arctic.flink.read.FlinkSplitPlanner;
 import com.netease.arctic.flink.read.hybrid.split.ArcticSplit;
 import com.netease.arctic.flink.table.ArcticTableLoader;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.table.KeyedTable;
 import org.apache.flink.annotation.Internal;
+import org.apache.iceberg.DataOperations;
 import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.SnapshotSummary;
 import org.apache.iceberg.TableScan;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.SnapshotUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -38,6 +44,9 @@ import static com.netease.arctic.flink.util.ArcticUtils.loadArcticTable;
 /**
  * Continuous planning {@link KeyedTable} by {@link ArcticEnumeratorOffset} and generate a
  * {@link ContinuousEnumerationResult}.
+ * <p>
+ * New change snapshots are planned in chunks of at most {@code maxPlanFiles} change files, so that the enumerator
+ * doesn't plan all the change files at once after the job has been down for a long time.
  */
 @Internal
 public class ContinuousSplitPlannerImpl implements ContinuousSplitPlanner {
@@ -46,9 +55,29 @@ public class ContinuousSplitPlannerImpl implements ContinuousSplitPlanner {
   private transient KeyedTable table;
   private final ArcticTableLoader loader;
   private static final AtomicInteger splitCount = new AtomicInteger();
+  private final int maxPlanFiles;
+  private volatile long unplannedFiles;
 
   public ContinuousSplitPlannerImpl(ArcticTableLoader loader) {
+    this(loader, ArcticValidator.SCAN_PLAN_MAX_FILES.defaultValue());
+  }
+
+  /**
+   * @param maxPlanFiles the max number of change files to plan at once, not greater than 0 means unlimited
+   */
+  public ContinuousSplitPlannerImpl(ArcticTableLoader loader, int maxPlanFiles) {
     this.loader = loader;
+    this.maxPlanFiles = maxPlanFiles;
+  }
+
+  @Override
+  public boolean hasMoreToPlan() {
+    return unplannedFiles > 0;
+  }
+
+  @Override
+  public long unplannedFiles() {
+    return unplannedFiles;
   }
 
   @Override
@@ -72,7 +101,7 @@ public class ContinuousSplitPlannerImpl implements ContinuousSplitPlanner {
     long fromChangeSnapshotId = lastPosition.changeSnapshotId();
     Snapshot changeSnapshot = table.changeTable().currentSnapshot();
     if (changeSnapshot != null && changeSnapshot.snapshotId() != fromChangeSnapshotId) {
-      long snapshotId = changeSnapshot.snapshotId();
+      long snapshotId = boundedToSnapshotId(fromChangeSnapshotId, changeSnapshot.snapshotId());
       TableScan tableScan = table.changeTable().newScan().appendsBetween(fromChangeSnapshotId, snapshotId);
 
       List<ArcticSplit> arcticChangeSplit = planChangeTable(tableScan, splitCount);
@@ -82,10 +111,54 @@ public class ContinuousSplitPlannerImpl implements ContinuousSplitPlanner {
           lastPosition,
           ArcticEnumeratorOffset.of(snapshotId, null));
     }
+    unplannedFiles = 0;
     return ContinuousEnumerationResult.EMPTY;
   }
 
+  /**
+   * Find the last change snapshot to plan, that the append snapshots after {@code fromSnapshotId} up to it add at
+   * most {@code maxPlanFiles} files, but at least one snapshot, and count the files added by the rest.
+   */
+  private long boundedToSnapshotId(long fromSnapshotId, long currentSnapshotId) {
+    unplannedFiles = 0;
+    if (maxPlanFiles <= 0) {
+      return currentSnapshotId;
+    }
+    List<Long> snapshotIds = SnapshotUtil.snapshotIdsBetween(table.changeTable(), fromSnapshotId, currentSnapshotId);
+    Collections.reverse(snapshotIds);
+
+    long toSnapshotId = currentSnapshotId;
+    long plannedFiles = 0;
+    boolean bounded = false;
+    for (long snapshotId : snapshotIds) {
+      long addedFiles = addedFiles(table.changeTable().snapshot(snapshotId));
+      if (bounded) {
+        unplannedFiles += addedFiles;
+      } else if (plannedFiles > 0 && plannedFiles + addedFiles > maxPlanFiles) {
+        bounded = true;
+        unplannedFiles += addedFiles;
+      } else {
+        plannedFiles += addedFiles;
+        toSnapshotId = snapshotId;
+      }
+    }
+    if (bounded) {
+      LOG.info("plan {} change files up to snapshot {}, {} change files are left to the following plans.",
+          plannedFiles, toSnapshotId, unplannedFiles);
+    }
+    return toSnapshotId;
+  }
+
+  private static long addedFiles(Snapshot snapshot) {
+    if (snapshot == null || !DataOperations.APPEND.equals(snapshot.operation()) || snapshot.summary() == null) {
+      return 0;
+    }
+    return PropertyUtil.propertyAsLong(snapshot.summary(), SnapshotSummary.ADDED_FILES_PROP, 0) +
+        PropertyUtil.propertyAsLong(snapshot.summary(), SnapshotSummary.ADDED_DELETE_FILES_PROP, 0);
+  }
+
   private ContinuousEnumerationResult discoverInitialSplits() {
+    unplannedFiles = 0;
     Snapshot changeSnapshot = table.changeTable().currentSnapshot();
     if (changeSnapshot != null) {
       long changeStartSnapshotId = table.changeTable().currentSnapshot().snapshotId();
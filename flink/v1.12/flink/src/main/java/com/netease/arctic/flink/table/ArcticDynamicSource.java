@@ -18,18 +18,27 @@
 
 package com.netease.arctic.flink.table;
 
+import com.netease.arctic.flink.lookup.ArcticAsyncLookupFunction;
+import com.netease.arctic.flink.lookup.ArcticLookupFunction;
+import com.netease.arctic.flink.lookup.KeyedTableLookupCache;
 import com.netease.arctic.flink.shuffle.ReadShuffleRulePolicy;
 import com.netease.arctic.flink.shuffle.ShuffleHelper;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.DistributionHashMode;
 import org.apache.flink.api.common.eventtime.WatermarkStrategy;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.api.ValidationException;
 import org.apache.flink.table.connector.ChangelogMode;
+import org.apache.flink.table.connector.source.AsyncTableFunctionProvider;
 import org.apache.flink.table.connector.source.DataStreamScanProvider;
 import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.connector.source.LookupTableSource;
 import org.apache.flink.table.connector.source.ScanTableSource;
+import org.apache.flink.table.connector.source.TableFunctionProvider;
 import org.apache.flink.table.connector.source.abilities.SupportsFilterPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsLimitPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsWatermarkPushDown;
@@ -57,9 +66,9 @@ import static com.netease.arctic.table.TableProperties.READ_DISTRIBUTION_MODE;
 import static com.netease.arctic.table.TableProperties.READ_DISTRIBUTION_MODE_DEFAULT;
 
 /**
- * Flink table api that generates source operators.
+ * Flink table api that generates source operators, and lookup functions for keyed tables.
  */
-public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushDown,
+public class ArcticDynamicSource implements ScanTableSource, LookupTableSource, SupportsFilterPushDown,
     SupportsLimitPushDown, SupportsWatermarkPushDown {
 
   public static final Logger LOG = LoggerFactory.getLogger(ArcticDynamicSource.class);
@@ -67,6 +76,7 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
   protected final String tableName;
 
   private final ScanTableSource arcticDynamicSource;
+  private final ArcticTableLoader tableLoader;
   private final ArcticTable arcticTable;
   private final Map<String, String> properties;
   private RowType flinkSchemaRowType;
@@ -77,12 +87,14 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
 
   public ArcticDynamicSource(String tableName,
                              ScanTableSource arcticDynamicSource,
+                             ArcticTableLoader tableLoader,
                              ArcticTable arcticTable,
                              Schema readSchema,
                              RowType flinkSchemaRowType,
                              Map<String, String> properties) {
     this.tableName = tableName;
     this.arcticDynamicSource = arcticDynamicSource;
+    this.tableLoader = tableLoader;
     this.arcticTable = arcticTable;
     this.properties = properties;
     this.readSchema = readSchema;
@@ -92,17 +104,20 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
   /**
    * @param tableName           tableName
    * @param arcticDynamicSource underlying source
+   * @param tableLoader         loader of arcticTable, used by lookup functions
    * @param arcticTable         arcticTable
    * @param projectedSchema     read schema
    * @param properties          With all ArcticTable properties and sql options
    */
   public ArcticDynamicSource(String tableName,
                              ScanTableSource arcticDynamicSource,
+                             ArcticTableLoader tableLoader,
                              ArcticTable arcticTable,
                              TableSchema projectedSchema,
                              Map<String, String> properties) {
     this.tableName = tableName;
     this.arcticDynamicSource = arcticDynamicSource;
+    this.tableLoader = tableLoader;
     this.arcticTable = arcticTable;
     this.properties = properties;
 
@@ -145,6 +160,28 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
     };
   }
 
+  @Override
+  public LookupRuntimeProvider getLookupRuntimeProvider(LookupContext context) {
+    if (!arcticTable.isKeyedTable()) {
+      throw new ValidationException(String.format(
+          "Lookup join is only supported by arctic tables with primary key, but %s has none.", tableName));
+    }
+    int[] lookupKeys = new int[context.getKeys().length];
+    for (int i = 0; i < lookupKeys.length; i++) {
+      int[] key = context.getKeys()[i];
+      Preconditions.checkArgument(key.length == 1, "Arctic lookup join does not support nested keys");
+      lookupKeys[i] = key[0];
+    }
+    Configuration options = ArcticValidator.asConfiguration(properties);
+    KeyedTableLookupCache cache = new KeyedTableLookupCache(tableLoader, arcticTable.asKeyedTable(), readSchema,
+        flinkSchemaRowType, lookupKeys, options);
+    if (options.get(ArcticValidator.LOOKUP_ASYNC)) {
+      return AsyncTableFunctionProvider.of(
+          new ArcticAsyncLookupFunction(cache, options.get(ArcticValidator.LOOKUP_ASYNC_THREAD_NUMBER)));
+    }
+    return TableFunctionProvider.of(new ArcticLookupFunction(cache));
+  }
+
   private DistributionHashMode getDistributionHashMode() {
     String modeName = PropertyUtil.propertyAsString(properties,
         READ_DISTRIBUTION_MODE,
@@ -203,8 +240,8 @@ public class ArcticDynamicSource implements ScanTableSource, SupportsFilterPushD
 
   @Override
   public DynamicTableSource copy() {
-    return new ArcticDynamicSource(tableName, arcticDynamicSource, arcticTable, readSchema, flinkSchemaRowType,
-        properties);
+    return new ArcticDynamicSource(tableName, arcticDynamicSource, tableLoader, arcticTable, readSchema,
+        flinkSchemaRowType, properties);
   }
 
   @Override
@@ -19,6 +19,7 @@
 package com.netease.arctic.flink.write;
 
 import com.netease.arctic.data.DataTreeNode;
+import com.netease.arctic.data.PrimaryKeyData;
 import com.netease.arctic.flink.shuffle.ShuffleKey;
 import com.netease.arctic.flink.shuffle.ShuffleRulePolicy;
 import com.netease.arctic.flink.table.ArcticTableLoader;
@@ -29,11 +30,15 @@ import org.apache.flink.streaming.api.operators.BoundedOneInput;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.types.RowKind;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
 import org.apache.iceberg.flink.sink.TaskWriterFactory;
 import org.apache.iceberg.io.WriteResult;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.relocated.com.google.common.io.BaseEncoding;
+import org.apache.iceberg.types.TypeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,8 +62,12 @@ public class ArcticFileWriter extends AbstractStreamOperator<WriteResult>
   private final int minFileSplitCount;
   private final ArcticTableLoader tableLoader;
   private final boolean upsert;
+  private final RowType flinkSchema;
+  private final int microBatchSize;
+  private final boolean collapseKeys;
 
   private transient org.apache.iceberg.io.TaskWriter<RowData> writer;
+  private transient RowDataMicroBatch microBatch;
   private transient int subTaskId;
   private transient int attemptId;
   private transient String jobId;
@@ -76,11 +85,32 @@ public class ArcticFileWriter extends AbstractStreamOperator<WriteResult>
       int minFileSplitCount,
       ArcticTableLoader tableLoader,
       boolean upsert) {
+    this(shuffleRule, taskWriterFactory, minFileSplitCount, tableLoader, upsert, null, 0, false);
+  }
+
+  /**
+   * @param flinkSchema    the schema of incoming rows, only required when micro batch is enabled
+   * @param microBatchSize the max number of rows, or keys if collapsing keys, to buffer before writing them in one
+   *                       privileged section, not greater than 0 to write row by row
+   * @param collapseKeys   whether to collapse changes of the same primary key within a micro batch
+   */
+  public ArcticFileWriter(
+      ShuffleRulePolicy<RowData, ShuffleKey> shuffleRule,
+      TaskWriterFactory<RowData> taskWriterFactory,
+      int minFileSplitCount,
+      ArcticTableLoader tableLoader,
+      boolean upsert,
+      RowType flinkSchema,
+      int microBatchSize,
+      boolean collapseKeys) {
     this.shuffleRule = shuffleRule;
     this.taskWriterFactory = taskWriterFactory;
     this.minFileSplitCount = minFileSplitCount;
     this.tableLoader = tableLoader;
     this.upsert = upsert;
+    this.flinkSchema = flinkSchema;
+    this.microBatchSize = microBatchSize;
+    this.collapseKeys = collapseKeys;
   }
 
   @Override
@@ -94,6 +124,23 @@ public class ArcticFileWriter extends AbstractStreamOperator<WriteResult>
     initTaskWriterFactory(mask);
 
     this.writer = table.io().doAs(taskWriterFactory::create);
+    this.microBatch = createMicroBatch();
+  }
+
+  private RowDataMicroBatch createMicroBatch() {
+    if (microBatchSize <= 0 || flinkSchema == null) {
+      return null;
+    }
+    Schema schema = TypeUtil.reassignIds(
+        FlinkSchemaUtil.convert(FlinkSchemaUtil.toSchema(flinkSchema)), table.schema());
+    PrimaryKeyData primaryKey = null;
+    if (collapseKeys && table.isKeyedTable() && table.asKeyedTable().primaryKeySpec().primaryKeyExisted()) {
+      primaryKey = new PrimaryKeyData(table.asKeyedTable().primaryKeySpec(), schema);
+    }
+    LOG.info("table:{}, write micro batch size:{}, collapse keys:{}", table.name(), microBatchSize,
+        primaryKey != null);
+    return new RowDataMicroBatch(microBatchSize, upsert, flinkSchema, schema, primaryKey,
+        getExecutionConfig().isObjectReuseEnabled());
   }
 
   private void initTaskWriterFactory(Long mask) {
@@ -156,6 +203,7 @@ public class ArcticFileWriter extends AbstractStreamOperator<WriteResult>
   }
 
   private void completeAndEmitFiles() throws IOException {
+    flushMicroBatch();
     // For bounded stream, it may don't enable the checkpoint mechanism so we'd better to emit the remaining
     // completed files to downstream before closing the writer so that we won't miss any of them.
     emit(writer.complete());
@@ -164,6 +212,16 @@ public class ArcticFileWriter extends AbstractStreamOperator<WriteResult>
   @Override
   public void processElement(StreamRecord<RowData> element) throws Exception {
     RowData row = element.getValue();
+    if (microBatch != null) {
+      if (microBatch.add(row)) {
+        table.io().doAs(() -> {
+          flushMicroBatch();
+          return null;
+        });
+      }
+      return;
+    }
+
     table.io().doAs(() -> {
       if (upsert && RowKind.INSERT.equals(row.getRowKind())) {
         row.setRowKind(RowKind.DELETE);
@@ -188,6 +246,12 @@ public class ArcticFileWriter extends AbstractStreamOperator<WriteResult>
     }
   }
 
+  private void flushMicroBatch() throws IOException {
+    if (microBatch != null && !microBatch.isEmpty()) {
+      microBatch.writeTo(writer);
+    }
+  }
+
   private void emit(WriteResult writeResult) {
     output.collect(new StreamRecord<>(writeResult));
   }
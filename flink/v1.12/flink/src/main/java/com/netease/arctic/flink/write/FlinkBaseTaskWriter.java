@@ -24,6 +24,7 @@ import com.netease.arctic.io.writer.OutputFileFactory;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.PrimaryKeySpec;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionSpec;
@@ -38,6 +39,7 @@ import org.apache.iceberg.io.FileAppenderFactory;
 public class FlinkBaseTaskWriter extends BaseTaskWriter<RowData> {
 
   private final RowDataWrapper wrapper;
+  private final RowDataSerializer serializer;
 
   public FlinkBaseTaskWriter(FileFormat format, FileAppenderFactory<RowData> appenderFactory,
                              OutputFileFactory outputFileFactory, ArcticFileIO io, long targetFileSize,
@@ -45,10 +47,16 @@ public class FlinkBaseTaskWriter extends BaseTaskWriter<RowData> {
                              PrimaryKeySpec primaryKeySpec) {
     super(format, appenderFactory, outputFileFactory, io, targetFileSize, mask, schema, spec, primaryKeySpec);
     this.wrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
+    this.serializer = new RowDataSerializer(flinkSchema);
   }
 
   @Override
   protected StructLike asStructLike(RowData data) {
     return wrapper.wrap(data);
   }
+
+  @Override
+  protected RowData copy(RowData row) {
+    return serializer.copy(row);
+  }
 }
@@ -67,6 +67,10 @@ import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_
 import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_THROUGHPUT_METRIC_ENABLE_DEFAULT;
 import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_WRITE_MAX_OPEN_FILE_SIZE;
 import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_WRITE_MAX_OPEN_FILE_SIZE_DEFAULT;
+import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS;
+import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS_DEFAULT;
+import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_WRITE_MICRO_BATCH_SIZE;
+import static com.netease.arctic.flink.table.descriptors.ArcticValidator.ARCTIC_WRITE_MICRO_BATCH_SIZE_DEFAULT;
 import static com.netease.arctic.table.TableProperties.DEFAULT_FILE_FORMAT;
 import static com.netease.arctic.table.TableProperties.DEFAULT_FILE_FORMAT_DEFAULT;
 import static com.netease.arctic.table.TableProperties.WRITE_DISTRIBUTION_HASH_DEFAULT;
@@ -287,8 +291,10 @@ public class FlinkSink {
               TableProperties.CHANGE_FILE_INDEX_HASH_MOD_BUCKET);
         }
 
+        boolean skewAware = PropertyUtil.propertyAsBoolean(table.properties(),
+            TableProperties.WRITE_DISTRIBUTION_SKEW_AWARE, TableProperties.WRITE_DISTRIBUTION_SKEW_AWARE_DEFAULT);
         return new RoundRobinShuffleRulePolicy(helper, writeOperatorParallelism,
-            writeFileSplit, distributionHashMode);
+            writeFileSplit, distributionHashMode, skewAware);
       }
     }
   }
@@ -325,11 +331,18 @@ public class FlinkSink {
 
     boolean upsert = arcticTable.isKeyedTable() && PropertyUtil.propertyAsBoolean(arcticTable.properties(),
         TableProperties.UPSERT_ENABLED, TableProperties.UPSERT_ENABLED_DEFAULT);
+    int microBatchSize = PropertyUtil.propertyAsInt(arcticTable.properties(), ARCTIC_WRITE_MICRO_BATCH_SIZE,
+        ARCTIC_WRITE_MICRO_BATCH_SIZE_DEFAULT);
+    boolean collapseKeys = PropertyUtil.propertyAsBoolean(arcticTable.properties(),
+        ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS, ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS_DEFAULT);
     return new ArcticFileWriter(shufflePolicy,
         createTaskWriterFactory(arcticTable, overwrite, flinkSchema, equalityColumns),
         minFileSplitCount,
         tableLoader,
-        upsert);
+        upsert,
+        flinkSchema,
+        microBatchSize,
+        collapseKeys);
   }
 
   private static TaskWriterFactory<RowData> createTaskWriterFactory(ArcticTable arcticTable,
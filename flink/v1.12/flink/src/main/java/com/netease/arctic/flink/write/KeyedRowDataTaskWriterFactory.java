@@ -19,6 +19,7 @@
 package com.netease.arctic.flink.write;
 
 import com.netease.arctic.flink.util.ArcticUtils;
+import com.netease.arctic.io.writer.BaseTaskWriter;
 import com.netease.arctic.io.writer.OutputFileFactory;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.TableProperties;
@@ -110,10 +111,11 @@ public class KeyedRowDataTaskWriterFactory implements TaskWriterFactory<RowData>
     Schema schema = TypeUtil.reassignIds(
         FlinkSchemaUtil.convert(FlinkSchemaUtil.toSchema(flinkSchema)), table.schema());
 
+    BaseTaskWriter<RowData> writer;
     if (ArcticUtils.isToBase(overwrite)) {
       appenderFactory = new FlinkAppenderFactory(
           table.baseTable().schema(), flinkSchema, table.properties(), table.spec());
-      return new FlinkBaseTaskWriter(
+      writer = new FlinkBaseTaskWriter(
           format,
           appenderFactory,
           outputFileFactory,
@@ -124,13 +126,18 @@ public class KeyedRowDataTaskWriterFactory implements TaskWriterFactory<RowData>
       RowType flinkSchemaWithMeta = FlinkSchemaUtil.convert(changeSchemaWithMeta);
       appenderFactory = new FlinkAppenderFactory(
           changeSchemaWithMeta, flinkSchemaWithMeta, table.properties(), table.spec());
-      return new FlinkChangeTaskWriter(
+      writer = new FlinkChangeTaskWriter(
           format,
           appenderFactory,
           outputFileFactory,
           table.io(), fileSizeBytes, mask,
           schema, flinkSchema, table.spec(), table.primaryKeySpec());
     }
+    writer.setMaxOpenWriters(PropertyUtil.propertyAsInt(table.properties(),
+        TableProperties.WRITE_MAX_OPEN_WRITERS, TableProperties.WRITE_MAX_OPEN_WRITERS_DEFAULT));
+    writer.setClusterBufferRows(PropertyUtil.propertyAsInt(table.properties(),
+        TableProperties.WRITE_CLUSTER_BUFFER_ROWS, TableProperties.WRITE_CLUSTER_BUFFER_ROWS_DEFAULT));
+    return writer;
   }
 
 }
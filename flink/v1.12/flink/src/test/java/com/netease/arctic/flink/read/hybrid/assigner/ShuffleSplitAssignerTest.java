@@ -85,6 +85,47 @@ public class ShuffleSplitAssignerTest extends RowDataReaderFunctionTest {
     Assert.assertEquals(splitList.size(), actual.size());
   }
 
+  @Test
+  public void testIdleSubtaskStealsUnstartedGroups() {
+    ShuffleSplitAssigner shuffleSplitAssigner = instanceSplitAssigner(2);
+
+    List<ArcticSplit> splitList = FlinkSplitPlanner.planFullTable(testKeyedTable, new AtomicInteger());
+    shuffleSplitAssigner.onDiscoveredSplits(splitList);
+    List<ArcticSplit> actual = new ArrayList<>();
+
+    Optional<ArcticSplit> splitOpt = shuffleSplitAssigner.getNext(0);
+    while (splitOpt.isPresent()) {
+      actual.add(splitOpt.get());
+      splitOpt = shuffleSplitAssigner.getNext(0);
+    }
+
+    // subtask 1 has not started any group, so subtask 0 has stolen all of them
+    Assert.assertEquals(splitList.size(), actual.size());
+    Assert.assertFalse(shuffleSplitAssigner.getNext(1).isPresent());
+  }
+
+  @Test
+  public void testRestoreWithChangedParallelism() {
+    ShuffleSplitAssigner shuffleSplitAssigner = instanceSplitAssigner(3);
+
+    List<ArcticSplit> splitList = FlinkSplitPlanner.planFullTable(testKeyedTable, new AtomicInteger());
+    shuffleSplitAssigner.onDiscoveredSplits(splitList);
+    List<ArcticSplit> actual = new ArrayList<>();
+    shuffleSplitAssigner.getNext(2).ifPresent(actual::add);
+
+    ShuffleSplitAssigner restored = new ShuffleSplitAssigner(new InternalSplitEnumeratorContext(2),
+        shuffleSplitAssigner.state(), shuffleSplitAssigner.serializePartitionIndex());
+    for (int subtaskId = 0; subtaskId < 2; subtaskId++) {
+      Optional<ArcticSplit> splitOpt = restored.getNext(subtaskId);
+      while (splitOpt.isPresent()) {
+        actual.add(splitOpt.get());
+        splitOpt = restored.getNext(subtaskId);
+      }
+    }
+
+    Assert.assertEquals(splitList.size(), actual.size());
+  }
+
   @Test
   public void testTreeNodeMaskUpdate() {
     ShuffleSplitAssigner shuffleSplitAssigner = instanceSplitAssigner(3);
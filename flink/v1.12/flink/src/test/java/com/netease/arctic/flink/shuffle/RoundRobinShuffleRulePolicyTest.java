@@ -20,6 +20,7 @@ package com.netease.arctic.flink.shuffle;
 
 import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.flink.FlinkTestBase;
+import com.netease.arctic.table.DistributionHashMode;
 import org.apache.flink.api.common.functions.Partitioner;
 import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.table.data.RowData;
@@ -130,4 +131,32 @@ public class RoundRobinShuffleRulePolicyTest extends FlinkTestBase {
         partitioner.partition(keySelector.getKey(
             createRowData(1, "hello2", "2022-10-12T10:10:11.0")), 5));
   }
+
+  @Test
+  public void testSkewAwarePrimaryKeyPartitionedTable() throws Exception {
+    ShuffleHelper helper = ShuffleHelper.build(testKeyedTable, testKeyedTable.schema(), FLINK_ROW_TYPE);
+    RoundRobinShuffleRulePolicy policy = new RoundRobinShuffleRulePolicy(helper, 5, 2,
+        DistributionHashMode.PRIMARY_PARTITION_KEY, true);
+    Map<Integer, Set<DataTreeNode>> subTaskTreeNodes = policy.getSubtaskTreeNodes();
+    Assert.assertEquals(5, subTaskTreeNodes.size());
+    subTaskTreeNodes.values().forEach(nodes -> {
+      Assert.assertEquals(8, nodes.size());
+      nodes.forEach(node -> Assert.assertEquals(7, node.mask()));
+    });
+
+    KeySelector<RowData, ShuffleKey> keySelector = policy.generateKeySelector();
+    Partitioner<ShuffleKey> partitioner = policy.generatePartitioner();
+    Assert.assertEquals(partitioner.partition(keySelector.getKey(
+            createRowData(1, "hello", "2022-10-11T10:10:11.0")), 5),
+        partitioner.partition(keySelector.getKey(
+            createRowData(1, "hello2", "2022-10-11T10:10:11.0")), 5));
+
+    // a single hot partition is spread over all writers
+    Set<Integer> subtasks = Sets.newHashSet();
+    for (int i = 0; i < 100; i++) {
+      subtasks.add(partitioner.partition(keySelector.getKey(
+          createRowData(i, "hello", "2022-10-11T10:10:11.0")), 5));
+    }
+    Assert.assertEquals(5, subtasks.size());
+  }
 }
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.flink.table;
+
+import com.netease.arctic.flink.FlinkTestBase;
+import com.netease.arctic.flink.lookup.KeyedTableLookupCache;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
+import com.netease.arctic.flink.write.KeyedRowDataTaskWriterFactory;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.table.api.Table;
+import org.apache.flink.table.api.ValidationException;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.flink.table.api.Expressions.$;
+
+public class TestLookupJoin extends FlinkTestBase {
+
+  private static final String DB = PK_TABLE_ID.getDatabase();
+  private static final String TABLE = PK_TABLE_ID.getTableName();
+  private static final RowType ROW_TYPE = FlinkSchemaUtil.convert(TABLE_SCHEMA);
+  private static final LocalDateTime LDT = LocalDateTime.parse("2022-01-01T00:00:00");
+
+  private final AtomicLong transactionId = new AtomicLong(1);
+
+  public void before() {
+    super.before();
+    super.config();
+  }
+
+  @Test
+  public void testLookupJoin() throws IOException {
+    writeBaseAndChange();
+
+    DataStream<Integer> probe = getEnv().fromElements(1, 2, 5, 7);
+    Table input = getTableEnv().fromDataStream(probe, $("id"), $("proctime").proctime());
+    getTableEnv().createTemporaryView("probe", input);
+    sql("CREATE CATALOG arcticCatalog WITH %s", toWithClause(props));
+
+    Set<Row> actual = sqlSet("SELECT p.id, d.name FROM probe AS p JOIN arcticCatalog." + DB + "." + TABLE +
+        " FOR SYSTEM_TIME AS OF p.proctime AS d ON p.id = d.id");
+
+    Set<Row> expected = Sets.newHashSet(Row.of(1, "john"), Row.of(2, "lily"), Row.of(5, "lind"));
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testBootstrapFromBaseAndChange() throws IOException {
+    writeBaseAndChange();
+
+    KeyedTableLookupCache cache = openCache(0, 1, false);
+    try {
+      Assert.assertEquals("john", nameOf(cache, 1));
+      Assert.assertEquals("sam", nameOf(cache, 4));
+      Assert.assertEquals("lind", nameOf(cache, 5));
+      Assert.assertEquals("mack", nameOf(cache, 6));
+      Assert.assertNull(cache.get(7));
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testApplyChangeSnapshot() throws IOException {
+    writeBaseAndChange();
+
+    KeyedTableLookupCache cache = openCache(0, 1, false);
+    try {
+      write(false,
+          GenericRowData.ofKind(RowKind.UPDATE_BEFORE, 1, StringData.fromString("john"), timestamp()),
+          GenericRowData.ofKind(RowKind.UPDATE_AFTER, 1, StringData.fromString("jim"), timestamp()),
+          GenericRowData.ofKind(RowKind.DELETE, 6, StringData.fromString("mack"), timestamp()));
+      Assert.assertEquals("john", nameOf(cache, 1));
+
+      cache.refresh();
+      Assert.assertEquals("jim", nameOf(cache, 1));
+      Assert.assertNull(cache.get(6));
+      Assert.assertEquals("lind", nameOf(cache, 5));
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testReloadAfterChangeSnapshotsExpired() throws IOException {
+    writeBaseAndChange();
+
+    KeyedTableLookupCache cache = openCache(0, 1, false);
+    try {
+      write(false, GenericRowData.ofKind(RowKind.DELETE, 2, StringData.fromString("lily"), timestamp()));
+      write(false, GenericRowData.ofKind(RowKind.INSERT, 7, StringData.fromString("tom"), timestamp()));
+      // the change snapshot the cache is at is gone, so the changes after it can not be applied incrementally
+      testKeyedTable.changeTable().expireSnapshots()
+          .expireOlderThan(System.currentTimeMillis())
+          .retainLast(1)
+          .commit();
+
+      cache.refresh();
+      Assert.assertNull(cache.get(2));
+      Assert.assertEquals("tom", nameOf(cache, 7));
+      Assert.assertEquals("lind", nameOf(cache, 5));
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testShardByNode() throws IOException {
+    writeBaseAndChange();
+
+    KeyedTableLookupCache first = openCache(0, 2, true);
+    KeyedTableLookupCache second = openCache(1, 2, true);
+    try {
+      int firstCount = 0;
+      for (int id = 1; id <= 6; id++) {
+        boolean inFirst = first.get(id) != null;
+        boolean inSecond = second.get(id) != null;
+        Assert.assertTrue("key " + id + " must be cached by exactly one subtask", inFirst ^ inSecond);
+        firstCount += inFirst ? 1 : 0;
+      }
+      Assert.assertTrue(firstCount > 0 && firstCount < 6);
+    } finally {
+      first.close();
+      second.close();
+    }
+  }
+
+  @Test
+  public void testRejectLookupByNonPrimaryKeys() {
+    Assert.assertThrows(ValidationException.class, () -> newCache(new int[]{1}, new Configuration()));
+    Assert.assertThrows(ValidationException.class, () -> newCache(new int[]{0, 1}, new Configuration()));
+  }
+
+  private KeyedTableLookupCache openCache(int subtaskIndex, int numSubtasks, boolean shardByNode)
+      throws IOException {
+    Configuration options = new Configuration();
+    // refresh explicitly in tests
+    options.set(ArcticValidator.LOOKUP_CACHE_REFRESH_INTERVAL, Duration.ofHours(1));
+    options.set(ArcticValidator.LOOKUP_CACHE_SHARD_BY_NODE, shardByNode);
+    KeyedTableLookupCache cache = newCache(new int[]{0}, options);
+
+    RuntimeContext runtimeContext = Mockito.mock(RuntimeContext.class);
+    Mockito.when(runtimeContext.getIndexOfThisSubtask()).thenReturn(subtaskIndex);
+    Mockito.when(runtimeContext.getNumberOfParallelSubtasks()).thenReturn(numSubtasks);
+    cache.open(new FunctionContext(runtimeContext));
+    return cache;
+  }
+
+  private KeyedTableLookupCache newCache(int[] lookupKeys, Configuration options) {
+    return new KeyedTableLookupCache(ArcticTableLoader.of(PK_TABLE_ID, catalogBuilder), testKeyedTable,
+        TABLE_SCHEMA, ROW_TYPE, lookupKeys, options);
+  }
+
+  private static String nameOf(KeyedTableLookupCache cache, int id) {
+    RowData row = cache.get(id);
+    Assert.assertNotNull("key " + id + " is not found", row);
+    return row.getString(1).toString();
+  }
+
+  private void writeBaseAndChange() throws IOException {
+    write(true,
+        GenericRowData.ofKind(RowKind.INSERT, 1, StringData.fromString("john"), timestamp()),
+        GenericRowData.ofKind(RowKind.INSERT, 2, StringData.fromString("lily"), timestamp()),
+        GenericRowData.ofKind(RowKind.INSERT, 3, StringData.fromString("jake"), timestamp()),
+        GenericRowData.ofKind(RowKind.INSERT, 4, StringData.fromString("sam"), timestamp()));
+    write(false,
+        GenericRowData.ofKind(RowKind.INSERT, 5, StringData.fromString("mary"), timestamp()),
+        GenericRowData.ofKind(RowKind.INSERT, 6, StringData.fromString("mack"), timestamp()));
+    write(false,
+        GenericRowData.ofKind(RowKind.DELETE, 5, StringData.fromString("mary"), timestamp()),
+        GenericRowData.ofKind(RowKind.INSERT, 5, StringData.fromString("lind"), timestamp()));
+  }
+
+  private void write(boolean base, RowData... rows) throws IOException {
+    KeyedRowDataTaskWriterFactory taskWriterFactory =
+        new KeyedRowDataTaskWriterFactory(testKeyedTable, ROW_TYPE, base);
+    taskWriterFactory.setTransactionId(transactionId.getAndIncrement());
+    taskWriterFactory.setMask(3);
+    taskWriterFactory.initialize(0, 0);
+    TaskWriter<RowData> taskWriter = taskWriterFactory.create();
+    for (RowData row : rows) {
+      taskWriter.write(row);
+    }
+    WriteResult result = taskWriter.complete();
+    AppendFiles append = base ? testKeyedTable.baseTable().newAppend() : testKeyedTable.changeTable().newAppend();
+    Arrays.stream(result.dataFiles()).forEach(append::appendFile);
+    append.commit();
+  }
+
+  private static TimestampData timestamp() {
+    return TimestampData.fromLocalDateTime(LDT);
+  }
+}
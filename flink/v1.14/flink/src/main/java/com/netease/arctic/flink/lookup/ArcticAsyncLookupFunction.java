@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.flink.lookup;
+
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.AsyncTableFunction;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An asynchronous lookup function that looks up the latest row of a primary key of an arctic keyed table from a
+ * {@link KeyedTableLookupCache} on a pool of threads, so lookups reading spilled rows from the local disk do not
+ * block each other.
+ */
+public class ArcticAsyncLookupFunction extends AsyncTableFunction<RowData> {
+  private static final long serialVersionUID = 1L;
+
+  private final KeyedTableLookupCache cache;
+  private final int threadNumber;
+  private transient ExecutorService executor;
+
+  public ArcticAsyncLookupFunction(KeyedTableLookupCache cache, int threadNumber) {
+    this.cache = cache;
+    this.threadNumber = threadNumber;
+  }
+
+  @Override
+  public void open(FunctionContext context) throws Exception {
+    super.open(context);
+    cache.open(context);
+    executor = Executors.newFixedThreadPool(threadNumber,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("arctic-lookup-%d").build());
+  }
+
+  public void eval(CompletableFuture<Collection<RowData>> future, Object... keys) {
+    executor.execute(() -> {
+      try {
+        RowData row = cache.get(keys);
+        future.complete(row == null ? Collections.emptyList() : Collections.singletonList(row));
+      } catch (Throwable t) {
+        future.completeExceptionally(t);
+      }
+    });
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    cache.close();
+    super.close();
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.flink.lookup;
+
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.functions.TableFunction;
+
+/**
+ * A lookup function that looks up the latest row of a primary key of an arctic keyed table from a
+ * {@link KeyedTableLookupCache}.
+ */
+public class ArcticLookupFunction extends TableFunction<RowData> {
+  private static final long serialVersionUID = 1L;
+
+  private final KeyedTableLookupCache cache;
+
+  public ArcticLookupFunction(KeyedTableLookupCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public void open(FunctionContext context) throws Exception {
+    super.open(context);
+    cache.open(context);
+  }
+
+  public void eval(Object... keys) {
+    RowData row = cache.get(keys);
+    if (row != null) {
+      collect(row);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    cache.close();
+    super.close();
+  }
+}
@@ -26,6 +26,8 @@ import com.netease.arctic.flink.read.source.ArcticScanContext;
 import com.netease.arctic.flink.table.ArcticTableLoader;
 import com.netease.arctic.table.KeyedTable;
 import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.iceberg.Snapshot;
 import org.jetbrains.annotations.Nullable;
@@ -60,6 +62,9 @@ public class ArcticSourceEnumerator extends AbstractArcticEnumerator {
 
   private final AtomicBoolean lock = new AtomicBoolean(false);
 
+  private volatile long lastPlanDurationMs;
+  private volatile int lastPlannedSplits;
+
   public ArcticSourceEnumerator(
       SplitEnumeratorContext<ArcticSplit> enumContext,
       SplitAssigner splitAssigner,
@@ -71,7 +76,7 @@ public class ArcticSourceEnumerator extends AbstractArcticEnumerator {
     this.context = enumContext;
     this.splitAssigner = splitAssigner;
     this.scanContext = scanContext;
-    this.continuousSplitPlanner = new ContinuousSplitPlannerImpl(loader);
+    this.continuousSplitPlanner = new ContinuousSplitPlannerImpl(loader, scanContext.maxPlanFiles());
     this.snapshotDiscoveryIntervalMs = scanContext.monitorInterval().toMillis();
     this.enumeratorPosition = new AtomicReference<>();
     if (enumState != null) {
@@ -92,6 +97,7 @@ public class ArcticSourceEnumerator extends AbstractArcticEnumerator {
       LOG.info("{} is {}, the current snapshot id of the change table {}  is {}.",
           FILE_SCAN_STARTUP_MODE.key(), FILE_SCAN_STARTUP_MODE_LATEST, keyedTable.id(), snapshot.snapshotId());
     }
+    registerMetrics();
     if (snapshotDiscoveryIntervalMs > 0) {
       LOG.info(
           "Starting the ArcticSourceEnumerator with arctic table {} snapshot discovery interval of {} ms.",
@@ -118,14 +124,38 @@ public class ArcticSourceEnumerator extends AbstractArcticEnumerator {
     }
   }
 
+  private void registerMetrics() {
+    MetricGroup metricGroup = context.metricGroup();
+    if (metricGroup == null) {
+      return;
+    }
+    metricGroup.gauge("lastPlanDurationMs", (Gauge<Long>) () -> lastPlanDurationMs);
+    metricGroup.gauge("lastPlannedSplits", (Gauge<Integer>) () -> lastPlannedSplits);
+    metricGroup.gauge("unplannedChangeFiles", (Gauge<Long>) continuousSplitPlanner::unplannedFiles);
+    metricGroup.gauge("pendingSplits", (Gauge<Integer>) splitAssigner::pendingSplitCount);
+  }
+
+  private boolean isBackPressured() {
+    int maxPendingSplits = scanContext.maxPendingSplits();
+    return maxPendingSplits > 0 && splitAssigner.pendingSplitCount() > maxPendingSplits;
+  }
+
   private ContinuousEnumerationResult planSplits() {
     if (lock.get()) {
       LOG.info("prefix plan splits thread haven't finished.");
       return ContinuousEnumerationResult.EMPTY;
     }
+    if (isBackPressured()) {
+      LOG.info("skip planning splits, {} splits are pending to be assigned.", splitAssigner.pendingSplitCount());
+      return ContinuousEnumerationResult.EMPTY;
+    }
     lock.set(true);
     LOG.info("begin to plan splits current offset {}.", enumeratorPosition.get());
-    return continuousSplitPlanner.planSplits(enumeratorPosition.get());
+    long start = System.currentTimeMillis();
+    ContinuousEnumerationResult result = continuousSplitPlanner.planSplits(enumeratorPosition.get());
+    lastPlanDurationMs = System.currentTimeMillis() - start;
+    lastPlannedSplits = result.splits().size();
+    return result;
   }
 
   private void handleResultOfSplits(ContinuousEnumerationResult enumerationResult, Throwable t) {
@@ -141,6 +171,11 @@ public class ArcticSourceEnumerator extends AbstractArcticEnumerator {
     LOG.info("handled result of splits, discover splits size {}, latest offset {}.",
         enumerationResult.splits().size(), enumeratorPosition.get());
     lock.set(false);
+
+    // catch up with the change snapshots left by the bounded planning without waiting for the next discovery
+    if (!enumerationResult.isEmpty() && continuousSplitPlanner.hasMoreToPlan() && !isBackPressured()) {
+      context.callAsync(this::planSplits, this::handleResultOfSplits);
+    }
   }
 
   @Override
@@ -33,4 +33,18 @@ public interface ContinuousSplitPlanner extends Closeable {
    * Discover the files appended between {@code lastPosition} and current table snapshot
    */
   ContinuousEnumerationResult planSplits(ArcticEnumeratorOffset lastPosition);
+
+  /**
+   * Whether the last planning stopped before the current table snapshot and there are snapshots left to plan
+   */
+  default boolean hasMoreToPlan() {
+    return false;
+  }
+
+  /**
+   * The number of files the last planning has left to the following plannings
+   */
+  default long unplannedFiles() {
+    return 0;
+  }
 }
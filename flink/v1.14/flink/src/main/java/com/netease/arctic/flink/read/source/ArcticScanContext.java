@@ -31,6 +31,8 @@ import java.util.List;
 import java.util.Map;
 
 import static com.netease.arctic.flink.table.descriptors.ArcticValidator.FILE_SCAN_STARTUP_MODE;
+import static com.netease.arctic.flink.table.descriptors.ArcticValidator.SCAN_PLAN_MAX_FILES;
+import static com.netease.arctic.flink.table.descriptors.ArcticValidator.SCAN_PLAN_MAX_PENDING_SPLITS;
 import static org.apache.iceberg.TableProperties.DEFAULT_NAME_MAPPING;
 
 /**
@@ -41,6 +43,8 @@ public class ArcticScanContext extends ScanContext implements Serializable {
   private static final long serialVersionUID = 1L;
 
   private final String scanStartupMode;
+  private final int maxPlanFiles;
+  private final int maxPendingSplits;
 
   protected ArcticScanContext(
       boolean caseSensitive,
@@ -57,7 +61,9 @@ public class ArcticScanContext extends ScanContext implements Serializable {
       Schema schema,
       List<Expression> filters,
       long limit,
-      String scanStartupMode) {
+      String scanStartupMode,
+      int maxPlanFiles,
+      int maxPendingSplits) {
     super(caseSensitive,
         snapshotId,
         startSnapshotId,
@@ -73,6 +79,8 @@ public class ArcticScanContext extends ScanContext implements Serializable {
         filters,
         limit);
     this.scanStartupMode = scanStartupMode;
+    this.maxPlanFiles = maxPlanFiles;
+    this.maxPendingSplits = maxPendingSplits;
   }
 
   public boolean caseSensitive() {
@@ -139,6 +147,14 @@ public class ArcticScanContext extends ScanContext implements Serializable {
     return scanStartupMode;
   }
 
+  public int maxPlanFiles() {
+    return maxPlanFiles;
+  }
+
+  public int maxPendingSplits() {
+    return maxPendingSplits;
+  }
+
   public static class Builder {
     private boolean caseSensitive = CASE_SENSITIVE.defaultValue();
     private Long snapshotId = SNAPSHOT_ID.defaultValue();
@@ -155,6 +171,8 @@ public class ArcticScanContext extends ScanContext implements Serializable {
     private List<Expression> filters;
     private long limit = -1L;
     private String scanStartupMode;
+    private int maxPlanFiles = SCAN_PLAN_MAX_FILES.defaultValue();
+    private int maxPendingSplits = SCAN_PLAN_MAX_PENDING_SPLITS.defaultValue();
 
     private Builder() {
     }
@@ -234,6 +252,16 @@ public class ArcticScanContext extends ScanContext implements Serializable {
       return this;
     }
 
+    public Builder maxPlanFiles(int maxPlanFiles) {
+      this.maxPlanFiles = maxPlanFiles;
+      return this;
+    }
+
+    public Builder maxPendingSplits(int maxPendingSplits) {
+      this.maxPendingSplits = maxPendingSplits;
+      return this;
+    }
+
     public Builder fromProperties(Map<String, String> properties) {
       Configuration config = new Configuration();
       properties.forEach(config::setString);
@@ -249,14 +277,16 @@ public class ArcticScanContext extends ScanContext implements Serializable {
           .streaming(config.get(STREAMING))
           .monitorInterval(config.get(MONITOR_INTERVAL))
           .nameMapping(properties.get(DEFAULT_NAME_MAPPING))
-          .scanStartupMode(properties.get(FILE_SCAN_STARTUP_MODE.key()));
+          .scanStartupMode(properties.get(FILE_SCAN_STARTUP_MODE.key()))
+          .maxPlanFiles(config.get(SCAN_PLAN_MAX_FILES))
+          .maxPendingSplits(config.get(SCAN_PLAN_MAX_PENDING_SPLITS));
     }
 
     public ArcticScanContext build() {
       return new ArcticScanContext(caseSensitive, snapshotId, startSnapshotId,
           endSnapshotId, asOfTimestamp, splitSize, splitLookback,
           splitOpenFileCost, isStreaming, monitorInterval, nameMapping, projectedSchema,
-          filters, limit, scanStartupMode);
+          filters, limit, scanStartupMode, maxPlanFiles, maxPendingSplits);
     }
   }
 }
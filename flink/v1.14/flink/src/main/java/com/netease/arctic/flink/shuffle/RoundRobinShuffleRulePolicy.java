@@ -28,6 +28,7 @@ import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -43,6 +44,10 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
  * After the primary key value hash is modulated based on concurrency,
  * the row is routed to different subtask write
  * <p>
+ * In skew aware mode, a partitioned keyed table is split into at least as many tree nodes as writers, and the nodes
+ * of every partition are laid out on consecutive writers starting from an offset derived from the partition. So a
+ * hot partition is written by all writers instead of a few, while every (partition, tree node) is still routed to
+ * exactly one writer.
  */
 public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, ShuffleKey> {
   private static final Logger LOG = LoggerFactory.getLogger(RoundRobinShuffleRulePolicy.class);
@@ -59,6 +64,8 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
 
   private final DistributionHashMode distributionHashMode;
 
+  private final boolean skewAware;
+
   public RoundRobinShuffleRulePolicy(int downStreamOperatorParallelism,
                                      int fileSplit) {
     this(null, downStreamOperatorParallelism, fileSplit);
@@ -74,10 +81,18 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
   public RoundRobinShuffleRulePolicy(ShuffleHelper helper,
                                      int downStreamOperatorParallelism,
                                      int fileSplit, DistributionHashMode distributionHashMode) {
+    this(helper, downStreamOperatorParallelism, fileSplit, distributionHashMode, false);
+  }
+
+  public RoundRobinShuffleRulePolicy(ShuffleHelper helper,
+                                     int downStreamOperatorParallelism,
+                                     int fileSplit, DistributionHashMode distributionHashMode,
+                                     boolean skewAware) {
     this.helper = helper;
     this.downStreamOperatorParallelism = downStreamOperatorParallelism;
     this.fileSplit = fileSplit;
     this.distributionHashMode = distributionHashMode;
+    this.skewAware = skewAware;
     Preconditions.checkArgument(distributionHashMode != DistributionHashMode.NONE);
     Preconditions.checkArgument(distributionHashMode != DistributionHashMode.AUTO);
   }
@@ -90,7 +105,8 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
   @Override
   public Partitioner<ShuffleKey> generatePartitioner() {
     getSubtaskTreeNodes();
-    return new RoundRobinPartitioner(downStreamOperatorParallelism, factor, distributionHashMode, helper);
+    return new RoundRobinPartitioner(downStreamOperatorParallelism, factor, distributionHashMode, helper,
+        skewAware && distributionHashMode.isSupportPrimaryKey() && distributionHashMode.isSupportPartition());
   }
 
   @Override
@@ -120,9 +136,14 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
       factor = fileSplit;
       // every writer may accept all node data for partitioned table
       if (distributionHashMode.isSupportPartition()) {
+        // split each partition into enough nodes to be spread over all writers
+        if (skewAware && factor < writerParallelism) {
+          factor = (int) Math.pow(2, getActualDepth(writerParallelism) - 1);
+        }
+        final int finalFactor = factor;
         IntStream.range(0, writerParallelism).forEach(subtaskId -> {
-          subtaskTreeNodes.put(subtaskId, IntStream.range(0, factor).mapToObj(index ->
-              DataTreeNode.of(factor - 1, index)).collect(Collectors.toSet()));
+          subtaskTreeNodes.put(subtaskId, IntStream.range(0, finalFactor).mapToObj(index ->
+              DataTreeNode.of(finalFactor - 1, index)).collect(Collectors.toSet()));
         });
       } else {
         if (factor < writerParallelism) {
@@ -178,19 +199,32 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
     private final int factor;
     private final ShuffleHelper helper;
     private final DistributionHashMode distributionHashMode;
+    private final boolean skewAware;
+
+    private transient boolean helperOpened;
+    private transient ShuffleLoadSampler loadSampler;
 
     RoundRobinPartitioner(int downStreamOperatorParallelism, int factor,
                           DistributionHashMode distributionHashMode, ShuffleHelper helper) {
+      this(downStreamOperatorParallelism, factor, distributionHashMode, helper, false);
+    }
+
+    RoundRobinPartitioner(int downStreamOperatorParallelism, int factor,
+                          DistributionHashMode distributionHashMode, ShuffleHelper helper, boolean skewAware) {
       this.downStreamOperatorParallelism = downStreamOperatorParallelism;
       this.factor = factor;
       this.distributionHashMode = distributionHashMode;
       this.helper = helper;
+      this.skewAware = skewAware;
     }
 
     @Override
     public int partition(ShuffleKey key, int numPartitions) {
-      if (helper != null) {
-        helper.open();
+      if (!helperOpened) {
+        if (helper != null) {
+          helper.open();
+        }
+        helperOpened = true;
       }
       checkNotNull(key);
       RowData row = checkNotNull(key.getRow());
@@ -201,6 +235,9 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
               "shuffle arctic record numPartition:%s is diff with writer parallelism:%s.",
               numPartitions,
               this.downStreamOperatorParallelism));
+      if (skewAware) {
+        return partitionSkewAware(row, numPartitions);
+      }
       Integer factorIndex = null;
       if (distributionHashMode.isSupportPrimaryKey()) {
         long pkHashCode = helper.hashKeyValue(row);
@@ -221,5 +258,64 @@ public class RoundRobinShuffleRulePolicy implements ShuffleRulePolicy<RowData, S
         return 0;
       }
     }
+
+    private int partitionSkewAware(RowData row, int numPartitions) {
+      // the same node index as the writer computes by PrimaryKeyData#treeNode
+      int nodeIndex = Math.abs(helper.hashKeyValue(row)) & (factor - 1);
+      int partitionHashCode = helper.hashPartitionValue(row);
+      int subtask = (Math.floorMod(partitionHashCode, numPartitions) + nodeIndex) % numPartitions;
+
+      if (loadSampler == null) {
+        loadSampler = new ShuffleLoadSampler(numPartitions);
+      }
+      loadSampler.record(partitionHashCode, nodeIndex, subtask);
+      return subtask;
+    }
+  }
+
+  /**
+   * Samples the load of the skew aware partitioner and reports it periodically: records routed to every writer,
+   * and the hottest (partition, tree node) among the sampled records.
+   */
+  static class ShuffleLoadSampler {
+    private static final int SAMPLE_INTERVAL = 64;
+    private static final long REPORT_INTERVAL = 1 << 20;
+
+    private final long[] subtaskRecords;
+    private final Map<Long, Long> sampledNodeRecords = new HashMap<>();
+    private long records;
+
+    ShuffleLoadSampler(int numPartitions) {
+      this.subtaskRecords = new long[numPartitions];
+    }
+
+    void record(int partitionHashCode, int nodeIndex, int subtask) {
+      subtaskRecords[subtask]++;
+      records++;
+      if (records % SAMPLE_INTERVAL == 0) {
+        sampledNodeRecords.merge(((long) partitionHashCode << 32) | nodeIndex, 1L, Long::sum);
+      }
+      if (records % REPORT_INTERVAL == 0) {
+        report();
+      }
+    }
+
+    long[] subtaskRecords() {
+      return subtaskRecords;
+    }
+
+    private void report() {
+      long max = Arrays.stream(subtaskRecords).max().orElse(0);
+      double avg = (double) records / subtaskRecords.length;
+      Map.Entry<Long, Long> hottest = sampledNodeRecords.entrySet().stream()
+          .max(Map.Entry.comparingByValue()).orElse(null);
+      LOG.info("shuffle load of {} records, max/avg={}, subtask records={}, sampled nodes={}, hottest node={}",
+          records, String.format("%.2f", max / avg), Arrays.toString(subtaskRecords), sampledNodeRecords.size(),
+          hottest == null ? null : String.format("partition hash %d, node index %d, %d samples",
+              hottest.getKey() >> 32, hottest.getKey() & 0xFFFFFFFFL, hottest.getValue()));
+      Arrays.fill(subtaskRecords, 0);
+      sampledNodeRecords.clear();
+      records = 0;
+    }
   }
 }
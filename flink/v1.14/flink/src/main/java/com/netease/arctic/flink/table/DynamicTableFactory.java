@@ -123,8 +123,8 @@ public class DynamicTableFactory implements DynamicTableSourceFactory, DynamicTa
         arcticDynamicSource = createLogSource(arcticTable, context);
     }
 
-    return new ArcticDynamicSource(identifier.getObjectName(), arcticDynamicSource, arcticTable, tableSchema,
-        arcticTable.properties());
+    return new ArcticDynamicSource(identifier.getObjectName(), arcticDynamicSource, tableLoader, arcticTable,
+        tableSchema, arcticTable.properties());
   }
 
   @Override
@@ -182,6 +182,13 @@ public class DynamicTableFactory implements DynamicTableSourceFactory, DynamicTa
     options.add(SCAN_STARTUP_SPECIFIC_OFFSETS);
     options.add(SCAN_STARTUP_TIMESTAMP_MILLIS);
     options.add(SINK_PARTITIONER);
+    options.add(ArcticValidator.SCAN_PLAN_MAX_FILES);
+    options.add(ArcticValidator.SCAN_PLAN_MAX_PENDING_SPLITS);
+    options.add(ArcticValidator.LOOKUP_CACHE_REFRESH_INTERVAL);
+    options.add(ArcticValidator.LOOKUP_CACHE_LOCAL_DIR);
+    options.add(ArcticValidator.LOOKUP_CACHE_SHARD_BY_NODE);
+    options.add(ArcticValidator.LOOKUP_ASYNC);
+    options.add(ArcticValidator.LOOKUP_ASYNC_THREAD_NUMBER);
     return options;
   }
 
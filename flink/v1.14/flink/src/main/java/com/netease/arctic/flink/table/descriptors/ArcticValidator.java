@@ -29,6 +29,7 @@ import org.apache.flink.table.descriptors.ConnectorDescriptorValidator;
 import org.apache.flink.table.descriptors.DescriptorProperties;
 import org.apache.flink.table.types.logical.RowType;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,10 @@ public class ArcticValidator extends ConnectorDescriptorValidator {
 
   public static final String ARCTIC_WRITE_MAX_OPEN_FILE_SIZE = "write.open-files.size.max";
   public static final long ARCTIC_WRITE_MAX_OPEN_FILE_SIZE_DEFAULT = 671088640L; // 640M = 5 * 128M
+  public static final String ARCTIC_WRITE_MICRO_BATCH_SIZE = "write.micro-batch.size";
+  public static final int ARCTIC_WRITE_MICRO_BATCH_SIZE_DEFAULT = 0; // disabled, write row by row
+  public static final String ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS = "write.micro-batch.collapse-keys";
+  public static final boolean ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS_DEFAULT = false;
 
   // log.consumer.changelog.mode
   public static final String LOG_CONSUMER_CHANGELOG_MODE_APPEND_ONLY = "append-only";
@@ -105,6 +110,54 @@ public class ArcticValidator extends ConnectorDescriptorValidator {
           " the current snapshot, \"latest\": read all incremental data in the change table starting from the" +
           " current snapshot (the current snapshot will be excluded).");
 
+  public static final ConfigOption<Integer> SCAN_PLAN_MAX_FILES = ConfigOptions
+      .key("scan.plan.max-files")
+      .intType()
+      .defaultValue(10000)
+      .withDescription("The max number of change files the streaming source plans in one discovery, the remaining " +
+          "change snapshots are planned by the following discoveries. A single change snapshot is always planned " +
+          "as a whole. Not greater than 0 means planning all new change snapshots at once.");
+
+  public static final ConfigOption<Integer> SCAN_PLAN_MAX_PENDING_SPLITS = ConfigOptions
+      .key("scan.plan.max-pending-splits")
+      .intType()
+      .defaultValue(10000)
+      .withDescription("The streaming source stops discovering new splits while the enumerator holds more " +
+          "unassigned splits than this. Not greater than 0 means unlimited.");
+
+  public static final ConfigOption<Duration> LOOKUP_CACHE_REFRESH_INTERVAL = ConfigOptions
+      .key("lookup.cache.refresh-interval")
+      .durationType()
+      .defaultValue(Duration.ofMinutes(1))
+      .withDescription("The interval to apply new change snapshots of the keyed table to the local lookup cache.");
+
+  public static final ConfigOption<String> LOOKUP_CACHE_LOCAL_DIR = ConfigOptions
+      .key("lookup.cache.local-dir")
+      .stringType()
+      .noDefaultValue()
+      .withDescription("The local directory the lookup cache spills rows to, the java temporary directory " +
+          "by default.");
+
+  public static final ConfigOption<Boolean> LOOKUP_CACHE_SHARD_BY_NODE = ConfigOptions
+      .key("lookup.cache.shard-by-node")
+      .booleanType()
+      .defaultValue(false)
+      .withDescription("Whether each lookup subtask only caches the rows of its own base tree nodes, the node " +
+          "index modulo the lookup parallelism. Only enable it when the probe side is partitioned the same way, " +
+          "otherwise keys of other subtasks are never found.");
+
+  public static final ConfigOption<Boolean> LOOKUP_ASYNC = ConfigOptions
+      .key("lookup.async")
+      .booleanType()
+      .defaultValue(false)
+      .withDescription("Whether to look up the cache asynchronously.");
+
+  public static final ConfigOption<Integer> LOOKUP_ASYNC_THREAD_NUMBER = ConfigOptions
+      .key("lookup.async.thread-number")
+      .intType()
+      .defaultValue(4)
+      .withDescription("The number of threads serving asynchronous lookups of one subtask.");
+
   @Override
   public void validate(DescriptorProperties properties) {
     String emitMode = properties.getString(ARCTIC_EMIT_MODE);
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.flink.write;
+
+import com.netease.arctic.data.PrimaryKeyData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.types.RowKind;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers rows for {@link ArcticFileWriter}, so that the writer is invoked once per batch inside a single
+ * privileged section instead of once per row.
+ * <p>
+ * When a primary key is given, changes of the same key within one batch are collapsed: only the first retraction
+ * and the last insertion of a key are written, which keeps the per-key write order of delete before insert.
+ */
+class RowDataMicroBatch {
+
+  private final int capacity;
+  private final boolean upsert;
+  private final RowDataSerializer serializer;
+  private final boolean copyRows;
+
+  private final List<RowData> rows;
+
+  private final PrimaryKeyData primaryKey;
+  private final RowDataWrapper rowDataWrapper;
+  private final Map<PrimaryKeyData, KeyChanges> keyChanges;
+
+  /**
+   * @param primaryKey primary key of the table to collapse changes by, null to keep every row
+   * @param copyRows   whether incoming rows must be copied, i.e. the upstream may reuse row objects
+   */
+  RowDataMicroBatch(int capacity, boolean upsert, RowType rowType, Schema schema, PrimaryKeyData primaryKey,
+                    boolean copyRows) {
+    this.capacity = capacity;
+    this.upsert = upsert;
+    this.serializer = new RowDataSerializer(rowType);
+    this.copyRows = copyRows;
+    this.primaryKey = primaryKey;
+    if (primaryKey == null) {
+      this.rows = Lists.newArrayListWithCapacity(capacity);
+      this.rowDataWrapper = null;
+      this.keyChanges = null;
+    } else {
+      this.rows = null;
+      this.rowDataWrapper = new RowDataWrapper(rowType, schema.asStruct());
+      this.keyChanges = Maps.newLinkedHashMapWithExpectedSize(capacity);
+    }
+  }
+
+  /**
+   * Add a row to the batch.
+   *
+   * @return true if the batch is full and should be written
+   */
+  boolean add(RowData row) {
+    RowData buffered = copyRows ? serializer.copy(row) : row;
+    if (keyChanges == null) {
+      rows.add(buffered);
+      return rows.size() >= capacity;
+    }
+
+    primaryKey.primaryKey(rowDataWrapper.wrap(buffered));
+    KeyChanges changes = keyChanges.get(primaryKey);
+    if (changes == null) {
+      changes = new KeyChanges();
+      keyChanges.put(primaryKey.copy(), changes);
+    }
+    changes.add(buffered, upsert);
+    return keyChanges.size() >= capacity;
+  }
+
+  boolean isEmpty() {
+    return keyChanges == null ? rows.isEmpty() : keyChanges.isEmpty();
+  }
+
+  /**
+   * Write all buffered rows to the writer and clear the batch.
+   */
+  void writeTo(TaskWriter<RowData> writer) throws IOException {
+    if (keyChanges == null) {
+      for (RowData row : rows) {
+        write(writer, row, upsert && RowKind.INSERT.equals(row.getRowKind()));
+      }
+      rows.clear();
+    } else {
+      for (KeyChanges changes : keyChanges.values()) {
+        if (changes.retraction != null) {
+          writer.write(changes.retraction);
+        }
+        if (changes.insertion != null) {
+          write(writer, changes.insertion, changes.upsertDelete);
+        }
+      }
+      keyChanges.clear();
+    }
+  }
+
+  private static void write(TaskWriter<RowData> writer, RowData row, boolean deleteFirst) throws IOException {
+    if (deleteFirst) {
+      RowKind rowKind = row.getRowKind();
+      row.setRowKind(RowKind.DELETE);
+      writer.write(row);
+      row.setRowKind(rowKind);
+    }
+    writer.write(row);
+  }
+
+  /**
+   * The collapsed changes of one key within a batch.
+   */
+  private static class KeyChanges {
+    private RowData retraction;
+    private RowData insertion;
+    private boolean upsertDelete;
+
+    void add(RowData row, boolean upsert) {
+      switch (row.getRowKind()) {
+        case DELETE:
+        case UPDATE_BEFORE:
+          // the first retraction deletes the row stored before this batch, later ones only retract rows of this
+          // batch which are dropped anyway
+          if (retraction == null) {
+            retraction = row;
+          }
+          insertion = null;
+          upsertDelete = false;
+          break;
+        case INSERT:
+        case UPDATE_AFTER:
+          insertion = row;
+          if (upsert && retraction == null && RowKind.INSERT.equals(row.getRowKind())) {
+            upsertDelete = true;
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown row kind: " + row.getRowKind());
+      }
+    }
+  }
+}
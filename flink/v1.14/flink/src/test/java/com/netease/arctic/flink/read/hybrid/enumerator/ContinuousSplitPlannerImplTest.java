@@ -19,6 +19,7 @@
 package com.netease.arctic.flink.read.hybrid.enumerator;
 
 import com.netease.arctic.flink.FlinkTestBase;
+import com.netease.arctic.flink.table.ArcticTableLoader;
 import com.netease.arctic.flink.write.KeyedRowDataTaskWriterFactory;
 import org.apache.flink.table.data.GenericRowData;
 import org.apache.flink.table.data.RowData;
@@ -30,7 +31,9 @@ import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.flink.FlinkSchemaUtil;
 import org.apache.iceberg.io.TaskWriter;
 import org.apache.iceberg.io.WriteResult;
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -106,6 +109,32 @@ public class ContinuousSplitPlannerImplTest extends FlinkTestBase {
     }
   }
 
+  @Test
+  public void testPlanChangeSnapshotsInChunks() throws IOException {
+    long fromSnapshotId = testKeyedTable.changeTable().currentSnapshot().snapshotId();
+    for (int i = 0; i < 2; i++) {
+      TaskWriter<RowData> taskWriter = createTaskWriter(false);
+      taskWriter.write(GenericRowData.ofKind(
+          RowKind.INSERT, 10 + i, StringData.fromString("tom"), TimestampData.fromLocalDateTime(ldt)));
+      commit(taskWriter.complete(), false);
+    }
+    testKeyedTable.changeTable().refresh();
+    long currentSnapshotId = testKeyedTable.changeTable().currentSnapshot().snapshotId();
+
+    ContinuousSplitPlannerImpl planner =
+        new ContinuousSplitPlannerImpl(ArcticTableLoader.of(PK_TABLE_ID, catalogBuilder), 1);
+    ContinuousEnumerationResult first = planner.planSplits(ArcticEnumeratorOffset.of(fromSnapshotId, null));
+    Assert.assertFalse(first.isEmpty());
+    Assert.assertNotEquals(currentSnapshotId, (long) first.toOffset().changeSnapshotId());
+    Assert.assertTrue(planner.hasMoreToPlan());
+    Assert.assertEquals(1, planner.unplannedFiles());
+
+    ContinuousEnumerationResult second = planner.planSplits(first.toOffset());
+    Assert.assertFalse(second.isEmpty());
+    Assert.assertEquals(currentSnapshotId, (long) second.toOffset().changeSnapshotId());
+    Assert.assertFalse(planner.hasMoreToPlan());
+  }
+
   protected void commit(WriteResult result, boolean base) {
     if (base) {
       AppendFiles baseAppend = testKeyedTable.baseTable().newAppend();
@@ -20,6 +20,7 @@ package com.netease.arctic.flink.write;
 
 import com.netease.arctic.flink.FlinkTestBase;
 import com.netease.arctic.flink.table.ArcticTableLoader;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.table.ArcticTable;
 import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
 import org.apache.flink.table.data.RowData;
@@ -231,4 +232,24 @@ public class ArcticFileWriterTest extends FlinkTestBase {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testMicroBatchCollapseKeys() throws Exception {
+    testKeyedTable.updateProperties()
+        .set(ArcticValidator.ARCTIC_WRITE_MICRO_BATCH_SIZE, "100")
+        .set(ArcticValidator.ARCTIC_WRITE_MICRO_BATCH_COLLAPSE_KEYS, "true")
+        .commit();
+    tableLoader = ArcticTableLoader.of(PK_TABLE_ID, catalogBuilder);
+    try (
+        OneInputStreamOperatorTestHarness<RowData, WriteResult> testHarness = createArcticStreamWriter(tableLoader)) {
+      testHarness.processElement(createRowData(1, "hello", "2020-10-11T10:10:11.0", RowKind.INSERT), 1);
+      testHarness.processElement(createRowData(2, "hello", "2020-10-12T10:10:11.0", RowKind.INSERT), 1);
+      testHarness.processElement(createRowData(1, "hello", "2020-10-11T10:10:11.0", RowKind.DELETE), 1);
+      testHarness.processElement(createRowData(1, "hello", "2020-10-11T10:10:11.0", RowKind.DELETE), 1);
+
+      testHarness.prepareSnapshotPreBarrier(1L);
+      // the insertion of key 1 is collapsed into its deletion, so there is no insert file of 2020-10-11
+      Assert.assertEquals(1, testHarness.extractOutputValues().size());
+      Assert.assertEquals(2, testHarness.extractOutputValues().get(0).dataFiles().length);
+    }
+  }
+}
@@ -38,6 +38,9 @@ public class OptimizerConfig implements Serializable {
   private String optimizerId = "unknown";
   @Option(name = "-hb", aliases = "--heart-beat", usage = "heart beat interval (ms)")
   private long heartBeat = 10000; // 10 s
+  @Option(name = "-mb", aliases = "--task-memory-budget",
+      usage = "Memory budget of running tasks (MB), default 80% of max heap")
+  private long taskMemoryBudget = 0;
 
   public OptimizerConfig() {
   }
@@ -79,6 +82,14 @@ public class OptimizerConfig implements Serializable {
     this.queueId = queueId;
   }
 
+  public long getTaskMemoryBudget() {
+    return taskMemoryBudget;
+  }
+
+  public void setTaskMemoryBudget(long taskMemoryBudget) {
+    this.taskMemoryBudget = taskMemoryBudget;
+  }
+
   public String getOptimizerId() {
     return optimizerId;
   }
@@ -95,6 +106,7 @@ public class OptimizerConfig implements Serializable {
         ", queueId=" + queueId +
         ", optimizerId='" + optimizerId + '\'' +
         ", heartBeat=" + heartBeat +
+        ", taskMemoryBudget=" + taskMemoryBudget +
         '}';
   }
 }
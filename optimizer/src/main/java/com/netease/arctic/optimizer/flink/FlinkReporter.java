@@ -22,6 +22,12 @@ import com.netease.arctic.ams.api.OptimizeTaskStat;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.optimizer.operator.BaseTaskReporter;
 import com.netease.arctic.optimizer.operator.BaseToucher;
+import com.netease.arctic.utils.SerializationUtil;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeinfo.PrimitiveArrayTypeInfo;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StateSnapshotContext;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
@@ -29,18 +35,30 @@ import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class FlinkReporter extends AbstractStreamOperator<Void>
     implements OneInputStreamOperator<OptimizeTaskStat, Void> {
   private static final Logger LOG = LoggerFactory.getLogger(FlinkReporter.class);
   public static final String STATE_JOB_ID = "flink-job-id";
+  private static final String STATE_UNDELIVERED_RESULTS = "undelivered-results";
+  private static final int REPORT_RETRY = 3;
+  private static final long REPORT_RETRY_INTERVAL = 5000;
 
   private final BaseTaskReporter taskReporter;
   private final BaseToucher toucher;
   private final long heartBeatInterval;
   private volatile boolean stopped = false;
   private Thread thread;
+  private final List<OptimizeTaskStat> results = new ArrayList<>();
+  // results being reported, guarded by reportLock
+  private final List<OptimizeTaskStat> batch = new ArrayList<>();
+  private final Object reportLock = new Object();
+  private Thread reportThread;
+  // results not reported yet when checkpointing, reported again after restored
+  private transient ListState<byte[]> undeliveredState;
 
   public FlinkReporter(BaseTaskReporter taskReporter, BaseToucher toucher, OptimizerConfig optimizerConfig) {
     this.taskReporter = taskReporter;
@@ -78,6 +96,100 @@ public class FlinkReporter extends AbstractStreamOperator<Void>
       }
     });
     this.thread.start();
+
+    // results arrived while reporting are sent together in the next call
+    this.reportThread = new Thread(() -> {
+      boolean reported = true;
+      while (!stopped) {
+        try {
+          if (reported) {
+            synchronized (results) {
+              while (results.isEmpty()) {
+                results.wait();
+              }
+            }
+          } else {
+            // the failed batch is kept and retried together with the results arrived later
+            Thread.sleep(REPORT_RETRY_INTERVAL);
+          }
+          reported = flush();
+        } catch (InterruptedException t) {
+          // the unfinished batch is kept and reported on close
+          break;
+        } catch (Throwable t) {
+          LOG.error("reporter get unexpected exception", t);
+          reported = false;
+        }
+      }
+    });
+    this.reportThread.start();
+  }
+
+  /**
+   * Report all queued results and the batch failed last time, the results failed to report are kept in the batch
+   * for the next flush.
+   *
+   * @return - true if nothing is left to report
+   */
+  private boolean flush() throws InterruptedException {
+    synchronized (reportLock) {
+      synchronized (results) {
+        batch.addAll(results);
+        results.clear();
+      }
+      if (batch.isEmpty()) {
+        return true;
+      }
+      int size = batch.size();
+      if (taskReporter.report(batch, REPORT_RETRY, REPORT_RETRY_INTERVAL)) {
+        LOG.info("report success {} results", size);
+        return true;
+      } else {
+        LOG.error("failed to report {} of {} results, retry later", batch.size(), size);
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public void initializeState(StateInitializationContext context) throws Exception {
+    super.initializeState(context);
+    this.undeliveredState = context.getOperatorStateStore().getListState(
+        new ListStateDescriptor<>(STATE_UNDELIVERED_RESULTS, PrimitiveArrayTypeInfo.BYTE_PRIMITIVE_ARRAY_TYPE_INFO));
+    if (context.isRestored()) {
+      synchronized (results) {
+        for (byte[] result : undeliveredState.get()) {
+          results.add((OptimizeTaskStat) SerializationUtil.toObject(result));
+        }
+        LOG.info("restore {} undelivered results", results.size());
+      }
+    }
+  }
+
+  @Override
+  public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+    super.prepareSnapshotPreBarrier(checkpointId);
+    // report results before the checkpoint, those failed to report are kept in state
+    if (!flush()) {
+      LOG.warn("failed to report results before checkpoint {}, keep them in state", checkpointId);
+    }
+  }
+
+  @Override
+  public void snapshotState(StateSnapshotContext context) throws Exception {
+    super.snapshotState(context);
+    List<byte[]> undelivered = new ArrayList<>();
+    synchronized (reportLock) {
+      synchronized (results) {
+        batch.forEach(result -> undelivered.add(toByteArray(result)));
+        results.forEach(result -> undelivered.add(toByteArray(result)));
+      }
+    }
+    undeliveredState.update(undelivered);
+  }
+
+  private static byte[] toByteArray(OptimizeTaskStat result) {
+    return SerializationUtil.byteBufferToByteArray(SerializationUtil.toByteBuffer(result));
   }
 
   @Override
@@ -87,13 +199,22 @@ public class FlinkReporter extends AbstractStreamOperator<Void>
     if (thread != null) {
       thread.interrupt();
     }
+    if (reportThread != null) {
+      reportThread.interrupt();
+      reportThread.join();
+      if (!flush()) {
+        LOG.error("failed to report {} results on close, ignore", batch.size());
+      }
+    }
   }
 
   @Override
   public void processElement(StreamRecord<OptimizeTaskStat> element) throws Exception {
     if (element.getValue() != null) {
-      taskReporter.report(element.getValue());
-      LOG.info("report success {}", element.getValue() == null ? null : element.getValue().getTaskId());
+      synchronized (results) {
+        results.add(element.getValue());
+        results.notifyAll();
+      }
     } else {
       LOG.warn("get empty task stat");
     }
@@ -37,10 +37,16 @@ import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
@@ -55,14 +61,26 @@ public class LocalOptimizer implements StatefulOptimizer {
 
   private OptimizerConfig config;
 
-  private Semaphore pollTaskSemaphore;
-
   private Consumer consumer;
 
+  private ExecutorSlots executorSlots;
+
+  private TaskAdmission taskAdmission;
+
+  private BlockingQueue<OptimizeTaskStat> results;
+
   private Map<String, String> properties;
 
   private static final String STATE_JOB_ID = "local-job-id";
 
+  private static final String STATE_SLOT_UTILIZATION = "local-slot-utilization";
+
+  private static final long MB = 1024 * 1024;
+
+  private static final int REPORT_RETRY = 20;
+
+  private static final long REPORT_RETRY_INTERVAL = 10000;
+
   public LocalOptimizer() {
   }
 
@@ -148,11 +166,22 @@ public class LocalOptimizer implements StatefulOptimizer {
     }
     this.config = config;
     this.consumer = new Consumer();
-    this.pollTaskSemaphore = new Semaphore(1);
+    int parallel = Math.max(1, config.getExecutorParallel());
+    this.executorSlots = new ExecutorSlots(parallel);
+    long memoryBudget = config.getTaskMemoryBudget() > 0 ?
+        config.getTaskMemoryBudget() : Runtime.getRuntime().maxMemory() / MB * 8 / 10;
+    this.taskAdmission = new TaskAdmission(memoryBudget, parallel);
+    this.results = new LinkedBlockingQueue<>();
 
     ThreadFactory executorFactory = new ThreadFactoryBuilder().setDaemon(false)
         .setNameFormat("Executor %d").build();
-    ExecutorService executeThreadPool = Executors.newFixedThreadPool(config.getExecutorParallel(), executorFactory);
+    ExecutorService executeThreadPool = Executors.newFixedThreadPool(parallel, executorFactory);
+    ThreadFactory pollerFactory = new ThreadFactoryBuilder().setDaemon(false)
+        .setNameFormat("Poller %d").build();
+    ExecutorService pollThreadPool = Executors.newSingleThreadExecutor(pollerFactory);
+    ThreadFactory reporterFactory = new ThreadFactoryBuilder().setDaemon(false)
+        .setNameFormat("Reporter %d").build();
+    ExecutorService reportThreadPool = Executors.newSingleThreadExecutor(reporterFactory);
 
     ThreadFactory toucherFactory = new ThreadFactoryBuilder().setDaemon(false)
         .setNameFormat("Toucher %d").build();
@@ -160,7 +189,8 @@ public class LocalOptimizer implements StatefulOptimizer {
         Executors.newScheduledThreadPool(config.getExecutorParallel(), toucherFactory);
 
     toucherService.scheduleAtFixedRate(new Toucher(), 3000, config.getHeartBeat(), TimeUnit.MILLISECONDS);
-    executeThreadPool.execute(new Executor());
+    pollThreadPool.execute(new Poller(executeThreadPool));
+    reportThreadPool.execute(new Reporter());
   }
 
   @Override
@@ -181,15 +211,18 @@ public class LocalOptimizer implements StatefulOptimizer {
       this.baseTaskConsumer = new BaseTaskConsumer(config);
     }
 
+    /**
+     * Poll at most maxTasks tasks, block until got at least one.
+     */
     @Nonnull
-    public TaskWrapper pollTask() throws InterruptedException {
+    public List<TaskWrapper> pollTasks(int maxTasks) throws InterruptedException {
       int retry = 0;
       while (true) {
         try {
-          TaskWrapper task = baseTaskConsumer.pollTask();
-          if (task != null) {
-            LOG.info("poll task {}", task);
-            return task;
+          List<TaskWrapper> tasks = baseTaskConsumer.pollTasks(maxTasks);
+          if (!tasks.isEmpty()) {
+            LOG.info("poll {} tasks {}", tasks.size(), tasks);
+            return tasks;
           } else {
             LOG.info("poll no task");
           }
@@ -215,38 +248,126 @@ public class LocalOptimizer implements StatefulOptimizer {
     }
   }
 
+  /**
+   * Polls tasks and hands them to free executor slots. All free slots and their share of the memory budget are
+   * acquired before polling, and exactly that many tasks are polled, so leased tasks never wait for admission behind
+   * each other. A task needing more memory than its share waits only for the running tasks to release memory.
+   */
+  private class Poller implements Runnable {
+
+    private final ExecutorService executeThreadPool;
+
+    public Poller(ExecutorService executeThreadPool) {
+      this.executeThreadPool = executeThreadPool;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        try {
+          pollAndAdmit();
+        } catch (InterruptedException e) {
+          LOG.error("poll interrupted", e);
+          return;
+        } catch (Throwable t) {
+          LOG.error("poll error, ignore", t);
+        }
+      }
+    }
+
+    private void pollAndAdmit() throws InterruptedException {
+      List<Integer> slots = executorSlots.acquireFree();
+      long reserved = 0;
+      int admitted = 0;
+      try {
+        reserved = taskAdmission.acquireShares(slots.size());
+        List<TaskWrapper> tasks = consumer.pollTasks(slots.size());
+        for (TaskWrapper task : tasks) {
+          long memory = taskAdmission.memoryOf(task);
+          if (memory > reserved) {
+            taskAdmission.acquire(memory - reserved);
+            reserved = memory;
+          }
+          int slot = slots.get(admitted);
+          LOG.info("admit task {} to slot {} with {} MB memory", task.getTask().getTaskId(), slot, memory);
+          executeThreadPool.execute(new Executor(task, slot, memory));
+          reserved -= memory;
+          admitted++;
+        }
+      } finally {
+        taskAdmission.release(reserved);
+        for (int i = admitted; i < slots.size(); i++) {
+          executorSlots.release(slots.get(i));
+        }
+      }
+    }
+  }
+
   private class Executor implements Runnable {
 
     private final BaseTaskExecutor baseTaskExecutor;
 
-    private final BaseTaskReporter baseTaskReporter;
+    private final TaskWrapper task;
+
+    private final int slot;
+
+    private final long memory;
 
-    public Executor() {
+    public Executor(TaskWrapper task, int slot, long memory) {
       this.baseTaskExecutor = new BaseTaskExecutor(config);
+      this.task = task;
+      this.slot = slot;
+      this.memory = memory;
+    }
+
+    @Override
+    public void run() {
+      executorSlots.start(slot);
+      try {
+        LOG.info("get task to execute {}", task.getTask().getTaskId());
+        OptimizeTaskStat result = baseTaskExecutor.execute(task);
+        LOG.info("execute {} {}", result.getStatus(), task.getTask().getTaskId());
+        results.add(result);
+      } catch (Throwable t) {
+        LOG.error("execute error, ignore", t);
+      } finally {
+        executorSlots.finish(slot);
+        taskAdmission.release(memory);
+      }
+    }
+  }
+
+  /**
+   * Reports results of finished tasks, results finished while reporting are sent together in the next call.
+   */
+  private class Reporter implements Runnable {
+
+    private final BaseTaskReporter baseTaskReporter;
+
+    public Reporter() {
       this.baseTaskReporter = new BaseTaskReporter(config);
     }
 
     @Override
     public void run() {
+      List<OptimizeTaskStat> batch = new ArrayList<>();
       while (true) {
         try {
-          TaskWrapper task;
-          pollTaskSemaphore.acquire();
-          try {
-            task = consumer.pollTask();
-          } finally {
-            pollTaskSemaphore.release();
+          batch.add(results.take());
+          results.drainTo(batch);
+          int size = batch.size();
+          if (baseTaskReporter.report(batch, REPORT_RETRY, REPORT_RETRY_INTERVAL)) {
+            LOG.info("report success {} results", size);
+          } else {
+            LOG.error("failed to report {} of {} results, ignore", batch.size(), size);
           }
-          LOG.info("get task to execute {}", task.getTask().getTaskId());
-          OptimizeTaskStat result = baseTaskExecutor.execute(task);
-          LOG.info("execute {} {}", result.getStatus(), task.getTask().getTaskId());
-          baseTaskReporter.report(result, 20, 10000);
-          LOG.info("report success {}", result.getTaskId());
         } catch (InterruptedException e) {
-          LOG.error("execute interrupted", e);
+          LOG.error("report interrupted", e);
           return;
         } catch (Throwable t) {
-          LOG.error("execute error, ignore", t);
+          LOG.error("report error, ignore", t);
+        } finally {
+          batch.clear();
         }
       }
     }
@@ -267,8 +388,129 @@ public class LocalOptimizer implements StatefulOptimizer {
       String processId = runtimeMXBean.getName().split("@")[0];
       Map<String, String> state = new HashMap<>();
       state.put(STATE_JOB_ID, processId);
+      double[] utilization = executorSlots.utilization();
+      state.put(STATE_SLOT_UTILIZATION, Arrays.toString(utilization));
+      LOG.info("executor slot utilization {}, free task memory {} MB", Arrays.toString(utilization),
+          taskAdmission.available());
       boolean success = toucher.touch(state);
       LOG.info("touch {}", success ? "success" : "failed");
     }
   }
+
+  /**
+   * Executor slots with their busy time, the utilization of a slot is its busy ratio since the last report.
+   */
+  private static class ExecutorSlots {
+
+    private final BlockingQueue<Integer> freeSlots;
+
+    private final long[] busyNanos;
+
+    private final long[] startNanos;
+
+    private final boolean[] running;
+
+    private long reportNanos = System.nanoTime();
+
+    public ExecutorSlots(int size) {
+      this.freeSlots = new ArrayBlockingQueue<>(size);
+      this.busyNanos = new long[size];
+      this.startNanos = new long[size];
+      this.running = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        freeSlots.add(i);
+      }
+    }
+
+    /**
+     * Block until a slot is free, and acquire all free slots.
+     */
+    public List<Integer> acquireFree() throws InterruptedException {
+      List<Integer> slots = new ArrayList<>();
+      slots.add(freeSlots.take());
+      freeSlots.drainTo(slots);
+      return slots;
+    }
+
+    public void release(int slot) {
+      freeSlots.add(slot);
+    }
+
+    public synchronized void start(int slot) {
+      startNanos[slot] = System.nanoTime();
+      running[slot] = true;
+    }
+
+    public void finish(int slot) {
+      synchronized (this) {
+        busyNanos[slot] += System.nanoTime() - startNanos[slot];
+        running[slot] = false;
+      }
+      freeSlots.add(slot);
+    }
+
+    public synchronized double[] utilization() {
+      long now = System.nanoTime();
+      long window = Math.max(1, now - reportNanos);
+      double[] utilization = new double[busyNanos.length];
+      for (int i = 0; i < busyNanos.length; i++) {
+        long busy = busyNanos[i];
+        if (running[i]) {
+          busy += now - startNanos[i];
+          startNanos[i] = now;
+        }
+        utilization[i] = Math.round(Math.min(1.0, (double) busy / window) * 100) / 100.0;
+        busyNanos[i] = 0;
+      }
+      reportNanos = now;
+      return utilization;
+    }
+  }
+
+  /**
+   * Admits tasks by the size of their input files, a task larger than the whole budget runs alone. Every slot has an
+   * even share of the budget, which is reserved before polling a task for the slot.
+   */
+  private static class TaskAdmission {
+
+    private final int budget;
+
+    private final int share;
+
+    private final Semaphore memory;
+
+    public TaskAdmission(long budgetMb, int slots) {
+      this.budget = (int) Math.min(Integer.MAX_VALUE, Math.max(1, budgetMb));
+      this.share = Math.max(1, budget / slots);
+      this.memory = new Semaphore(budget);
+    }
+
+    /**
+     * Reserve the memory shares of the slots.
+     *
+     * @return the reserved memory in MB
+     */
+    public long acquireShares(int slots) throws InterruptedException {
+      long shares = Math.min(budget, (long) share * slots);
+      acquire(shares);
+      return shares;
+    }
+
+    public long memoryOf(TaskWrapper task) {
+      long inputMb = BaseTaskExecutor.inputSizeInBytes(task.getTask()) / MB + 1;
+      return Math.min(inputMb, budget);
+    }
+
+    public void acquire(long memoryMb) throws InterruptedException {
+      memory.acquire((int) memoryMb);
+    }
+
+    public void release(long memoryMb) {
+      memory.release((int) memoryMb);
+    }
+
+    public int available() {
+      return memory.availablePermits();
+    }
+  }
 }
@@ -26,11 +26,15 @@ import com.netease.arctic.ams.api.OptimizeTask;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.optimizer.TaskWrapper;
 import com.netease.arctic.optimizer.util.OptimizeManagerClients;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -43,6 +47,8 @@ public class BaseTaskConsumer implements Serializable {
 
   private final OptimizerConfig config;
   private final JobId jobId;
+  // false if Ams does not support pollTasks, then poll tasks one by one
+  private volatile boolean batchPollSupported = true;
 
   public BaseTaskConsumer(OptimizerConfig config) {
     this.config = config;
@@ -71,6 +77,49 @@ public class BaseTaskConsumer implements Serializable {
     return task == null ? null : new TaskWrapper(task, attemptId);
   }
 
+  /**
+   * poll at most maxTasks tasks from Ams, only wait for the first task until timeout.
+   *
+   * @return - return empty list if got no task
+   */
+  public List<TaskWrapper> pollTasks(int maxTasks) throws TException {
+    return pollTasks(maxTasks, DEFAULT_POLL_WAIT_TIMEOUT);
+  }
+
+  /**
+   * poll at most maxTasks tasks from Ams with timeout, tasks in one batch share the same attemptId.
+   *
+   * @return - return empty list if got no task
+   */
+  public List<TaskWrapper> pollTasks(int maxTasks, long timeout) throws TException {
+    if (maxTasks <= 1 || !batchPollSupported) {
+      TaskWrapper task = pollTask(timeout);
+      return task == null ? Collections.emptyList() : Collections.singletonList(task);
+    }
+    int attemptId = Math.abs(ThreadLocalRandom.current().nextInt());
+    List<OptimizeTask> tasks;
+    try {
+      OptimizeManager.Iface optimizeManager = OptimizeManagerClients.getClient(config.getAmsUrl());
+      tasks = optimizeManager.pollTasks(config.getQueueId(), jobId, attemptId + "", timeout, maxTasks);
+    } catch (TApplicationException e) {
+      if (e.getType() != TApplicationException.UNKNOWN_METHOD) {
+        LOG.error("failed to poll tasks", e);
+        throw e;
+      }
+      LOG.warn("pollTasks is not supported by {}, poll tasks one by one", config.getAmsUrl());
+      batchPollSupported = false;
+      return pollTasks(1, timeout);
+    } catch (Throwable t) {
+      LOG.error("failed to poll tasks", t);
+      throw t;
+    }
+    List<TaskWrapper> polled = new ArrayList<>(tasks.size());
+    for (OptimizeTask task : tasks) {
+      polled.add(new TaskWrapper(task, attemptId));
+    }
+    return polled;
+  }
+
   private OptimizeTask pollTask(int attemptId, long timeout) throws TException {
     try {
       OptimizeManager.Iface optimizeManager = OptimizeManagerClients.getClient(config.getAmsUrl());
@@ -27,6 +27,7 @@ import com.netease.arctic.ams.api.OptimizeStatus;
 import com.netease.arctic.ams.api.OptimizeTask;
 import com.netease.arctic.ams.api.OptimizeTaskStat;
 import com.netease.arctic.ams.api.TableIdentifier;
+import com.netease.arctic.ams.api.properties.OptimizerProperties;
 import com.netease.arctic.catalog.ArcticCatalog;
 import com.netease.arctic.catalog.CatalogLoader;
 import com.netease.arctic.data.DataFileType;
@@ -50,6 +51,7 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -132,6 +134,26 @@ public class BaseTaskExecutor implements Serializable {
     }
   }
 
+  /**
+   * Get the total size of the input files of task.
+   *
+   * @param task -
+   * @return input size in bytes
+   */
+  public static long inputSizeInBytes(OptimizeTask task) {
+    long size = 0;
+    List<List<ByteBuffer>> fileLists = Arrays.asList(
+        task.getBaseFiles(), task.getInsertFiles(), task.getDeleteFiles(), task.getPosDeleteFiles());
+    for (List<ByteBuffer> files : fileLists) {
+      if (files != null) {
+        for (ByteBuffer file : files) {
+          size += SerializationUtil.toInternalTableFile(file).fileSizeInBytes();
+        }
+      }
+    }
+    return size;
+  }
+
   private void onTaskStart(Iterable<ContentFile<?>> inputFiles) {
     if (listener != null) {
       listener.onTaskStart(inputFiles);
@@ -250,13 +272,17 @@ public class BaseTaskExecutor implements Serializable {
 
     Map<String, String> properties = task.getProperties();
     if (properties != null) {
-      String allFileCnt = properties.get("all-file-cnt");
+      String allFileCnt = properties.get(OptimizerProperties.OPTIMIZE_TASK_ALL_FILE_COUNT);
       int fileCnt = nodeTask.baseFiles().size() + nodeTask.insertFiles().size() + nodeTask.deleteFiles().size();
       if (allFileCnt != null && Integer.parseInt(allFileCnt) != fileCnt) {
         LOG.error("{} check file cnt error, expected {}, actual {}, {}, value = {}", task.getTaskId(), allFileCnt,
             fileCnt, nodeTask, task);
         throw new IllegalStateException("check file cnt error");
       }
+      String splitIndex = properties.get(OptimizerProperties.OPTIMIZE_TASK_SPLIT_INDEX);
+      if (splitIndex != null) {
+        nodeTask.setSplitIndex(Integer.parseInt(splitIndex));
+      }
     }
 
     return nodeTask;
@@ -22,11 +22,14 @@ import com.netease.arctic.ams.api.OptimizeManager;
 import com.netease.arctic.ams.api.OptimizeTaskStat;
 import com.netease.arctic.optimizer.OptimizerConfig;
 import com.netease.arctic.optimizer.util.OptimizeManagerClients;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Report task execute result.
@@ -38,6 +41,8 @@ public class BaseTaskReporter implements Serializable {
   private static final int DEFAULT_RETRY_INTERVAL = 0;
 
   private final OptimizerConfig config;
+  // false if Ams does not support reportOptimizeResults, then report results one by one
+  private volatile boolean batchReportSupported = true;
 
   public BaseTaskReporter(OptimizerConfig config) {
     this.config = config;
@@ -77,6 +82,61 @@ public class BaseTaskReporter implements Serializable {
     }
   }
 
+  /**
+   * Report execute results of several tasks in one call with retry, Ams persists them in one transaction.
+   * Reported results are removed from the list, so only the results failed to report are left in it.
+   *
+   * @param optimizeTaskStats - results to report, should be modifiable
+   * @return - true if success
+   */
+  public boolean report(List<OptimizeTaskStat> optimizeTaskStats, int maxRetry, long retryInterval)
+      throws InterruptedException {
+    if (optimizeTaskStats.size() == 1 || !batchReportSupported) {
+      Iterator<OptimizeTaskStat> iterator = optimizeTaskStats.iterator();
+      while (iterator.hasNext()) {
+        if (report(iterator.next(), maxRetry, retryInterval)) {
+          iterator.remove();
+        }
+      }
+      return optimizeTaskStats.isEmpty();
+    }
+    int retry = 0;
+    while (true) {
+      try {
+        reportResults(config.getAmsUrl(), optimizeTaskStats);
+        optimizeTaskStats.clear();
+        return true;
+      } catch (Throwable t) {
+        if (t instanceof TApplicationException &&
+            ((TApplicationException) t).getType() == TApplicationException.UNKNOWN_METHOD) {
+          LOG.warn("reportOptimizeResults is not supported by {}, report results one by one", config.getAmsUrl());
+          batchReportSupported = false;
+          return report(optimizeTaskStats, maxRetry, retryInterval);
+        }
+        if (retry++ < maxRetry) {
+          Thread.sleep(retryInterval);
+        } else {
+          return false;
+        }
+      }
+    }
+  }
+
+  private static void reportResults(String thriftUrl, List<OptimizeTaskStat> optimizeTaskStats)
+      throws TException {
+    LOG.info("start reporting {} results", optimizeTaskStats.size());
+    for (OptimizeTaskStat optimizeTaskStat : optimizeTaskStats) {
+      LOG.info("reporting result: {}", printOptimizeTaskStat(optimizeTaskStat));
+    }
+    try {
+      OptimizeManager.Iface compactManager = OptimizeManagerClients.getClient(thriftUrl);
+      compactManager.reportOptimizeResults(optimizeTaskStats);
+    } catch (Throwable t) {
+      LOG.error("failed to sending {} results", optimizeTaskStats.size(), t);
+      throw t;
+    }
+  }
+
   private static void reportResult(String thriftUrl, OptimizeTaskStat optimizeTaskStat)
       throws TException {
     LOG.info("start reporting result: {}", printOptimizeTaskStat(optimizeTaskStat));
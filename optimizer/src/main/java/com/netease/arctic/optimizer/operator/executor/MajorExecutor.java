@@ -25,6 +25,7 @@ import com.netease.arctic.ams.api.OptimizeTaskStat;
 import com.netease.arctic.data.DataFileType;
 import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.DefaultKeyedFile;
+import com.netease.arctic.io.reader.BaseArcticDataReader;
 import com.netease.arctic.io.reader.GenericArcticDataReader;
 import com.netease.arctic.io.writer.GenericBaseTaskWriter;
 import com.netease.arctic.io.writer.GenericTaskWriters;
@@ -131,8 +132,10 @@ public class MajorExecutor extends BaseExecutor<DataFile> {
   private Iterable<DataFile> optimizeKeyedTable(CloseableIterator<Record> recordIterator) throws Exception {
     KeyedTable keyedTable = table.asKeyedTable();
 
+    // sub-tasks split from the same node write with distinct partition ids to keep output file names unique
     GenericBaseTaskWriter writer = GenericTaskWriters.builderFor(keyedTable)
         .withTransactionId(getMaxTransactionId(task.dataFiles()))
+        .withPartitionId(task.getSplitIndex())
         .withTaskId(task.getAttemptId())
         .buildBaseWriter();
     long insertCount = 0;
@@ -198,6 +201,7 @@ public class MajorExecutor extends BaseExecutor<DataFile> {
     GenericArcticDataReader arcticDataReader =
         new GenericArcticDataReader(table.io(), table.schema(), requiredSchema, primaryKeySpec,
             null, false, IdentityPartitionConverters::convertConstant, sourceNodes, false);
+    BaseArcticDataReader.configure(arcticDataReader, table.properties());
 
     List<ArcticFileScanTask> fileScanTasks = dataFiles.stream()
         .map(file -> {
@@ -24,6 +24,7 @@ import com.netease.arctic.ams.api.OptimizeStatus;
 import com.netease.arctic.ams.api.OptimizeTaskStat;
 import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.DefaultKeyedFile;
+import com.netease.arctic.io.reader.BaseArcticDataReader;
 import com.netease.arctic.io.reader.BaseIcebergPosDeleteReader;
 import com.netease.arctic.io.reader.GenericArcticDataReader;
 import com.netease.arctic.io.writer.GenericTaskWriters;
@@ -182,6 +183,7 @@ public class MinorExecutor extends BaseExecutor<DeleteFile> {
     GenericArcticDataReader arcticDataReader =
         new GenericArcticDataReader(table.io(), table.schema(), requiredSchema,
             primaryKeySpec, null, false, IdentityPartitionConverters::convertConstant, sourceNodes, false);
+    BaseArcticDataReader.configure(arcticDataReader, table.properties());
 
     KeyedTableScanTask keyedTableScanTask = new NodeFileScanTask(fileScanTasks);
     return arcticDataReader.readDeletedData(keyedTableScanTask);
@@ -49,6 +49,7 @@ public class NodeTask {
   private OptimizeTaskId taskId;
   private TableIdentifier tableIdentifier;
   private int attemptId;
+  private int splitIndex;
 
   public NodeTask() {
   }
@@ -150,6 +151,14 @@ public class NodeTask {
     this.attemptId = attemptId;
   }
 
+  public int getSplitIndex() {
+    return splitIndex;
+  }
+
+  public void setSplitIndex(int splitIndex) {
+    this.splitIndex = splitIndex;
+  }
+
   public OptimizeType getOptimizeType() {
     return taskId.getType();
   }
@@ -159,6 +168,7 @@ public class NodeTask {
     return MoreObjects.toStringHelper(this)
         .add("taskId", taskId)
         .add("attemptId", attemptId)
+        .add("splitIndex", splitIndex)
         .add("tableIdentifier", tableIdentifier)
         .add("baseFiles", baseFiles.size())
         .add("insertFiles", insertFiles.size())
@@ -23,6 +23,8 @@ import com.netease.arctic.optimizer.OptimizerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 public class FakeBaseReporter extends BaseTaskReporter {
   private static final Logger LOG = LoggerFactory.getLogger(FakeBaseReporter.class);
 
@@ -36,4 +38,11 @@ public class FakeBaseReporter extends BaseTaskReporter {
     LOG.info("report result {}", compactTaskStat.getTaskId());
     return true;
   }
+
+  @Override
+  public boolean report(List<OptimizeTaskStat> compactTaskStats, int maxRetry, long retryInterval)
+      throws InterruptedException {
+    LOG.info("report {} results", compactTaskStats.size());
+    return true;
+  }
 }
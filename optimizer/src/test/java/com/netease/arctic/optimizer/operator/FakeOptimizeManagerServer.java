@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.optimizer.operator;
+
+import com.netease.arctic.ams.api.JobId;
+import com.netease.arctic.ams.api.NoSuchObjectException;
+import com.netease.arctic.ams.api.OptimizeManager;
+import com.netease.arctic.ams.api.OptimizeTask;
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.OptimizeType;
+import com.netease.arctic.ams.api.OptimizerStateReport;
+import com.netease.arctic.optimizer.OptimizerConfig;
+import org.apache.thrift.ProcessFunction;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.TMultiplexedProcessor;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TNonblockingServerSocket;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thrift server of OptimizeManager for optimizer tests, methods can be removed to act as Ams of an older version.
+ */
+class FakeOptimizeManagerServer implements OptimizeManager.Iface {
+  private static final int QUEUE_ID = 1;
+
+  private final ConcurrentLinkedQueue<OptimizeTask> tasks = new ConcurrentLinkedQueue<>();
+  final AtomicInteger pollTaskCount = new AtomicInteger();
+  final AtomicInteger pollTasksCount = new AtomicInteger();
+  final List<OptimizeTaskStat> reported = new ArrayList<>();
+  final Set<OptimizeTaskId> failedToReport = ConcurrentHashMap.newKeySet();
+  private TServer server;
+  private int port;
+
+  /**
+   * Start the server.
+   *
+   * @param unsupportedMethods methods answered with an UNKNOWN_METHOD error
+   */
+  FakeOptimizeManagerServer start(String... unsupportedMethods) throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    TMultiplexedProcessor processor = new TMultiplexedProcessor();
+    processor.registerProcessor("OptimizeManager", new LegacyProcessor(this, Arrays.asList(unsupportedMethods)));
+    TThreadedSelectorServer.Args args = new TThreadedSelectorServer.Args(new TNonblockingServerSocket(port))
+        .processor(processor)
+        .transportFactory(new TFramedTransport.Factory())
+        .workerThreads(2);
+    server = new TThreadedSelectorServer(args);
+    new Thread(server::serve).start();
+    while (!server.isServing()) {
+      Thread.sleep(10);
+    }
+    return this;
+  }
+
+  void stop() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  OptimizerConfig config() {
+    OptimizerConfig config = new OptimizerConfig();
+    config.setAmsUrl("thrift://127.0.0.1:" + port);
+    config.setQueueId(QUEUE_ID);
+    config.setOptimizerId("1");
+    return config;
+  }
+
+  void addTasks(int count) {
+    for (int i = 0; i < count; i++) {
+      OptimizeTask task = new OptimizeTask();
+      task.setTaskId(new OptimizeTaskId(OptimizeType.Major, UUID.randomUUID().toString()));
+      tasks.add(task);
+    }
+  }
+
+  @Override
+  public OptimizeTask pollTask(int queueId, JobId jobId, String attemptId, long waitTime)
+      throws NoSuchObjectException {
+    pollTaskCount.incrementAndGet();
+    OptimizeTask task = tasks.poll();
+    if (task == null) {
+      throw new NoSuchObjectException("no Optimize task in current queue: " + queueId);
+    }
+    return task;
+  }
+
+  @Override
+  public List<OptimizeTask> pollTasks(int queueId, JobId jobId, String attemptId, long waitTime, int maxTasks) {
+    pollTasksCount.incrementAndGet();
+    List<OptimizeTask> polled = new ArrayList<>();
+    while (polled.size() < maxTasks && !tasks.isEmpty()) {
+      polled.add(tasks.poll());
+    }
+    return polled;
+  }
+
+  @Override
+  public void reportOptimizeResult(OptimizeTaskStat optimizeTaskStat) throws TException {
+    if (failedToReport.contains(optimizeTaskStat.getTaskId())) {
+      throw new TException("failed to report " + optimizeTaskStat.getTaskId());
+    }
+    synchronized (reported) {
+      reported.add(optimizeTaskStat);
+    }
+  }
+
+  @Override
+  public void reportOptimizeResults(List<OptimizeTaskStat> optimizeTaskStats) throws TException {
+    for (OptimizeTaskStat optimizeTaskStat : optimizeTaskStats) {
+      if (failedToReport.contains(optimizeTaskStat.getTaskId())) {
+        throw new TException("failed to report " + optimizeTaskStat.getTaskId());
+      }
+    }
+    synchronized (reported) {
+      reported.addAll(optimizeTaskStats);
+    }
+  }
+
+  @Override
+  public void reportOptimizerState(OptimizerStateReport reportData) {
+  }
+
+  /**
+   * Processor of Ams before some methods are added, answers them with an UNKNOWN_METHOD error.
+   */
+  private static class LegacyProcessor extends OptimizeManager.Processor<OptimizeManager.Iface> {
+    LegacyProcessor(OptimizeManager.Iface iface, List<String> unsupportedMethods) {
+      this(iface, new HashMap<>(), unsupportedMethods);
+    }
+
+    private LegacyProcessor(
+        OptimizeManager.Iface iface,
+        Map<String, ProcessFunction<OptimizeManager.Iface, ? extends TBase>> processMap,
+        List<String> unsupportedMethods) {
+      super(iface, processMap);
+      // the map is filled with all functions and then used by the processor
+      unsupportedMethods.forEach(processMap::remove);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.optimizer.operator;
+
+import com.netease.arctic.optimizer.TaskWrapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestBaseTaskConsumer {
+
+  private final FakeOptimizeManagerServer optimizeManager = new FakeOptimizeManagerServer();
+
+  @After
+  public void stopServer() {
+    optimizeManager.stop();
+  }
+
+  @Test
+  public void testPollTasks() throws Exception {
+    BaseTaskConsumer consumer = new BaseTaskConsumer(optimizeManager.start().config());
+    optimizeManager.addTasks(3);
+
+    List<TaskWrapper> tasks = consumer.pollTasks(2, 1000);
+    Assert.assertEquals(2, tasks.size());
+    // tasks polled in one call share the same attemptId
+    Assert.assertEquals(tasks.get(0).getAttemptId(), tasks.get(1).getAttemptId());
+    Assert.assertEquals(1, optimizeManager.pollTasksCount.get());
+    Assert.assertEquals(0, optimizeManager.pollTaskCount.get());
+
+    Assert.assertEquals(1, consumer.pollTasks(2, 1000).size());
+    Assert.assertTrue(consumer.pollTasks(2, 100).isEmpty());
+    Assert.assertEquals(3, optimizeManager.pollTasksCount.get());
+    Assert.assertEquals(0, optimizeManager.pollTaskCount.get());
+  }
+
+  @Test
+  public void testPollTasksFallbackToPollTask() throws Exception {
+    // Ams of an older version does not support pollTasks
+    BaseTaskConsumer consumer = new BaseTaskConsumer(optimizeManager.start("pollTasks").config());
+    optimizeManager.addTasks(3);
+
+    List<TaskWrapper> tasks = consumer.pollTasks(2, 1000);
+    Assert.assertEquals(1, tasks.size());
+    Assert.assertEquals(1, optimizeManager.pollTaskCount.get());
+
+    // pollTasks is not tried again once it is known to be unsupported
+    Assert.assertEquals(1, consumer.pollTasks(2, 1000).size());
+    Assert.assertEquals(1, consumer.pollTasks(2, 1000).size());
+    Assert.assertTrue(consumer.pollTasks(2, 100).isEmpty());
+    Assert.assertEquals(4, optimizeManager.pollTaskCount.get());
+    Assert.assertEquals(0, optimizeManager.pollTasksCount.get());
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.optimizer.operator;
+
+import com.netease.arctic.ams.api.OptimizeTaskId;
+import com.netease.arctic.ams.api.OptimizeTaskStat;
+import com.netease.arctic.ams.api.OptimizeType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestBaseTaskReporter {
+
+  private final FakeOptimizeManagerServer optimizeManager = new FakeOptimizeManagerServer();
+
+  @After
+  public void stopServer() {
+    optimizeManager.stop();
+  }
+
+  @Test
+  public void testReportResults() throws Exception {
+    BaseTaskReporter reporter = new BaseTaskReporter(optimizeManager.start().config());
+    List<OptimizeTaskStat> results = results("task-1", "task-2");
+
+    Assert.assertTrue(reporter.report(results, 0, 0));
+    Assert.assertTrue(results.isEmpty());
+    Assert.assertEquals(2, optimizeManager.reported.size());
+  }
+
+  @Test
+  public void testKeepResultsFailedToReport() throws Exception {
+    BaseTaskReporter reporter = new BaseTaskReporter(optimizeManager.start().config());
+    List<OptimizeTaskStat> results = results("task-1", "task-2");
+    optimizeManager.failedToReport.add(results.get(1).getTaskId());
+
+    // results reported in one call are all kept on failure
+    Assert.assertFalse(reporter.report(results, 0, 0));
+    Assert.assertEquals(2, results.size());
+    Assert.assertTrue(optimizeManager.reported.isEmpty());
+  }
+
+  @Test
+  public void testKeepOnlyResultsFailedToReportOneByOne() throws Exception {
+    // Ams of an older version does not support reportOptimizeResults
+    BaseTaskReporter reporter = new BaseTaskReporter(optimizeManager.start("reportOptimizeResults").config());
+    List<OptimizeTaskStat> results = results("task-1", "task-2", "task-3");
+    OptimizeTaskId failed = results.get(1).getTaskId();
+    optimizeManager.failedToReport.add(failed);
+
+    Assert.assertFalse(reporter.report(results, 0, 0));
+    Assert.assertEquals(1, results.size());
+    Assert.assertEquals(failed, results.get(0).getTaskId());
+    Assert.assertEquals(2, optimizeManager.reported.size());
+
+    // only the result failed last time is reported again
+    optimizeManager.failedToReport.clear();
+    Assert.assertTrue(reporter.report(results, 0, 0));
+    Assert.assertTrue(results.isEmpty());
+    Assert.assertEquals(3, optimizeManager.reported.size());
+  }
+
+  private static List<OptimizeTaskStat> results(String... taskIds) {
+    List<OptimizeTaskStat> results = new ArrayList<>();
+    for (String taskId : taskIds) {
+      OptimizeTaskStat result = new OptimizeTaskStat();
+      result.setTaskId(new OptimizeTaskId(OptimizeType.Major, taskId));
+      results.add(result);
+    }
+    return results;
+  }
+}
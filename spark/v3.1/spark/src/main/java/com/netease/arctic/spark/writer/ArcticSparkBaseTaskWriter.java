@@ -30,11 +30,10 @@ import org.apache.iceberg.StructLike;
 import org.apache.iceberg.io.FileAppenderFactory;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
-import org.apache.spark.sql.types.StructType;
 
 public class ArcticSparkBaseTaskWriter extends BaseTaskWriter<InternalRow> {
 
-  private final StructType structType;
+  private final SparkInternalRowWrapper wrapper;
 
   protected ArcticSparkBaseTaskWriter(
       FileFormat format,
@@ -47,11 +46,16 @@ public class ArcticSparkBaseTaskWriter extends BaseTaskWriter<InternalRow> {
       PartitionSpec spec,
       PrimaryKeySpec primaryKeySpec) {
     super(format, appenderFactory, outputFileFactory, io, targetFileSize, mask, schema, spec, primaryKeySpec);
-    this.structType = SparkSchemaUtil.convert(schema);
+    this.wrapper = new SparkInternalRowWrapper(SparkSchemaUtil.convert(schema));
   }
 
   @Override
   protected StructLike asStructLike(InternalRow data) {
-    return new SparkInternalRowWrapper(structType).wrap(data);
+    return wrapper.wrap(data);
+  }
+
+  @Override
+  protected InternalRow copy(InternalRow row) {
+    return row.copy();
   }
 }
@@ -83,8 +83,13 @@ public class ArcticSparkTaskWriters {
       OutputFileFactory outputFileFactory = new OutputFileFactory(
           table.baseLocation(), table.spec(), fileFormat, table.io(),
           table.baseTable().encryption(), partitionId, taskId, transactionId);
-      return new ArcticSparkBaseTaskWriter(fileFormat, appenderFactory, outputFileFactory, table.io(), fileSizeBytes,
-          mask, table.baseTable().schema(), table.spec(), table.primaryKeySpec());
+      ArcticSparkBaseTaskWriter writer = new ArcticSparkBaseTaskWriter(fileFormat, appenderFactory, outputFileFactory,
+          table.io(), fileSizeBytes, mask, table.baseTable().schema(), table.spec(), table.primaryKeySpec());
+      writer.setMaxOpenWriters(PropertyUtil.propertyAsInt(table.properties(),
+          TableProperties.WRITE_MAX_OPEN_WRITERS, TableProperties.WRITE_MAX_OPEN_WRITERS_DEFAULT));
+      writer.setClusterBufferRows(PropertyUtil.propertyAsInt(table.properties(),
+          TableProperties.WRITE_CLUSTER_BUFFER_ROWS, TableProperties.WRITE_CLUSTER_BUFFER_ROWS_DEFAULT));
+      return writer;
     }
   }
 }
@@ -40,7 +40,6 @@ import io.trino.spi.connector.ConnectorTransactionHandle;
 import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeManager;
-import org.apache.iceberg.io.CloseableIterable;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
@@ -55,7 +54,6 @@ import java.util.stream.Collectors;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.netease.arctic.ArcticErrorCode.ARCTIC_BAD_DATA;
-import static io.trino.plugin.iceberg.IcebergErrorCode.ICEBERG_BAD_DATA;
 import static java.util.Objects.requireNonNull;
 import static org.apache.iceberg.MetadataColumns.FILE_PATH;
 
@@ -75,6 +73,7 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
   private TypeManager typeManager;
   private FileIoProvider fileIoProvider;
   private ArcticDeleteFilter<TrinoRow> arcticDeleteFilter;
+  private PageDeleteBatch deleteBatch;
 
   private List<ColumnHandle> requireColumnsDummy;
   private Type[] requireColumnTypes;
@@ -122,6 +121,7 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
     this.requireColumnTypes = requiredColumns.stream()
         .map(IcebergColumnHandle::getType)
         .toArray(Type[]::new);
+    this.deleteBatch = new PageDeleteBatch(requiredColumns, requireColumnTypes, table.getPrimaryKeySpec());
 
     this.dataTasksIt = split.getKeyedTableScanTask().dataTasks().iterator();
   }
@@ -171,22 +171,10 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
       }
 
       if (arcticDeleteFilter != null) {
-        int positionCount = page.getPositionCount();
-        int[] positionsToKeep = new int[positionCount];
-        try (CloseableIterable<TrinoRow> filteredRows =
-            arcticDeleteFilter.filter(CloseableIterable.withNoopClose(TrinoRow.fromPage(
-                requireColumnTypes,
-                page,
-                positionCount)))) {
-          int positionsToKeepCount = 0;
-          for (TrinoRow rowToKeep : filteredRows) {
-            positionsToKeep[positionsToKeepCount] = rowToKeep.getPosition();
-            positionsToKeepCount++;
-          }
-          page = page.getPositions(positionsToKeep, 0, positionsToKeepCount).getColumns(expectedColumnIndexes);
-        } catch (IOException e) {
-          throw new TrinoException(ICEBERG_BAD_DATA, "Failed to filter rows during merge-on-read operation", e);
-        }
+        deleteBatch.reset(page);
+        int[] positionsToKeep = new int[page.getPositionCount()];
+        int positionsToKeepCount = arcticDeleteFilter.filterBatch(deleteBatch, positionsToKeep);
+        page = page.getPositions(positionsToKeep, 0, positionsToKeepCount).getColumns(expectedColumnIndexes);
       }
 
       return page;
@@ -205,6 +193,9 @@ public class KeyedConnectorPageSource implements ConnectorPageSource {
   @Override
   public void close() throws IOException {
     close = true;
+    if (arcticDeleteFilter != null) {
+      arcticDeleteFilter.close();
+    }
   }
 
   protected void closeWithSuppression(Throwable throwable) {
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.trino.keyed;
+
+import com.netease.arctic.io.reader.DeleteBatch;
+import com.netease.arctic.table.MetadataColumns;
+import com.netease.arctic.table.PrimaryKeySpec;
+import io.trino.plugin.iceberg.IcebergColumnHandle;
+import io.trino.plugin.iceberg.delete.TrinoRow;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.type.BigintType;
+import io.trino.spi.type.IntegerType;
+import io.trino.spi.type.Type;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Types;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * DeleteBatch of a Page read from a data file of Keyed Table, the columns needed by deletes are read block by block
+ */
+class PageDeleteBatch implements DeleteBatch {
+
+  private final Type[] types;
+  private final int rowPositionChannel;
+  private final int transactionIdChannel;
+  private final int fileOffsetChannel;
+  private final int primaryKeyChannel;
+
+  private Page page;
+  private TrinoRow[] rows;
+
+  PageDeleteBatch(List<IcebergColumnHandle> columns, Type[] types, PrimaryKeySpec primaryKeySpec) {
+    this.types = types;
+    this.rowPositionChannel = channel(columns, org.apache.iceberg.MetadataColumns.ROW_POSITION.fieldId());
+    this.transactionIdChannel = channel(columns, MetadataColumns.TRANSACTION_ID_FILED_ID);
+    this.fileOffsetChannel = channel(columns, MetadataColumns.FILE_OFFSET_FILED_ID);
+    List<Types.NestedField> primaryKeys = primaryKeySpec.primaryKeyStruct().fields();
+    int channel = primaryKeys.size() == 1 ? channel(columns, primaryKeys.get(0).fieldId()) : -1;
+    if (channel >= 0 && (types[channel] instanceof BigintType || types[channel] instanceof IntegerType)) {
+      this.primaryKeyChannel = channel;
+    } else {
+      this.primaryKeyChannel = -1;
+    }
+  }
+
+  private static int channel(List<IcebergColumnHandle> columns, int fieldId) {
+    for (int i = 0; i < columns.size(); i++) {
+      if (columns.get(i).getId() == fieldId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  void reset(Page page) {
+    this.page = page;
+    this.rows = null;
+  }
+
+  @Override
+  public int numRows() {
+    return page.getPositionCount();
+  }
+
+  @Override
+  public StructLike row(int row) {
+    if (rows == null) {
+      rows = new TrinoRow[page.getPositionCount()];
+      int i = 0;
+      for (TrinoRow trinoRow : TrinoRow.fromPage(types, page, page.getPositionCount())) {
+        rows[i++] = trinoRow;
+      }
+    }
+    return rows[row];
+  }
+
+  @Override
+  public long[] rowPositions() {
+    return requiredColumn(rowPositionChannel, "row position");
+  }
+
+  @Override
+  public long[] transactionIds() {
+    return requiredColumn(transactionIdChannel, "transaction id");
+  }
+
+  @Override
+  public long[] fileOffsets() {
+    return requiredColumn(fileOffsetChannel, "file offset");
+  }
+
+  @Override
+  public long[] longPrimaryKeys() {
+    if (primaryKeyChannel < 0) {
+      return null;
+    }
+    if (hasNull(page.getBlock(primaryKeyChannel))) {
+      return null;
+    }
+    return column(primaryKeyChannel);
+  }
+
+  private long[] requiredColumn(int channel, String name) {
+    checkState(channel >= 0, "Column of %s is not read", name);
+    checkState(!hasNull(page.getBlock(channel)), "Column of %s should not have null values", name);
+    return column(channel);
+  }
+
+  private static boolean hasNull(Block block) {
+    if (block.mayHaveNull()) {
+      for (int i = 0; i < block.getPositionCount(); i++) {
+        if (block.isNull(i)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private long[] column(int channel) {
+    Block block = page.getBlock(channel);
+    Type type = types[channel];
+    long[] values = new long[block.getPositionCount()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = type.getLong(block, i);
+    }
+    return values;
+  }
+}